@@ -0,0 +1,218 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixBatch;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replaying a script of random inserts, deletes, sets, and fills on a
+ * clone of a MatrixV0, one edit at a time and as a single batch.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Batch -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BatchBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Insert a row.
+   */
+  static final int INSERT_ROW = 0;
+
+  /**
+   * Insert a column.
+   */
+  static final int INSERT_COL = 1;
+
+  /**
+   * Delete a row.
+   */
+  static final int DELETE_ROW = 2;
+
+  /**
+   * Delete a column.
+   */
+  static final int DELETE_COL = 3;
+
+  /**
+   * Set a cell.
+   */
+  static final int SET = 4;
+
+  /**
+   * Fill a region.
+   */
+  static final int FILL = 5;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"200", "1000"})
+  public int size;
+
+  /**
+   * The number of edits in the script.
+   */
+  @Param({"1000"})
+  public int edits;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix we clone and edit.
+   */
+  MatrixV0<Integer> matrix;
+
+  /**
+   * The script: each edit is a kind, a row, a column, and the bottom
+   * and right edges of a fill.
+   */
+  int[][] script;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix and a script that is valid for it.
+   */
+  @Setup
+  public void setup() {
+    this.matrix = new MatrixV0<>(this.size, this.size, 0);
+    this.matrix.fillRegion(0, 0, this.size, this.size, 1);
+    Random random = new Random(207);
+    this.script = new int[this.edits][];
+    int height = this.size;
+    int width = this.size;
+    for (int i = 0; i < this.edits; i++) {
+      int kind = random.nextInt(6);
+      int row = random.nextInt(height);
+      int col = random.nextInt(width);
+      switch (kind) {
+        case INSERT_ROW:
+          height++;
+          break;
+        case INSERT_COL:
+          width++;
+          break;
+        case DELETE_ROW:
+          height--;
+          break;
+        case DELETE_COL:
+          width--;
+          break;
+        default:
+          break;
+      } // switch
+      // Fills cover up to 16 by 16 cells, cut off at the edges
+      this.script[i] = new int[] {kind, row, col, row + 1 + random.nextInt(16),
+          col + 1 + random.nextInt(16)};
+    } // for
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Make the edits one at a time.
+   *
+   * @return the edited matrix.
+   */
+  @Benchmark
+  public Matrix<Integer> oneByOne() {
+    Matrix<Integer> copy = this.matrix.clone();
+    for (int[] edit : this.script) {
+      switch (edit[0]) {
+        case INSERT_ROW:
+          copy.insertRow(edit[1]);
+          break;
+        case INSERT_COL:
+          copy.insertCol(edit[2]);
+          break;
+        case DELETE_ROW:
+          copy.deleteRow(edit[1]);
+          break;
+        case DELETE_COL:
+          copy.deleteCol(edit[2]);
+          break;
+        case SET:
+          copy.set(edit[1], edit[2], edit[3]);
+          break;
+        default:
+          copy.fillRegion(edit[1], edit[2],
+              Math.min(edit[3], copy.height()), Math.min(edit[4], copy.width()),
+              2);
+          break;
+      } // switch
+    } // for
+    return copy;
+  } // oneByOne()
+
+  /**
+   * Record the edits in a batch and apply it.
+   *
+   * @return the edited matrix.
+   */
+  @Benchmark
+  public Matrix<Integer> batch() {
+    Matrix<Integer> copy = this.matrix.clone();
+    MatrixBatch<Integer> batch = copy.batch();
+    for (int[] edit : this.script) {
+      switch (edit[0]) {
+        case INSERT_ROW:
+          batch.insertRow(edit[1]);
+          break;
+        case INSERT_COL:
+          batch.insertCol(edit[2]);
+          break;
+        case DELETE_ROW:
+          batch.deleteRow(edit[1]);
+          break;
+        case DELETE_COL:
+          batch.deleteCol(edit[2]);
+          break;
+        case SET:
+          batch.set(edit[1], edit[2], edit[3]);
+          break;
+        default:
+          batch.fillRegion(edit[1], edit[2],
+              Math.min(edit[3], batch.height()), Math.min(edit[4], batch.width()),
+              2);
+          break;
+      } // switch
+    } // for
+    batch.apply();
+    return copy;
+  } // batch()
+} // class BatchBenchmark
@@ -0,0 +1,146 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of one matrix shared by many threads, each doing a mix of
+ * reads and writes. ConcurrentMatrix is compared with MatrixV0 behind
+ * a single lock, which is what callers had to do before.
+ *
+ * <p>JMH takes one thread count per run, so sweep the counts from the
+ * shell:</p>
+ *
+ * <pre>
+ *   for t in 1 2 4 8 16 32 64; do
+ *     mvn -Pjmh compile exec:exec@jmh -Djmh.args="Concurrent -t $t"
+ *   done
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConcurrentBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The implementation to measure: ConcurrentMatrix, or MatrixV0 with
+   * every call synchronized on the matrix.
+   */
+  @Param({"ConcurrentMatrix", "MatrixV0"})
+  public String impl;
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"1000"})
+  public int size;
+
+  /**
+   * The percentage of operations that set a cell rather than read one.
+   */
+  @Param({"1", "10", "50"})
+  public int writePercent;
+
+  /**
+   * How many operations in a million insert and then delete a row.
+   */
+  @Param({"0", "10"})
+  public int structuralPerMillion;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The shared matrix.
+   */
+  Matrix<Integer> matrix;
+
+  /**
+   * Whether every call must be synchronized on the matrix.
+   */
+  boolean coarse;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix.
+   */
+  @Setup
+  public void setup() {
+    this.matrix = Matrices.create(this.impl, this.size, this.size, 0);
+    this.coarse = !"ConcurrentMatrix".equals(this.impl);
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Read or write one random cell, and now and then insert a row in the
+   * middle and delete it again. Rows below the original height are
+   * always there, since each thread deletes only after it inserts.
+   *
+   * @return the value read, or 0.
+   */
+  @Benchmark
+  public int mixed() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int row = random.nextInt(this.size);
+    int col = random.nextInt(this.size);
+    int op = random.nextInt(1000000);
+    if (this.coarse) {
+      synchronized (this.matrix) {
+        return operate(op, row, col);
+      } // synchronized
+    } // if
+    return operate(op, row, col);
+  } // mixed()
+
+  /**
+   * Do one operation.
+   *
+   * @param op
+   *   A random number from 0 to 999,999 that selects the operation.
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the value read, or 0.
+   */
+  int operate(int op, int row, int col) {
+    if (op < this.structuralPerMillion) {
+      this.matrix.insertRow(row);
+      this.matrix.deleteRow(row);
+      return 0;
+    } else if (op < this.writePercent * 10000) {
+      this.matrix.set(row, col, op);
+      return 0;
+    } else {
+      return this.matrix.get(row, col);
+    } // if/else
+  } // operate(int, int, int)
+} // class ConcurrentBenchmark
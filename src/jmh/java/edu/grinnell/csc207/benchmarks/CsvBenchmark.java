@@ -0,0 +1,206 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixCsv;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing a matrix as comma-separated text and reading it back with
+ * MatrixCsv, next to the way we used to: readLine, split, parse each
+ * field, and grow a MatrixV0 with insertRow and set; and on the way
+ * out, a string for every cell. Divide the size of the file (printed at
+ * setup) by the time to get the throughput.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="CsvBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CsvBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"1000"})
+  public int size;
+
+  /**
+   * The kind of matrix.
+   */
+  @Param({"IntMatrix", "DoubleMatrix"})
+  public String input;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix to write.
+   */
+  Matrix<?> matrix;
+
+  /**
+   * How to parse its cells.
+   */
+  MatrixCsv.Codec<?> codec;
+
+  /**
+   * The file we write, and read when loading.
+   */
+  Path file;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix and write it once, for the reads.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Setup
+  public void setup() throws IOException {
+    if (this.input.equals("IntMatrix")) {
+      IntMatrix ints = new IntMatrix(this.size, this.size);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          ints.setInt(row, col, row * col - 1_000_000);
+        } // for col
+      } // for row
+      this.matrix = ints;
+      this.codec = MatrixCsv.Codec.INT;
+    } else {
+      DoubleMatrix doubles = new DoubleMatrix(this.size, this.size);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          doubles.setDouble(row, col, Math.round(Math.sqrt(row * col) * 1e4) / 1e4);
+        } // for col
+      } // for row
+      this.matrix = doubles;
+      this.codec = MatrixCsv.Codec.DOUBLE;
+    } // if/else
+    this.file = Files.createTempFile("matrix", ".csv");
+    new MatrixCsv().write(this.file, this.matrix);
+    System.out.println("File size: " + Files.size(this.file) + " bytes");
+  } // setup()
+
+  /**
+   * Remove the file.
+   *
+   * @throws IOException
+   *   If the file cannot be removed.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  } // tearDown()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Write with MatrixCsv.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public void write() throws IOException {
+    new MatrixCsv().write(this.file, this.matrix);
+  } // write()
+
+  /**
+   * Write with a string for every cell.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public void writeStrings() throws IOException {
+    try (BufferedWriter out = Files.newBufferedWriter(this.file)) {
+      for (int row = 0; row < this.matrix.height(); row++) {
+        for (int col = 0; col < this.matrix.width(); col++) {
+          if (col > 0) {
+            out.write(',');
+          } // if
+          out.write(String.valueOf(this.matrix.get(row, col)));
+        } // for col
+        out.newLine();
+      } // for row
+    } // try
+  } // writeStrings()
+
+  /**
+   * Read with MatrixCsv.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read.
+   */
+  @Benchmark
+  public Matrix<?> read() throws IOException {
+    return new MatrixCsv().read(this.file, this.codec);
+  } // read()
+
+  /**
+   * Read with readLine and split, growing a MatrixV0 a row at a time.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read.
+   */
+  @Benchmark
+  public Matrix<?> readSplit() throws IOException {
+    boolean ints = this.input.equals("IntMatrix");
+    MatrixV0<Object> result = new MatrixV0<>(0, 0);
+    try (BufferedReader in = Files.newBufferedReader(this.file)) {
+      for (String line = in.readLine(); line != null; line = in.readLine()) {
+        String[] fields = line.split(",");
+        while (result.width() < fields.length) {
+          result.insertCol(result.width());
+        } // while
+        int row = result.height();
+        result.insertRow(row);
+        for (int col = 0; col < fields.length; col++) {
+          result.set(row, col, ints ? (Object) Integer.parseInt(fields[col])
+              : (Object) Double.parseDouble(fields[col]));
+        } // for
+      } // for
+    } // try
+    return result;
+  } // readSplit()
+} // class CsvBenchmark
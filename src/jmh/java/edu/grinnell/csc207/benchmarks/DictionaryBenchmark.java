@@ -0,0 +1,163 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DictionaryMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Memory use and speed of {@link DictionaryMatrix} against
+ * {@link MatrixV0} for a matrix of strings with few distinct values,
+ * where every cell holds its own instance, as it does after parsing
+ * text.
+ *
+ * <p>At the start of each trial, the setup builds two equal matrices
+ * (sharing a table, for DictionaryMatrix) and prints how much heap the
+ * first retains ("footprint").</p>
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="DictionaryBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3500m", "-Xmx3500m"})
+public class DictionaryBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The implementation to measure.
+   */
+  @Param({"MatrixV0", "DictionaryMatrix"})
+  public String impl;
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"5000"})
+  public int size;
+
+  /**
+   * The number of distinct values.
+   */
+  @Param({"200"})
+  public int distinct;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * A prebuilt matrix to scan.
+   */
+  Matrix<String> matrix;
+
+  /**
+   * An equal matrix to compare it with.
+   */
+  Matrix<String> other;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrices, measuring how much heap the first retains.
+   */
+  @Setup
+  public void setup() {
+    DictionaryMatrix.ValueTable<String> table =
+        new DictionaryMatrix.ValueTable<>();
+    long before = SparseMemoryBenchmark.usedHeap();
+    this.matrix = build(table);
+    long after = SparseMemoryBenchmark.usedHeap();
+    System.out.printf("%nfootprint: %,d bytes (%.1f per cell)%n",
+        after - before, (double) (after - before) / ((long) this.size * this.size));
+    this.other = build(table);
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Read every cell of the matrix.
+   *
+   * @return the total length of the strings.
+   */
+  @Benchmark
+  public long scan() {
+    long total = 0;
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        total += this.matrix.get(row, col).length();
+      } // for col
+    } // for row
+    return total;
+  } // scan()
+
+  /**
+   * Hash the matrix.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int hash() {
+    return this.matrix.hashCode();
+  } // hash()
+
+  /**
+   * Compare the matrix with an equal one.
+   *
+   * @return true.
+   */
+  @Benchmark
+  public boolean compare() {
+    return this.matrix.equals(this.other);
+  } // compare()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build a matrix with a new string in every cell, drawn from the
+   * distinct values.
+   *
+   * @param table
+   *   The table for a DictionaryMatrix.
+   *
+   * @return the matrix.
+   */
+  Matrix<String> build(DictionaryMatrix.ValueTable<String> table) {
+    Matrix<String> result = "DictionaryMatrix".equals(this.impl)
+        ? new DictionaryMatrix<>(this.size, this.size, "", table)
+        : new MatrixV0<>(this.size, this.size, "");
+    SplittableRandom random = new SplittableRandom(42);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        result.set(row, col, "value-" + random.nextInt(this.distinct));
+      } // for col
+    } // for row
+    return result;
+  } // build(DictionaryMatrix.ValueTable<String>)
+} // class DictionaryBenchmark
@@ -0,0 +1,156 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.FlatMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare full-matrix scans of {@link MatrixV0} (an array of rows)
+ * with {@link FlatMatrix} (a single row-major array).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class FlatMatrixBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The implementation to measure.
+   */
+  @Param({"MatrixV0", "FlatMatrix"})
+  public String impl;
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"1000", "10000"})
+  public int size;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix we scan.
+   */
+  Matrix<Integer> matrix;
+
+  /**
+   * An equal matrix, so that equals has to look at every cell.
+   */
+  Matrix<Integer> twin;
+
+  /**
+   * Where printed output goes.
+   */
+  PrintWriter pen;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrices.
+   */
+  @Setup
+  public void setup() {
+    this.matrix = build();
+    this.twin = build();
+    this.pen = new PrintWriter(Writer.nullWriter());
+  } // setup()
+
+  /**
+   * Build one matrix of the selected implementation, filled with a
+   * pattern of small (cached) integers.
+   *
+   * @return the matrix.
+   */
+  Matrix<Integer> build() {
+    Matrix<Integer> result = Matrices.create(this.impl, this.size, this.size, 0);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        result.set(row, col, (row * 31 + col) & 127);
+      } // for col
+    } // for row
+    return result;
+  } // build()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Visit every cell through get.
+   *
+   * @return a sum of the cells, so that the work is not eliminated.
+   */
+  @Benchmark
+  public long scanGet() {
+    long sum = 0;
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        sum += this.matrix.get(row, col);
+      } // for col
+    } // for row
+    return sum;
+  } // scanGet()
+
+  /**
+   * Compare two equal matrices.
+   *
+   * @return the result of the comparison.
+   */
+  @Benchmark
+  public boolean scanEquals() {
+    return this.matrix.equals(this.twin);
+  } // scanEquals()
+
+  /**
+   * Hash the whole matrix.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int scanHashCode() {
+    return this.matrix.hashCode();
+  } // scanHashCode()
+
+  /**
+   * Copy the whole matrix.
+   *
+   * @return the copy.
+   */
+  @Benchmark
+  public Matrix<?> scanClone() {
+    return this.matrix.clone();
+  } // scanClone()
+
+  /**
+   * Print the whole matrix to a writer that discards its output.
+   */
+  @Benchmark
+  public void scanPrint() {
+    Matrix.print(this.pen, this.matrix);
+  } // scanPrint()
+} // class FlatMatrixBenchmark
@@ -0,0 +1,139 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixExpr;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A chain of four element-wise steps (scale, add, absolute value, mask)
+ * on matrices of doubles, computing each step into a new
+ * {@link MatrixV0} and computing the whole chain in one pass with
+ * {@link MatrixExpr}. Both run in the calling thread. Add
+ * {@code -prof gc} to compare the allocation.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Fusion -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FusionBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrices.
+   */
+  @Param({"500", "2000"})
+  public int size;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The first input.
+   */
+  Matrix<Double> first;
+
+  /**
+   * The second input.
+   */
+  Matrix<Double> second;
+
+  /**
+   * Which cells to keep.
+   */
+  Matrix<Boolean> keep;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the inputs.
+   */
+  @Setup
+  public void setup() {
+    this.first = new MatrixV0<>(this.size, this.size, 0.0);
+    this.second = new MatrixV0<>(this.size, this.size, 0.0);
+    this.keep = new MatrixV0<>(this.size, this.size, false);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        this.first.set(row, col, (double) (row - col));
+        this.second.set(row, col, (double) (row * col % 17));
+        this.keep.set(row, col, (row + col) % 3 != 0);
+      } // for col
+    } // for row
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Compute each step into a new matrix.
+   *
+   * @return the result.
+   */
+  @Benchmark
+  public Matrix<Double> eager() {
+    Matrix<Double> scaled = new MatrixV0<>(this.size, this.size);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        scaled.set(row, col, this.first.get(row, col) * 0.5);
+      } // for col
+    } // for row
+    Matrix<Double> sum = new MatrixV0<>(this.size, this.size);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        sum.set(row, col, scaled.get(row, col) + this.second.get(row, col));
+      } // for col
+    } // for row
+    Matrix<Double> abs = new MatrixV0<>(this.size, this.size);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        abs.set(row, col, Math.abs(sum.get(row, col)));
+      } // for col
+    } // for row
+    Matrix<Double> masked = new MatrixV0<>(this.size, this.size);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        masked.set(row, col, this.keep.get(row, col) ? abs.get(row, col) : 0.0);
+      } // for col
+    } // for row
+    return masked;
+  } // eager()
+
+  /**
+   * Compute the chain in one pass.
+   *
+   * @return the result.
+   */
+  @Benchmark
+  public Matrix<Double> fused() {
+    return MatrixExpr.add(MatrixExpr.scale(this.first, 0.5), this.second)
+        .map(Math::abs)
+        .mask(this.keep, 0.0)
+        .materialize(null);
+  } // fused()
+} // class FusionBenchmark
@@ -0,0 +1,197 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving a matrix to a file and loading it back with MatrixIO, next to
+ * writing and reading the same number of bytes straight from a buffer,
+ * which is as fast as the disk (or page cache) allows.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="IOBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class IOBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"2000"})
+  public int size;
+
+  /**
+   * The kind of matrix.
+   */
+  @Param({"IntMatrix", "DoubleMatrix"})
+  public String input;
+
+  /**
+   * Whether to compress.
+   */
+  @Param({"false", "true"})
+  public boolean compress;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix to save.
+   */
+  Matrix<?> matrix;
+
+  /**
+   * The file we write, and read when loading.
+   */
+  Path file;
+
+  /**
+   * The bytes of the cells, for the baseline.
+   */
+  ByteBuffer raw;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix and save it once, for the loads.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Setup
+  public void setup() throws IOException {
+    if (this.input.equals("IntMatrix")) {
+      IntMatrix ints = new IntMatrix(this.size, this.size);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          ints.setInt(row, col, row * col);
+        } // for col
+      } // for row
+      this.matrix = ints;
+      this.raw = ByteBuffer.allocate(4 * this.size * this.size);
+    } else {
+      DoubleMatrix doubles = new DoubleMatrix(this.size, this.size);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          doubles.setDouble(row, col, Math.sqrt(row * col));
+        } // for col
+      } // for row
+      this.matrix = doubles;
+      this.raw = ByteBuffer.allocate(8 * this.size * this.size);
+    } // if/else
+    this.file = Files.createTempFile("matrix", ".bin");
+    save();
+  } // setup()
+
+  /**
+   * Remove the file.
+   *
+   * @throws IOException
+   *   If the file cannot be removed.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  } // tearDown()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Save the matrix.
+   *
+   * @return the size of the file.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public long save() throws IOException {
+    try (FileChannel channel = FileChannel.open(this.file,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      new MatrixIO().compress(this.compress).write(channel, this.matrix);
+      return channel.size();
+    } // try
+  } // save()
+
+  /**
+   * Load the matrix.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read.
+   */
+  @Benchmark
+  public Matrix<?> load() throws IOException {
+    try (FileChannel channel = FileChannel.open(this.file,
+        StandardOpenOption.READ)) {
+      return new MatrixIO().read(channel);
+    } // try
+  } // load()
+
+  /**
+   * Write the bytes of the cells straight from a buffer and read them
+   * back.
+   *
+   * @return the number of bytes read.
+   *
+   * @throws IOException
+   *   If the file cannot be written or read.
+   */
+  @Benchmark
+  public long baseline() throws IOException {
+    Path copy = this.file.resolveSibling(this.file.getFileName() + ".raw");
+    try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.READ,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE)) {
+      this.raw.clear();
+      while (this.raw.hasRemaining()) {
+        channel.write(this.raw);
+      } // while
+      this.raw.clear();
+      long total = 0;
+      channel.position(0);
+      while (this.raw.hasRemaining()) {
+        total += channel.read(this.raw);
+      } // while
+      return total;
+    } // try
+  } // baseline()
+} // class IOBenchmark
@@ -0,0 +1,183 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.LongMatrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The bulk operations of the primitive matrices with the Vector API
+ * kernels and with the plain loops. Each fork picks its kernels when the
+ * first matrix is built, so every value of the kernels parameter gets a
+ * JVM of its own.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Kernel"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g",
+    "--add-modules=jdk.incubator.vector"})
+public class KernelBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * Which kernels to use: "vector" or "scalar".
+   */
+  @Param({"vector", "scalar"})
+  public String kernels;
+
+  /**
+   * The width and height of the matrices (1024 is about a million
+   * cells).
+   */
+  @Param({"1024", "4096"})
+  public int size;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * A matrix of ints that we change.
+   */
+  IntMatrix ints;
+
+  /**
+   * Another matrix of ints, which we never change.
+   */
+  IntMatrix otherInts;
+
+  /**
+   * A separate matrix equal to otherInts.
+   */
+  IntMatrix twinInts;
+
+  /**
+   * A matrix of longs that we change.
+   */
+  LongMatrix longs;
+
+  /**
+   * Another matrix of longs, which we never change.
+   */
+  LongMatrix otherLongs;
+
+  /**
+   * A matrix of doubles that we change.
+   */
+  DoubleMatrix doubles;
+
+  /**
+   * Another matrix of doubles, which we never change.
+   */
+  DoubleMatrix otherDoubles;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Choose the kernels and build the matrices.
+   */
+  @Setup
+  public void setup() {
+    System.setProperty("matrices.kernels", this.kernels);
+    this.ints = new IntMatrix(this.size, this.size, 1);
+    this.otherInts = new IntMatrix(this.size, this.size, 1);
+    this.twinInts = new IntMatrix(this.size, this.size, 1);
+    this.longs = new LongMatrix(this.size, this.size, 1);
+    this.otherLongs = new LongMatrix(this.size, this.size, 1);
+    this.doubles = new DoubleMatrix(this.size, this.size, 1.0);
+    this.otherDoubles = new DoubleMatrix(this.size, this.size, 1.0);
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Add two matrices of ints.
+   */
+  @Benchmark
+  public void addInts() {
+    this.ints.add(this.otherInts);
+  } // addInts()
+
+  /**
+   * Scale a matrix of ints.
+   */
+  @Benchmark
+  public void scaleInts() {
+    this.ints.scale(3);
+  } // scaleInts()
+
+  /**
+   * Fill a matrix of ints.
+   */
+  @Benchmark
+  public void fillInts() {
+    this.ints.fillRegion(0, 0, this.size, this.size, 1);
+  } // fillInts()
+
+  /**
+   * Compare two equal matrices of ints.
+   *
+   * @return the result of the comparison.
+   */
+  @Benchmark
+  public boolean equalsInts() {
+    return this.otherInts.equals(this.twinInts);
+  } // equalsInts()
+
+  /**
+   * Add two matrices of longs.
+   */
+  @Benchmark
+  public void addLongs() {
+    this.longs.add(this.otherLongs);
+  } // addLongs()
+
+  /**
+   * Scale a matrix of longs.
+   */
+  @Benchmark
+  public void scaleLongs() {
+    this.longs.scale(3);
+  } // scaleLongs()
+
+  /**
+   * Add two matrices of doubles.
+   */
+  @Benchmark
+  public void addDoubles() {
+    this.doubles.add(this.otherDoubles);
+  } // addDoubles()
+
+  /**
+   * Scale a matrix of doubles.
+   */
+  @Benchmark
+  public void scaleDoubles() {
+    this.doubles.scale(0.5);
+  } // scaleDoubles()
+} // class KernelBenchmark
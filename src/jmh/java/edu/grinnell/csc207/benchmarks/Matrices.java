@@ -0,0 +1,109 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.ConcurrentMatrix;
+import edu.grinnell.csc207.util.DictionaryMatrix;
+import edu.grinnell.csc207.util.ElementType;
+import edu.grinnell.csc207.util.FlatMatrix;
+import edu.grinnell.csc207.util.IndexedMatrix;
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.MappedMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.OffHeapMatrix;
+import edu.grinnell.csc207.util.SparseMatrix;
+import edu.grinnell.csc207.util.TiledMatrix;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds matrices of integers by implementation name, so that every
+ * benchmark can be run against every implementation. To benchmark a new
+ * implementation, add it here and to the impl parameters of the
+ * benchmarks.
+ */
+public final class Matrices {
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Nobody builds a Matrices.
+   */
+  private Matrices() {
+  } // Matrices()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Build a matrix of integers.
+   *
+   * @param impl
+   *   The simple name of the implementation class.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   *
+   * @return the new matrix.
+   *
+   * @throws IllegalArgumentException
+   *   If we do not know the implementation.
+   */
+  public static Matrix<Integer> create(String impl, int width, int height,
+      int def) {
+    switch (impl) {
+      case "MatrixV0":
+        return new MatrixV0<>(width, height, def);
+      case "FlatMatrix":
+        return new FlatMatrix<>(width, height, def);
+      case "IntMatrix":
+        return new IntMatrix(width, height, def);
+      case "OffHeapMatrix":
+        return new OffHeapMatrix<>(ElementType.INT, width, height, def);
+      case "MappedMatrix":
+        try {
+          Path path = Files.createTempFile("bench", ".mpm");
+          path.toFile().deleteOnExit();
+          return MappedMatrix.create(path, ElementType.INT, width, height, def);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } // try/catch
+      case "SparseMatrix":
+        return new SparseMatrix<>(width, height, def);
+      case "IndexedMatrix":
+        return new IndexedMatrix<>(width, height, def);
+      case "ConcurrentMatrix":
+        return new ConcurrentMatrix<>(width, height, def);
+      case "TiledMatrix":
+        return new TiledMatrix<>(width, height, def);
+      case "DictionaryMatrix":
+        return new DictionaryMatrix<>(width, height, def);
+      default:
+        throw new IllegalArgumentException("Unknown implementation " + impl);
+    } // switch
+  } // create(String, int, int, int)
+
+  /**
+   * Release any resources held by a matrix, such as off-heap memory or
+   * an open file.
+   *
+   * @param matrix
+   *   The matrix, which must not be used afterwards. May be null.
+   */
+  public static void release(Matrix<?> matrix) {
+    if (matrix instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) matrix).close();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      } // try/catch
+    } // if
+  } // release(Matrix<?>)
+} // class Matrices
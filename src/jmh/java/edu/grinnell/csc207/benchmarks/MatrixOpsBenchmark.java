@@ -0,0 +1,368 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One benchmark for every operation of {@link Matrix}, for every
+ * implementation, size, and shape. Use it to compare a new
+ * implementation against MatrixV0 and to catch regressions.
+ *
+ * <p>The full grid takes hours, so select what you need with -p:</p>
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh \
+ *     -Djmh.args="MatrixOps -p impl=MatrixV0,FlatMatrix -p shape=square"
+ * </pre>
+ *
+ * <p>get and set report the time for one access to a random cell. The
+ * structural operations change the shape of the matrix, so each
+ * measurement is a single shot of {@value #BATCH} operations on a fresh
+ * matrix, and the score is the time for the whole batch.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MatrixOpsBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of structural operations in each measurement.
+   */
+  static final int BATCH = 64;
+
+  /**
+   * The number of random cells visited by get and set.
+   */
+  static final int ACCESSES = 1024;
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The implementation to measure.
+   */
+  @Param({"MatrixV0", "FlatMatrix", "IntMatrix", "OffHeapMatrix",
+      "MappedMatrix", "SparseMatrix", "IndexedMatrix", "ConcurrentMatrix",
+      "TiledMatrix", "DictionaryMatrix"})
+  public String impl;
+
+  /**
+   * The width and height of a square matrix. Other shapes have the same
+   * number of cells.
+   */
+  @Param({"100", "1000"})
+  public int size;
+
+  /**
+   * The shape of the matrix: square, wide (16 times as wide as it is
+   * high), or tall (16 times as high as it is wide).
+   */
+  @Param({"square", "wide", "tall"})
+  public String shape;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The width of the matrix.
+   */
+  int width;
+
+  /**
+   * The height of the matrix.
+   */
+  int height;
+
+  /**
+   * The matrix for get, set, and the fills.
+   */
+  Matrix<Integer> matrix;
+
+  /**
+   * A matrix that we never change, for the operations that read all of
+   * it.
+   */
+  Matrix<Integer> original;
+
+  /**
+   * A matrix equal to the original, so that equals has to look at every
+   * cell.
+   */
+  Matrix<Integer> twin;
+
+  /**
+   * The rows of the cells that get and set visit.
+   */
+  int[] rows;
+
+  /**
+   * The columns of the cells that get and set visit.
+   */
+  int[] cols;
+
+  /**
+   * Where printed output goes.
+   */
+  PrintWriter pen;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrices and choose the cells to visit.
+   */
+  @Setup
+  public void setup() {
+    if ("wide".equals(this.shape)) {
+      this.width = this.size * 4;
+      this.height = this.size / 4;
+    } else if ("tall".equals(this.shape)) {
+      this.width = this.size / 4;
+      this.height = this.size * 4;
+    } else {
+      this.width = this.size;
+      this.height = this.size;
+    } // if/else
+    this.matrix = build(this.width, this.height);
+    this.original = build(this.width, this.height);
+    this.twin = build(this.width, this.height);
+    SplittableRandom random = new SplittableRandom(207);
+    this.rows = random.ints(ACCESSES, 0, this.height).toArray();
+    this.cols = random.ints(ACCESSES, 0, this.width).toArray();
+    this.pen = new PrintWriter(Writer.nullWriter());
+  } // setup()
+
+  /**
+   * Release the matrices.
+   */
+  @TearDown
+  public void tearDown() {
+    Matrices.release(this.matrix);
+    Matrices.release(this.original);
+    Matrices.release(this.twin);
+  } // tearDown()
+
+  /**
+   * Build a matrix of the selected implementation with a pattern of
+   * small values, about one in eight of them the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the matrix.
+   */
+  Matrix<Integer> build(int width, int height) {
+    Matrix<Integer> result = Matrices.create(this.impl, width, height, 0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        result.set(row, col, (row * 31 + col) & 7);
+      } // for col
+    } // for row
+    return result;
+  } // build(int, int)
+
+  /**
+   * A fresh matrix for each measurement of a structural operation, with
+   * {@value #BATCH} extra rows and columns so that a batch of deletions
+   * leaves a matrix of the selected shape.
+   */
+  @State(Scope.Thread)
+  public static class Fresh {
+    /**
+     * The matrix to change.
+     */
+    Matrix<Integer> matrix;
+
+    /**
+     * Build the matrix.
+     *
+     * @param bench
+     *   The benchmark, which knows the implementation and shape.
+     */
+    @Setup(Level.Iteration)
+    public void setup(MatrixOpsBenchmark bench) {
+      this.matrix = bench.build(bench.width + BATCH, bench.height + BATCH);
+    } // setup(MatrixOpsBenchmark)
+
+    /**
+     * Release the matrix.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      Matrices.release(this.matrix);
+    } // tearDown()
+  } // class Fresh
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Read random cells.
+   *
+   * @return a sum of the cells, so that the work is not eliminated.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ACCESSES)
+  public long get() {
+    long sum = 0;
+    for (int i = 0; i < ACCESSES; i++) {
+      sum += this.matrix.get(this.rows[i], this.cols[i]);
+    } // for
+    return sum;
+  } // get()
+
+  /**
+   * Write random cells.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ACCESSES)
+  public void set() {
+    for (int i = 0; i < ACCESSES; i++) {
+      this.matrix.set(this.rows[i], this.cols[i], i & 7);
+    } // for
+  } // set()
+
+  /**
+   * Insert rows in the middle of the matrix.
+   *
+   * @param fresh
+   *   The matrix to change.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5, batchSize = BATCH)
+  @Measurement(iterations = 10, batchSize = BATCH)
+  public void insertRow(Fresh fresh) {
+    fresh.matrix.insertRow(fresh.matrix.height() / 2);
+  } // insertRow(Fresh)
+
+  /**
+   * Insert columns in the middle of the matrix.
+   *
+   * @param fresh
+   *   The matrix to change.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5, batchSize = BATCH)
+  @Measurement(iterations = 10, batchSize = BATCH)
+  public void insertCol(Fresh fresh) {
+    fresh.matrix.insertCol(fresh.matrix.width() / 2);
+  } // insertCol(Fresh)
+
+  /**
+   * Delete rows from the middle of the matrix.
+   *
+   * @param fresh
+   *   The matrix to change.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5, batchSize = BATCH)
+  @Measurement(iterations = 10, batchSize = BATCH)
+  public void deleteRow(Fresh fresh) {
+    fresh.matrix.deleteRow(fresh.matrix.height() / 2);
+  } // deleteRow(Fresh)
+
+  /**
+   * Delete columns from the middle of the matrix.
+   *
+   * @param fresh
+   *   The matrix to change.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5, batchSize = BATCH)
+  @Measurement(iterations = 10, batchSize = BATCH)
+  public void deleteCol(Fresh fresh) {
+    fresh.matrix.deleteCol(fresh.matrix.width() / 2);
+  } // deleteCol(Fresh)
+
+  /**
+   * Fill the middle half (in each direction) of the matrix.
+   */
+  @Benchmark
+  public void fillRegion() {
+    this.matrix.fillRegion(this.height / 4, this.width / 4,
+        3 * this.height / 4, 3 * this.width / 4, 5);
+  } // fillRegion()
+
+  /**
+   * Fill the main diagonal.
+   */
+  @Benchmark
+  public void fillLine() {
+    this.matrix.fillLine(0, 0, 1, 1, this.height, this.width, 6);
+  } // fillLine()
+
+  /**
+   * Copy the matrix.
+   *
+   * @return the copy.
+   */
+  @Benchmark
+  public Matrix<?> cloneMatrix() {
+    Matrix<?> copy = this.original.clone();
+    Matrices.release(copy);
+    return copy;
+  } // cloneMatrix()
+
+  /**
+   * Compare two equal matrices.
+   *
+   * @return the result of the comparison.
+   */
+  @Benchmark
+  public boolean equalsMatrix() {
+    return this.original.equals(this.twin);
+  } // equalsMatrix()
+
+  /**
+   * Hash the whole matrix.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int hashCodeMatrix() {
+    return this.original.hashCode();
+  } // hashCodeMatrix()
+
+  /**
+   * Print the whole matrix to a writer that discards its output.
+   */
+  @Benchmark
+  public void print() {
+    Matrix.print(this.pen, this.original);
+  } // print()
+} // class MatrixOpsBenchmark
@@ -0,0 +1,200 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixMath;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multiplication of square matrices with {@link MatrixMath#multiply}
+ * and with the textbook triple loop over {@code get}. The flops counter
+ * reports floating-point operations (2 n<sup>3</sup> for each product)
+ * per nanosecond, which is GFLOP/s.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Multiply.blocked"
+ *   mvn -Pjmh compile exec:exec@jmh \
+ *       -Djmh.args="Multiply.naive -p size=64,256,1024"
+ * </pre>
+ *
+ * <p>The naive loop needs minutes for each product of size 4096, so
+ * leave that size out when running it.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MultiplyBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrices.
+   */
+  @Param({"64", "256", "1024", "4096"})
+  public int size;
+
+  /**
+   * The kind of matrix to multiply: "DoubleMatrix", "IntMatrix", or
+   * "MatrixV0" (of Integers).
+   */
+  @Param({"DoubleMatrix", "IntMatrix", "MatrixV0"})
+  public String input;
+
+  /**
+   * Whether to use the common pool.
+   */
+  @Param({"true", "false"})
+  public boolean parallel;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix on the left.
+   */
+  Matrix<? extends Number> left;
+
+  /**
+   * The matrix on the right.
+   */
+  Matrix<? extends Number> right;
+
+  /**
+   * The pool to multiply in, if any.
+   */
+  ForkJoinPool pool;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrices.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(207);
+    this.left = build(random);
+    this.right = build(random);
+    this.pool = this.parallel ? ForkJoinPool.commonPool() : null;
+  } // setup()
+
+  /**
+   * Build a matrix of small random values.
+   *
+   * @param random
+   *   Where the values come from.
+   *
+   * @return the matrix.
+   */
+  Matrix<? extends Number> build(Random random) {
+    switch (this.input) {
+      case "DoubleMatrix":
+        DoubleMatrix doubles = new DoubleMatrix(this.size, this.size);
+        for (int row = 0; row < this.size; row++) {
+          for (int col = 0; col < this.size; col++) {
+            doubles.setDouble(row, col, random.nextDouble());
+          } // for col
+        } // for row
+        return doubles;
+      case "IntMatrix":
+        IntMatrix ints = new IntMatrix(this.size, this.size);
+        for (int row = 0; row < this.size; row++) {
+          for (int col = 0; col < this.size; col++) {
+            ints.setInt(row, col, random.nextInt(100));
+          } // for col
+        } // for row
+        return ints;
+      default:
+        MatrixV0<Integer> boxed = new MatrixV0<>(this.size, this.size, 0);
+        for (int row = 0; row < this.size; row++) {
+          for (int col = 0; col < this.size; col++) {
+            boxed.set(row, col, random.nextInt(100));
+          } // for col
+        } // for row
+        return boxed;
+    } // switch
+  } // build(Random)
+
+  // +----------+----------------------------------------------------
+  // | Counters |
+  // +----------+
+
+  /**
+   * Counts the floating-point operations we do.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Flops {
+    /**
+     * The number of operations so far.
+     */
+    public long flops;
+  } // class Flops
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Multiply with the blocked engine.
+   *
+   * @param counter
+   *   Counts the operations.
+   *
+   * @return the product.
+   */
+  @Benchmark
+  public DoubleMatrix blocked(Flops counter) {
+    counter.flops += 2L * this.size * this.size * this.size;
+    return MatrixMath.multiply(this.left, this.right, this.pool);
+  } // blocked(Flops)
+
+  /**
+   * Multiply with the triple loop, in the calling thread.
+   *
+   * @param counter
+   *   Counts the operations.
+   *
+   * @return the product.
+   */
+  @Benchmark
+  public DoubleMatrix naive(Flops counter) {
+    counter.flops += 2L * this.size * this.size * this.size;
+    DoubleMatrix result = new DoubleMatrix(this.size, this.size);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        double sum = 0;
+        for (int pos = 0; pos < this.size; pos++) {
+          sum += this.left.get(row, pos).doubleValue()
+              * this.right.get(pos, col).doubleValue();
+        } // for pos
+        result.setDouble(row, col, sum);
+      } // for col
+    } // for row
+    return result;
+  } // naive(Flops)
+} // class MultiplyBenchmark
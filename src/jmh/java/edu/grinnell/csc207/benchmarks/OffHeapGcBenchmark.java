@@ -0,0 +1,131 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.ElementType;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.OffHeapMatrix;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A sustained mutation workload on a large matrix of doubles, to compare
+ * garbage-collection cost when the cells are boxed on the heap
+ * ({@link MatrixV0}), unboxed on the heap ({@link DoubleMatrix}), or off
+ * the heap ({@link OffHeapMatrix}).
+ *
+ * <p>Run with the GC profiler and compare the gc.count and gc.time
+ * lines, which give the number of collections and the total time spent
+ * in them during each iteration:</p>
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="OffHeapGc -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g", "-XX:+UseG1GC"})
+public class OffHeapGcBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The implementation to measure.
+   */
+  @Param({"MatrixV0", "DoubleMatrix", "OffHeapMatrix"})
+  public String impl;
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"4000"})
+  public int size;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix we mutate.
+   */
+  Matrix<Double> matrix;
+
+  /**
+   * Where we pick cells and values.
+   */
+  SplittableRandom random;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix, with a distinct value in every cell so that the
+   * boxed version keeps one live object per cell.
+   */
+  @Setup
+  public void setup() {
+    if ("OffHeapMatrix".equals(this.impl)) {
+      this.matrix = new OffHeapMatrix<>(ElementType.DOUBLE, this.size,
+          this.size, 0.0);
+    } else if ("DoubleMatrix".equals(this.impl)) {
+      this.matrix = new DoubleMatrix(this.size, this.size);
+    } else {
+      this.matrix = new MatrixV0<>(this.size, this.size, 0.0);
+    } // if/else
+    this.random = new SplittableRandom(42);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        this.matrix.set(row, col, this.random.nextDouble());
+      } // for col
+    } // for row
+  } // setup()
+
+  /**
+   * Free any off-heap memory.
+   */
+  @TearDown
+  public void tearDown() {
+    if (this.matrix instanceof OffHeapMatrix) {
+      ((OffHeapMatrix<Double>) this.matrix).close();
+    } // if
+  } // tearDown()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Overwrite a batch of random cells with new values and refill a
+   * small band of the matrix.
+   */
+  @Benchmark
+  public void mutate() {
+    for (int i = 0; i < 10_000; i++) {
+      int row = this.random.nextInt(this.size);
+      int col = this.random.nextInt(this.size);
+      this.matrix.set(row, col, this.random.nextDouble());
+    } // for
+    int band = this.random.nextInt(this.size - 4);
+    this.matrix.fillRegion(band, 0, band + 4, this.size,
+        this.random.nextDouble());
+  } // mutate()
+} // class OffHeapGcBenchmark
@@ -0,0 +1,132 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full-matrix passes of {@link MatrixV0} on the calling thread and in
+ * the common fork/join pool. The speedup should approach the number of
+ * cores once the matrix is much bigger than the cache.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Parallel -p size=8000"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ParallelBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"1000", "4000"})
+  public int size;
+
+  /**
+   * Whether to use the common pool.
+   */
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix to fill.
+   */
+  MatrixV0<Integer> matrix;
+
+  /**
+   * A matrix that we never change, to compare and hash.
+   */
+  MatrixV0<Integer> original;
+
+  /**
+   * A matrix equal to the original that shares no rows with it.
+   */
+  MatrixV0<Integer> twin;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrices.
+   */
+  @Setup
+  public void setup() {
+    this.matrix = build();
+    this.original = build();
+    this.twin = build();
+  } // setup()
+
+  /**
+   * Build a matrix with a pattern of small values.
+   *
+   * @return the matrix.
+   */
+  MatrixV0<Integer> build() {
+    MatrixV0<Integer> result = new MatrixV0<>(this.size, this.size, 0);
+    result.setPool(this.parallel ? ForkJoinPool.commonPool() : null);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        result.set(row, col, (row * 31 + col) & 127);
+      } // for col
+    } // for row
+    return result;
+  } // build()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Fill the whole matrix.
+   */
+  @Benchmark
+  public void fillRegion() {
+    this.matrix.fillRegion(0, 0, this.size, this.size, 1);
+  } // fillRegion()
+
+  /**
+   * Compare two equal matrices.
+   *
+   * @return the result of the comparison.
+   */
+  @Benchmark
+  public boolean equalsMatrix() {
+    return this.original.equals(this.twin);
+  } // equalsMatrix()
+
+  /**
+   * Hash the whole matrix.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int hashCodeMatrix() {
+    return this.original.hashCode();
+  } // hashCodeMatrix()
+} // class ParallelBenchmark
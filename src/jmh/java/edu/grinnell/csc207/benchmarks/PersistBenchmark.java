@@ -0,0 +1,290 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixIO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and loading a square IntMatrix with MatrixIO, which copies
+ * whole runs of cells between the int[] and a direct buffer, next to
+ * the obvious DataOutputStream and DataInputStream loop over the
+ * cells. A size of 23170 makes a matrix of 2 GB; the loads need only
+ * one copy of it in memory at a time, but the old copy must be freed
+ * while the new one loads, so run them alone and with a larger heap:
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh \
+ *       -Djmh.args="Persist.*load -p size=23170 -jvmArgsAppend -Xmx6g"
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PersistBenchmark {
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * A matrix to save, and a file to save it to.
+   */
+  @State(Scope.Benchmark)
+  public static class Source {
+    /**
+     * The width and height of the matrix.
+     */
+    @Param({"4096"})
+    public int size;
+
+    /**
+     * The matrix.
+     */
+    IntMatrix matrix;
+
+    /**
+     * The file.
+     */
+    Path file;
+
+    /**
+     * Build the matrix.
+     *
+     * @throws IOException
+     *   If we cannot make the file.
+     */
+    @Setup
+    public void setup() throws IOException {
+      this.matrix = numbered(this.size);
+      this.file = Files.createTempFile("matrix", ".bin");
+    } // setup()
+
+    /**
+     * Remove the file.
+     *
+     * @throws IOException
+     *   If the file cannot be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+      Files.deleteIfExists(this.file);
+    } // tearDown()
+  } // class Source
+
+  /**
+   * The same matrix saved in both formats, for loading.
+   */
+  @State(Scope.Benchmark)
+  public static class Saved {
+    /**
+     * The width and height of the matrix.
+     */
+    @Param({"4096"})
+    public int size;
+
+    /**
+     * The file written by MatrixIO.
+     */
+    Path matrixFile;
+
+    /**
+     * The file written by DataOutputStream.
+     */
+    Path dataFile;
+
+    /**
+     * Write both files, then let the matrix go.
+     *
+     * @throws IOException
+     *   If the files cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      IntMatrix matrix = numbered(this.size);
+      this.matrixFile = Files.createTempFile("matrix", ".bin");
+      this.dataFile = Files.createTempFile("matrix", ".dat");
+      writeMatrixIO(matrix, this.matrixFile);
+      writeDataStream(matrix, this.dataFile);
+    } // setup()
+
+    /**
+     * Remove the files.
+     *
+     * @throws IOException
+     *   If the files cannot be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+      Files.deleteIfExists(this.matrixFile);
+      Files.deleteIfExists(this.dataFile);
+    } // tearDown()
+  } // class Saved
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build a square matrix with a different value in most cells.
+   *
+   * @param size
+   *   The width and height.
+   *
+   * @return the matrix.
+   */
+  static IntMatrix numbered(int size) {
+    IntMatrix matrix = new IntMatrix(size, size);
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        matrix.setInt(row, col, row * size + col);
+      } // for col
+    } // for row
+    return matrix;
+  } // numbered(int)
+
+  /**
+   * Save a matrix with MatrixIO.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param file
+   *   The file.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  static void writeMatrixIO(IntMatrix matrix, Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      new MatrixIO().write(channel, matrix);
+    } // try
+  } // writeMatrixIO(IntMatrix, Path)
+
+  /**
+   * Save the size and cells of a matrix with a DataOutputStream.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param file
+   *   The file.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  static void writeDataStream(IntMatrix matrix, Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(file), 1 << 16))) {
+      out.writeInt(matrix.height());
+      out.writeInt(matrix.width());
+      for (int row = 0; row < matrix.height(); row++) {
+        for (int col = 0; col < matrix.width(); col++) {
+          out.writeInt(matrix.getInt(row, col));
+        } // for col
+      } // for row
+    } // try
+  } // writeDataStream(IntMatrix, Path)
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Save with MatrixIO.
+   *
+   * @param source
+   *   The matrix and file.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public void save(Source source) throws IOException {
+    writeMatrixIO(source.matrix, source.file);
+  } // save(Source)
+
+  /**
+   * Save with a DataOutputStream, a cell at a time.
+   *
+   * @param source
+   *   The matrix and file.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public void saveDataStream(Source source) throws IOException {
+    writeDataStream(source.matrix, source.file);
+  } // saveDataStream(Source)
+
+  /**
+   * Load with MatrixIO.
+   *
+   * @param saved
+   *   The files.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read.
+   */
+  @Benchmark
+  public Matrix<?> load(Saved saved) throws IOException {
+    try (FileChannel channel = FileChannel.open(saved.matrixFile,
+        StandardOpenOption.READ)) {
+      return new MatrixIO().read(channel);
+    } // try
+  } // load(Saved)
+
+  /**
+   * Load with a DataInputStream, a cell at a time.
+   *
+   * @param saved
+   *   The files.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read.
+   */
+  @Benchmark
+  public Matrix<?> loadDataStream(Saved saved) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        Files.newInputStream(saved.dataFile), 1 << 16))) {
+      int height = in.readInt();
+      int width = in.readInt();
+      IntMatrix matrix = new IntMatrix(width, height);
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          matrix.setInt(row, col, in.readInt());
+        } // for col
+      } // for row
+      return matrix;
+    } // try
+  } // loadDataStream(Saved)
+} // class PersistBenchmark
@@ -0,0 +1,173 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixPrinter;
+import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.ReadableMatrix;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Printing a 5000 by 200 matrix with {@link MatrixPrinter} and with the
+ * string-building code that Matrix.print used before it, into a writer
+ * that throws the text away. Add {@code -prof gc} to compare the
+ * allocation.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Print -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PrintBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The kind of matrix: "IntMatrix" or "MatrixV0" (of Integers).
+   */
+  @Param({"IntMatrix", "MatrixV0"})
+  public String impl;
+
+  /**
+   * Whether to label rows and columns.
+   */
+  @Param({"false", "true"})
+  public boolean labels;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix to print.
+   */
+  Matrix<Integer> matrix;
+
+  /**
+   * Where the text goes.
+   */
+  PrintWriter pen;
+
+  /**
+   * The printer, reused between prints.
+   */
+  MatrixPrinter printer;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix.
+   */
+  @Setup
+  public void setup() {
+    int width = 200;
+    int height = 5000;
+    this.matrix = "IntMatrix".equals(this.impl)
+        ? new IntMatrix(width, height)
+        : new MatrixV0<>(width, height, 0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        this.matrix.set(row, col, (row * 7919 + col) % 10000);
+      } // for col
+    } // for row
+    this.pen = new PrintWriter(Writer.nullWriter());
+    this.printer = new MatrixPrinter().labels(this.labels);
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Print with the printer.
+   */
+  @Benchmark
+  public void printer() {
+    this.printer.print(this.pen, this.matrix);
+  } // printer()
+
+  /**
+   * Print with the code Matrix.print used to have.
+   */
+  @Benchmark
+  public void legacy() {
+    legacy(this.pen, this.matrix, this.labels);
+  } // legacy()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Print a matrix the way Matrix.print used to.
+   *
+   * @param pen
+   *   Where to print.
+   * @param matrix
+   *   The matrix.
+   * @param includeLabels
+   *   Whether to label rows and columns.
+   */
+  static void legacy(PrintWriter pen, ReadableMatrix<?> matrix,
+      boolean includeLabels) {
+    int width = matrix.width();
+    int height = matrix.height();
+    int cellWidth = 0;
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        cellWidth = Math.max(cellWidth,
+            Matrix.toString(matrix.get(row, col)).length());
+      } // for col
+    } // for row
+    cellWidth += 2;
+    if (includeLabels) {
+      pen.print(" ".repeat(4));
+      for (int col = 0; col < width; col++) {
+        Matrix.printCell(pen, String.format("%2d", col), cellWidth + 1);
+      } // for
+      pen.println();
+    } // if
+    for (int row = 0; row < height; row++) {
+      if (includeLabels) {
+        pen.print(" ".repeat(4));
+      } // if
+      Matrix.printRowSeparator(pen, cellWidth, width);
+      if (includeLabels) {
+        pen.printf(" %2d ", row);
+      } // if
+      for (int col = 0; col < width; col++) {
+        pen.print("|");
+        Matrix.printCell(pen, Matrix.toString(matrix.get(row, col)),
+            cellWidth);
+      } // for col
+      pen.println("|");
+    } // for row
+    if (includeLabels) {
+      pen.print(" ".repeat(4));
+    } // if
+    Matrix.printRowSeparator(pen, cellWidth, width);
+  } // legacy(PrintWriter, ReadableMatrix<?>, boolean)
+} // class PrintBenchmark
@@ -0,0 +1,108 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * An undo-history workload: take a snapshot (clone) of a large matrix,
+ * make a handful of edits, and repeat, keeping every snapshot. With
+ * copy-on-write clones in {@link MatrixV0}, each round costs a few row
+ * copies rather than a copy of the whole matrix.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Snapshot -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SnapshotBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"4000"})
+  public int size;
+
+  /**
+   * The number of snapshots to take.
+   */
+  @Param({"1000"})
+  public int snapshots;
+
+  /**
+   * The number of cells to change after each snapshot.
+   */
+  @Param({"5"})
+  public int edits;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix being edited.
+   */
+  MatrixV0<Integer> matrix;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix.
+   */
+  @Setup
+  public void setup() {
+    this.matrix = new MatrixV0<>(this.size, this.size, 0);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        this.matrix.set(row, col, (row * 31 + col) & 127);
+      } // for col
+    } // for row
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Take the snapshots, editing the matrix after each one.
+   *
+   * @return the snapshots, so that they stay alive until the end.
+   */
+  @Benchmark
+  public Matrix<?>[] snapshotAndEdit() {
+    SplittableRandom random = new SplittableRandom(207);
+    Matrix<?>[] history = new Matrix<?>[this.snapshots];
+    for (int i = 0; i < this.snapshots; i++) {
+      history[i] = this.matrix.clone();
+      for (int e = 0; e < this.edits; e++) {
+        this.matrix.set(random.nextInt(this.size), random.nextInt(this.size),
+            random.nextInt(128));
+      } // for e
+    } // for i
+    return history;
+  } // snapshotAndEdit()
+} // class SnapshotBenchmark
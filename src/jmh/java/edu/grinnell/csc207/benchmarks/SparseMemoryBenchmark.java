@@ -0,0 +1,147 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.SparseMatrix;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Memory use and speed of {@link SparseMatrix} against {@link MatrixV0}
+ * when only a small fraction of the cells differ from the default.
+ *
+ * <p>At the start of each trial, the setup builds one matrix and prints
+ * how much heap it retains ("footprint"). Running with the GC profiler
+ * also reports gc.alloc.rate.norm for {@link #build}, the number of bytes
+ * allocated to build a matrix, including garbage from resizing:</p>
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="SparseMemory -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SparseMemoryBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The implementation to measure.
+   */
+  @Param({"MatrixV0", "SparseMatrix"})
+  public String impl;
+
+  /**
+   * The fraction of cells that differ from the default.
+   */
+  @Param({"0.01", "0.1"})
+  public double density;
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"2000"})
+  public int size;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * A prebuilt matrix to scan.
+   */
+  Matrix<Long> matrix;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix to scan, measuring how much heap it retains.
+   */
+  @Setup
+  public void setup() {
+    long before = usedHeap();
+    this.matrix = build();
+    long after = usedHeap();
+    System.out.printf("%nfootprint: %,d bytes (%.1f per cell)%n", after - before,
+        (double) (after - before) / ((long) this.size * this.size));
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Build a matrix and set the chosen fraction of its cells, spread at
+   * random.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Matrix<Long> build() {
+    Matrix<Long> result = "SparseMatrix".equals(this.impl)
+        ? new SparseMatrix<>(this.size, this.size, 0L)
+        : new MatrixV0<>(this.size, this.size, 0L);
+    SplittableRandom random = new SplittableRandom(42);
+    long cells = (long) (this.density * this.size * this.size);
+    for (long i = 0; i < cells; i++) {
+      result.set(random.nextInt(this.size), random.nextInt(this.size),
+          random.nextLong(1000, Long.MAX_VALUE));
+    } // for
+    return result;
+  } // build()
+
+  /**
+   * Read every cell of the matrix.
+   *
+   * @return the number of cells that differ from the default.
+   */
+  @Benchmark
+  public int scan() {
+    int count = 0;
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        if (this.matrix.get(row, col) != 0L) {
+          count++;
+        } // if
+      } // for col
+    } // for row
+    return count;
+  } // scan()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Estimate the amount of live data on the heap.
+   *
+   * @return the used heap after collecting garbage, in bytes.
+   */
+  static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    } // for
+    return runtime.totalMemory() - runtime.freeMemory();
+  } // usedHeap()
+} // class SparseMemoryBenchmark
@@ -0,0 +1,121 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.MatrixMath;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Square products with the blocked kernel and with Strassen-Winograd in
+ * the common pool, to find the size at which Strassen-Winograd starts
+ * to win. The flops counter reports 2 n<sup>3</sup> operations for each
+ * product whatever the algorithm, so it gives the effective GFLOP/s.
+ * The crossover depends on the cores and the caches, so run it on the
+ * machine that matters and set {@code matrices.strassen.threshold} to
+ * match.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Strassen"
+ *   mvn -Pjmh compile exec:exec@jmh \
+ *       -Djmh.args="Strassen -p algorithm=STRASSEN -p cutoff=128,256,512"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class StrassenBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrices.
+   */
+  @Param({"512", "1024", "2048", "4096"})
+  public int size;
+
+  /**
+   * How to multiply.
+   */
+  @Param({"BLOCKED", "STRASSEN"})
+  public MatrixMath.Algorithm algorithm;
+
+  /**
+   * The largest pieces that Strassen-Winograd multiplies directly. Each
+   * fork sets it before MatrixMath loads.
+   */
+  @Param({"256"})
+  public int cutoff;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix on the left.
+   */
+  DoubleMatrix left;
+
+  /**
+   * The matrix on the right.
+   */
+  DoubleMatrix right;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Set the cutoff and build the matrices.
+   */
+  @Setup
+  public void setup() {
+    System.setProperty("matrices.strassen.cutoff",
+        Integer.toString(this.cutoff));
+    Random random = new Random(207);
+    this.left = new DoubleMatrix(this.size, this.size);
+    this.right = new DoubleMatrix(this.size, this.size);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        this.left.setDouble(row, col, random.nextDouble());
+        this.right.setDouble(row, col, random.nextDouble());
+      } // for col
+    } // for row
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Multiply the matrices.
+   *
+   * @param counter
+   *   Counts the operations.
+   *
+   * @return the product.
+   */
+  @Benchmark
+  public DoubleMatrix multiply(MultiplyBenchmark.Flops counter) {
+    counter.flops += 2L * this.size * this.size * this.size;
+    return MatrixMath.multiply(this.left, this.right, this.algorithm,
+        ForkJoinPool.commonPool());
+  } // multiply(MultiplyBenchmark.Flops)
+} // class StrassenBenchmark
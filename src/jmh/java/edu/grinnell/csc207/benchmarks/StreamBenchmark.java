@@ -0,0 +1,138 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.IntMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding up every cell of a matrix with indexed gets, with a for-each
+ * loop over its rows, and with sequential and parallel streams.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="Stream"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StreamBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"2000"})
+  public int size;
+
+  /**
+   * The kind of matrix.
+   */
+  @Param({"MatrixV0", "IntMatrix"})
+  public String input;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix to add up.
+   */
+  Matrix<Integer> matrix;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix.
+   */
+  @Setup
+  public void setup() {
+    if (this.input.equals("IntMatrix")) {
+      this.matrix = new IntMatrix(this.size, this.size);
+    } else {
+      this.matrix = new MatrixV0<>(this.size, this.size, 0);
+    } // if/else
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        this.matrix.set(row, col, row ^ col);
+      } // for col
+    } // for row
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Add up the cells with get.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public long indexed() {
+    long total = 0;
+    for (int row = 0; row < this.matrix.height(); row++) {
+      for (int col = 0; col < this.matrix.width(); col++) {
+        total += this.matrix.get(row, col);
+      } // for col
+    } // for row
+    return total;
+  } // indexed()
+
+  /**
+   * Add up the cells a row at a time.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public long rows() {
+    long total = 0;
+    for (List<Integer> row : this.matrix.rows()) {
+      for (Integer val : row) {
+        total += val;
+      } // for val
+    } // for row
+    return total;
+  } // rows()
+
+  /**
+   * Add up the cells with a sequential stream.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public long stream() {
+    return this.matrix.stream().mapToLong(Integer::longValue).sum();
+  } // stream()
+
+  /**
+   * Add up the cells with a parallel stream.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public long parallelStream() {
+    return this.matrix.parallelStream().mapToLong(Integer::longValue).sum();
+  } // parallelStream()
+} // class StreamBenchmark
@@ -0,0 +1,171 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.TiledMatrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Memory use and speed of {@link TiledMatrix} against {@link MatrixV0}
+ * for a matrix of strings drawn with regions and lines, like a map: a
+ * background, some rectangles, and some diagonal lines across them.
+ *
+ * <p>At the start of each trial, the setup draws one matrix and prints
+ * how much heap it retains ("footprint").</p>
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="TileBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TileBenchmark {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The values we draw with.
+   */
+  static final String[] TERRAIN = {"water", "grass", "forest", "road",
+      "town", "rock"};
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The implementation to measure.
+   */
+  @Param({"MatrixV0", "TiledMatrix"})
+  public String impl;
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"2048"})
+  public int size;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * A prebuilt matrix to scan and fill.
+   */
+  Matrix<String> matrix;
+
+  /**
+   * The number of fills so far, to vary the value.
+   */
+  int fills;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Draw the matrix to scan, measuring how much heap it retains.
+   */
+  @Setup
+  public void setup() {
+    long before = SparseMemoryBenchmark.usedHeap();
+    this.matrix = draw();
+    long after = SparseMemoryBenchmark.usedHeap();
+    System.out.printf("%nfootprint: %,d bytes (%.2f per cell)%n",
+        after - before, (double) (after - before) / ((long) this.size * this.size));
+  } // setup()
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Draw a matrix: fill it with a background, then draw rectangles of
+   * every size from the whole matrix down to a few cells, then lines.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Matrix<String> draw() {
+    Matrix<String> result = "TiledMatrix".equals(this.impl)
+        ? new TiledMatrix<>(this.size, this.size, TERRAIN[0])
+        : new MatrixV0<>(this.size, this.size, TERRAIN[0]);
+    int value = 1;
+    for (int step = this.size / 2; step >= 4; step /= 2) {
+      for (int top = 0; top + step <= this.size; top += 2 * step) {
+        int left = (top / 3) % (this.size - step + 1);
+        result.fillRegion(top, left, top + step, left + step,
+            TERRAIN[value++ % TERRAIN.length]);
+      } // for top
+    } // for step
+    for (int col = 0; col < this.size; col += this.size / 16) {
+      result.fillLine(0, col, 1, 1, this.size, this.size,
+          TERRAIN[value++ % TERRAIN.length]);
+    } // for col
+    return result;
+  } // draw()
+
+  /**
+   * Fill the whole matrix with one value.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Matrix<String> fillAll() {
+    this.matrix.fillRegion(0, 0, this.size, this.size,
+        TERRAIN[this.fills++ % TERRAIN.length]);
+    return this.matrix;
+  } // fillAll()
+
+  /**
+   * Insert a row and a column in the middle of the matrix, then delete
+   * them again.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Matrix<String> insertDelete() {
+    int mid = this.size / 2;
+    this.matrix.insertRow(mid);
+    this.matrix.insertCol(mid);
+    this.matrix.deleteRow(mid);
+    this.matrix.deleteCol(mid);
+    return this.matrix;
+  } // insertDelete()
+
+  /**
+   * Read every cell of the matrix.
+   *
+   * @return the number of road cells.
+   */
+  @Benchmark
+  public int scan() {
+    int count = 0;
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        if (this.matrix.get(row, col) == TERRAIN[3]) {
+          count++;
+        } // if
+      } // for col
+    } // for row
+    return count;
+  } // scan()
+} // class TileBenchmark
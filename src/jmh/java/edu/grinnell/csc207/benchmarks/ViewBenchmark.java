@@ -0,0 +1,132 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Taking a square slice of a large matrix and adding up its cells, by
+ * copying the slice into a new matrix and through a view. Add
+ * {@code -prof gc} to see the allocation per slice.
+ *
+ * <pre>
+ *   mvn -Pjmh compile exec:exec@jmh -Djmh.args="View -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ViewBenchmark {
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The width and height of the matrix.
+   */
+  @Param({"2000"})
+  public int size;
+
+  /**
+   * The width and height of the slice.
+   */
+  @Param({"10", "100", "1000"})
+  public int slice;
+
+  // +-------+-------------------------------------------------------
+  // | State |
+  // +-------+
+
+  /**
+   * The matrix to slice.
+   */
+  Matrix<Integer> matrix;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the matrix.
+   */
+  @Setup
+  public void setup() {
+    this.matrix = new MatrixV0<>(this.size, this.size, 0);
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        this.matrix.set(row, col, row ^ col);
+      } // for col
+    } // for row
+  } // setup()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Add up the cells of a matrix.
+   *
+   * @param cells
+   *   The matrix.
+   *
+   * @return the sum.
+   */
+  static long sum(Matrix<Integer> cells) {
+    long total = 0;
+    for (int row = 0; row < cells.height(); row++) {
+      for (int col = 0; col < cells.width(); col++) {
+        total += cells.get(row, col);
+      } // for col
+    } // for row
+    return total;
+  } // sum(Matrix<Integer>)
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Copy the slice into a new matrix, then add it up.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public long copy() {
+    int start = (this.size - this.slice) / 2;
+    Matrix<Integer> copy = new MatrixV0<>(this.slice, this.slice, 0);
+    for (int row = 0; row < this.slice; row++) {
+      for (int col = 0; col < this.slice; col++) {
+        copy.set(row, col, this.matrix.get(start + row, start + col));
+      } // for col
+    } // for row
+    return sum(copy);
+  } // copy()
+
+  /**
+   * View the slice, then add it up.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public long view() {
+    int start = (this.size - this.slice) / 2;
+    return sum(this.matrix.subMatrix(start, start, start + this.slice,
+        start + this.slice));
+  } // view()
+} // class ViewBenchmark
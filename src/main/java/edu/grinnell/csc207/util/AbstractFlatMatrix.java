@@ -0,0 +1,838 @@
+package edu.grinnell.csc207.util;
+
+
+/**
+ * Two-dimensional matrices stored in a single contiguous block of
+ * cells. Cell (row, col) lives at index row * stride + col, so rows are
+ * laid out one after another and a full scan of the matrix is a linear
+ * walk through memory.
+ *
+ * <p>The stride (the distance between the starts of consecutive rows)
+ * is at least the width of the matrix. A stride larger than the width
+ * leaves unused slots at the end of each row, which can be used to pad
+ * rows to a convenient boundary.</p>
+ *
+ * <p>Like an {@link java.util.ArrayList}, the matrix keeps spare
+ * capacity in both dimensions: unused slots at the end of each row (the
+ * stride) and unused rows at the end of the block. Inserting a row or
+ * column only reallocates when that capacity runs out, and then grows
+ * it by half, so a sequence of inserts takes amortized time
+ * proportional to the cells it moves rather than to the whole matrix.</p>
+ *
+ * <p>Subclasses decide what the block of cells is (an array of objects,
+ * an array of primitives, ...) by implementing a handful of methods that
+ * allocate, read, write, and copy cells by index.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ * @param <A>
+ *   The type of the block of cells.
+ */
+public abstract class AbstractFlatMatrix<T, A> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The cells of the matrix, in row-major order.
+   */
+  A cells;
+
+  /**
+   * The distance between the start of one row and the start of the next.
+   */
+  int stride;
+
+  /**
+   * The number of rows that fit in the block of cells.
+   */
+  int rowCapacity;
+
+  /**
+   * The number of rows in the matrix.
+   */
+  int numRows;
+
+  /**
+   * The number of columns in the matrix.
+   */
+  int numCols;
+
+  /**
+   * The value used to fill new cells.
+   */
+  T defaultValue;
+
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Work on a run of cells in one block together with a run of the same
+   * length in another.
+   *
+   * @param <A>
+   *   The type of the blocks of cells.
+   */
+  @FunctionalInterface
+  interface RunKernel<A> {
+    /**
+     * Do the work.
+     *
+     * @param mine
+     *   The block of the matrix being changed.
+     * @param myFrom
+     *   The start of its run.
+     * @param theirs
+     *   The other block.
+     * @param theirFrom
+     *   The start of its run.
+     * @param length
+     *   The number of cells in each run.
+     */
+    void apply(A mine, int myFrom, A theirs, int theirFrom, int length);
+  } // interface RunKernel<A>
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default and the given row stride.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param stride
+   *   The distance between the starts of consecutive rows.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the stride is smaller than the width.
+   */
+  AbstractFlatMatrix(int width, int height, T def, int stride) {
+    initialize(width, height, def, stride);
+  } // AbstractFlatMatrix(int, int, T, int)
+
+  /**
+   * Create a matrix with no cells yet. Subclasses that need their own
+   * fields before they can allocate cells use this constructor and then
+   * call {@link #initialize}.
+   */
+  AbstractFlatMatrix() {
+  } // AbstractFlatMatrix()
+
+  /**
+   * Set the shape of the matrix and allocate its cells.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param stride
+   *   The distance between the starts of consecutive rows.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the stride is smaller than the width.
+   */
+  final void initialize(int width, int height, T def, int stride) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException(
+          "Width and height must be non-negative.");
+    } // if
+    if (stride < width) {
+      throw new IllegalArgumentException("Stride must be at least the width.");
+    } // if
+    this.numCols = width;
+    this.numRows = height;
+    this.stride = stride;
+    this.rowCapacity = height;
+    this.defaultValue = def;
+    this.cells = allocate(Math.multiplyExact(height, stride));
+    fill(0, height * stride, def);
+  } // initialize(int, int, T, int)
+
+  // +-----------------+---------------------------------------------
+  // | Storage methods |
+  // +-----------------+
+
+  /**
+   * Allocate a new block of cells.
+   *
+   * @param length
+   *   The number of cells in the block.
+   *
+   * @return the new block.
+   */
+  abstract A allocate(int length);
+
+  /**
+   * Read one cell.
+   *
+   * @param index
+   *   The index of the cell in the block.
+   *
+   * @return the value in the cell.
+   */
+  abstract T load(int index);
+
+  /**
+   * Write one cell.
+   *
+   * @param index
+   *   The index of the cell in the block.
+   * @param val
+   *   The value to write.
+   */
+  abstract void store(int index, T val);
+
+  /**
+   * Write the same value into a range of cells.
+   *
+   * @param from
+   *   The index of the first cell (inclusive).
+   * @param to
+   *   The index of the last cell (exclusive).
+   * @param val
+   *   The value to write.
+   */
+  abstract void fill(int from, int to, T val);
+
+  /**
+   * Determine whether two ranges of cells hold equal values.
+   *
+   * @param mine
+   *   The first block of cells.
+   * @param myFrom
+   *   The start of the range in the first block.
+   * @param theirs
+   *   The second block of cells.
+   * @param theirFrom
+   *   The start of the range in the second block.
+   * @param length
+   *   The number of cells to compare.
+   *
+   * @return true if every pair of cells is equal and false otherwise.
+   */
+  abstract boolean rangeEquals(A mine, int myFrom, A theirs, int theirFrom,
+      int length);
+
+  /**
+   * Copy a range of cells, which may overlap. The default uses
+   * System.arraycopy, which works for any kind of array.
+   *
+   * @param src
+   *   The block to copy from.
+   * @param srcPos
+   *   The index of the first cell to copy.
+   * @param dest
+   *   The block to copy to.
+   * @param destPos
+   *   Where to put the first cell.
+   * @param length
+   *   The number of cells to copy.
+   */
+  void copy(A src, int srcPos, A dest, int destPos, int length) {
+    System.arraycopy(src, srcPos, dest, destPos, length);
+  } // copy(A, int, A, int, int)
+
+  /**
+   * Determine whether another flat matrix stores its cells the same way
+   * as this one, so that we can compare ranges of cells directly.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @return true if the blocks of cells are compatible.
+   */
+  boolean compatible(AbstractFlatMatrix<?, ?> other) {
+    return other.getClass() == this.getClass();
+  } // compatible(AbstractFlatMatrix<?, ?>)
+
+  /**
+   * Forget the contents of a range of cells that are no longer part of
+   * the matrix. The default does nothing; blocks of references clear
+   * them so that they can be garbage collected.
+   *
+   * @param from
+   *   The index of the first cell (inclusive).
+   * @param to
+   *   The index of the last cell (exclusive).
+   */
+  void clear(int from, int to) {
+  } // clear(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public T get(int row, int col) {
+    return load(index(row, col));
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public void set(int row, int col, T val) {
+    store(index(row, col), val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.numRows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.numCols;
+  } // width()
+
+  /**
+   * Determine the distance between the starts of consecutive rows.
+   *
+   * @return the row stride.
+   */
+  public int stride() {
+    return this.stride;
+  } // stride()
+
+  /**
+   * Determine the number of rows the matrix can hold without
+   * reallocating.
+   *
+   * @return the row capacity.
+   */
+  public int rowCapacity() {
+    return this.rowCapacity;
+  } // rowCapacity()
+
+  /**
+   * Make sure that the matrix can hold at least the given number of rows
+   * and columns without reallocating.
+   *
+   * @param rows
+   *   The minimum number of rows.
+   * @param cols
+   *   The minimum number of columns.
+   */
+  public void ensureCapacity(int rows, int cols) {
+    if (rows > this.rowCapacity || cols > this.stride) {
+      reallocate(Math.max(rows, this.rowCapacity),
+          Math.max(cols, this.stride));
+    } // if
+  } // ensureCapacity(int, int)
+
+  /**
+   * Release any spare capacity, so that the stride equals the width and
+   * the row capacity equals the height.
+   */
+  public void trimToSize() {
+    if (this.numRows != this.rowCapacity || this.numCols != this.stride) {
+      reallocate(this.numRows, this.numCols);
+    } // if
+  } // trimToSize()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @Override
+  public void insertRow(int row) {
+    checkRowInsert(row);
+    openRow(row);
+    int start = row * this.stride;
+    fill(start, start + this.numCols, this.defaultValue);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  @Override
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    checkRowInsert(row);
+    if (vals.length != this.numCols) {
+      throw new ArraySizeException("Invalid array size for the row insertion.");
+    } // if
+    openRow(row);
+    int start = row * this.stride;
+    for (int col = 0; col < this.numCols; col++) {
+      store(start + col, vals[col]);
+    } // for
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @Override
+  public void insertCol(int col) {
+    checkColInsert(col);
+    openCol(col);
+    for (int row = 0; row < this.numRows; row++) {
+      store(row * this.stride + col, this.defaultValue);
+    } // for
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  @Override
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    checkColInsert(col);
+    if (vals.length != this.numRows) {
+      throw new ArraySizeException(
+          "Invalid array size for the column insertion.");
+    } // if
+    openCol(col);
+    for (int row = 0; row < this.numRows; row++) {
+      store(row * this.stride + col, vals[row]);
+    } // for
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @Override
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.numRows) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    copy(this.cells, (row + 1) * this.stride, this.cells, row * this.stride,
+        (this.numRows - row - 1) * this.stride);
+    this.numRows--;
+    int start = this.numRows * this.stride;
+    clear(start, start + this.numCols);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @Override
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    for (int row = 0; row < this.numRows; row++) {
+      int start = row * this.stride;
+      copy(this.cells, start + col + 1, this.cells, start + col,
+          this.numCols - col - 1);
+      clear(start + this.numCols - 1, start + this.numCols);
+    } // for
+    this.numCols--;
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    checkRegion(startRow, startCol, endRow, endCol);
+    if (startCol >= endCol) {
+      return;
+    } // if
+    for (int row = startRow; row < endRow; row++) {
+      int start = row * this.stride;
+      fill(start + startCol, start + endCol, val);
+    } // for
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    int row = startRow;
+    int col = startCol;
+    while (row < endRow && col < endCol) {
+      store(index(row, col), val);
+      row += deltaRow;
+      col += deltaCol;
+    } // while
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The copy shares references to the
+   * elements, but not the underlying storage.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public AbstractFlatMatrix<T, A> clone() {
+    AbstractFlatMatrix<T, A> result;
+    try {
+      result = (AbstractFlatMatrix<T, A>) super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    } // try/catch
+    result.cells = allocate(this.rowCapacity * this.stride);
+    copy(this.cells, 0, result.cells, 0, this.numRows * this.stride);
+    return result;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    } // if
+    if (!(other instanceof Matrix)) {
+      return false;
+    } // if
+    Matrix<?> matrix = (Matrix<?>) other;
+    if (this.numRows != matrix.height() || this.numCols != matrix.width()) {
+      return false;
+    } // if
+    if (other instanceof AbstractFlatMatrix
+        && compatible((AbstractFlatMatrix<?, ?>) other)) {
+      AbstractFlatMatrix<T, A> flat = (AbstractFlatMatrix<T, A>) other;
+      for (int row = 0; row < this.numRows; row++) {
+        if (!rangeEquals(this.cells, row * this.stride, flat.cells,
+            row * flat.stride, this.numCols)) {
+          return false;
+        } // if
+      } // for
+      return true;
+    } // if
+    return Cells.same(this, matrix);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Cells.hash(this);
+  } // hashCode()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find the index of a cell in the block of cells.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the index of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  final int index(int row, int col) {
+    if (row < 0 || row >= this.numRows || col < 0 || col >= this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+    return row * this.stride + col;
+  } // index(int, int)
+
+  /**
+   * Make sure that a region lies within the matrix.
+   *
+   * @param startRow
+   *   The top edge of the region (inclusive).
+   * @param startCol
+   *   The left edge of the region (inclusive).
+   * @param endRow
+   *   The bottom edge of the region (exclusive).
+   * @param endCol
+   *   The right edge of the region (exclusive).
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region extends beyond the matrix.
+   */
+  final void checkRegion(int startRow, int startCol, int endRow, int endCol) {
+    if (startRow < 0 || startCol < 0 || endRow > this.numRows
+        || endCol > this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid region.");
+    } // if
+  } // checkRegion(int, int, int, int)
+
+  /**
+   * Apply a kernel to each row of this matrix together with the same row
+   * of another matrix of the same shape. If neither matrix has unused
+   * slots at the ends of its rows, the kernel sees all the cells as one
+   * run.
+   *
+   * @param other
+   *   The other matrix, which may be this one.
+   * @param kernel
+   *   What to do to each pair of runs.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different widths or heights.
+   */
+  final void eachRun(AbstractFlatMatrix<T, A> other, RunKernel<A> kernel) {
+    if (this.numRows != other.numRows || this.numCols != other.numCols) {
+      throw new IllegalArgumentException(
+          "Matrices must have the same width and height.");
+    } // if
+    if (this.stride == this.numCols && other.stride == other.numCols) {
+      kernel.apply(this.cells, 0, other.cells, 0, this.numRows * this.numCols);
+      return;
+    } // if
+    for (int row = 0; row < this.numRows; row++) {
+      kernel.apply(this.cells, row * this.stride, other.cells,
+          row * other.stride, this.numCols);
+    } // for
+  } // eachRun(AbstractFlatMatrix<T, A>, RunKernel<A>)
+
+  /**
+   * Make sure that a row index is valid for insertion.
+   *
+   * @param row
+   *   The index of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  private void checkRowInsert(int row) {
+    if (row < 0 || row > this.numRows) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+  } // checkRowInsert(int)
+
+  /**
+   * Make sure that a column index is valid for insertion.
+   *
+   * @param col
+   *   The index of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  private void checkColInsert(int col) {
+    if (col < 0 || col > this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+  } // checkColInsert(int)
+
+  /**
+   * Make room for a new row, shifting the rows at or after the given
+   * index down by one. The contents of the new row are unspecified.
+   *
+   * @param row
+   *   The index of the new row.
+   */
+  private void openRow(int row) {
+    if (this.numRows == this.rowCapacity) {
+      reallocate(grow(this.rowCapacity, this.numRows + 1), this.stride);
+    } // if
+    copy(this.cells, row * this.stride, this.cells, (row + 1) * this.stride,
+        (this.numRows - row) * this.stride);
+    this.numRows++;
+  } // openRow(int)
+
+  /**
+   * Make room for a new column, shifting the columns at or after the
+   * given index right by one. The contents of the new column are
+   * unspecified.
+   *
+   * @param col
+   *   The index of the new column.
+   */
+  private void openCol(int col) {
+    if (this.numCols == this.stride) {
+      reallocate(this.rowCapacity, grow(this.stride, this.numCols + 1));
+    } // if
+    for (int row = 0; row < this.numRows; row++) {
+      int start = row * this.stride;
+      copy(this.cells, start + col, this.cells, start + col + 1,
+          this.numCols - col);
+    } // for
+    this.numCols++;
+  } // openCol(int)
+
+  /**
+   * Move the cells to a new block with the given capacity.
+   *
+   * @param rows
+   *   The new row capacity. Must be at least the height.
+   * @param cols
+   *   The new stride. Must be at least the width.
+   */
+  void reallocate(int rows, int cols) {
+    A newCells = allocate(Math.multiplyExact(rows, cols));
+    if (cols == this.stride) {
+      copy(this.cells, 0, newCells, 0, this.numRows * cols);
+    } else {
+      for (int row = 0; row < this.numRows; row++) {
+        copy(this.cells, row * this.stride, newCells, row * cols,
+            this.numCols);
+      } // for
+    } // if/else
+    this.cells = newCells;
+    this.rowCapacity = rows;
+    this.stride = cols;
+  } // reallocate(int, int)
+
+  /**
+   * Take over a block of cells that already holds the contents of the
+   * matrix, packed row after row, perhaps followed by spare rows.
+   *
+   * @param block
+   *   The cells.
+   * @param width
+   *   The width of the matrix, which becomes the stride.
+   * @param height
+   *   The height of the matrix.
+   * @param rows
+   *   The number of rows the block can hold. Must be at least the
+   *   height.
+   */
+  void adopt(A block, int width, int height, int rows) {
+    this.cells = block;
+    this.numCols = width;
+    this.numRows = height;
+    this.stride = width;
+    this.rowCapacity = rows;
+  } // adopt(A, int, int, int)
+
+  /**
+   * Compute a new capacity, growing by half of the current capacity.
+   *
+   * @param current
+   *   The current capacity.
+   * @param needed
+   *   The minimum capacity we need.
+   *
+   * @return the new capacity.
+   */
+  static int grow(int current, int needed) {
+    return Math.max(needed, current + (current >> 1));
+  } // grow(int, int)
+} // class AbstractFlatMatrix<T, A>
@@ -0,0 +1,201 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Walks the cells of a matrix in row-major order, splitting into
+ * ranges of whole rows so that parallel streams hand each thread a
+ * contiguous block of the matrix.
+ *
+ * <p>Matrices that keep their rows in arrays pass the arrays, which we
+ * then read directly; other matrices go through {@code get}. The
+ * spliterator reads the matrix as it goes, so the matrix must not
+ * change shape while a stream over it runs.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+final class CellSpliterator<T> implements Spliterator<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix, when we read through get.
+   */
+  private final ReadableMatrix<T> matrix;
+
+  /**
+   * The rows, when we read them directly.
+   */
+  private final Object[][] rows;
+
+  /**
+   * The number of columns.
+   */
+  private final int width;
+
+  /**
+   * The row of the next cell.
+   */
+  private int row;
+
+  /**
+   * The column of the next cell.
+   */
+  private int col;
+
+  /**
+   * The row after the last one we cover.
+   */
+  private final int endRow;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Walk some rows of a matrix.
+   *
+   * @param matrix
+   *   The matrix, or null to read the rows directly.
+   * @param rows
+   *   The rows, or null to read through the matrix.
+   * @param width
+   *   The number of columns.
+   * @param row
+   *   The row of the first cell.
+   * @param col
+   *   The column of the first cell.
+   * @param endRow
+   *   The row after the last one to cover.
+   */
+  private CellSpliterator(ReadableMatrix<T> matrix, Object[][] rows,
+      int width, int row, int col, int endRow) {
+    this.matrix = matrix;
+    this.rows = rows;
+    this.width = width;
+    this.row = row;
+    this.col = col;
+    this.endRow = endRow;
+  } // CellSpliterator(ReadableMatrix<T>, Object[][], int, int, int, int)
+
+  /**
+   * Walk every cell of a matrix, reading through get.
+   *
+   * @param matrix
+   *   The matrix.
+   */
+  CellSpliterator(ReadableMatrix<T> matrix) {
+    this(matrix, null, matrix.width(), 0, 0, matrix.height());
+  } // CellSpliterator(ReadableMatrix<T>)
+
+  /**
+   * Walk every cell of a matrix whose rows are arrays.
+   *
+   * @param rows
+   *   The rows, each with at least width cells.
+   * @param width
+   *   The number of columns.
+   * @param height
+   *   The number of rows.
+   */
+  CellSpliterator(Object[][] rows, int width, int height) {
+    this(null, rows, width, 0, 0, height);
+  } // CellSpliterator(Object[][], int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (this.width == 0 || this.row >= this.endRow) {
+      return false;
+    } // if
+    action.accept(cell(this.row, this.col));
+    if (++this.col == this.width) {
+      this.col = 0;
+      this.row++;
+    } // if
+    return true;
+  } // tryAdvance(Consumer)
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEachRemaining(Consumer<? super T> action) {
+    if (this.width == 0) {
+      this.row = this.endRow;
+      return;
+    } // if
+    for (; this.row < this.endRow; this.row++) {
+      if (this.rows != null) {
+        Object[] cells = this.rows[this.row];
+        for (; this.col < this.width; this.col++) {
+          action.accept((T) cells[this.col]);
+        } // for col
+      } else {
+        for (; this.col < this.width; this.col++) {
+          action.accept(this.matrix.get(this.row, this.col));
+        } // for col
+      } // if/else
+      this.col = 0;
+    } // for row
+  } // forEachRemaining(Consumer)
+
+  /**
+   * Hand the first half of our remaining whole rows to a new
+   * spliterator.
+   *
+   * @return the new spliterator, or null if we have fewer than two rows
+   *   left.
+   */
+  @Override
+  public Spliterator<T> trySplit() {
+    // A row we have started stays with the first half.
+    int firstWhole = this.col == 0 ? this.row : this.row + 1;
+    int mid = (firstWhole + this.endRow) >>> 1;
+    if (this.width == 0 || mid <= firstWhole) {
+      return null;
+    } // if
+    Spliterator<T> prefix = new CellSpliterator<>(this.matrix, this.rows,
+        this.width, this.row, this.col, mid);
+    this.row = mid;
+    this.col = 0;
+    return prefix;
+  } // trySplit()
+
+  @Override
+  public long estimateSize() {
+    if (this.row >= this.endRow) {
+      return 0;
+    } // if
+    return (long) (this.endRow - this.row) * this.width - this.col;
+  } // estimateSize()
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED;
+  } // characteristics()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Read a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the value of the cell.
+   */
+  @SuppressWarnings("unchecked")
+  private T cell(int row, int col) {
+    return this.rows != null ? (T) this.rows[row][col]
+        : this.matrix.get(row, col);
+  } // cell(int, int)
+} // class CellSpliterator<T>
@@ -0,0 +1,96 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Objects;
+
+/**
+ * Equality and hashing by cells, for matrices that compare equal to
+ * any matrix with the same size and cells, whatever its implementation.
+ */
+final class Cells {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * What the hash code so far is multiplied by before adding the hash
+   * code of each cell.
+   */
+  static final int MULTIPLIER = 7;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Nobody builds a Cells.
+   */
+  private Cells() {
+  } // Cells()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Determine if two matrices have the same size and equal cells.
+   *
+   * @param left
+   *   One matrix.
+   * @param right
+   *   The other matrix.
+   *
+   * @return true if they do; false otherwise.
+   */
+  static boolean same(ReadableMatrix<?> left, ReadableMatrix<?> right) {
+    if (left.height() != right.height() || left.width() != right.width()) {
+      return false;
+    } // if
+    for (int row = 0; row < left.height(); row++) {
+      for (int col = 0; col < left.width(); col++) {
+        if (!Objects.equals(left.get(row, col), right.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // same(ReadableMatrix<?>, ReadableMatrix<?>)
+
+  /**
+   * Compute the hash code every matrix uses. Matrices that are equal
+   * have the same hash code, whatever their implementation, so a class
+   * that hashes its cells in some faster way must start from
+   * {@link #seed} and, for each non-null cell in row-major order,
+   * multiply by {@link #MULTIPLIER} and add the cell's hash code.
+   *
+   * @param matrix
+   *   The matrix to hash.
+   *
+   * @return the hash code.
+   */
+  static int hash(ReadableMatrix<?> matrix) {
+    int code = seed(matrix.width(), matrix.height());
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        Object val = matrix.get(row, col);
+        if (val != null) {
+          code = code * MULTIPLIER + val.hashCode();
+        } // if
+      } // for col
+    } // for row
+    return code;
+  } // hash(ReadableMatrix<?>)
+
+  /**
+   * Compute the hash code of a matrix with no cells to hash.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the hash code to start from.
+   */
+  static int seed(int width, int height) {
+    return width + MULTIPLIER * height;
+  } // seed(int, int)
+} // class Cells
@@ -0,0 +1,678 @@
+package edu.grinnell.csc207.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Two-dimensional matrices that many threads may use at once.
+ *
+ * <p>The cells live in an array of rows, as in {@link MatrixV0}. A
+ * {@link StampedLock} guards the shape of the matrix. Reading a cell
+ * takes no lock at all in the common case: it reads optimistically and
+ * checks afterwards that no change of shape happened in the meantime,
+ * retrying under the read lock if one did. Setting a cell takes the read
+ * lock, which any number of threads may hold together, and writes the
+ * cell with release semantics so that a reader sees the whole value.
+ * Changes of shape and fills take the write lock, so a reader never sees
+ * a torn height, width, or row, and never sees a fill half done.</p>
+ *
+ * <p>Each call is atomic on its own; a sequence of calls is not. A
+ * thread that reads height() and then calls get() may find that another
+ * thread has deleted the row in between.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class ConcurrentMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Access to the cells of a row with memory-ordering modes.
+   */
+  private static final VarHandle CELLS =
+      MethodHandles.arrayElementVarHandle(Object[].class);
+
+  /**
+   * What an optimistic read returns for a cell that is out of bounds.
+   */
+  private static final Object OUT_OF_BOUNDS = new Object();
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Guards the shape of the matrix.
+   */
+  private final StampedLock lock = new StampedLock();
+
+  /**
+   * The rows. Slots beyond the height are null, and each row has
+   * colCapacity slots.
+   */
+  private Object[][] data;
+
+  /**
+   * The number of slots in each row.
+   */
+  private int colCapacity;
+
+  /**
+   * The number of rows.
+   */
+  private int numRows;
+
+  /**
+   * The number of columns.
+   */
+  private int numCols;
+
+  /**
+   * The value of new cells.
+   */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public ConcurrentMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException(
+          "Width and height must be non-negative.");
+    } // if
+    this.data = new Object[height][];
+    for (int row = 0; row < height; row++) {
+      this.data[row] = newRow(width, def);
+    } // for
+    this.colCapacity = width;
+    this.numRows = height;
+    this.numCols = width;
+    this.defaultValue = def;
+  } // ConcurrentMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public ConcurrentMatrix(int width, int height) {
+    this(width, height, null);
+  } // ConcurrentMatrix(int, int)
+
+  /**
+   * Create a matrix that owns the given rows.
+   *
+   * @param data
+   *   The rows.
+   * @param colCapacity
+   *   The number of slots in each row.
+   * @param height
+   *   The number of rows.
+   * @param width
+   *   The number of columns.
+   * @param def
+   *   The default value.
+   */
+  private ConcurrentMatrix(Object[][] data, int colCapacity, int height,
+      int width, T def) {
+    this.data = data;
+    this.colCapacity = colCapacity;
+    this.numRows = height;
+    this.numCols = width;
+    this.defaultValue = def;
+  } // ConcurrentMatrix(Object[][], int, int, int, T)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(int row, int col) {
+    Object val = OUT_OF_BOUNDS;
+    long stamp = this.lock.tryOptimisticRead();
+    if (stamp != 0) {
+      val = peek(row, col);
+    } // if
+    if (stamp == 0 || !this.lock.validate(stamp)) {
+      stamp = this.lock.readLock();
+      try {
+        val = peek(row, col);
+      } finally {
+        this.lock.unlockRead(stamp);
+      } // try/finally
+    } // if
+    if (val == OUT_OF_BOUNDS) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+    return (T) val;
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public void set(int row, int col, T val) {
+    long stamp = this.lock.readLock();
+    try {
+      checkCell(row, col);
+      CELLS.setRelease(this.data[row], col, val);
+    } finally {
+      this.lock.unlockRead(stamp);
+    } // try/finally
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    long stamp = this.lock.tryOptimisticRead();
+    int result = this.numRows;
+    if (!this.lock.validate(stamp)) {
+      stamp = this.lock.readLock();
+      try {
+        result = this.numRows;
+      } finally {
+        this.lock.unlockRead(stamp);
+      } // try/finally
+    } // if
+    return result;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    long stamp = this.lock.tryOptimisticRead();
+    int result = this.numCols;
+    if (!this.lock.validate(stamp)) {
+      stamp = this.lock.readLock();
+      try {
+        result = this.numCols;
+      } finally {
+        this.lock.unlockRead(stamp);
+      } // try/finally
+    } // if
+    return result;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @Override
+  public void insertRow(int row) {
+    long stamp = this.lock.writeLock();
+    try {
+      if (row < 0 || row > this.numRows) {
+        throw new IndexOutOfBoundsException("Invalid row index.");
+      } // if
+      openRow(row, newRow(this.colCapacity, this.defaultValue));
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  @Override
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    long stamp = this.lock.writeLock();
+    try {
+      if (row < 0 || row > this.numRows) {
+        throw new IndexOutOfBoundsException("Invalid row index.");
+      } // if
+      if (vals.length != this.numCols) {
+        throw new ArraySizeException(
+            "Invalid array size for the row insertion.");
+      } // if
+      Object[] cells = newRow(this.colCapacity, null);
+      System.arraycopy(vals, 0, cells, 0, vals.length);
+      openRow(row, cells);
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @Override
+  public void insertCol(int col) {
+    long stamp = this.lock.writeLock();
+    try {
+      if (col < 0 || col > this.numCols) {
+        throw new IndexOutOfBoundsException("Invalid column index.");
+      } // if
+      openCol(col);
+      for (int row = 0; row < this.numRows; row++) {
+        this.data[row][col] = this.defaultValue;
+      } // for
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  @Override
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    long stamp = this.lock.writeLock();
+    try {
+      if (col < 0 || col > this.numCols) {
+        throw new IndexOutOfBoundsException("Invalid column index.");
+      } // if
+      if (vals.length != this.numRows) {
+        throw new ArraySizeException(
+            "Invalid array size for the column insertion.");
+      } // if
+      openCol(col);
+      for (int row = 0; row < this.numRows; row++) {
+        this.data[row][col] = vals[row];
+      } // for
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @Override
+  public void deleteRow(int row) {
+    long stamp = this.lock.writeLock();
+    try {
+      if (row < 0 || row >= this.numRows) {
+        throw new IndexOutOfBoundsException("Invalid row index.");
+      } // if
+      System.arraycopy(this.data, row + 1, this.data, row,
+          this.numRows - row - 1);
+      this.data[--this.numRows] = null;
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @Override
+  public void deleteCol(int col) {
+    long stamp = this.lock.writeLock();
+    try {
+      if (col < 0 || col >= this.numCols) {
+        throw new IndexOutOfBoundsException("Invalid column index.");
+      } // if
+      int last = this.numCols - 1;
+      for (int row = 0; row < this.numRows; row++) {
+        Object[] cells = this.data[row];
+        System.arraycopy(cells, col + 1, cells, col, last - col);
+        cells[last] = null;
+      } // for
+      this.numCols = last;
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix. Other threads see either
+   * none of the region filled or all of it.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    long stamp = this.lock.writeLock();
+    try {
+      if (startRow < 0 || startCol < 0 || endRow > this.numRows
+          || endCol > this.numCols) {
+        throw new IndexOutOfBoundsException("Invalid region.");
+      } // if
+      for (int row = startRow; row < endRow; row++) {
+        if (startCol < endCol) {
+          Arrays.fill(this.data[row], startCol, endCol, val);
+        } // if
+      } // for
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal). Other threads see
+   * either none of the line filled or all of it.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    long stamp = this.lock.writeLock();
+    try {
+      // Check the whole line first, so that a bad line changes nothing.
+      for (int pass = 0; pass < 2; pass++) {
+        int row = startRow;
+        int col = startCol;
+        while (row < endRow && col < endCol) {
+          if (pass == 0) {
+            checkCell(row, col);
+          } else {
+            this.data[row][col] = val;
+          } // if/else
+          row += deltaRow;
+          col += deltaCol;
+        } // while
+      } // for
+    } finally {
+      this.lock.unlockWrite(stamp);
+    } // try/finally
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix as it is at one moment. The values are
+   * shared, but the structure is not.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  public ConcurrentMatrix<T> clone() {
+    long stamp = this.lock.readLock();
+    try {
+      return new ConcurrentMatrix<>(copyRows(this.colCapacity),
+          this.colCapacity, this.numRows, this.numCols, this.defaultValue);
+    } finally {
+      this.lock.unlockRead(stamp);
+    } // try/finally
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. We compare a
+   * clone of this matrix, so that we never hold our lock while waiting
+   * for another matrix.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    } // if
+    if (!(other instanceof Matrix)) {
+      return false;
+    } // if
+    return Cells.same(clone(), (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix as it is at one moment. The
+   * optimistic reads of get() succeed while we hold the read lock.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    long stamp = this.lock.readLock();
+    try {
+      return Cells.hash(this);
+    } finally {
+      this.lock.unlockRead(stamp);
+    } // try/finally
+  } // hashCode()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Make sure a cell is in bounds. The caller holds the lock.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  private void checkCell(int row, int col) {
+    if (row < 0 || row >= this.numRows || col < 0 || col >= this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Read a cell without trusting that the fields agree with each other,
+   * since an optimistic read may see a change of shape half done.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the value of the cell, or OUT_OF_BOUNDS.
+   */
+  private Object peek(int row, int col) {
+    Object[][] rows = this.data;
+    if (row < 0 || row >= this.numRows || row >= rows.length || col < 0
+        || col >= this.numCols) {
+      return OUT_OF_BOUNDS;
+    } // if
+    Object[] cells = rows[row];
+    if (cells == null || col >= cells.length) {
+      return OUT_OF_BOUNDS;
+    } // if
+    return CELLS.getAcquire(cells, col);
+  } // peek(int, int)
+
+  /**
+   * Build a row.
+   *
+   * @param size
+   *   The number of slots.
+   * @param val
+   *   The value for every slot.
+   *
+   * @return the row.
+   */
+  private static Object[] newRow(int size, Object val) {
+    Object[] cells = new Object[size];
+    if (val != null) {
+      Arrays.fill(cells, val);
+    } // if
+    return cells;
+  } // newRow(int, Object)
+
+  /**
+   * Copy the rows. The caller holds the lock.
+   *
+   * @param size
+   *   The number of slots in each copied row.
+   *
+   * @return the copies.
+   */
+  private Object[][] copyRows(int size) {
+    Object[][] rows = new Object[this.numRows][];
+    for (int row = 0; row < this.numRows; row++) {
+      rows[row] = new Object[size];
+      for (int col = 0; col < this.numCols; col++) {
+        rows[row][col] = CELLS.getAcquire(this.data[row], col);
+      } // for col
+    } // for row
+    return rows;
+  } // copyRows(int)
+
+  /**
+   * Put a row in place, moving the later rows down. The caller holds
+   * the write lock.
+   *
+   * @param row
+   *   Where the row goes.
+   * @param cells
+   *   The row.
+   */
+  private void openRow(int row, Object[] cells) {
+    if (this.numRows == this.data.length) {
+      this.data = Arrays.copyOf(this.data,
+          AbstractFlatMatrix.grow(this.data.length, this.numRows + 1));
+    } // if
+    System.arraycopy(this.data, row, this.data, row + 1, this.numRows - row);
+    this.data[row] = cells;
+    this.numRows++;
+  } // openRow(int, Object[])
+
+  /**
+   * Make room for a column, moving the later columns right. The caller
+   * holds the write lock and fills in the new column.
+   *
+   * @param col
+   *   Where the column goes.
+   */
+  private void openCol(int col) {
+    if (this.numCols == this.colCapacity) {
+      this.colCapacity =
+          AbstractFlatMatrix.grow(this.colCapacity, this.numCols + 1);
+      for (int row = 0; row < this.numRows; row++) {
+        this.data[row] = Arrays.copyOf(this.data[row], this.colCapacity);
+      } // for
+    } // if
+    for (int row = 0; row < this.numRows; row++) {
+      Object[] cells = this.data[row];
+      System.arraycopy(cells, col, cells, col + 1, this.numCols - col);
+    } // for
+    this.numCols++;
+  } // openCol(int)
+} // class ConcurrentMatrix<T>
@@ -0,0 +1,352 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Two-dimensional matrices whose cells hold small int codes into a
+ * table of values, stored in a single int[]. See
+ * {@link AbstractFlatMatrix} for the layout.
+ *
+ * <p>This suits matrices with many cells but few distinct values, such
+ * as strings parsed from text, where a {@link MatrixV0} would hold a
+ * separate but equal object in every cell. Setting a cell looks its
+ * value up in the table, adding it if it is new, and stores the code;
+ * getting a cell returns the value for its code. Equal values therefore
+ * come back as one shared instance, the first that was stored. Two
+ * matrices that share a table compare equal when their codes do, without
+ * looking at the values, and hashing uses the hash codes the table
+ * computed when each value was added.</p>
+ *
+ * <p>Values stay in the table after the last cell holding them changes.
+ * Like the matrices, a table is not safe to use from several threads at
+ * once, so share one only among matrices that are used together.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class DictionaryMatrix<T> extends AbstractFlatMatrix<T, int[]> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The values of the codes.
+   */
+  private final ValueTable<T> table;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default, whose codes come from a table that
+   * other matrices may share.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param table
+   *   The table of values.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DictionaryMatrix(int width, int height, T def, ValueTable<T> table) {
+    this.table = table;
+    initialize(width, height, def, width);
+  } // DictionaryMatrix(int, int, T, ValueTable<T>)
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default, and a table of its own.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DictionaryMatrix(int width, int height, T def) {
+    this(width, height, def, new ValueTable<>());
+  } // DictionaryMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value, and a table of its own.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DictionaryMatrix(int width, int height) {
+    this(width, height, null);
+  } // DictionaryMatrix(int, int)
+
+  // +-----------------+---------------------------------------------
+  // | Storage methods |
+  // +-----------------+
+
+  @Override
+  int[] allocate(int length) {
+    return new int[length];
+  } // allocate(int)
+
+  @Override
+  T load(int index) {
+    return this.table.decode(this.cells[index]);
+  } // load(int)
+
+  @Override
+  void store(int index, T val) {
+    this.cells[index] = this.table.encode(val);
+  } // store(int, T)
+
+  @Override
+  void fill(int from, int to, T val) {
+    if (from < to) {
+      Kernels.get().fillInts(this.cells, from, to - from,
+          this.table.encode(val));
+    } // if
+  } // fill(int, int, T)
+
+  @Override
+  boolean rangeEquals(int[] mine, int myFrom, int[] theirs,
+      int theirFrom, int length) {
+    return Kernels.get().mismatchInts(mine, myFrom, theirs, theirFrom,
+        length) < 0;
+  } // rangeEquals(int[], int, int[], int, int)
+
+  @Override
+  boolean compatible(AbstractFlatMatrix<?, ?> other) {
+    return super.compatible(other)
+        && ((DictionaryMatrix<?>) other).table == this.table;
+  } // compatible(AbstractFlatMatrix<?, ?>)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the code of the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the code of the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public int getCode(int row, int col) {
+    return this.cells[index(row, col)];
+  } // getCode(int, int)
+
+  /**
+   * Get the table the codes come from.
+   *
+   * @return the table.
+   */
+  public ValueTable<T> table() {
+    return this.table;
+  } // table()
+
+  /**
+   * Make a copy of the matrix, which shares the table.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public DictionaryMatrix<T> clone() {
+    return (DictionaryMatrix<T>) super.clone();
+  } // clone()
+
+  /**
+   * Compute a hash code for the matrix from the hash codes in the
+   * table.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    int nullCode = this.table.nullCode;
+    int[] hashes = this.table.hashes;
+    int code = Cells.seed(this.numCols, this.numRows);
+    for (int row = 0; row < this.numRows; row++) {
+      int start = row * this.stride;
+      for (int i = start; i < start + this.numCols; i++) {
+        int cell = this.cells[i];
+        if (cell != nullCode) {
+          code = code * Cells.MULTIPLIER + hashes[cell];
+        } // if
+      } // for i
+    } // for row
+    return code;
+  } // hashCode()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Make a copy of a matrix that stores codes, with null as the
+   * default value.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param matrix
+   *   The matrix to copy.
+   * @param table
+   *   The table of values for the copy.
+   *
+   * @return a dictionary matrix with the same cells.
+   */
+  public static <T> DictionaryMatrix<T> copyOf(ReadableMatrix<T> matrix,
+      ValueTable<T> table) {
+    int width = matrix.width();
+    int height = matrix.height();
+    int[] codes = new int[Math.multiplyExact(width, height)];
+    int index = 0;
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        codes[index++] = table.encode(matrix.get(row, col));
+      } // for col
+    } // for row
+    DictionaryMatrix<T> result = new DictionaryMatrix<>(0, 0, null, table);
+    result.adopt(codes, width, height, height);
+    return result;
+  } // copyOf(ReadableMatrix<T>, ValueTable<T>)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * The distinct values of one or more matrices, each with a code.
+   * Codes count up from zero in the order the values were added.
+   *
+   * @param <T>
+   *   The type of the values.
+   */
+  public static final class ValueTable<T> {
+    /**
+     * The values, by code.
+     */
+    private Object[] values;
+
+    /**
+     * The hash code of each value, or 0 for null.
+     */
+    int[] hashes;
+
+    /**
+     * The number of values.
+     */
+    private int size;
+
+    /**
+     * The code of null, or -1 if null is not in the table.
+     */
+    int nullCode = -1;
+
+    /**
+     * The codes, by value.
+     */
+    private final HashMap<Object, Integer> codes = new HashMap<>();
+
+    /**
+     * Create an empty table.
+     */
+    public ValueTable() {
+      this.values = new Object[16];
+      this.hashes = new int[16];
+    } // ValueTable()
+
+    /**
+     * Make a copy of the table, which shares the values but gives them
+     * the same codes independently of this table.
+     *
+     * @return the copy.
+     */
+    ValueTable<T> copy() {
+      ValueTable<T> result = new ValueTable<>();
+      result.values = this.values.clone();
+      result.hashes = this.hashes.clone();
+      result.size = this.size;
+      result.nullCode = this.nullCode;
+      result.codes.putAll(this.codes);
+      return result;
+    } // copy()
+
+    /**
+     * Find the code of a value, adding the value if it is new.
+     *
+     * @param val
+     *   The value, which may be null.
+     *
+     * @return its code.
+     */
+    public int encode(T val) {
+      Integer code = this.codes.get(val);
+      if (code == null) {
+        if (this.size == this.values.length) {
+          this.values = Arrays.copyOf(this.values, 2 * this.size);
+          this.hashes = Arrays.copyOf(this.hashes, 2 * this.size);
+        } // if
+        code = this.size;
+        this.values[this.size] = val;
+        if (val == null) {
+          this.nullCode = this.size;
+        } else {
+          this.hashes[this.size] = val.hashCode();
+        } // if/else
+        this.size++;
+        this.codes.put(val, code);
+      } // if
+      return code;
+    } // encode(T)
+
+    /**
+     * Find the value of a code.
+     *
+     * @param code
+     *   The code.
+     *
+     * @return the value.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If no value has that code.
+     */
+    @SuppressWarnings("unchecked")
+    public T decode(int code) {
+      if (code >= this.size) {
+        throw new IndexOutOfBoundsException("Invalid code " + code + ".");
+      } // if
+      return (T) this.values[code];
+    } // decode(int)
+
+    /**
+     * Determine the number of values in the table.
+     *
+     * @return that number.
+     */
+    public int size() {
+      return this.size;
+    } // size()
+  } // class ValueTable<T>
+} // class DictionaryMatrix<T>
@@ -0,0 +1,185 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Two-dimensional matrices of doubles, stored unboxed in a single
+ * double[]. See {@link AbstractFlatMatrix} for the layout.
+ *
+ * <p>{@link #getDouble} and {@link #setDouble} read and write cells
+ * without boxing. The matrix is also a {@code Matrix<Double>}, so it
+ * works with code such as {@link Matrix#print}; those methods box and
+ * unbox at the boundary. Since cells cannot hold null, setting a cell
+ * to null throws a NullPointerException.</p>
+ */
+public class DoubleMatrix extends AbstractFlatMatrix<Double, double[]> {
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DoubleMatrix(int width, int height, double def) {
+    super(width, height, def, width);
+  } // DoubleMatrix(int, int, double)
+
+  /**
+   * Create a new matrix of the specified width and height with zero as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DoubleMatrix(int width, int height) {
+    this(width, height, 0);
+  } // DoubleMatrix(int, int)
+
+  // +-----------------+---------------------------------------------
+  // | Storage methods |
+  // +-----------------+
+
+  @Override
+  double[] allocate(int length) {
+    return new double[length];
+  } // allocate(int)
+
+  @Override
+  Double load(int index) {
+    return this.cells[index];
+  } // load(int)
+
+  @Override
+  void store(int index, Double val) {
+    this.cells[index] = val;
+  } // store(int, Double)
+
+  @Override
+  void fill(int from, int to, Double val) {
+    Kernels.get().fillDoubles(this.cells, from, to - from, val);
+  } // fill(int, int, Double)
+
+  @Override
+  boolean rangeEquals(double[] mine, int myFrom, double[] theirs,
+      int theirFrom, int length) {
+    return Kernels.get().mismatchDoubles(mine, myFrom, theirs, theirFrom,
+        length) < 0;
+  } // rangeEquals(double[], int, double[], int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public double getDouble(int row, int col) {
+    return this.cells[index(row, col)];
+  } // getDouble(int, int)
+
+  /**
+   * Set the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setDouble(int row, int col, double val) {
+    this.cells[index(row, col)] = val;
+  } // setDouble(int, int, double)
+
+  /**
+   * Add another matrix to this one, cell by cell.
+   *
+   * @param other
+   *   The matrix to add.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different widths or heights.
+   */
+  public void add(DoubleMatrix other) {
+    eachRun(other, Kernels.get()::addDoubles);
+  } // add(DoubleMatrix)
+
+  /**
+   * Subtract another matrix from this one, cell by cell.
+   *
+   * @param other
+   *   The matrix to subtract.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different widths or heights.
+   */
+  public void subtract(DoubleMatrix other) {
+    eachRun(other, Kernels.get()::subtractDoubles);
+  } // subtract(DoubleMatrix)
+
+  /**
+   * Multiply every cell by a factor.
+   *
+   * @param factor
+   *   The factor.
+   */
+  public void scale(double factor) {
+    Kernels kernels = Kernels.get();
+    eachRun(this, (mine, from, theirs, theirFrom, length) ->
+        kernels.scaleDoubles(mine, from, length, factor));
+  } // scale(double)
+
+  /**
+   * Make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  public DoubleMatrix clone() {
+    return (DoubleMatrix) super.clone();
+  } // clone()
+
+  /**
+   * Compute a hash code for the matrix, without boxing.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    int code = Cells.seed(this.numCols, this.numRows);
+    for (int row = 0; row < this.numRows; row++) {
+      int start = row * this.stride;
+      for (int i = start; i < start + this.numCols; i++) {
+        code = code * Cells.MULTIPLIER + Double.hashCode(this.cells[i]);
+      } // for i
+    } // for row
+    return code;
+  } // hashCode()
+} // class DoubleMatrix
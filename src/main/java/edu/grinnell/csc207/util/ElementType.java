@@ -0,0 +1,222 @@
+package edu.grinnell.csc207.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A primitive type whose values can be stored in a fixed number of
+ * bytes of a {@link ByteBuffer}. Used by matrices that keep their cells
+ * outside the Java heap.
+ *
+ * @param <T>
+ *   The boxed type of the values.
+ */
+public abstract class ElementType<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Four-byte ints.
+   */
+  public static final ElementType<Integer> INT = new ElementType<>("int", 1, 4) {
+    @Override
+    public Integer read(ByteBuffer buffer, int offset) {
+      return buffer.getInt(offset);
+    } // read(ByteBuffer, int)
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, Integer val) {
+      buffer.putInt(offset, val);
+    } // write(ByteBuffer, int, Integer)
+  };
+
+  /**
+   * Eight-byte longs.
+   */
+  public static final ElementType<Long> LONG = new ElementType<>("long", 2, 8) {
+    @Override
+    public Long read(ByteBuffer buffer, int offset) {
+      return buffer.getLong(offset);
+    } // read(ByteBuffer, int)
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, Long val) {
+      buffer.putLong(offset, val);
+    } // write(ByteBuffer, int, Long)
+  };
+
+  /**
+   * Eight-byte doubles.
+   */
+  public static final ElementType<Double> DOUBLE =
+      new ElementType<>("double", 3, 8) {
+        @Override
+        public Double read(ByteBuffer buffer, int offset) {
+          return buffer.getDouble(offset);
+        } // read(ByteBuffer, int)
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Double val) {
+          buffer.putDouble(offset, val);
+        } // write(ByteBuffer, int, Double)
+
+        @Override
+        boolean rangeEquals(ByteBuffer mine, int myOffset, ByteBuffer theirs,
+            int theirOffset, int count) {
+          // Double.equals treats all NaNs as equal, so compare the values
+          // rather than the bytes.
+          for (int i = 0; i < count * 8; i += 8) {
+            if (Double.doubleToLongBits(mine.getDouble(myOffset + i))
+                != Double.doubleToLongBits(theirs.getDouble(theirOffset + i))) {
+              return false;
+            } // if
+          } // for
+          return true;
+        } // rangeEquals(ByteBuffer, int, ByteBuffer, int, int)
+      };
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The name of the type.
+   */
+  private final String name;
+
+  /**
+   * A small number that identifies the type in files.
+   */
+  private final int code;
+
+  /**
+   * The number of bytes in one value.
+   */
+  private final int size;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new element type.
+   *
+   * @param name
+   *   The name of the type.
+   * @param code
+   *   A small number that identifies the type in files.
+   * @param size
+   *   The number of bytes in one value.
+   */
+  private ElementType(String name, int code, int size) {
+    this.name = name;
+    this.code = code;
+    this.size = size;
+  } // ElementType(String, int, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Find the element type with a given code.
+   *
+   * @param code
+   *   The code, as returned by {@link #code()}.
+   *
+   * @return the corresponding element type.
+   *
+   * @throws IllegalArgumentException
+   *   If no element type has that code.
+   */
+  public static ElementType<?> forCode(int code) {
+    for (ElementType<?> type : new ElementType<?>[] {INT, LONG, DOUBLE}) {
+      if (type.code == code) {
+        return type;
+      } // if
+    } // for
+    throw new IllegalArgumentException("Unknown element type " + code);
+  } // forCode(int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Determine the number of bytes in one value.
+   *
+   * @return the size of a value in bytes.
+   */
+  public int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Get the number that identifies this type in files.
+   *
+   * @return the code.
+   */
+  public int code() {
+    return this.code;
+  } // code()
+
+  /**
+   * Read a value from a buffer.
+   *
+   * @param buffer
+   *   The buffer to read from.
+   * @param offset
+   *   The byte offset of the value.
+   *
+   * @return the value.
+   */
+  public abstract T read(ByteBuffer buffer, int offset);
+
+  /**
+   * Write a value to a buffer.
+   *
+   * @param buffer
+   *   The buffer to write to.
+   * @param offset
+   *   The byte offset of the value.
+   * @param val
+   *   The value to write.
+   *
+   * @throws NullPointerException
+   *   If val is null.
+   */
+  public abstract void write(ByteBuffer buffer, int offset, T val);
+
+  /**
+   * Determine whether two runs of values are equal, in the sense of
+   * equals on the boxed values.
+   *
+   * @param mine
+   *   The first buffer.
+   * @param myOffset
+   *   The byte offset of the first run.
+   * @param theirs
+   *   The second buffer.
+   * @param theirOffset
+   *   The byte offset of the second run.
+   * @param count
+   *   The number of values to compare.
+   *
+   * @return true if the runs are equal and false otherwise.
+   */
+  boolean rangeEquals(ByteBuffer mine, int myOffset, ByteBuffer theirs,
+      int theirOffset, int count) {
+    int bytes = count * this.size;
+    return mine.slice(myOffset, bytes).equals(theirs.slice(theirOffset, bytes));
+  } // rangeEquals(ByteBuffer, int, ByteBuffer, int, int)
+
+  /**
+   * Get the name of the type.
+   *
+   * @return the name.
+   */
+  @Override
+  public String toString() {
+    return this.name;
+  } // toString()
+} // class ElementType<T>
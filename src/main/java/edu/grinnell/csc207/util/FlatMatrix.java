@@ -0,0 +1,124 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * Two-dimensional matrices stored in a single contiguous array of
+ * references. See {@link AbstractFlatMatrix} for the layout.
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class FlatMatrix<T> extends AbstractFlatMatrix<T, Object[]> {
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public FlatMatrix(int width, int height, T def) {
+    this(width, height, def, width);
+  } // FlatMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null
+   * as the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public FlatMatrix(int width, int height) {
+    this(width, height, null);
+  } // FlatMatrix(int, int)
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default and the given row stride.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param stride
+   *   The distance between the starts of consecutive rows.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the stride is smaller than the width.
+   */
+  public FlatMatrix(int width, int height, T def, int stride) {
+    super(width, height, def, stride);
+  } // FlatMatrix(int, int, T, int)
+
+  // +-----------------+---------------------------------------------
+  // | Storage methods |
+  // +-----------------+
+
+  @Override
+  Object[] allocate(int length) {
+    return new Object[length];
+  } // allocate(int)
+
+  @Override
+  @SuppressWarnings("unchecked")
+  T load(int index) {
+    return (T) this.cells[index];
+  } // load(int)
+
+  @Override
+  void store(int index, T val) {
+    this.cells[index] = val;
+  } // store(int, T)
+
+  @Override
+  void fill(int from, int to, T val) {
+    Arrays.fill(this.cells, from, to, val);
+  } // fill(int, int, T)
+
+  @Override
+  boolean rangeEquals(Object[] mine, int myFrom, Object[] theirs,
+      int theirFrom, int length) {
+    return Arrays.equals(mine, myFrom, myFrom + length, theirs, theirFrom,
+        theirFrom + length);
+  } // rangeEquals(Object[], int, Object[], int, int)
+
+  @Override
+  void clear(int from, int to) {
+    Arrays.fill(this.cells, from, to, null);
+  } // clear(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Make a copy of the matrix. The copy shares references to the
+   * elements, but not the underlying storage.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  public FlatMatrix<T> clone() {
+    return (FlatMatrix<T>) super.clone();
+  } // clone()
+} // class FlatMatrix<T>
@@ -0,0 +1,177 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A list of ints that maps logical positions (rows or columns) to the
+ * physical ids where a matrix stores them. It is kept in a gap buffer:
+ * the unused part of the array sits at the last place we inserted or
+ * removed, so a run of edits near the same position costs O(1) each.
+ * Moving the gap costs time proportional to the distance moved.
+ */
+final class IndexMap implements Cloneable {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The ids, with the gap in the middle.
+   */
+  private int[] ids;
+
+  /**
+   * The first unused slot.
+   */
+  private int gapStart;
+
+  /**
+   * The first used slot after the gap.
+   */
+  private int gapEnd;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create the map 0, 1, ..., size-1.
+   *
+   * @param size
+   *   The number of positions.
+   */
+  IndexMap(int size) {
+    this.ids = new int[size];
+    for (int i = 0; i < size; i++) {
+      this.ids[i] = i;
+    } // for
+    this.gapStart = size;
+    this.gapEnd = size;
+  } // IndexMap(int)
+
+  /**
+   * Create a map holding the given ids.
+   *
+   * @param ids
+   *   The ids, in order. The array is copied.
+   */
+  IndexMap(int[] ids) {
+    this.ids = ids.clone();
+    this.gapStart = ids.length;
+    this.gapEnd = ids.length;
+  } // IndexMap(int[])
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Determine the number of positions.
+   *
+   * @return the number of positions.
+   */
+  int size() {
+    return this.ids.length - (this.gapEnd - this.gapStart);
+  } // size()
+
+  /**
+   * Get the id at a position. The caller checks the bounds.
+   *
+   * @param pos
+   *   The position.
+   *
+   * @return the id at that position.
+   */
+  int get(int pos) {
+    return pos < this.gapStart ? this.ids[pos]
+        : this.ids[pos + this.gapEnd - this.gapStart];
+  } // get(int)
+
+  /**
+   * Insert an id, shifting the later positions up by one.
+   *
+   * @param pos
+   *   Where to insert the id, from 0 to size().
+   * @param id
+   *   The id to insert.
+   */
+  void insert(int pos, int id) {
+    if (this.gapStart == this.gapEnd) {
+      int size = this.ids.length;
+      int[] bigger = new int[AbstractFlatMatrix.grow(size, size + 1)];
+      int gap = bigger.length - size;
+      System.arraycopy(this.ids, 0, bigger, 0, pos);
+      System.arraycopy(this.ids, pos, bigger, pos + gap, size - pos);
+      this.ids = bigger;
+      this.gapStart = pos;
+      this.gapEnd = pos + gap;
+    } else {
+      moveGap(pos);
+    } // if/else
+    this.ids[this.gapStart++] = id;
+  } // insert(int, int)
+
+  /**
+   * Remove the id at a position, shifting the later positions down.
+   *
+   * @param pos
+   *   The position to remove, from 0 to size()-1.
+   *
+   * @return the id that was removed.
+   */
+  int remove(int pos) {
+    moveGap(pos + 1);
+    return this.ids[--this.gapStart];
+  } // remove(int)
+
+  /**
+   * Get the ids in order, without the gap.
+   *
+   * @return a new array of the ids.
+   */
+  int[] toArray() {
+    int[] result = Arrays.copyOf(this.ids, size());
+    System.arraycopy(this.ids, this.gapEnd, result, this.gapStart,
+        this.ids.length - this.gapEnd);
+    return result;
+  } // toArray()
+
+  /**
+   * Make a copy of the map.
+   *
+   * @return an independent copy.
+   */
+  @Override
+  public IndexMap clone() {
+    try {
+      IndexMap copy = (IndexMap) super.clone();
+      copy.ids = this.ids.clone();
+      return copy;
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    } // try/catch
+  } // clone()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Move the gap so that it starts at a position.
+   *
+   * @param pos
+   *   The new start of the gap.
+   */
+  private void moveGap(int pos) {
+    if (pos < this.gapStart) {
+      int count = this.gapStart - pos;
+      System.arraycopy(this.ids, pos, this.ids, this.gapEnd - count, count);
+      this.gapStart -= count;
+      this.gapEnd -= count;
+    } else if (pos > this.gapStart) {
+      int count = pos - this.gapStart;
+      System.arraycopy(this.ids, this.gapEnd, this.ids, this.gapStart, count);
+      this.gapStart += count;
+      this.gapEnd += count;
+    } // if/else
+  } // moveGap(int)
+} // class IndexMap
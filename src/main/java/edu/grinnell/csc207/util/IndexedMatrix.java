@@ -0,0 +1,667 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * Two-dimensional matrices whose rows and columns are found through
+ * index maps, so that inserting and deleting rows and columns never
+ * moves the cells that are already stored.
+ *
+ * <p>The cells live in an array of physical rows, each with a slot for
+ * every physical column. Two {@link IndexMap}s translate logical rows
+ * and columns into physical ones. Each physical column also records
+ * which physical rows have been written since the column was handed
+ * out; the others hold the default value, whatever their slots say.
+ * Inserting a column therefore only adds an entry to the column map and
+ * takes a free physical column, and deleting it removes the entry and
+ * frees the column for later reuse, without touching any row. Inserting
+ * a row builds one new physical row; deleting it frees the row. The
+ * index edit is O(1) when it is near the previous edit, as in a
+ * spreadsheet where the user keeps inserting columns in the same
+ * place.</p>
+ *
+ * <p>Over time the physical order drifts away from the logical order,
+ * which makes scans jump around memory, and the slots of deleted columns
+ * keep their values reachable until the column is reused. Call
+ * {@link #compact} to lay the cells out in logical order again and
+ * release the freed slots.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class IndexedMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The rows written in a column whose every slot holds its value.
+   */
+  private static final long[] ALL_ROWS = new long[0];
+
+  /**
+   * The rows written in a new column, before any are. Since it is
+   * empty, marking a row replaces it with a larger array.
+   */
+  private static final long[] NO_ROWS = new long[0];
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The physical rows. Rows that have been freed are null.
+   */
+  private Object[][] data;
+
+  /**
+   * The number of physical columns in each row.
+   */
+  private int colCapacity;
+
+  /**
+   * The number of physical rows that have ever been used.
+   */
+  private int usedRows;
+
+  /**
+   * The number of physical columns that have ever been used.
+   */
+  private int usedCols;
+
+  /**
+   * The physical rows that are free for reuse.
+   */
+  private int[] freeRows;
+
+  /**
+   * The number of free physical rows.
+   */
+  private int numFreeRows;
+
+  /**
+   * The physical columns that are free for reuse.
+   */
+  private int[] freeCols;
+
+  /**
+   * The number of free physical columns.
+   */
+  private int numFreeCols;
+
+  /**
+   * For each physical column, a bit set of the physical rows written
+   * since the column was handed out, or ALL_ROWS if every slot holds
+   * its value.
+   */
+  private long[][] written;
+
+  /**
+   * The physical row of each logical row.
+   */
+  private IndexMap rowMap;
+
+  /**
+   * The physical column of each logical column.
+   */
+  private IndexMap colMap;
+
+  /**
+   * The value used to fill new cells.
+   */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public IndexedMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException(
+          "Width and height must be non-negative.");
+    } // if
+    this.defaultValue = def;
+    this.data = new Object[height][width];
+    for (Object[] row : this.data) {
+      Arrays.fill(row, def);
+    } // for
+    this.colCapacity = width;
+    this.usedRows = height;
+    this.usedCols = width;
+    this.freeRows = new int[0];
+    this.freeCols = new int[0];
+    this.written = new long[width][];
+    Arrays.fill(this.written, ALL_ROWS);
+    this.rowMap = new IndexMap(height);
+    this.colMap = new IndexMap(width);
+  } // IndexedMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public IndexedMatrix(int width, int height) {
+    this(width, height, null);
+  } // IndexedMatrix(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(int row, int col) {
+    checkCell(row, col);
+    return (T) load(this.rowMap.get(row), this.colMap.get(col));
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public void set(int row, int col, T val) {
+    checkCell(row, col);
+    store(this.rowMap.get(row), this.colMap.get(col), val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.rowMap.size();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.colMap.size();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @Override
+  public void insertRow(int row) {
+    checkRowInsert(row);
+    this.rowMap.insert(row, newRow());
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  @Override
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    checkRowInsert(row);
+    if (vals.length != width()) {
+      throw new ArraySizeException("Invalid array size for the row insertion.");
+    } // if
+    int physical = newRow();
+    for (int col = 0; col < vals.length; col++) {
+      store(physical, this.colMap.get(col), vals[col]);
+    } // for
+    this.rowMap.insert(row, physical);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @Override
+  public void insertCol(int col) {
+    checkColInsert(col);
+    int physical = newCol();
+    this.written[physical] = NO_ROWS;
+    this.colMap.insert(col, physical);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  @Override
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    checkColInsert(col);
+    if (vals.length != height()) {
+      throw new ArraySizeException(
+          "Invalid array size for the column insertion.");
+    } // if
+    int physical = newCol();
+    for (int row = 0; row < vals.length; row++) {
+      this.data[this.rowMap.get(row)][physical] = vals[row];
+    } // for
+    // Every live row now holds its value; freed rows are rebuilt before
+    // reuse.
+    this.written[physical] = ALL_ROWS;
+    this.colMap.insert(col, physical);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @Override
+  public void deleteRow(int row) {
+    if (row < 0 || row >= height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    int physical = this.rowMap.remove(row);
+    this.data[physical] = null;
+    this.freeRows = push(this.freeRows, this.numFreeRows++, physical);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @Override
+  public void deleteCol(int col) {
+    if (col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    int physical = this.colMap.remove(col);
+    this.freeCols = push(this.freeCols, this.numFreeCols++, physical);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow < 0 || startCol < 0 || endRow > height()
+        || endCol > width()) {
+      throw new IndexOutOfBoundsException("Invalid region.");
+    } // if
+    for (int row = startRow; row < endRow; row++) {
+      int physical = this.rowMap.get(row);
+      for (int col = startCol; col < endCol; col++) {
+        store(physical, this.colMap.get(col), val);
+      } // for col
+    } // for row
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    int row = startRow;
+    int col = startCol;
+    while (row < endRow && col < endCol) {
+      set(row, col, val);
+      row += deltaRow;
+      col += deltaCol;
+    } // while
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Lay the cells out in logical order, so that the physical rows and
+   * columns match the logical ones, and release the freed slots.
+   */
+  public void compact() {
+    int[] rows = this.rowMap.toArray();
+    int[] cols = this.colMap.toArray();
+    Object[][] packed = new Object[rows.length][cols.length];
+    for (int row = 0; row < rows.length; row++) {
+      Object[] to = packed[row];
+      for (int col = 0; col < cols.length; col++) {
+        to[col] = load(rows[row], cols[col]);
+      } // for col
+    } // for row
+    this.data = packed;
+    this.colCapacity = cols.length;
+    this.usedRows = rows.length;
+    this.usedCols = cols.length;
+    this.freeRows = new int[0];
+    this.numFreeRows = 0;
+    this.freeCols = new int[0];
+    this.numFreeCols = 0;
+    this.written = new long[cols.length][];
+    Arrays.fill(this.written, ALL_ROWS);
+    this.rowMap = new IndexMap(rows.length);
+    this.colMap = new IndexMap(cols.length);
+  } // compact()
+
+  /**
+   * Make a copy of the matrix. The values are shared, but the structure
+   * is not.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public IndexedMatrix<T> clone() {
+    try {
+      IndexedMatrix<T> copy = (IndexedMatrix<T>) super.clone();
+      copy.data = this.data.clone();
+      for (int row = 0; row < this.usedRows; row++) {
+        if (copy.data[row] != null) {
+          copy.data[row] = copy.data[row].clone();
+        } // if
+      } // for
+      copy.freeRows = this.freeRows.clone();
+      copy.freeCols = this.freeCols.clone();
+      copy.written = this.written.clone();
+      for (int col = 0; col < this.usedCols; col++) {
+        if (copy.written[col].length > 0) {
+          copy.written[col] = copy.written[col].clone();
+        } // if
+      } // for
+      copy.rowMap = this.rowMap.clone();
+      copy.colMap = this.colMap.clone();
+      return copy;
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    } // try/catch
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return this == other
+        || (other instanceof Matrix && Cells.same(this, (Matrix<?>) other));
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Cells.hash(this);
+  } // hashCode()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Make sure a cell is in bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  private void checkCell(int row, int col) {
+    if (row < 0 || row >= height() || col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Make sure that a row index is valid for insertion.
+   *
+   * @param row
+   *   The index of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  private void checkRowInsert(int row) {
+    if (row < 0 || row > height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+  } // checkRowInsert(int)
+
+  /**
+   * Make sure that a column index is valid for insertion.
+   *
+   * @param col
+   *   The index of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  private void checkColInsert(int col) {
+    if (col < 0 || col > width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+  } // checkColInsert(int)
+
+  /**
+   * Read a physical slot, which holds the default value unless its row
+   * has been written since its column was handed out.
+   *
+   * @param row
+   *   The physical row.
+   * @param col
+   *   The physical column.
+   *
+   * @return the value of the cell.
+   */
+  private Object load(int row, int col) {
+    long[] rows = this.written[col];
+    if (rows != ALL_ROWS && ((row >>> 6) >= rows.length
+        || (rows[row >>> 6] & (1L << row)) == 0)) {
+      return this.defaultValue;
+    } // if
+    return this.data[row][col];
+  } // load(int, int)
+
+  /**
+   * Write a physical slot, and note that its row has been written.
+   *
+   * @param row
+   *   The physical row.
+   * @param col
+   *   The physical column.
+   * @param val
+   *   The value to store.
+   */
+  private void store(int row, int col, Object val) {
+    this.data[row][col] = val;
+    long[] rows = this.written[col];
+    if (rows != ALL_ROWS) {
+      int word = row >>> 6;
+      if (word >= rows.length) {
+        rows = Arrays.copyOf(rows, Math.max(word + 1, 2 * rows.length));
+        this.written[col] = rows;
+      } // if
+      rows[word] |= 1L << row;
+    } // if
+  } // store(int, int, Object)
+
+  /**
+   * Get a physical row filled with the default value, reusing a free
+   * one if possible.
+   *
+   * @return the index of the physical row.
+   */
+  private int newRow() {
+    int physical;
+    if (this.numFreeRows > 0) {
+      physical = this.freeRows[--this.numFreeRows];
+    } else {
+      if (this.usedRows == this.data.length) {
+        this.data = Arrays.copyOf(this.data,
+            AbstractFlatMatrix.grow(this.data.length, this.usedRows + 1));
+      } // if
+      physical = this.usedRows++;
+    } // if/else
+    Object[] cells = new Object[this.colCapacity];
+    Arrays.fill(cells, this.defaultValue);
+    this.data[physical] = cells;
+    return physical;
+  } // newRow()
+
+  /**
+   * Get a physical column, reusing a free one if possible. The caller
+   * records which of its rows are written.
+   *
+   * @return the index of the physical column.
+   */
+  private int newCol() {
+    if (this.numFreeCols > 0) {
+      return this.freeCols[--this.numFreeCols];
+    } // if
+    if (this.usedCols == this.colCapacity) {
+      this.colCapacity = AbstractFlatMatrix.grow(this.colCapacity,
+          this.usedCols + 1);
+      for (int row = 0; row < this.usedRows; row++) {
+        if (this.data[row] != null) {
+          this.data[row] = Arrays.copyOf(this.data[row], this.colCapacity);
+        } // if
+      } // for
+      this.written = Arrays.copyOf(this.written, this.colCapacity);
+    } // if
+    return this.usedCols++;
+  } // newCol()
+
+  /**
+   * Push an index onto a stack of free indices.
+   *
+   * @param stack
+   *   The stack.
+   * @param size
+   *   The number of indices on the stack.
+   * @param index
+   *   The index to push.
+   *
+   * @return the stack, which may be a new array.
+   */
+  private static int[] push(int[] stack, int size, int index) {
+    if (size == stack.length) {
+      stack = Arrays.copyOf(stack, AbstractFlatMatrix.grow(size, size + 1));
+    } // if
+    stack[size] = index;
+    return stack;
+  } // push(int[], int, int)
+} // class IndexedMatrix<T>
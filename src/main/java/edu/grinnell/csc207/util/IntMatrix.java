@@ -0,0 +1,185 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Two-dimensional matrices of integers, stored unboxed in a single
+ * int[]. See {@link AbstractFlatMatrix} for the layout.
+ *
+ * <p>{@link #getInt} and {@link #setInt} read and write cells
+ * without boxing. The matrix is also a {@code Matrix<Integer>}, so it
+ * works with code such as {@link Matrix#print}; those methods box and
+ * unbox at the boundary. Since cells cannot hold null, setting a cell
+ * to null throws a NullPointerException.</p>
+ */
+public class IntMatrix extends AbstractFlatMatrix<Integer, int[]> {
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public IntMatrix(int width, int height, int def) {
+    super(width, height, def, width);
+  } // IntMatrix(int, int, int)
+
+  /**
+   * Create a new matrix of the specified width and height with zero as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public IntMatrix(int width, int height) {
+    this(width, height, 0);
+  } // IntMatrix(int, int)
+
+  // +-----------------+---------------------------------------------
+  // | Storage methods |
+  // +-----------------+
+
+  @Override
+  int[] allocate(int length) {
+    return new int[length];
+  } // allocate(int)
+
+  @Override
+  Integer load(int index) {
+    return this.cells[index];
+  } // load(int)
+
+  @Override
+  void store(int index, Integer val) {
+    this.cells[index] = val;
+  } // store(int, Integer)
+
+  @Override
+  void fill(int from, int to, Integer val) {
+    Kernels.get().fillInts(this.cells, from, to - from, val);
+  } // fill(int, int, Integer)
+
+  @Override
+  boolean rangeEquals(int[] mine, int myFrom, int[] theirs,
+      int theirFrom, int length) {
+    return Kernels.get().mismatchInts(mine, myFrom, theirs, theirFrom,
+        length) < 0;
+  } // rangeEquals(int[], int, int[], int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public int getInt(int row, int col) {
+    return this.cells[index(row, col)];
+  } // getInt(int, int)
+
+  /**
+   * Set the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setInt(int row, int col, int val) {
+    this.cells[index(row, col)] = val;
+  } // setInt(int, int, int)
+
+  /**
+   * Add another matrix to this one, cell by cell.
+   *
+   * @param other
+   *   The matrix to add.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different widths or heights.
+   */
+  public void add(IntMatrix other) {
+    eachRun(other, Kernels.get()::addInts);
+  } // add(IntMatrix)
+
+  /**
+   * Subtract another matrix from this one, cell by cell.
+   *
+   * @param other
+   *   The matrix to subtract.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different widths or heights.
+   */
+  public void subtract(IntMatrix other) {
+    eachRun(other, Kernels.get()::subtractInts);
+  } // subtract(IntMatrix)
+
+  /**
+   * Multiply every cell by a factor.
+   *
+   * @param factor
+   *   The factor.
+   */
+  public void scale(int factor) {
+    Kernels kernels = Kernels.get();
+    eachRun(this, (mine, from, theirs, theirFrom, length) ->
+        kernels.scaleInts(mine, from, length, factor));
+  } // scale(int)
+
+  /**
+   * Make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  public IntMatrix clone() {
+    return (IntMatrix) super.clone();
+  } // clone()
+
+  /**
+   * Compute a hash code for the matrix, without boxing.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    int code = Cells.seed(this.numCols, this.numRows);
+    for (int row = 0; row < this.numRows; row++) {
+      int start = row * this.stride;
+      for (int i = start; i < start + this.numCols; i++) {
+        code = code * Cells.MULTIPLIER + Integer.hashCode(this.cells[i]);
+      } // for i
+    } // for row
+    return code;
+  } // hashCode()
+} // class IntMatrix
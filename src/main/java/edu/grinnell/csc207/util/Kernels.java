@@ -0,0 +1,290 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Loops over runs of primitive cells, for the bulk operations of the
+ * primitive matrices. There are two implementations: {@link
+ * VectorKernels} uses the incubating Vector API to work on several
+ * cells per instruction, and {@link ScalarKernels} uses plain loops and
+ * the intrinsics in {@link java.util.Arrays}.
+ *
+ * <p>The Vector API is only there when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}. Without it we fall back
+ * to the plain loops. Set the system property {@value #PROPERTY} to
+ * "scalar" to use the plain loops anyway, for example to compare the
+ * two.</p>
+ *
+ * <p>Every method works on the run of {@code length} cells that starts
+ * at the given offset in each array.</p>
+ */
+abstract class Kernels {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The system property that selects the kernels.
+   */
+  static final String PROPERTY = "matrices.kernels";
+
+  /**
+   * The kernels we use.
+   */
+  private static final Kernels INSTANCE = load();
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Get the kernels to use.
+   *
+   * @return the vector kernels if we can use them, the scalar kernels
+   *   otherwise.
+   */
+  static Kernels get() {
+    return INSTANCE;
+  } // get()
+
+  /**
+   * Pick the kernels.
+   *
+   * @return the kernels.
+   */
+  private static Kernels load() {
+    if (!"scalar".equals(System.getProperty(PROPERTY))
+        && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        return new VectorKernels();
+      } catch (LinkageError e) {
+        // The module is there but unusable, so use the plain loops.
+      } // try/catch
+    } // if
+    return new ScalarKernels();
+  } // load()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Determine whether these are the vector kernels.
+   *
+   * @return true if they use the Vector API.
+   */
+  abstract boolean vectorized();
+
+  /**
+   * Add one run of ints to another: dst[i] += src[i].
+   *
+   * @param dst
+   *   The array to change.
+   * @param dstFrom
+   *   Where its run starts.
+   * @param src
+   *   The array to add.
+   * @param srcFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   */
+  abstract void addInts(int[] dst, int dstFrom, int[] src, int srcFrom,
+      int length);
+
+  /**
+   * Subtract one run of ints from another: dst[i] -= src[i].
+   *
+   * @param dst
+   *   The array to change.
+   * @param dstFrom
+   *   Where its run starts.
+   * @param src
+   *   The array to subtract.
+   * @param srcFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   */
+  abstract void subtractInts(int[] dst, int dstFrom, int[] src, int srcFrom,
+      int length);
+
+  /**
+   * Multiply a run of ints by a factor.
+   *
+   * @param dst
+   *   The array to change.
+   * @param from
+   *   Where the run starts.
+   * @param length
+   *   The number of cells.
+   * @param factor
+   *   The factor.
+   */
+  abstract void scaleInts(int[] dst, int from, int length, int factor);
+
+  /**
+   * Fill a run of ints.
+   *
+   * @param dst
+   *   The array to change.
+   * @param from
+   *   Where the run starts.
+   * @param length
+   *   The number of cells.
+   * @param val
+   *   The value to store.
+   */
+  abstract void fillInts(int[] dst, int from, int length, int val);
+
+  /**
+   * Find the first difference between two runs of ints.
+   *
+   * @param a
+   *   One array.
+   * @param aFrom
+   *   Where its run starts.
+   * @param b
+   *   The other array.
+   * @param bFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   *
+   * @return the offset in the runs of the first difference, or -1 if
+   *   the runs are equal.
+   */
+  abstract int mismatchInts(int[] a, int aFrom, int[] b, int bFrom,
+      int length);
+
+  /**
+   * Add one run of longs to another: dst[i] += src[i].
+   *
+   * @param dst
+   *   The array to change.
+   * @param dstFrom
+   *   Where its run starts.
+   * @param src
+   *   The array to add.
+   * @param srcFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   */
+  abstract void addLongs(long[] dst, int dstFrom, long[] src, int srcFrom,
+      int length);
+
+  /**
+   * Subtract one run of longs from another: dst[i] -= src[i].
+   *
+   * @param dst
+   *   The array to change.
+   * @param dstFrom
+   *   Where its run starts.
+   * @param src
+   *   The array to subtract.
+   * @param srcFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   */
+  abstract void subtractLongs(long[] dst, int dstFrom, long[] src,
+      int srcFrom, int length);
+
+  /**
+   * Multiply a run of longs by a factor.
+   *
+   * @param dst
+   *   The array to change.
+   * @param from
+   *   Where the run starts.
+   * @param length
+   *   The number of cells.
+   * @param factor
+   *   The factor.
+   */
+  abstract void scaleLongs(long[] dst, int from, int length, long factor);
+
+  /**
+   * Add one run of doubles to another: dst[i] += src[i].
+   *
+   * @param dst
+   *   The array to change.
+   * @param dstFrom
+   *   Where its run starts.
+   * @param src
+   *   The array to add.
+   * @param srcFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   */
+  abstract void addDoubles(double[] dst, int dstFrom, double[] src,
+      int srcFrom, int length);
+
+  /**
+   * Subtract one run of doubles from another: dst[i] -= src[i].
+   *
+   * @param dst
+   *   The array to change.
+   * @param dstFrom
+   *   Where its run starts.
+   * @param src
+   *   The array to subtract.
+   * @param srcFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   */
+  abstract void subtractDoubles(double[] dst, int dstFrom, double[] src,
+      int srcFrom, int length);
+
+  /**
+   * Multiply a run of doubles by a factor.
+   *
+   * @param dst
+   *   The array to change.
+   * @param from
+   *   Where the run starts.
+   * @param length
+   *   The number of cells.
+   * @param factor
+   *   The factor.
+   */
+  abstract void scaleDoubles(double[] dst, int from, int length,
+      double factor);
+
+  /**
+   * Fill a run of doubles.
+   *
+   * @param dst
+   *   The array to change.
+   * @param from
+   *   Where the run starts.
+   * @param length
+   *   The number of cells.
+   * @param val
+   *   The value to store.
+   */
+  abstract void fillDoubles(double[] dst, int from, int length, double val);
+
+  /**
+   * Find the first difference between two runs of doubles. As in
+   * {@link java.util.Arrays#equals(double[], double[])}, two NaNs are
+   * the same and 0.0 differs from -0.0.
+   *
+   * @param a
+   *   One array.
+   * @param aFrom
+   *   Where its run starts.
+   * @param b
+   *   The other array.
+   * @param bFrom
+   *   Where its run starts.
+   * @param length
+   *   The number of cells.
+   *
+   * @return the offset in the runs of the first difference, or -1 if
+   *   the runs are equal.
+   */
+  abstract int mismatchDoubles(double[] a, int aFrom, double[] b, int bFrom,
+      int length);
+} // class Kernels
@@ -0,0 +1,187 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * Two-dimensional matrices of longs, stored unboxed in a single
+ * long[]. See {@link AbstractFlatMatrix} for the layout.
+ *
+ * <p>{@link #getLong} and {@link #setLong} read and write cells
+ * without boxing. The matrix is also a {@code Matrix<Long>}, so it
+ * works with code such as {@link Matrix#print}; those methods box and
+ * unbox at the boundary. Since cells cannot hold null, setting a cell
+ * to null throws a NullPointerException.</p>
+ */
+public class LongMatrix extends AbstractFlatMatrix<Long, long[]> {
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public LongMatrix(int width, int height, long def) {
+    super(width, height, def, width);
+  } // LongMatrix(int, int, long)
+
+  /**
+   * Create a new matrix of the specified width and height with zero as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public LongMatrix(int width, int height) {
+    this(width, height, 0);
+  } // LongMatrix(int, int)
+
+  // +-----------------+---------------------------------------------
+  // | Storage methods |
+  // +-----------------+
+
+  @Override
+  long[] allocate(int length) {
+    return new long[length];
+  } // allocate(int)
+
+  @Override
+  Long load(int index) {
+    return this.cells[index];
+  } // load(int)
+
+  @Override
+  void store(int index, Long val) {
+    this.cells[index] = val;
+  } // store(int, Long)
+
+  @Override
+  void fill(int from, int to, Long val) {
+    Arrays.fill(this.cells, from, to, val);
+  } // fill(int, int, Long)
+
+  @Override
+  boolean rangeEquals(long[] mine, int myFrom, long[] theirs,
+      int theirFrom, int length) {
+    return Arrays.equals(mine, myFrom, myFrom + length, theirs, theirFrom,
+        theirFrom + length);
+  } // rangeEquals(long[], int, long[], int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public long getLong(int row, int col) {
+    return this.cells[index(row, col)];
+  } // getLong(int, int)
+
+  /**
+   * Set the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setLong(int row, int col, long val) {
+    this.cells[index(row, col)] = val;
+  } // setLong(int, int, long)
+
+  /**
+   * Add another matrix to this one, cell by cell.
+   *
+   * @param other
+   *   The matrix to add.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different widths or heights.
+   */
+  public void add(LongMatrix other) {
+    eachRun(other, Kernels.get()::addLongs);
+  } // add(LongMatrix)
+
+  /**
+   * Subtract another matrix from this one, cell by cell.
+   *
+   * @param other
+   *   The matrix to subtract.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices have different widths or heights.
+   */
+  public void subtract(LongMatrix other) {
+    eachRun(other, Kernels.get()::subtractLongs);
+  } // subtract(LongMatrix)
+
+  /**
+   * Multiply every cell by a factor.
+   *
+   * @param factor
+   *   The factor.
+   */
+  public void scale(long factor) {
+    Kernels kernels = Kernels.get();
+    eachRun(this, (mine, from, theirs, theirFrom, length) ->
+        kernels.scaleLongs(mine, from, length, factor));
+  } // scale(long)
+
+  /**
+   * Make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  public LongMatrix clone() {
+    return (LongMatrix) super.clone();
+  } // clone()
+
+  /**
+   * Compute a hash code for the matrix, without boxing.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    int code = Cells.seed(this.numCols, this.numRows);
+    for (int row = 0; row < this.numRows; row++) {
+      int start = row * this.stride;
+      for (int i = start; i < start + this.numCols; i++) {
+        code = code * Cells.MULTIPLIER + Long.hashCode(this.cells[i]);
+      } // for i
+    } // for row
+    return code;
+  } // hashCode()
+} // class LongMatrix
@@ -0,0 +1,1082 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Two-dimensional matrices of primitive values stored in a file and
+ * accessed through memory mapping, so that a matrix can be much larger
+ * than the available memory. Only the parts of the file that are
+ * touched are paged in.
+ *
+ * <p>The file starts with a {@value #HEADER_SIZE}-byte header that
+ * holds a magic number, a format version, the element type, the
+ * dimensions, the capacity, and the default value. The cells follow in
+ * row-major order, little-endian, with the same stride and spare row
+ * capacity as {@link AbstractFlatMatrix}. Inserting rows past the
+ * capacity grows the file by half; inserting columns past the stride
+ * spreads the rows out in place.</p>
+ *
+ * <p>The file is mapped in fixed-size segments (1 GiB by default) that
+ * are created the first time they are used, so matrices are not limited
+ * to the two gigabytes of a single buffer. Changes reach the file when
+ * the operating system writes back the pages; call {@link #force} to
+ * write them immediately. Call {@link #close} when you are done.</p>
+ *
+ * <p>Methods of the {@link Matrix} interface cannot throw IOException,
+ * so I/O failures are reported as {@link UncheckedIOException}.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class MappedMatrix<T> implements Matrix<T>, AutoCloseable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of bytes in the header.
+   */
+  public static final int HEADER_SIZE = 64;
+
+  /**
+   * The magic number at the start of every file ("MPMM").
+   */
+  static final int MAGIC = 0x4D504D4D;
+
+  /**
+   * The version of the file format.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The log (base 2) of the default segment size.
+   */
+  static final int SEGMENT_BITS = 30;
+
+  /**
+   * Where the header fields live.
+   */
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 4;
+  private static final int TYPE_OFFSET = 8;
+  private static final int HEIGHT_OFFSET = 12;
+  private static final int WIDTH_OFFSET = 16;
+  private static final int STRIDE_OFFSET = 20;
+  private static final int CAPACITY_OFFSET = 24;
+  private static final int DEFAULT_OFFSET = 32;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The file.
+   */
+  private FileChannel channel;
+
+  /**
+   * The type of the cells.
+   */
+  private final ElementType<T> type;
+
+  /**
+   * The number of bytes in one cell.
+   */
+  private final int size;
+
+  /**
+   * The log (base 2) of the segment size.
+   */
+  private final int segmentBits;
+
+  /**
+   * The mapped segments of the file, created as needed.
+   */
+  private MappedByteBuffer[] segments;
+
+  /**
+   * The length of the file in bytes.
+   */
+  private long fileLength;
+
+  /**
+   * The number of rows in the matrix.
+   */
+  private int numRows;
+
+  /**
+   * The number of columns in the matrix.
+   */
+  private int numCols;
+
+  /**
+   * The number of cells between the start of one row and the next.
+   */
+  private int stride;
+
+  /**
+   * The number of rows that fit in the file.
+   */
+  private int rowCapacity;
+
+  /**
+   * The value used to fill new cells.
+   */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Wrap an open file. The header must already be valid.
+   *
+   * @param channel
+   *   The open file.
+   * @param type
+   *   The type of the cells.
+   * @param segmentBits
+   *   The log (base 2) of the segment size.
+   *
+   * @throws IOException
+   *   If we cannot read the file.
+   */
+  private MappedMatrix(FileChannel channel, ElementType<T> type,
+      int segmentBits) throws IOException {
+    this.channel = channel;
+    this.type = type;
+    this.size = type.size();
+    this.segmentBits = segmentBits;
+    this.fileLength = channel.size();
+    this.segments = new MappedByteBuffer[segmentCount(this.fileLength)];
+    ByteBuffer header = segment(0);
+    this.numRows = header.getInt(HEIGHT_OFFSET);
+    this.numCols = header.getInt(WIDTH_OFFSET);
+    this.stride = header.getInt(STRIDE_OFFSET);
+    this.rowCapacity = header.getInt(CAPACITY_OFFSET);
+    this.defaultValue = type.read(header, DEFAULT_OFFSET);
+    if (this.numRows < 0 || this.numCols < 0 || this.stride < this.numCols
+        || this.rowCapacity < this.numRows
+        || this.fileLength < cellOffset(this.rowCapacity, 0)) {
+      throw new IOException("Corrupt matrix header.");
+    } // if
+  } // MappedMatrix(FileChannel, ElementType<T>, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Create a new file-backed matrix, replacing any existing file.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param path
+   *   Where to store the matrix.
+   * @param type
+   *   The type of the cells.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @return the new matrix.
+   *
+   * @throws IOException
+   *   If we cannot create the file.
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public static <T> MappedMatrix<T> create(Path path, ElementType<T> type,
+      int width, int height, T def) throws IOException {
+    return create(path, type, width, height, def, SEGMENT_BITS);
+  } // create(Path, ElementType<T>, int, int, T)
+
+  /**
+   * Create a new file-backed matrix with a particular segment size.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param path
+   *   Where to store the matrix.
+   * @param type
+   *   The type of the cells.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param segmentBits
+   *   The log (base 2) of the segment size. Must be at least 6.
+   *
+   * @return the new matrix.
+   *
+   * @throws IOException
+   *   If we cannot create the file.
+   */
+  static <T> MappedMatrix<T> create(Path path, ElementType<T> type,
+      int width, int height, T def, int segmentBits) throws IOException {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException(
+          "Width and height must be non-negative.");
+    } // if
+    Objects.requireNonNull(def, "Mapped matrices cannot hold null.");
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC_OFFSET, MAGIC);
+    header.putInt(VERSION_OFFSET, VERSION);
+    header.putInt(TYPE_OFFSET, type.code());
+    header.putInt(HEIGHT_OFFSET, height);
+    header.putInt(WIDTH_OFFSET, width);
+    header.putInt(STRIDE_OFFSET, width);
+    header.putInt(CAPACITY_OFFSET, height);
+    type.write(header, DEFAULT_OFFSET, def);
+    long length = HEADER_SIZE + (long) width * height * type.size();
+
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      channel.write(header, 0);
+      extend(channel, length);
+      MappedMatrix<T> result = new MappedMatrix<>(channel, type, segmentBits);
+      // New file space reads as zero, so we only fill when the default
+      // value is something else.
+      if (!isZero(header, DEFAULT_OFFSET, type.size())) {
+        result.fillCells(result.cellOffset(0, 0), (long) width * height, def);
+      } // if
+      return result;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    } // try/catch
+  } // create(Path, ElementType<T>, int, int, T, int)
+
+  /**
+   * Open an existing file-backed matrix.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param path
+   *   Where the matrix is stored.
+   * @param type
+   *   The type of the cells, which must match the file.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If we cannot read the file, it is not a matrix, or its cells are
+   *   of a different type.
+   */
+  public static <T> MappedMatrix<T> open(Path path, ElementType<T> type)
+      throws IOException {
+    return open(path, type, SEGMENT_BITS);
+  } // open(Path, ElementType<T>)
+
+  /**
+   * Open an existing file-backed matrix with a particular segment size.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param path
+   *   Where the matrix is stored.
+   * @param type
+   *   The type of the cells, which must match the file.
+   * @param segmentBits
+   *   The log (base 2) of the segment size. Must be at least 6.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If we cannot read the file, it is not a matrix, or its cells are
+   *   of a different type.
+   */
+  static <T> MappedMatrix<T> open(Path path, ElementType<T> type,
+      int segmentBits) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Keep reading.
+      } // while
+      if (header.hasRemaining() || header.getInt(MAGIC_OFFSET) != MAGIC) {
+        throw new IOException(path + " is not a matrix file.");
+      } // if
+      if (header.getInt(VERSION_OFFSET) != VERSION) {
+        throw new IOException("Unsupported matrix file version "
+            + header.getInt(VERSION_OFFSET));
+      } // if
+      if (header.getInt(TYPE_OFFSET) != type.code()) {
+        throw new IOException("Matrix file holds "
+            + ElementType.forCode(header.getInt(TYPE_OFFSET))
+            + " values, not " + type);
+      } // if
+      return new MappedMatrix<>(channel, type, segmentBits);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    } // try/catch
+  } // open(Path, ElementType<T>, int)
+
+  /**
+   * Determine whether a range of bytes are all zero.
+   *
+   * @param buf
+   *   The buffer that holds the bytes.
+   * @param offset
+   *   The first byte.
+   * @param length
+   *   The number of bytes.
+   *
+   * @return true if every byte is zero.
+   */
+  private static boolean isZero(ByteBuffer buf, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      if (buf.get(i) != 0) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // isZero(ByteBuffer, int, int)
+
+  /**
+   * Make a file at least a certain length.
+   *
+   * @param channel
+   *   The file.
+   * @param length
+   *   The minimum length in bytes.
+   *
+   * @throws IOException
+   *   If the file cannot be extended.
+   */
+  private static void extend(FileChannel channel, long length)
+      throws IOException {
+    if (channel.size() < length) {
+      channel.write(ByteBuffer.allocate(1), length - 1);
+    } // if
+  } // extend(FileChannel, long)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public T get(int row, int col) {
+    long offset = checkedOffset(row, col);
+    return this.type.read(segment(offset), offsetInSegment(offset));
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws NullPointerException
+   *   If val is null.
+   */
+  @Override
+  public void set(int row, int col, T val) {
+    long offset = checkedOffset(row, col);
+    this.type.write(segment(offset), offsetInSegment(offset), val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.numRows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.numCols;
+  } // width()
+
+  /**
+   * Get the type of the cells.
+   *
+   * @return the element type.
+   */
+  public ElementType<T> type() {
+    return this.type;
+  } // type()
+
+  /**
+   * Make sure that the file can hold at least the given number of rows
+   * and columns without growing.
+   *
+   * @param rows
+   *   The minimum number of rows.
+   * @param cols
+   *   The minimum number of columns.
+   */
+  public void ensureCapacity(int rows, int cols) {
+    if (cols > this.stride) {
+      restride(cols);
+    } // if
+    if (rows > this.rowCapacity) {
+      setRowCapacity(rows);
+    } // if
+  } // ensureCapacity(int, int)
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @Override
+  public void insertRow(int row) {
+    checkRowInsert(row);
+    openRow(row);
+    fillCells(cellOffset(row, 0), this.numCols, this.defaultValue);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  @Override
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    checkRowInsert(row);
+    if (vals.length != this.numCols) {
+      throw new ArraySizeException("Invalid array size for the row insertion.");
+    } // if
+    openRow(row);
+    for (int col = 0; col < this.numCols; col++) {
+      set(row, col, vals[col]);
+    } // for
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @Override
+  public void insertCol(int col) {
+    checkColInsert(col);
+    openCol(col);
+    for (int row = 0; row < this.numRows; row++) {
+      set(row, col, this.defaultValue);
+    } // for
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  @Override
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    checkColInsert(col);
+    if (vals.length != this.numRows) {
+      throw new ArraySizeException(
+          "Invalid array size for the column insertion.");
+    } // if
+    openCol(col);
+    for (int row = 0; row < this.numRows; row++) {
+      set(row, col, vals[row]);
+    } // for
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @Override
+  public void deleteRow(int row) {
+    checkOpen();
+    if (row < 0 || row >= this.numRows) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    copyBytes(cellOffset(row + 1, 0), cellOffset(row, 0),
+        rowBytes(this.numRows - row - 1));
+    this.numRows--;
+    writeHeader();
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @Override
+  public void deleteCol(int col) {
+    checkOpen();
+    if (col < 0 || col >= this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    long count = (long) (this.numCols - col - 1) * this.size;
+    for (int row = 0; row < this.numRows; row++) {
+      copyBytes(cellOffset(row, col + 1), cellOffset(row, col), count);
+    } // for
+    this.numCols--;
+    writeHeader();
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow < 0 || startCol < 0 || endRow > this.numRows
+        || endCol > this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid region.");
+    } // if
+    for (int row = startRow; row < endRow; row++) {
+      fillCells(cellOffset(row, startCol), endCol - startCol, val);
+    } // for
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    int row = startRow;
+    int col = startCol;
+    while (row < endRow && col < endCol) {
+      set(row, col, val);
+      row += deltaRow;
+      col += deltaCol;
+    } // while
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix in a new temporary file, which is deleted
+   * when the program exits. The copy must be closed separately.
+   *
+   * @return a copy of the matrix.
+   *
+   * @throws UncheckedIOException
+   *   If we cannot create the copy.
+   */
+  @Override
+  public MappedMatrix<T> clone() {
+    checkOpen();
+    try {
+      Path copy = Files.createTempFile("matrix", ".mpm");
+      copy.toFile().deleteOnExit();
+      try (FileChannel out = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+        long done = 0;
+        while (done < this.fileLength) {
+          done += this.channel.transferTo(done, this.fileLength - done, out);
+        } // while
+      } // try
+      return open(copy, this.type, this.segmentBits);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return this == other
+        || (other instanceof Matrix && Cells.same(this, (Matrix<?>) other));
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Cells.hash(this);
+  } // hashCode()
+
+  /**
+   * Write any changes to the storage device.
+   *
+   * @throws UncheckedIOException
+   *   If the changes cannot be written.
+   */
+  public void force() {
+    checkOpen();
+    for (MappedByteBuffer segment : this.segments) {
+      if (segment != null) {
+        segment.force();
+      } // if
+    } // for
+  } // force()
+
+  /**
+   * Unmap the file and close it. Changes that have not been written yet
+   * are still written by the operating system. Closing a matrix that is
+   * already closed does nothing.
+   *
+   * @throws IOException
+   *   If the file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.channel == null) {
+      return;
+    } // if
+    unmap(0);
+    this.channel.close();
+    this.channel = null;
+  } // close()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Make sure the matrix is still open.
+   *
+   * @throws IllegalStateException
+   *   If the matrix has been closed.
+   */
+  private void checkOpen() {
+    if (this.channel == null) {
+      throw new IllegalStateException("Matrix is closed.");
+    } // if
+  } // checkOpen()
+
+  /**
+   * Find the file offset of a cell, without checking bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the offset of the cell in the file.
+   */
+  private long cellOffset(int row, int col) {
+    return HEADER_SIZE + ((long) row * this.stride + col) * this.size;
+  } // cellOffset(int, int)
+
+  /**
+   * Find the file offset of a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the offset of the cell in the file.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  private long checkedOffset(int row, int col) {
+    if (row < 0 || row >= this.numRows || col < 0 || col >= this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+    return cellOffset(row, col);
+  } // checkedOffset(int, int)
+
+  /**
+   * Determine the number of bytes in a run of whole rows.
+   *
+   * @param rows
+   *   The number of rows.
+   *
+   * @return the number of bytes.
+   */
+  private long rowBytes(int rows) {
+    return (long) rows * this.stride * this.size;
+  } // rowBytes(int)
+
+  /**
+   * Determine how many segments cover a file.
+   *
+   * @param length
+   *   The length of the file.
+   *
+   * @return the number of segments.
+   */
+  private int segmentCount(long length) {
+    return (int) ((length + (1L << this.segmentBits) - 1) >>> this.segmentBits);
+  } // segmentCount(long)
+
+  /**
+   * Get the segment that holds a file offset, mapping it if necessary.
+   *
+   * @param offset
+   *   The offset in the file.
+   *
+   * @return the segment.
+   *
+   * @throws IllegalStateException
+   *   If the matrix has been closed.
+   * @throws UncheckedIOException
+   *   If the segment cannot be mapped.
+   */
+  private MappedByteBuffer segment(long offset) {
+    int index = (int) (offset >>> this.segmentBits);
+    MappedByteBuffer segment = this.segments[index];
+    if (segment == null) {
+      checkOpen();
+      long start = (long) index << this.segmentBits;
+      long length = Math.min(1L << this.segmentBits, this.fileLength - start);
+      try {
+        segment = this.channel.map(FileChannel.MapMode.READ_WRITE, start,
+            length);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } // try/catch
+      segment.order(ByteOrder.LITTLE_ENDIAN);
+      this.segments[index] = segment;
+    } // if
+    return segment;
+  } // segment(long)
+
+  /**
+   * Find where a file offset falls within its segment.
+   *
+   * @param offset
+   *   The offset in the file.
+   *
+   * @return the offset within the segment.
+   */
+  private int offsetInSegment(long offset) {
+    return (int) (offset & ((1L << this.segmentBits) - 1));
+  } // offsetInSegment(long)
+
+  /**
+   * Unmap all the segments from a given one on.
+   *
+   * @param first
+   *   The first segment to unmap.
+   */
+  private void unmap(int first) {
+    for (int i = first; i < this.segments.length; i++) {
+      if (this.segments[i] != null) {
+        OffHeapMatrix.free(this.segments[i]);
+        this.segments[i] = null;
+      } // if
+    } // for
+  } // unmap(int)
+
+  /**
+   * Grow the file to at least a given length.
+   *
+   * @param length
+   *   The minimum length in bytes.
+   */
+  private void growFile(long length) {
+    if (length <= this.fileLength) {
+      return;
+    } // if
+    checkOpen();
+    try {
+      extend(this.channel, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+    // The old last segment may have been mapped short, so drop it and
+    // let segment() map it again at full size.
+    unmap(segmentCount(this.fileLength) - 1);
+    this.fileLength = length;
+    this.segments = Arrays.copyOf(this.segments, segmentCount(length));
+  } // growFile(long)
+
+  /**
+   * Copy a range of bytes within the file. The ranges may overlap.
+   *
+   * @param from
+   *   The offset of the first byte to copy.
+   * @param to
+   *   Where to put the first byte.
+   * @param length
+   *   The number of bytes to copy.
+   */
+  private void copyBytes(long from, long to, long length) {
+    if (length <= 0 || from == to) {
+      return;
+    } // if
+    long segmentSize = 1L << this.segmentBits;
+    if (to < from) {
+      // Copy forwards, one segment-sized piece at a time.
+      while (length > 0) {
+        int chunk = (int) Math.min(length,
+            Math.min(segmentSize - offsetInSegment(from),
+                segmentSize - offsetInSegment(to)));
+        segment(to).put(offsetInSegment(to), segment(from),
+            offsetInSegment(from), chunk);
+        from += chunk;
+        to += chunk;
+        length -= chunk;
+      } // while
+    } else {
+      // Copy backwards, so that we never overwrite bytes we still need.
+      long fromEnd = from + length;
+      long toEnd = to + length;
+      while (length > 0) {
+        int chunk = (int) Math.min(length,
+            Math.min(offsetInSegment(fromEnd - 1) + 1,
+                offsetInSegment(toEnd - 1) + 1));
+        fromEnd -= chunk;
+        toEnd -= chunk;
+        segment(toEnd).put(offsetInSegment(toEnd), segment(fromEnd),
+            offsetInSegment(fromEnd), chunk);
+        length -= chunk;
+      } // while
+    } // if/else
+  } // copyBytes(long, long, long)
+
+  /**
+   * Write the same value into a run of consecutive cells.
+   *
+   * @param start
+   *   The file offset of the first cell.
+   * @param count
+   *   The number of cells.
+   * @param val
+   *   The value to write.
+   */
+  private void fillCells(long start, long count, T val) {
+    if (count <= 0) {
+      return;
+    } // if
+    // Write one cell, then keep doubling the filled run by copying it.
+    this.type.write(segment(start), offsetInSegment(start), val);
+    long total = count * this.size;
+    long filled = this.size;
+    while (filled < total) {
+      long chunk = Math.min(filled, total - filled);
+      copyBytes(start, start + filled, chunk);
+      filled += chunk;
+    } // while
+  } // fillCells(long, long, T)
+
+  /**
+   * Store the shape of the matrix in the header.
+   */
+  private void writeHeader() {
+    ByteBuffer header = segment(0);
+    header.putInt(HEIGHT_OFFSET, this.numRows);
+    header.putInt(WIDTH_OFFSET, this.numCols);
+    header.putInt(STRIDE_OFFSET, this.stride);
+    header.putInt(CAPACITY_OFFSET, this.rowCapacity);
+  } // writeHeader()
+
+  /**
+   * Make sure that a row index is valid for insertion.
+   *
+   * @param row
+   *   The index of the row to insert.
+   *
+   * @throws IllegalStateException
+   *   If the matrix has been closed.
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  private void checkRowInsert(int row) {
+    checkOpen();
+    if (row < 0 || row > this.numRows) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+  } // checkRowInsert(int)
+
+  /**
+   * Make sure that a column index is valid for insertion.
+   *
+   * @param col
+   *   The index of the column to insert.
+   *
+   * @throws IllegalStateException
+   *   If the matrix has been closed.
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  private void checkColInsert(int col) {
+    checkOpen();
+    if (col < 0 || col > this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+  } // checkColInsert(int)
+
+  /**
+   * Make room for a new row, shifting the rows at or after the given
+   * index down by one. The contents of the new row are unspecified.
+   *
+   * @param row
+   *   The index of the new row.
+   */
+  private void openRow(int row) {
+    if (this.numRows == this.rowCapacity) {
+      setRowCapacity(AbstractFlatMatrix.grow(this.rowCapacity,
+          this.numRows + 1));
+    } // if
+    copyBytes(cellOffset(row, 0), cellOffset(row + 1, 0),
+        rowBytes(this.numRows - row));
+    this.numRows++;
+    writeHeader();
+  } // openRow(int)
+
+  /**
+   * Make room for a new column, shifting the columns at or after the
+   * given index right by one. The contents of the new column are
+   * unspecified.
+   *
+   * @param col
+   *   The index of the new column.
+   */
+  private void openCol(int col) {
+    if (this.numCols == this.stride) {
+      restride(AbstractFlatMatrix.grow(this.stride, this.numCols + 1));
+    } // if
+    long count = (long) (this.numCols - col) * this.size;
+    for (int row = 0; row < this.numRows; row++) {
+      copyBytes(cellOffset(row, col), cellOffset(row, col + 1), count);
+    } // for
+    this.numCols++;
+    writeHeader();
+  } // openCol(int)
+
+  /**
+   * Grow the file so that it holds a given number of rows.
+   *
+   * @param rows
+   *   The new row capacity.
+   */
+  private void setRowCapacity(int rows) {
+    growFile(cellOffset(rows, 0));
+    this.rowCapacity = rows;
+    writeHeader();
+  } // setRowCapacity(int)
+
+  /**
+   * Spread the rows out to a larger stride, in place.
+   *
+   * @param newStride
+   *   The new stride.
+   */
+  private void restride(int newStride) {
+    growFile(HEADER_SIZE + (long) this.rowCapacity * newStride * this.size);
+    // Rows only move towards the end of the file, so we start with the
+    // last row to avoid overwriting rows we have not moved yet.
+    long rowLength = (long) this.numCols * this.size;
+    for (int row = this.numRows - 1; row > 0; row--) {
+      copyBytes(cellOffset(row, 0),
+          HEADER_SIZE + (long) row * newStride * this.size, rowLength);
+    } // for
+    this.stride = newStride;
+    writeHeader();
+  } // restride(int)
+} // class MappedMatrix<T>
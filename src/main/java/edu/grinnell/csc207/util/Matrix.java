@@ -1,6 +1,13 @@
 package edu.grinnell.csc207.util;
 
 import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Two-dimensional matrices.
@@ -10,7 +17,7 @@ import java.io.PrintWriter;
  * @param <T>
  *   The type of value stored in the matrix.
  */
-public interface Matrix<T> extends Cloneable {
+public interface Matrix<T> extends ReadableMatrix<T>, Cloneable {
   // +----------------+----------------------------------------------
   // | Static methods |
   // +----------------+
@@ -82,12 +89,14 @@ public interface Matrix<T> extends Cloneable {
    * @param matrix
    *   The matrix to print.
    */
-  public static <T> void print(PrintWriter pen, Matrix<T> matrix) {
+  public static <T> void print(PrintWriter pen, ReadableMatrix<T> matrix) {
     print(pen, matrix, false);
   } // print(PrintWriter, Matrix<T>)
 
   /**
-   * Print a matrix, with or without labels.
+   * Print a matrix, with or without labels. Every cell is as wide as the
+   * widest one. See {@link MatrixPrinter} for other layouts.
+   *
    * @param <T>
    *   The type of values stored in the matrix.
    * @param pen
@@ -97,51 +106,9 @@ public interface Matrix<T> extends Cloneable {
    * @param includeLabels
    *   Set to true if you want labels and false otherwise.
    */
-  public static <T> void print(PrintWriter pen, Matrix<T> matrix,
+  public static <T> void print(PrintWriter pen, ReadableMatrix<T> matrix,
       boolean includeLabels) {
-    int width = matrix.width();
-    int height = matrix.height();
-
-    // Find the maximum width of cells.
-    int cellWidth = 0;
-    for (int row = 0; row < height; row++) {
-      for (int col = 0; col < width; col++) {
-        T val = matrix.get(row, col);
-        int valWidth = toString(val).length();
-        cellWidth = Math.max(cellWidth, valWidth);
-      } // for col
-    } // for row
-
-    // Add some space on the sides
-    cellWidth += 2;
-
-    // Print everything out
-    if (includeLabels) {
-      pen.print(" ".repeat(4));
-      for (int col = 0; col < width; col++) {
-        printCell(pen, String.format("%2d", col), cellWidth + 1);
-      } // for
-      pen.println();
-    } // if
-
-    for (int row = 0; row < height; row++) {
-      if (includeLabels) {
-        pen.print(" ".repeat(4));
-      } // if
-      printRowSeparator(pen, cellWidth, width);
-      if (includeLabels) {
-        pen.printf(" %2d ", row);
-      } // if
-      for (int col = 0; col < width; col++) {
-        pen.print("|");
-        printCell(pen, toString(matrix.get(row, col)), cellWidth);
-      } // for col
-      pen.println("|");
-    } // for row
-    if (includeLabels) {
-      pen.print(" ".repeat(4));
-    } // if
-    printRowSeparator(pen, cellWidth, width);
+    new MatrixPrinter().labels(includeLabels).print(pen, matrix);
   } // print(PrintWriter, Matrix)
 
   // +--------------+------------------------------------------------
@@ -329,4 +296,161 @@ public interface Matrix<T> extends Cloneable {
    * height, and equal elements; false otherwise.
    */
   public boolean equals(Object other);
+
+  // +-------+-------------------------------------------------------
+  // | Views |
+  // +-------+
+
+  /**
+   * View the matrix with its rows and columns swapped. The view copies
+   * nothing: reading or setting a cell of the view reads or sets the
+   * matching cell of this matrix. Views cannot insert or delete rows or
+   * columns.
+   *
+   * @return the view.
+   */
+  public default Matrix<T> transpose() {
+    return MatrixView.transpose(this);
+  } // transpose()
+
+  /**
+   * View a rectangular region of the matrix, without copying it.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   *
+   * @return the view.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region does not fit in the matrix.
+   */
+  public default Matrix<T> subMatrix(int startRow, int startCol, int endRow,
+      int endCol) {
+    return MatrixView.region(this, startRow, startCol, endRow, endCol);
+  } // subMatrix(int, int, int, int)
+
+  /**
+   * View one row of the matrix, as a matrix of height 1, without copying
+   * it.
+   *
+   * @param row
+   *   The number of the row.
+   *
+   * @return the view.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public default Matrix<T> row(int row) {
+    return MatrixView.region(this, row, 0, row + 1, width());
+  } // row(int)
+
+  /**
+   * View one column of the matrix, as a matrix of width 1, without
+   * copying it.
+   *
+   * @param col
+   *   The number of the column.
+   *
+   * @return the view.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public default Matrix<T> col(int col) {
+    return MatrixView.region(this, 0, col, height(), col + 1);
+  } // col(int)
+
+  // +-----------+---------------------------------------------------
+  // | Traversal |
+  // +-----------+
+
+  /**
+   * Walk the cells of the matrix in row-major order. The spliterator
+   * splits into ranges of whole rows, so a parallel stream gives each
+   * thread a contiguous block of the matrix. Do not insert or delete
+   * rows or columns while traversing.
+   *
+   * @return the spliterator.
+   */
+  public default Spliterator<T> spliterator() {
+    return new CellSpliterator<>(this);
+  } // spliterator()
+
+  /**
+   * Stream the cells of the matrix in row-major order.
+   *
+   * @return the stream.
+   */
+  public default Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  } // stream()
+
+  /**
+   * Stream the cells of the matrix in row-major order, possibly in
+   * parallel, with each thread taking a band of rows.
+   *
+   * @return the stream.
+   */
+  public default Stream<T> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  } // parallelStream()
+
+  /**
+   * Get the cells of the matrix in row-major order, for use in a
+   * for-each loop.
+   *
+   * @return the cells.
+   */
+  public default Iterable<T> cells() {
+    return () -> Spliterators.iterator(spliterator());
+  } // cells()
+
+  /**
+   * Get the rows of the matrix, from top to bottom, for use in a for-each
+   * loop. Each row is a read-only list that reads the matrix as it is
+   * when the list is read.
+   *
+   * @return the rows.
+   */
+  public default Iterable<List<T>> rows() {
+    return () -> new Iterator<List<T>>() {
+      int row = 0;
+
+      @Override
+      public boolean hasNext() {
+        return this.row < height();
+      } // hasNext()
+
+      @Override
+      public List<T> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        } // if
+        return new RowList<>(Matrix.this, this.row++);
+      } // next()
+    };
+  } // rows()
+
+  // +---------+-----------------------------------------------------
+  // | Batches |
+  // +---------+
+
+  /**
+   * Start a batch of edits to the matrix. Record inserts, deletes,
+   * sets, and fills on the batch, then call {@link MatrixBatch#apply}
+   * to make them all at once. Implementations that can, such as
+   * {@link MatrixV0}, rebuild the matrix once instead of once per edit.
+   *
+   * @return the batch.
+   */
+  public default MatrixBatch<T> batch() {
+    return new MatrixBatch<>(this);
+  } // batch()
 } // interface Matrix<T>
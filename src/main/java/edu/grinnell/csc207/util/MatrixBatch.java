@@ -0,0 +1,753 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A script of edits to a matrix that are applied together. Get one from
+ * {@link Matrix#batch}, record the edits with the same methods a matrix
+ * has, and call {@link #apply}.
+ *
+ * <p>For a {@link MatrixV0}, the batch does not touch the matrix while
+ * recording. It follows each inserted and deleted row and column in two
+ * {@link IndexMap}s of ids (the rows and columns that were there at the
+ * start keep their old numbers as ids; new ones get new ids), and notes
+ * each write against those ids. {@code apply} then works out where
+ * every surviving row and column ends up, copies the old cells there in
+ * one pass, and replays the writes, skipping those that landed in rows
+ * or columns that were later deleted. However long the script, the
+ * matrix is reallocated once. Other matrices get the edits one at a
+ * time.</p>
+ *
+ * <p>Each edit is checked against the shape the matrix will have after
+ * the edits before it, and throws what the matrix would throw, without
+ * recording anything. Do not change the matrix between asking for the
+ * batch and applying it.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public final class MatrixBatch<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix we edit.
+   */
+  private final Matrix<T> matrix;
+
+  /**
+   * Whether we coalesce the edits into one rebuild, rather than apply
+   * them one by one.
+   */
+  private final boolean coalesce;
+
+  /**
+   * The edits to apply one by one, when we do not coalesce.
+   */
+  private final List<Edit<T>> edits = new ArrayList<>();
+
+  /**
+   * The writes to replay after the rebuild, when we coalesce.
+   */
+  private final List<Write> writes = new ArrayList<>();
+
+  /**
+   * The number of edits recorded.
+   */
+  private int count;
+
+  /**
+   * The height of the matrix when we started recording.
+   */
+  private int startHeight;
+
+  /**
+   * The width of the matrix when we started recording.
+   */
+  private int startWidth;
+
+  /**
+   * The height after the edits so far.
+   */
+  private int height;
+
+  /**
+   * The width after the edits so far.
+   */
+  private int width;
+
+  /**
+   * The id of each row after the edits so far, when we coalesce.
+   */
+  private IndexMap rowIds;
+
+  /**
+   * The id of each column after the edits so far, when we coalesce.
+   */
+  private IndexMap colIds;
+
+  /**
+   * The id for the next inserted row.
+   */
+  private int nextRowId;
+
+  /**
+   * The id for the next inserted column.
+   */
+  private int nextColId;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Start an empty batch of edits to a matrix.
+   *
+   * @param matrix
+   *   The matrix.
+   */
+  MatrixBatch(Matrix<T> matrix) {
+    this.matrix = matrix;
+    this.coalesce = matrix instanceof MatrixV0;
+    reset();
+  } // MatrixBatch(Matrix<T>)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Determine the number of rows the matrix will have after the edits
+   * recorded so far.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns the matrix will have after the
+   * edits recorded so far.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine the number of edits recorded since the last apply.
+   *
+   * @return the number of edits.
+   */
+  public int size() {
+    return this.count;
+  } // size()
+
+  /**
+   * Set a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param val
+   *   The new value.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public MatrixBatch<T> set(int row, int col, T val) {
+    checkCell(row, col);
+    if (this.coalesce) {
+      this.writes.add(new Write(new int[] {this.rowIds.get(row)},
+          new int[] {this.colIds.get(col)}, false, val, null));
+    } else {
+      this.edits.add((m) -> m.set(row, col, val));
+    } // if/else
+    this.count++;
+    return this;
+  } // set(int, int, T)
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public MatrixBatch<T> insertRow(int row) {
+    checkPosition(row, this.height, "row");
+    if (this.coalesce) {
+      this.rowIds.insert(row, this.nextRowId++);
+    } else {
+      this.edits.add((m) -> m.insertRow(row));
+    } // if/else
+    this.height++;
+    this.count++;
+    return this;
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert. The array is copied.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width.
+   */
+  public MatrixBatch<T> insertRow(int row, T[] vals) throws ArraySizeException {
+    checkPosition(row, this.height, "row");
+    if (vals.length != this.width) {
+      throw new ArraySizeException("Invalid array size for the row insertion.");
+    } // if
+    T[] copy = vals.clone();
+    if (this.coalesce) {
+      int id = this.nextRowId++;
+      this.rowIds.insert(row, id);
+      this.writes.add(new Write(new int[] {id}, this.colIds.toArray(), true,
+          null, copy));
+    } else {
+      this.edits.add((m) -> m.insertRow(row, copy));
+    } // if/else
+    this.height++;
+    this.count++;
+    return this;
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public MatrixBatch<T> insertCol(int col) {
+    checkPosition(col, this.width, "column");
+    if (this.coalesce) {
+      this.colIds.insert(col, this.nextColId++);
+    } else {
+      this.edits.add((m) -> m.insertCol(col));
+    } // if/else
+    this.width++;
+    this.count++;
+    return this;
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert. The array is copied.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height.
+   */
+  public MatrixBatch<T> insertCol(int col, T[] vals) throws ArraySizeException {
+    checkPosition(col, this.width, "column");
+    if (vals.length != this.height) {
+      throw new ArraySizeException("Invalid array size for the column insertion.");
+    } // if
+    T[] copy = vals.clone();
+    if (this.coalesce) {
+      int id = this.nextColId++;
+      this.colIds.insert(col, id);
+      this.writes.add(new Write(this.rowIds.toArray(), new int[] {id}, true,
+          null, copy));
+    } else {
+      this.edits.add((m) -> m.insertCol(col, copy));
+    } // if/else
+    this.width++;
+    this.count++;
+    return this;
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public MatrixBatch<T> deleteRow(int row) {
+    checkPosition(row, this.height - 1, "row");
+    if (this.coalesce) {
+      this.rowIds.remove(row);
+    } else {
+      this.edits.add((m) -> m.deleteRow(row));
+    } // if/else
+    this.height--;
+    this.count++;
+    return this;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public MatrixBatch<T> deleteCol(int col) {
+    checkPosition(col, this.width - 1, "column");
+    if (this.coalesce) {
+      this.colIds.remove(col);
+    } else {
+      this.edits.add((m) -> m.deleteCol(col));
+    } // if/else
+    this.width--;
+    this.count++;
+    return this;
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region does not fit in the matrix.
+   */
+  public MatrixBatch<T> fillRegion(int startRow, int startCol, int endRow,
+      int endCol, T val) {
+    if (startRow < 0 || startCol < 0 || endRow > this.height
+        || endCol > this.width) {
+      throw new IndexOutOfBoundsException("Invalid region.");
+    } // if
+    if (startRow >= endRow || startCol >= endCol) {
+      return this;
+    } // if
+    if (this.coalesce) {
+      this.writes.add(new Write(ids(this.rowIds, startRow, endRow),
+          ids(this.colIds, startCol, endCol), true, val, null));
+    } else {
+      this.edits.add((m) -> m.fillRegion(startRow, startCol, endRow, endCol,
+          val));
+    } // if/else
+    this.count++;
+    return this;
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return this batch.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the line leaves the matrix.
+   * @throws IllegalArgumentException
+   *   If the line has cells but never moves.
+   */
+  public MatrixBatch<T> fillLine(int startRow, int startCol, int deltaRow,
+      int deltaCol, int endRow, int endCol, T val) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return this;
+    } // if
+    if (deltaRow == 0 && deltaCol == 0) {
+      throw new IllegalArgumentException("A line must move.");
+    } // if
+    // Walk the whole line first, so that a bad line records nothing
+    int[] rows = new int[4];
+    int[] cols = new int[4];
+    int cells = 0;
+    for (int row = startRow, col = startCol; row < endRow && col < endCol;
+        row += deltaRow, col += deltaCol) {
+      checkCell(row, col);
+      if (cells == rows.length) {
+        rows = Arrays.copyOf(rows, 2 * cells);
+        cols = Arrays.copyOf(cols, 2 * cells);
+      } // if
+      rows[cells] = row;
+      cols[cells] = col;
+      cells++;
+    } // for
+    if (this.coalesce) {
+      rows = Arrays.copyOf(rows, cells);
+      cols = Arrays.copyOf(cols, cells);
+      for (int i = 0; i < cells; i++) {
+        rows[i] = this.rowIds.get(rows[i]);
+        cols[i] = this.colIds.get(cols[i]);
+      } // for
+      this.writes.add(new Write(rows, cols, false, val, null));
+    } else {
+      this.edits.add((m) -> m.fillLine(startRow, startCol, deltaRow, deltaCol,
+          endRow, endCol, val));
+    } // if/else
+    this.count++;
+    return this;
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Apply the edits to the matrix and empty the batch, so that it can
+   * record more edits.
+   *
+   * @throws IllegalStateException
+   *   If the matrix no longer has the shape it had when the batch
+   *   began.
+   */
+  public void apply() {
+    if (this.matrix.height() != this.startHeight
+        || this.matrix.width() != this.startWidth) {
+      throw new IllegalStateException(
+          "The matrix changed shape after the batch began.");
+    } // if
+    if (this.count > 0) {
+      if (this.coalesce) {
+        ((MatrixV0<T>) this.matrix).rebuild(this);
+      } else {
+        for (Edit<T> edit : this.edits) {
+          try {
+            edit.apply(this.matrix);
+          } catch (ArraySizeException e) {
+            // We checked every size against the shape we expected
+            throw new IllegalStateException(e);
+          } // try/catch
+        } // for
+      } // if/else
+    } // if
+    reset();
+  } // apply()
+
+  /**
+   * Lay out the cells the matrix will have after the edits.
+   *
+   * @param old
+   *   The rows of the matrix before the edits, each with at least as
+   *   many cells as the matrix had columns.
+   * @param def
+   *   The value for cells of inserted rows and columns.
+   * @param pool
+   *   The pool in which to copy large matrices, or null to copy in the
+   *   calling thread.
+   *
+   * @return the new rows, height() of them, each with width() cells.
+   */
+  Object[][] build(Object[][] old, Object def, ForkJoinPool pool) {
+    int[] finalRows = this.rowIds.toArray();
+    int[] finalCols = this.colIds.toArray();
+    Object[][] result = new Object[this.height][];
+
+    // Split the new columns into runs copied from consecutive old
+    // columns (src >= 0) and runs of new columns (src < 0)
+    int[] runStart = new int[finalCols.length + 1];
+    int[] runSrc = new int[finalCols.length + 1];
+    int runs = 0;
+    for (int col = 0; col < finalCols.length; col++) {
+      int src = finalCols[col] < this.startWidth ? finalCols[col] : -1;
+      if (runs == 0 || (src < 0) != (runSrc[runs - 1] < 0)
+          || (src >= 0 && src != runSrc[runs - 1] + col - runStart[runs - 1])) {
+        runStart[runs] = col;
+        runSrc[runs] = src;
+        runs++;
+      } // if
+    } // for
+    runStart[runs] = finalCols.length;
+    int numRuns = runs;
+
+    RowBands.forEach(pool, 0, this.height, this.width, (first, last) -> {
+      for (int row = first; row < last; row++) {
+        Object[] cells = new Object[this.width];
+        int id = finalRows[row];
+        if (id >= this.startHeight) {
+          Arrays.fill(cells, def);
+        } else {
+          for (int run = 0; run < numRuns; run++) {
+            int start = runStart[run];
+            int end = runStart[run + 1];
+            if (runSrc[run] < 0) {
+              Arrays.fill(cells, start, end, def);
+            } else {
+              System.arraycopy(old[id], runSrc[run], cells, start, end - start);
+            } // if/else
+          } // for run
+        } // if/else
+        result[row] = cells;
+      } // for row
+    });
+
+    int[] rowPos = positions(finalRows, this.nextRowId);
+    int[] colPos = positions(finalCols, this.nextColId);
+    for (Write write : this.writes) {
+      write.apply(result, rowPos, colPos);
+    } // for
+    return result;
+  } // build(Object[][], Object, ForkJoinPool)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Forget the edits and start again from the current shape of the
+   * matrix.
+   */
+  private void reset() {
+    this.startHeight = this.matrix.height();
+    this.startWidth = this.matrix.width();
+    this.height = this.startHeight;
+    this.width = this.startWidth;
+    this.count = 0;
+    this.edits.clear();
+    this.writes.clear();
+    if (this.coalesce) {
+      this.rowIds = new IndexMap(this.startHeight);
+      this.colIds = new IndexMap(this.startWidth);
+      this.nextRowId = this.startHeight;
+      this.nextColId = this.startWidth;
+    } // if
+  } // reset()
+
+  /**
+   * Make sure a cell is in the matrix as the edits so far leave it.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If it is not.
+   */
+  private void checkCell(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException("Invalid row or column index ("
+          + row + ", " + col + ").");
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Make sure a row or column number is between 0 and a limit.
+   *
+   * @param pos
+   *   The number.
+   * @param limit
+   *   The largest valid number.
+   * @param what
+   *   "row" or "column", for the message.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If it is not.
+   */
+  private static void checkPosition(int pos, int limit, String what) {
+    if (pos < 0 || pos > limit) {
+      throw new IndexOutOfBoundsException("Invalid " + what + " index " + pos
+          + ".");
+    } // if
+  } // checkPosition(int, int, String)
+
+  /**
+   * Get the ids at a range of positions.
+   *
+   * @param map
+   *   The ids.
+   * @param start
+   *   The first position (inclusive).
+   * @param end
+   *   The last position (exclusive).
+   *
+   * @return the ids, in order.
+   */
+  private static int[] ids(IndexMap map, int start, int end) {
+    int[] result = new int[end - start];
+    for (int i = start; i < end; i++) {
+      result[i - start] = map.get(i);
+    } // for
+    return result;
+  } // ids(IndexMap, int, int)
+
+  /**
+   * Find where each id ended up.
+   *
+   * @param ids
+   *   The id at each final position.
+   * @param numIds
+   *   The number of ids ever handed out.
+   *
+   * @return the final position of each id, or -1 for ids that were
+   *   deleted.
+   */
+  private static int[] positions(int[] ids, int numIds) {
+    int[] result = new int[numIds];
+    Arrays.fill(result, -1);
+    for (int pos = 0; pos < ids.length; pos++) {
+      result[ids[pos]] = pos;
+    } // for
+    return result;
+  } // positions(int[], int)
+
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * One edit, to apply directly to a matrix.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   */
+  @FunctionalInterface
+  private interface Edit<T> {
+    /**
+     * Apply the edit.
+     *
+     * @param matrix
+     *   The matrix to edit.
+     *
+     * @throws ArraySizeException
+     *   If the matrix is not the shape the edit expects.
+     */
+    void apply(Matrix<T> matrix) throws ArraySizeException;
+  } // interface Edit<T>
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * Values written to cells named by row and column ids.
+   */
+  private static final class Write {
+    /**
+     * The row ids.
+     */
+    private final int[] rows;
+
+    /**
+     * The column ids.
+     */
+    private final int[] cols;
+
+    /**
+     * Whether we write every row and column pair (a rectangle), rather
+     * than the i'th row with the i'th column (a line).
+     */
+    private final boolean cross;
+
+    /**
+     * The value for every cell, when vals is null.
+     */
+    private final Object val;
+
+    /**
+     * The value for each cell, in row-major order, or null.
+     */
+    private final Object[] vals;
+
+    /**
+     * Describe a write.
+     *
+     * @param rows
+     *   The row ids.
+     * @param cols
+     *   The column ids.
+     * @param cross
+     *   Whether to write a rectangle rather than a line.
+     * @param val
+     *   The value for every cell, when vals is null.
+     * @param vals
+     *   The value for each cell, in row-major order, or null.
+     */
+    Write(int[] rows, int[] cols, boolean cross, Object val, Object[] vals) {
+      this.rows = rows;
+      this.cols = cols;
+      this.cross = cross;
+      this.val = val;
+      this.vals = vals;
+    } // Write(int[], int[], boolean, Object, Object[])
+
+    /**
+     * Write the cells that survived.
+     *
+     * @param cells
+     *   The rows of the new matrix.
+     * @param rowPos
+     *   The final position of each row id, or -1.
+     * @param colPos
+     *   The final position of each column id, or -1.
+     */
+    void apply(Object[][] cells, int[] rowPos, int[] colPos) {
+      for (int i = 0; i < this.rows.length; i++) {
+        int row = rowPos[this.rows[i]];
+        if (row < 0) {
+          continue;
+        } // if
+        if (!this.cross) {
+          int col = colPos[this.cols[i]];
+          if (col >= 0) {
+            cells[row][col] = this.vals == null ? this.val : this.vals[i];
+          } // if
+          continue;
+        } // if
+        for (int j = 0; j < this.cols.length; j++) {
+          int col = colPos[this.cols[j]];
+          if (col >= 0) {
+            cells[row][col] = this.vals == null ? this.val
+                : this.vals[i * this.cols.length + j];
+          } // if
+        } // for j
+      } // for i
+    } // apply(Object[][], int[], int[])
+  } // class Write
+} // class MatrixBatch<T>
@@ -0,0 +1,1606 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Reads matrices from comma-separated (or tab-separated) text and
+ * writes them back out.
+ *
+ * <p>Each line is a row and each field a cell. Fields may be quoted
+ * with double quotes, as in RFC 4180, so that they can hold separators,
+ * quotes (doubled), and line breaks. Lines end with a newline, a
+ * carriage return, or both. Every row must have as many cells as the
+ * first. An empty field that is not quoted is an empty cell, which
+ * holds the default value of the matrix: zero for numbers and null for
+ * everything else. Text is UTF-8.</p>
+ *
+ * <p>The reader streams the text through one reusable array of
+ * characters and hands each field to a {@link Codec} as a range of that
+ * array. Cells accumulate in a single array that grows by half when it
+ * fills, so reading is linear in the size of the text; the width comes
+ * from the first row and the height from the number of rows. The cells
+ * of ints, longs, and doubles are parsed without making strings or
+ * boxes and become the array of the resulting {@link IntMatrix}, {@link
+ * LongMatrix}, or {@link DoubleMatrix} without another copy (so the
+ * matrix may have spare rows; see {@link AbstractFlatMatrix#trimToSize}).
+ * Other codecs fill a {@link MatrixV0}, unless wrapped with
+ * {@link Codec#dictionary}, which stores a code for each cell in a
+ * {@link DictionaryMatrix}.</p>
+ *
+ * <p>Large files read from a {@link Path} are split at line breaks into
+ * pieces that are parsed at the same time in a fork/join pool and then
+ * joined. A line break inside a quoted field would make such a split
+ * wrong, so if any piece contains a quote, or anything else goes wrong,
+ * we read the file again from the start in one piece.</p>
+ *
+ * <p>The writer builds its output in a reusable array of characters and
+ * writes ints and longs, boxed or not, without making strings. It
+ * quotes a field only when it must. Null cells are written as empty
+ * fields and empty strings as {@code ""}, so strings read back as they
+ * were written.</p>
+ */
+public final class MatrixCsv {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of characters we read or write at a time.
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The smallest file worth parsing in pieces.
+   */
+  static final long PARALLEL_THRESHOLD = 1 << 22;
+
+  /**
+   * The largest piece of a file, which must fit in one mapping.
+   */
+  private static final long MAX_PIECE = 1 << 30;
+
+  /**
+   * The number of cells we make room for at first.
+   */
+  private static final int INITIAL_CELLS = 1 << 10;
+
+  /**
+   * The most cells that fit in one array.
+   */
+  private static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+  /**
+   * The kind of field that is followed by another on the same row.
+   */
+  private static final int FIELD = 0;
+
+  /**
+   * The kind of field that ends its row.
+   */
+  private static final int ROW = 1;
+
+  /**
+   * What the parser returns when there are no more rows.
+   */
+  private static final int DONE = 2;
+
+  /**
+   * Powers of ten that doubles hold exactly.
+   */
+  private static final double[] POWERS = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+      1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The character between fields.
+   */
+  private char separator = ',';
+
+  /**
+   * The pool to parse large files in, or null.
+   */
+  private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a reader and writer for comma-separated text that parses
+   * large files in the common pool.
+   */
+  public MatrixCsv() {
+  } // MatrixCsv()
+
+  // +---------+-----------------------------------------------------
+  // | Options |
+  // +---------+
+
+  /**
+   * Choose the character between fields, such as {@code '\t'} for
+   * tab-separated text.
+   *
+   * @param separator
+   *   The character.
+   *
+   * @return this object.
+   *
+   * @throws IllegalArgumentException
+   *   If the character is a quote or a line break.
+   */
+  public MatrixCsv separator(char separator) {
+    if (separator == '"' || separator == '\n' || separator == '\r') {
+      throw new IllegalArgumentException("Invalid separator.");
+    } // if
+    this.separator = separator;
+    return this;
+  } // separator(char)
+
+  /**
+   * Choose the pool to parse large files in.
+   *
+   * @param pool
+   *   The pool, or null to parse in the calling thread.
+   *
+   * @return this object.
+   */
+  public MatrixCsv pool(ForkJoinPool pool) {
+    this.pool = pool;
+    return this;
+  } // pool(ForkJoinPool)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Read a matrix from text. The reader is not closed.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param in
+   *   The text.
+   * @param codec
+   *   How to parse the cells.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the reader fails, a cell cannot be parsed, or the text is not
+   *   a matrix.
+   */
+  public <T> Matrix<T> read(Reader in, Codec<T> codec) throws IOException {
+    return parse(new Parser(in, this.separator), codec).toMatrix();
+  } // read(Reader, Codec<T>)
+
+  /**
+   * Read a matrix from a file, in pieces if it is large.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param file
+   *   The file.
+   * @param codec
+   *   How to parse the cells.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be read, a cell cannot be parsed, or the text
+   *   is not a matrix.
+   */
+  public <T> Matrix<T> read(Path file, Codec<T> codec) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (this.pool != null && this.pool.getParallelism() > 1
+          && size >= PARALLEL_THRESHOLD) {
+        Matrix<T> result = readPieces(channel, size, codec);
+        if (result != null) {
+          return result;
+        } // if
+      } // if
+    } // try
+    try (Reader in = new InputStreamReader(Files.newInputStream(file),
+        StandardCharsets.UTF_8.newDecoder())) {
+      return read(in, codec);
+    } // try
+  } // read(Path, Codec<T>)
+
+  /**
+   * Write a matrix as text. The writer is flushed but not closed.
+   *
+   * @param out
+   *   Where to write the text.
+   * @param matrix
+   *   The matrix.
+   *
+   * @throws IOException
+   *   If the writer fails.
+   */
+  public void write(Writer out, ReadableMatrix<?> matrix) throws IOException {
+    Output text = new Output(out, this.separator);
+    IntMatrix ints = matrix instanceof IntMatrix ? (IntMatrix) matrix : null;
+    LongMatrix longs = matrix instanceof LongMatrix ? (LongMatrix) matrix : null;
+    DoubleMatrix doubles =
+        matrix instanceof DoubleMatrix ? (DoubleMatrix) matrix : null;
+    int height = matrix.height();
+    int width = matrix.width();
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        if (col > 0) {
+          text.put(this.separator);
+        } // if
+        if (ints != null) {
+          text.putLong(ints.getInt(row, col));
+        } else if (longs != null) {
+          text.putLong(longs.getLong(row, col));
+        } else if (doubles != null) {
+          text.putText(Double.toString(doubles.getDouble(row, col)), false);
+        } else {
+          text.putCell(matrix.get(row, col));
+        } // if/else
+      } // for col
+      text.put('\n');
+    } // for row
+    text.flush();
+    out.flush();
+  } // write(Writer, ReadableMatrix<?>)
+
+  /**
+   * Write a matrix to a file, replacing what was there.
+   *
+   * @param file
+   *   The file.
+   * @param matrix
+   *   The matrix.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  public void write(Path file, ReadableMatrix<?> matrix) throws IOException {
+    try (Writer out = new OutputStreamWriter(Files.newOutputStream(file),
+        StandardCharsets.UTF_8)) {
+      write(out, matrix);
+    } // try
+  } // write(Path, ReadableMatrix<?>)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Parse all the rows of some text.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param parser
+   *   The parser for the text.
+   * @param codec
+   *   How to parse the cells.
+   *
+   * @return the cells, with their width and height.
+   *
+   * @throws IOException
+   *   If the input fails, a cell cannot be parsed, or the rows are not
+   *   all the same width.
+   */
+  static <T> Cells<T, ?> parse(Parser parser, Codec<T> codec)
+      throws IOException {
+    Cells<T, ?> cells = codec.cells();
+    int width = -1;
+    int col = 0;
+    for (int kind = parser.next(true); kind != DONE;
+        kind = parser.next(col == 0)) {
+      if (cells.size == MAX_CELLS) {
+        throw new IOException("Too many cells for one matrix.");
+      } // if
+      if (parser.end == parser.mark && !parser.wasQuoted) {
+        cells.addEmpty();
+      } else {
+        try {
+          cells.add(parser.buf, parser.mark, parser.end);
+        } catch (NumberFormatException e) {
+          throw new IOException("Cannot read cell (" + cells.height + ", "
+              + col + "): " + e.getMessage(), e);
+        } // try/catch
+      } // if/else
+      col++;
+      if (kind == ROW) {
+        if (width < 0) {
+          width = col;
+        } else if (col != width) {
+          throw new IOException("Row " + cells.height + " has " + col
+              + " cells, but row 0 has " + width + ".");
+        } // if/else
+        cells.height++;
+        col = 0;
+      } // if
+    } // for
+    cells.width = Math.max(width, 0);
+    return cells;
+  } // parse(Parser, Codec<T>)
+
+  /**
+   * Read a file in pieces that end at line breaks, in the pool.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param channel
+   *   The file.
+   * @param size
+   *   The size of the file.
+   * @param codec
+   *   How to parse the cells.
+   *
+   * @return the matrix, or null if the file must be read in one piece.
+   *
+   * @throws IOException
+   *   If the file cannot be read.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private <T> Matrix<T> readPieces(FileChannel channel, long size,
+      Codec<T> codec) throws IOException {
+    int count = (int) Math.max(
+        (long) this.pool.getParallelism() * RowBands.BANDS_PER_THREAD,
+        size / MAX_PIECE + 1);
+    long[] starts = new long[count + 1];
+    starts[count] = size;
+    for (int i = 1; i < count; i++) {
+      starts[i] = rowStart(channel, Math.max(starts[i - 1], size * i / count),
+          size);
+    } // for
+    List<ForkJoinTask<Cells<T, ?>>> tasks = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      long from = starts[i];
+      long to = starts[i + 1];
+      if (from < to) {
+        tasks.add(this.pool.submit(
+            () -> readPiece(channel, from, to, codec, this.separator)));
+      } // if
+    } // for
+    List<Cells> pieces = new ArrayList<>();
+    for (ForkJoinTask<Cells<T, ?>> task : tasks) {
+      pieces.add(task.join());
+    } // for
+    if (pieces.contains(null)) {
+      return null;
+    } // if
+    return join((List) pieces);
+  } // readPieces(FileChannel, long, Codec<T>)
+
+  /**
+   * Parse one piece of a file.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param channel
+   *   The file.
+   * @param from
+   *   Where the piece starts.
+   * @param to
+   *   Where the piece ends.
+   * @param codec
+   *   How to parse the cells.
+   * @param separator
+   *   The character between fields.
+   *
+   * @return the cells, or null if the piece has quotes or cannot be
+   *   parsed.
+   */
+  static <T> Cells<T, ?> readPiece(FileChannel channel, long from, long to,
+      Codec<T> codec, char separator) {
+    if (to - from > MAX_PIECE) {
+      return null;
+    } // if
+    try {
+      Parser parser = new Parser(new BufferReader(
+          channel.map(FileChannel.MapMode.READ_ONLY, from, to - from)),
+          separator);
+      Cells<T, ?> cells = parse(parser, codec);
+      return parser.sawQuote ? null : cells;
+    } catch (IOException e) {
+      return null;
+    } // try/catch
+  } // readPiece(FileChannel, long, long, Codec<T>, char)
+
+  /**
+   * Join the cells of consecutive pieces of a file into one matrix.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param <A>
+   *   The type of the arrays of cells.
+   * @param pieces
+   *   The cells of each piece, in order.
+   *
+   * @return the matrix, or null if the pieces do not fit together.
+   */
+  static <T, A> Matrix<T> join(List<Cells<T, A>> pieces) {
+    Cells<T, A> all = pieces.get(0);
+    long total = 0;
+    for (Cells<T, A> piece : pieces) {
+      if (piece.width != all.width) {
+        return null;
+      } // if
+      total += piece.size;
+    } // for
+    if (total > MAX_CELLS) {
+      return null;
+    } // if
+    all.resize((int) total);
+    for (int i = 1; i < pieces.size(); i++) {
+      all.append(pieces.get(i));
+    } // for
+    return all.toMatrix();
+  } // join(List<Cells<T, A>>)
+
+  /**
+   * Find the start of the first row at or after a position in a file.
+   *
+   * @param channel
+   *   The file.
+   * @param pos
+   *   The position.
+   * @param size
+   *   The size of the file.
+   *
+   * @return the position just after the first newline at or after
+   *   pos - 1, or the size of the file if there is none.
+   *
+   * @throws IOException
+   *   If the file cannot be read.
+   */
+  static long rowStart(FileChannel channel, long pos, long size)
+      throws IOException {
+    if (pos == 0) {
+      return 0;
+    } // if
+    ByteBuffer bytes = ByteBuffer.allocate(1 << 13);
+    long at = pos - 1;
+    while (at < size) {
+      bytes.clear();
+      int count = channel.read(bytes, at);
+      if (count < 0) {
+        break;
+      } // if
+      for (int i = 0; i < count; i++) {
+        if (bytes.get(i) == '\n') {
+          return at + i + 1;
+        } // if
+      } // for
+      at += count;
+    } // while
+    return size;
+  } // rowStart(FileChannel, long, long)
+
+  /**
+   * Parse an int from a range of characters.
+   *
+   * @param chars
+   *   The characters.
+   * @param from
+   *   The start of the range.
+   * @param to
+   *   The end of the range.
+   *
+   * @return the int.
+   *
+   * @throws NumberFormatException
+   *   If the range does not hold an int.
+   */
+  static int parseInt(char[] chars, int from, int to) {
+    long val = parseLong(chars, from, to);
+    if ((int) val != val) {
+      throw badNumber(chars, from, to);
+    } // if
+    return (int) val;
+  } // parseInt(char[], int, int)
+
+  /**
+   * Parse a long from a range of characters, as Long.parseLong would.
+   *
+   * @param chars
+   *   The characters.
+   * @param from
+   *   The start of the range.
+   * @param to
+   *   The end of the range.
+   *
+   * @return the long.
+   *
+   * @throws NumberFormatException
+   *   If the range does not hold a long.
+   */
+  static long parseLong(char[] chars, int from, int to) {
+    int pos = from;
+    boolean negative = false;
+    if (pos < to && (chars[pos] == '-' || chars[pos] == '+')) {
+      negative = chars[pos] == '-';
+      pos++;
+    } // if
+    if (pos == to) {
+      throw badNumber(chars, from, to);
+    } // if
+    // Work with the negative, which covers Long.MIN_VALUE.
+    long result = 0;
+    for (; pos < to; pos++) {
+      int digit = chars[pos] - '0';
+      if (digit < 0 || digit > 9 || result < (Long.MIN_VALUE + digit) / 10) {
+        throw badNumber(chars, from, to);
+      } // if
+      result = result * 10 - digit;
+    } // for
+    if (!negative) {
+      if (result == Long.MIN_VALUE) {
+        throw badNumber(chars, from, to);
+      } // if
+      result = -result;
+    } // if
+    return result;
+  } // parseLong(char[], int, int)
+
+  /**
+   * Parse a double from a range of characters, as Double.parseDouble
+   * would. Plain decimals with at most 15 digits, the usual case, are
+   * converted with one exact division; the rest go to
+   * Double.parseDouble.
+   *
+   * @param chars
+   *   The characters.
+   * @param from
+   *   The start of the range.
+   * @param to
+   *   The end of the range.
+   *
+   * @return the double.
+   *
+   * @throws NumberFormatException
+   *   If the range does not hold a double.
+   */
+  static double parseDouble(char[] chars, int from, int to) {
+    int pos = from;
+    boolean negative = false;
+    if (pos < to && (chars[pos] == '-' || chars[pos] == '+')) {
+      negative = chars[pos] == '-';
+      pos++;
+    } // if
+    long mantissa = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean point = false;
+    for (; pos < to; pos++) {
+      char ch = chars[pos];
+      if (ch >= '0' && ch <= '9') {
+        if (++digits > 15) {
+          break;
+        } // if
+        mantissa = mantissa * 10 + (ch - '0');
+        if (point) {
+          scale++;
+        } // if
+      } else if (ch == '.' && !point) {
+        point = true;
+      } else {
+        break;
+      } // if/else
+    } // for
+    if (pos < to || digits == 0) {
+      // Exponents, long mantissas, and words such as NaN.
+      return Double.parseDouble(new String(chars, from, to - from));
+    } // if
+    // Both the mantissa and the power of ten are exact, so one division
+    // rounds correctly.
+    double val = mantissa / POWERS[scale];
+    return negative ? -val : val;
+  } // parseDouble(char[], int, int)
+
+  /**
+   * Build the exception for a range that does not hold a number.
+   *
+   * @param chars
+   *   The characters.
+   * @param from
+   *   The start of the range.
+   * @param to
+   *   The end of the range.
+   *
+   * @return the exception.
+   */
+  static NumberFormatException badNumber(char[] chars, int from, int to) {
+    return new NumberFormatException("For input string: \""
+        + new String(chars, from, to - from) + "\"");
+  } // badNumber(char[], int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * A way to turn the text of a field into a value.
+   *
+   * @param <T>
+   *   The type of the values.
+   */
+  public abstract static class Codec<T> {
+    /**
+     * Ints, in an IntMatrix.
+     */
+    public static final Codec<Integer> INT = new Codec<>() {
+      @Override
+      public Integer parse(char[] chars, int from, int to) {
+        return parseInt(chars, from, to);
+      } // parse(char[], int, int)
+
+      @Override
+      Cells<Integer, ?> cells() {
+        return new IntCells();
+      } // cells()
+    };
+
+    /**
+     * Longs, in a LongMatrix.
+     */
+    public static final Codec<Long> LONG = new Codec<>() {
+      @Override
+      public Long parse(char[] chars, int from, int to) {
+        return parseLong(chars, from, to);
+      } // parse(char[], int, int)
+
+      @Override
+      Cells<Long, ?> cells() {
+        return new LongCells();
+      } // cells()
+    };
+
+    /**
+     * Doubles, in a DoubleMatrix.
+     */
+    public static final Codec<Double> DOUBLE = new Codec<>() {
+      @Override
+      public Double parse(char[] chars, int from, int to) {
+        return parseDouble(chars, from, to);
+      } // parse(char[], int, int)
+
+      @Override
+      Cells<Double, ?> cells() {
+        return new DoubleCells();
+      } // cells()
+    };
+
+    /**
+     * Strings, as they appear in the text, in a MatrixV0.
+     */
+    public static final Codec<String> STRING = new Codec<>() {
+      @Override
+      public String parse(char[] chars, int from, int to) {
+        return new String(chars, from, to - from);
+      } // parse(char[], int, int)
+    };
+
+    /**
+     * Create a codec.
+     */
+    protected Codec() {
+    } // Codec()
+
+    /**
+     * Make a codec from a function on the text of each field, for
+     * values that have no codec of their own.
+     *
+     * @param <T>
+     *   The type of the values.
+     * @param parser
+     *   The function, such as {@code BigDecimal::new}.
+     *
+     * @return the codec.
+     */
+    public static <T> Codec<T> of(Function<String, T> parser) {
+      return new Codec<>() {
+        @Override
+        public T parse(char[] chars, int from, int to) {
+          return parser.apply(new String(chars, from, to - from));
+        } // parse(char[], int, int)
+      };
+    } // of(Function<String, T>)
+
+    /**
+     * Make a codec that parses fields with another but reads them into
+     * a {@link DictionaryMatrix}, so that equal fields share one value
+     * and each cell takes an int.
+     *
+     * @param <T>
+     *   The type of the values.
+     * @param codec
+     *   The codec that parses each field, such as {@link #STRING}.
+     *
+     * @return the codec.
+     */
+    public static <T> Codec<T> dictionary(Codec<T> codec) {
+      return new Codec<>() {
+        @Override
+        public T parse(char[] chars, int from, int to) {
+          return codec.parse(chars, from, to);
+        } // parse(char[], int, int)
+
+        @Override
+        Cells<T, ?> cells() {
+          return new CodeCells<>(codec);
+        } // cells()
+      };
+    } // dictionary(Codec<T>)
+
+    /**
+     * Parse the text of a field that is not empty, or that is quoted.
+     * The range belongs to the reader and changes after this method
+     * returns, so keep a copy rather than the array.
+     *
+     * @param chars
+     *   Characters that include the field, with quotes removed.
+     * @param from
+     *   Where the field starts.
+     * @param to
+     *   Where the field ends.
+     *
+     * @return the value.
+     *
+     * @throws NumberFormatException
+     *   If the text does not hold a value, as a way to report it.
+     */
+    public abstract T parse(char[] chars, int from, int to);
+
+    /**
+     * Make a place to collect the cells of a matrix as we parse them.
+     *
+     * @return the new place.
+     */
+    Cells<T, ?> cells() {
+      return new ObjectCells<>(this);
+    } // cells()
+  } // class Codec<T>
+
+  /**
+   * The cells of a matrix, in row-major order, in an array that grows
+   * as we parse them.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param <A>
+   *   The type of the array.
+   */
+  abstract static class Cells<T, A> {
+    /**
+     * The cells, followed by spare room.
+     */
+    A cells;
+
+    /**
+     * The length of the array.
+     */
+    int capacity;
+
+    /**
+     * The number of cells.
+     */
+    int size;
+
+    /**
+     * The number of cells in each row.
+     */
+    int width;
+
+    /**
+     * The number of rows.
+     */
+    int height;
+
+    /**
+     * Start with room for some cells.
+     *
+     * @param cells
+     *   The array.
+     * @param capacity
+     *   The length of the array.
+     */
+    Cells(A cells, int capacity) {
+      this.cells = cells;
+      this.capacity = capacity;
+    } // Cells(A, int)
+
+    /**
+     * Make room for one more cell. Callers must not read the array
+     * until this returns, since it may replace the array.
+     *
+     * @return the index of the new cell.
+     */
+    final int slot() {
+      if (this.size == this.capacity) {
+        resize((int) Math.min(MAX_CELLS,
+            Math.max(this.size + 1L, this.capacity + (this.capacity >> 1))));
+      } // if
+      return this.size++;
+    } // slot()
+
+    /**
+     * Move the cells to an array of another length.
+     *
+     * @param length
+     *   The new length, at least the number of cells.
+     */
+    final void resize(int length) {
+      this.cells = copyOf(this.cells, length);
+      this.capacity = length;
+    } // resize(int)
+
+    /**
+     * Copy an array to an array of another length.
+     *
+     * @param array
+     *   The array.
+     * @param length
+     *   The length of the copy.
+     *
+     * @return the copy.
+     */
+    abstract A copyOf(A array, int length);
+
+    /**
+     * Add a cell from the text of a field.
+     *
+     * @param chars
+     *   Characters that include the field.
+     * @param from
+     *   Where the field starts.
+     * @param to
+     *   Where the field ends.
+     *
+     * @throws NumberFormatException
+     *   If the field cannot be parsed.
+     */
+    abstract void add(char[] chars, int from, int to);
+
+    /**
+     * Add an empty cell.
+     */
+    abstract void addEmpty();
+
+    /**
+     * Add the cells of the piece of text that follows ours. The array
+     * must already have room for them.
+     *
+     * @param piece
+     *   The cells of that piece.
+     */
+    void append(Cells<T, A> piece) {
+      System.arraycopy(piece.cells, 0, this.cells, this.size, piece.size);
+      this.size += piece.size;
+      this.height += piece.height;
+    } // append(Cells<T, A>)
+
+    /**
+     * Make the matrix, which may use the array.
+     *
+     * @return the matrix.
+     */
+    abstract Matrix<T> toMatrix();
+
+    /**
+     * Find the number of rows that fit in the array.
+     *
+     * @return that number.
+     */
+    final int rowCapacity() {
+      return this.width == 0 ? this.height : this.capacity / this.width;
+    } // rowCapacity()
+  } // class Cells<T, A>
+
+  /**
+   * Cells of ints.
+   */
+  static final class IntCells extends Cells<Integer, int[]> {
+    /**
+     * Start with no cells.
+     */
+    IntCells() {
+      super(new int[INITIAL_CELLS], INITIAL_CELLS);
+    } // IntCells()
+
+    @Override
+    int[] copyOf(int[] array, int length) {
+      return Arrays.copyOf(array, length);
+    } // copyOf(int[], int)
+
+    @Override
+    void add(char[] chars, int from, int to) {
+      int val = parseInt(chars, from, to);
+      int index = slot();
+      this.cells[index] = val;
+    } // add(char[], int, int)
+
+    @Override
+    void addEmpty() {
+      int index = slot();
+      this.cells[index] = 0;
+    } // addEmpty()
+
+    @Override
+    Matrix<Integer> toMatrix() {
+      IntMatrix result = new IntMatrix(0, 0);
+      result.adopt(this.cells, this.width, this.height, rowCapacity());
+      return result;
+    } // toMatrix()
+  } // class IntCells
+
+  /**
+   * Cells of longs.
+   */
+  static final class LongCells extends Cells<Long, long[]> {
+    /**
+     * Start with no cells.
+     */
+    LongCells() {
+      super(new long[INITIAL_CELLS], INITIAL_CELLS);
+    } // LongCells()
+
+    @Override
+    long[] copyOf(long[] array, int length) {
+      return Arrays.copyOf(array, length);
+    } // copyOf(long[], int)
+
+    @Override
+    void add(char[] chars, int from, int to) {
+      long val = parseLong(chars, from, to);
+      int index = slot();
+      this.cells[index] = val;
+    } // add(char[], int, int)
+
+    @Override
+    void addEmpty() {
+      int index = slot();
+      this.cells[index] = 0;
+    } // addEmpty()
+
+    @Override
+    Matrix<Long> toMatrix() {
+      LongMatrix result = new LongMatrix(0, 0);
+      result.adopt(this.cells, this.width, this.height, rowCapacity());
+      return result;
+    } // toMatrix()
+  } // class LongCells
+
+  /**
+   * Cells of doubles.
+   */
+  static final class DoubleCells extends Cells<Double, double[]> {
+    /**
+     * Start with no cells.
+     */
+    DoubleCells() {
+      super(new double[INITIAL_CELLS], INITIAL_CELLS);
+    } // DoubleCells()
+
+    @Override
+    double[] copyOf(double[] array, int length) {
+      return Arrays.copyOf(array, length);
+    } // copyOf(double[], int)
+
+    @Override
+    void add(char[] chars, int from, int to) {
+      double val = parseDouble(chars, from, to);
+      int index = slot();
+      this.cells[index] = val;
+    } // add(char[], int, int)
+
+    @Override
+    void addEmpty() {
+      int index = slot();
+      this.cells[index] = 0;
+    } // addEmpty()
+
+    @Override
+    Matrix<Double> toMatrix() {
+      DoubleMatrix result = new DoubleMatrix(0, 0);
+      result.adopt(this.cells, this.width, this.height, rowCapacity());
+      return result;
+    } // toMatrix()
+  } // class DoubleCells
+
+  /**
+   * Cells of any other type, parsed by a codec.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   */
+  static final class ObjectCells<T> extends Cells<T, Object[]> {
+    /**
+     * How to parse the cells.
+     */
+    private final Codec<T> codec;
+
+    /**
+     * Start with no cells.
+     *
+     * @param codec
+     *   How to parse the cells.
+     */
+    ObjectCells(Codec<T> codec) {
+      super(new Object[INITIAL_CELLS], INITIAL_CELLS);
+      this.codec = codec;
+    } // ObjectCells(Codec<T>)
+
+    @Override
+    Object[] copyOf(Object[] array, int length) {
+      return Arrays.copyOf(array, length);
+    } // copyOf(Object[], int)
+
+    @Override
+    void add(char[] chars, int from, int to) {
+      T val = this.codec.parse(chars, from, to);
+      int index = slot();
+      this.cells[index] = val;
+    } // add(char[], int, int)
+
+    @Override
+    void addEmpty() {
+      int index = slot();
+      this.cells[index] = null;
+    } // addEmpty()
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Matrix<T> toMatrix() {
+      T[][] rows = (T[][]) new Object[this.height][];
+      for (int row = 0; row < this.height; row++) {
+        rows[row] = (T[]) Arrays.copyOfRange(this.cells, row * this.width,
+            (row + 1) * this.width);
+      } // for
+      return new MatrixV0<>(rows, this.width);
+    } // toMatrix()
+  } // class ObjectCells<T>
+
+  /**
+   * Cells of any type, parsed by a codec and stored as codes into a
+   * table of values.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   */
+  static final class CodeCells<T> extends Cells<T, int[]> {
+    /**
+     * How to parse the cells.
+     */
+    private final Codec<T> codec;
+
+    /**
+     * The values of the codes.
+     */
+    private final DictionaryMatrix.ValueTable<T> table =
+        new DictionaryMatrix.ValueTable<>();
+
+    /**
+     * Start with no cells.
+     *
+     * @param codec
+     *   How to parse the cells.
+     */
+    CodeCells(Codec<T> codec) {
+      super(new int[INITIAL_CELLS], INITIAL_CELLS);
+      this.codec = codec;
+    } // CodeCells(Codec<T>)
+
+    @Override
+    int[] copyOf(int[] array, int length) {
+      return Arrays.copyOf(array, length);
+    } // copyOf(int[], int)
+
+    @Override
+    void add(char[] chars, int from, int to) {
+      int code = this.table.encode(this.codec.parse(chars, from, to));
+      int index = slot();
+      this.cells[index] = code;
+    } // add(char[], int, int)
+
+    @Override
+    void addEmpty() {
+      int code = this.table.encode(null);
+      int index = slot();
+      this.cells[index] = code;
+    } // addEmpty()
+
+    /**
+     * Add the cells of the piece of text that follows ours, moving their
+     * codes from the table of that piece to ours.
+     *
+     * @param piece
+     *   The cells of that piece.
+     */
+    @Override
+    void append(Cells<T, int[]> piece) {
+      DictionaryMatrix.ValueTable<T> theirs = ((CodeCells<T>) piece).table;
+      int[] codes = new int[theirs.size()];
+      for (int code = 0; code < codes.length; code++) {
+        codes[code] = this.table.encode(theirs.decode(code));
+      } // for
+      for (int i = 0; i < piece.size; i++) {
+        this.cells[this.size + i] = codes[piece.cells[i]];
+      } // for
+      this.size += piece.size;
+      this.height += piece.height;
+    } // append(Cells<T, int[]>)
+
+    @Override
+    Matrix<T> toMatrix() {
+      DictionaryMatrix<T> result = new DictionaryMatrix<>(0, 0, null,
+          this.table);
+      result.adopt(this.cells, this.width, this.height, rowCapacity());
+      return result;
+    } // toMatrix()
+  } // class CodeCells<T>
+
+  /**
+   * Splits text into fields, a buffer at a time.
+   */
+  static final class Parser {
+    /**
+     * Where the text comes from.
+     */
+    private final Reader in;
+
+    /**
+     * The character between fields.
+     */
+    private final char separator;
+
+    /**
+     * The characters we have read. Quoted fields are unescaped in place.
+     */
+    char[] buf = new char[BUFFER_SIZE];
+
+    /**
+     * The start of the current field in buf.
+     */
+    int mark;
+
+    /**
+     * The end of the current field in buf.
+     */
+    int end;
+
+    /**
+     * Whether the current field was quoted.
+     */
+    boolean wasQuoted;
+
+    /**
+     * Whether any field was quoted.
+     */
+    boolean sawQuote;
+
+    /**
+     * The next character to look at.
+     */
+    private int pos;
+
+    /**
+     * The end of the characters we have read.
+     */
+    private int limit;
+
+    /**
+     * Where the next character of a quoted field goes.
+     */
+    private int write;
+
+    /**
+     * Whether the last row ended with a carriage return, so that a
+     * newline right after it belongs to the same line break.
+     */
+    private boolean afterReturn;
+
+    /**
+     * Whether the reader has run out.
+     */
+    private boolean eof;
+
+    /**
+     * Parse some text.
+     *
+     * @param in
+     *   The text.
+     * @param separator
+     *   The character between fields.
+     */
+    Parser(Reader in, char separator) {
+      this.in = in;
+      this.separator = separator;
+    } // Parser(Reader, char)
+
+    /**
+     * Find the next field, and set mark and end around it.
+     *
+     * @param rowStart
+     *   Whether the field starts a row, so that the end of the text
+     *   means there are no more.
+     *
+     * @return FIELD if another field follows on the same row, ROW if the
+     *   field ends its row, or DONE if there are no more rows.
+     *
+     * @throws IOException
+     *   If the reader fails or a quoted field is malformed.
+     */
+    int next(boolean rowStart) throws IOException {
+      this.mark = this.pos;
+      this.wasQuoted = false;
+      if (this.afterReturn) {
+        this.afterReturn = false;
+        if ((this.pos < this.limit || fill()) && this.buf[this.pos] == '\n') {
+          this.mark = ++this.pos;
+        } // if
+      } // if
+      if (this.pos == this.limit && !fill()) {
+        this.end = this.pos;
+        return rowStart ? DONE : ROW;
+      } // if
+      if (this.buf[this.pos] == '"') {
+        return quoted();
+      } // if
+      char sep = this.separator;
+      while (true) {
+        char[] chars = this.buf;
+        int lim = this.limit;
+        for (int p = this.pos; p < lim; p++) {
+          char ch = chars[p];
+          if (ch == sep) {
+            this.end = p;
+            this.pos = p + 1;
+            return FIELD;
+          } else if (ch == '\n' || ch == '\r') {
+            this.end = p;
+            this.pos = p + 1;
+            this.afterReturn = ch == '\r';
+            return ROW;
+          } // if/else
+        } // for
+        this.pos = lim;
+        if (!fill()) {
+          this.end = this.pos;
+          return ROW;
+        } // if
+      } // while
+    } // next(boolean)
+
+    /**
+     * Read a quoted field, which starts at pos.
+     *
+     * @return FIELD or ROW, as for next.
+     *
+     * @throws IOException
+     *   If the reader fails, the quote is not closed, or something
+     *   other than a separator or line break follows it.
+     */
+    private int quoted() throws IOException {
+      this.wasQuoted = true;
+      this.sawQuote = true;
+      this.mark = ++this.pos;
+      this.write = this.pos;
+      while (true) {
+        if (this.pos == this.limit && !fill()) {
+          throw new IOException("Quoted field is not closed.");
+        } // if
+        char ch = this.buf[this.pos++];
+        if (ch != '"') {
+          this.buf[this.write++] = ch;
+          continue;
+        } // if
+        if (this.pos == this.limit && !fill()) {
+          this.end = this.write;
+          return ROW;
+        } // if
+        ch = this.buf[this.pos];
+        if (ch == '"') {
+          this.buf[this.write++] = '"';
+          this.pos++;
+          continue;
+        } // if
+        this.end = this.write;
+        this.pos++;
+        if (ch == this.separator) {
+          return FIELD;
+        } else if (ch == '\n' || ch == '\r') {
+          this.afterReturn = ch == '\r';
+          return ROW;
+        } // if/else
+        throw new IOException("Unexpected " + ch + " after a quoted field.");
+      } // while
+    } // quoted()
+
+    /**
+     * Read more characters, keeping those of the current field.
+     *
+     * @return false if there are no more.
+     *
+     * @throws IOException
+     *   If the reader fails.
+     */
+    private boolean fill() throws IOException {
+      if (this.eof) {
+        return false;
+      } // if
+      int keep = this.mark;
+      if (keep > 0) {
+        System.arraycopy(this.buf, keep, this.buf, 0, this.limit - keep);
+        this.mark = 0;
+        this.pos -= keep;
+        this.limit -= keep;
+        this.write -= keep;
+      } // if
+      if (this.limit == this.buf.length) {
+        this.buf = Arrays.copyOf(this.buf, this.buf.length * 2);
+      } // if
+      int count;
+      do {
+        count = this.in.read(this.buf, this.limit, this.buf.length - this.limit);
+      } while (count == 0);
+      if (count < 0) {
+        this.eof = true;
+        return false;
+      } // if
+      this.limit += count;
+      return true;
+    } // fill()
+  } // class Parser
+
+  /**
+   * Decodes UTF-8 from a buffer of bytes.
+   */
+  static final class BufferReader extends Reader {
+    /**
+     * The bytes.
+     */
+    private final ByteBuffer bytes;
+
+    /**
+     * The decoder, which reports malformed input.
+     */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+    /**
+     * Whether every byte has been decoded.
+     */
+    private boolean done;
+
+    /**
+     * Read some bytes.
+     *
+     * @param bytes
+     *   The bytes.
+     */
+    BufferReader(ByteBuffer bytes) {
+      this.bytes = bytes;
+    } // BufferReader(ByteBuffer)
+
+    @Override
+    public int read(char[] chars, int off, int len) throws IOException {
+      if (this.done) {
+        return -1;
+      } // if
+      CharBuffer out = CharBuffer.wrap(chars, off, len);
+      CoderResult result = this.decoder.decode(this.bytes, out, true);
+      if (result.isError()) {
+        result.throwException();
+      } // if
+      if (result.isUnderflow()) {
+        this.done = this.decoder.flush(out).isUnderflow();
+      } // if
+      int count = out.position() - off;
+      return count == 0 && this.done ? -1 : count;
+    } // read(char[], int, int)
+
+    @Override
+    public void close() {
+    } // close()
+  } // class BufferReader
+
+  /**
+   * Text built in a buffer and written to a writer a block at a time.
+   */
+  static final class Output {
+    /**
+     * Where the text goes.
+     */
+    private final Writer out;
+
+    /**
+     * The character between fields, which forces quotes.
+     */
+    private final char separator;
+
+    /**
+     * The text not yet written.
+     */
+    private char[] buf = new char[BUFFER_SIZE];
+
+    /**
+     * The number of characters in buf.
+     */
+    private int length;
+
+    /**
+     * Write text.
+     *
+     * @param out
+     *   Where the text goes.
+     * @param separator
+     *   The character between fields.
+     */
+    Output(Writer out, char separator) {
+      this.out = out;
+      this.separator = separator;
+    } // Output(Writer, char)
+
+    /**
+     * Add a character.
+     *
+     * @param ch
+     *   The character.
+     *
+     * @throws IOException
+     *   If the writer fails.
+     */
+    void put(char ch) throws IOException {
+      ensure(1);
+      this.buf[this.length++] = ch;
+    } // put(char)
+
+    /**
+     * Add the digits of a number, as Long.toString would.
+     *
+     * @param val
+     *   The number.
+     *
+     * @throws IOException
+     *   If the writer fails.
+     */
+    void putLong(long val) throws IOException {
+      ensure(20);
+      // Count the digits, then write them from the right, working with
+      // the negative, which covers Long.MIN_VALUE.
+      long rest = val < 0 ? val : -val;
+      int digits = 1;
+      for (long scan = rest / 10; scan != 0; scan /= 10) {
+        digits++;
+      } // for
+      if (val < 0) {
+        this.buf[this.length++] = '-';
+      } // if
+      int pos = this.length + digits;
+      this.length = pos;
+      do {
+        this.buf[--pos] = (char) ('0' - rest % 10);
+        rest /= 10;
+      } while (rest != 0);
+    } // putLong(long)
+
+    /**
+     * Add a cell of any type.
+     *
+     * @param val
+     *   The value in the cell.
+     *
+     * @throws IOException
+     *   If the writer fails.
+     */
+    void putCell(Object val) throws IOException {
+      if (val == null) {
+        return;
+      } else if (val instanceof Integer || val instanceof Long) {
+        putLong(((Number) val).longValue());
+      } else {
+        putText(val.toString(), true);
+      } // if/else
+    } // putCell(Object)
+
+    /**
+     * Add some text as a field.
+     *
+     * @param text
+     *   The text.
+     * @param check
+     *   Whether the text might need quotes.
+     *
+     * @throws IOException
+     *   If the writer fails.
+     */
+    void putText(String text, boolean check) throws IOException {
+      int len = text.length();
+      if (!check || !needsQuotes(text)) {
+        ensure(len);
+        text.getChars(0, len, this.buf, this.length);
+        this.length += len;
+        return;
+      } // if
+      ensure(2 * len + 2);
+      this.buf[this.length++] = '"';
+      for (int i = 0; i < len; i++) {
+        char ch = text.charAt(i);
+        if (ch == '"') {
+          this.buf[this.length++] = '"';
+        } // if
+        this.buf[this.length++] = ch;
+      } // for
+      this.buf[this.length++] = '"';
+    } // putText(String, boolean)
+
+    /**
+     * Determine whether a field must be quoted to read back as it was.
+     *
+     * @param text
+     *   The text of the field.
+     *
+     * @return true if it must be quoted.
+     */
+    private boolean needsQuotes(String text) {
+      if (text.isEmpty()) {
+        return true;
+      } // if
+      for (int i = 0; i < text.length(); i++) {
+        char ch = text.charAt(i);
+        if (ch == this.separator || ch == '"' || ch == '\n' || ch == '\r') {
+          return true;
+        } // if
+      } // for
+      return false;
+    } // needsQuotes(String)
+
+    /**
+     * Make room for some characters, writing what we have if need be.
+     *
+     * @param count
+     *   The number of characters.
+     *
+     * @throws IOException
+     *   If the writer fails.
+     */
+    private void ensure(int count) throws IOException {
+      if (this.length + count > this.buf.length) {
+        flush();
+        if (count > this.buf.length) {
+          this.buf = new char[count];
+        } // if
+      } // if
+    } // ensure(int)
+
+    /**
+     * Write what we have.
+     *
+     * @throws IOException
+     *   If the writer fails.
+     */
+    void flush() throws IOException {
+      this.out.write(this.buf, 0, this.length);
+      this.length = 0;
+    } // flush()
+  } // class Output
+} // class MatrixCsv
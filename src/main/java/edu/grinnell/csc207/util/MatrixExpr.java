@@ -0,0 +1,399 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A matrix whose cells are computed from other matrices when someone
+ * asks for them. Operations such as {@link #map}, {@link #zipWith},
+ * {@link #add}, {@link #scale}, and {@link #mask} build a small tree of
+ * expressions instead of computing anything, so a chain of them makes
+ * no intermediate matrices.
+ *
+ * <p>{@link #get} computes one cell by walking the tree. {@link
+ * #materialize} computes every cell in a single pass over bands of
+ * rows, running each cell through the whole chain at once, and splits
+ * large matrices across a fork/join pool as {@link MatrixV0} does. The
+ * sources are read at that moment, not when the expression was built,
+ * so materialize a chain before changing the matrices it reads.</p>
+ *
+ * @param <T>
+ *   The type of value in the cells.
+ */
+public abstract class MatrixExpr<T> implements ReadableMatrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of rows.
+   */
+  private final int numRows;
+
+  /**
+   * The number of columns.
+   */
+  private final int numCols;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an expression of the given shape.
+   *
+   * @param width
+   *   The number of columns.
+   * @param height
+   *   The number of rows.
+   */
+  MatrixExpr(int width, int height) {
+    this.numCols = width;
+    this.numRows = height;
+  } // MatrixExpr(int, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Start an expression from a matrix.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param source
+   *   The matrix.
+   *
+   * @return an expression whose cells are those of the matrix.
+   */
+  public static <T> MatrixExpr<T> of(ReadableMatrix<T> source) {
+    if (source instanceof MatrixExpr) {
+      return (MatrixExpr<T>) source;
+    } // if
+    return new Source<>(source);
+  } // of(ReadableMatrix<T>)
+
+  /**
+   * Add two matrices of numbers, cell by cell, in doubles.
+   *
+   * @param a
+   *   One matrix.
+   * @param b
+   *   The other matrix.
+   *
+   * @return an expression for the sum.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices differ in shape.
+   */
+  public static MatrixExpr<Double> add(ReadableMatrix<? extends Number> a,
+      ReadableMatrix<? extends Number> b) {
+    return of(a).zipWith(b, (x, y) -> x.doubleValue() + y.doubleValue());
+  } // add(ReadableMatrix, ReadableMatrix)
+
+  /**
+   * Multiply every cell of a matrix of numbers by a factor, in doubles.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param factor
+   *   The factor.
+   *
+   * @return an expression for the product.
+   */
+  public static MatrixExpr<Double> scale(ReadableMatrix<? extends Number> matrix,
+      double factor) {
+    return of(matrix).map((x) -> x.doubleValue() * factor);
+  } // scale(ReadableMatrix, double)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Compute one cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the value of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public T get(int row, int col) {
+    if (row < 0 || row >= this.numRows || col < 0 || col >= this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid row or column index ("
+          + row + ", " + col + ").");
+    } // if
+    return at(row, col);
+  } // get(int, int)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.numRows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.numCols;
+  } // width()
+
+  /**
+   * Apply a function to every cell.
+   *
+   * @param <R>
+   *   The type of the results.
+   * @param fun
+   *   The function.
+   *
+   * @return an expression for the results.
+   */
+  public <R> MatrixExpr<R> map(Function<? super T, ? extends R> fun) {
+    return new Mapped<>(this, fun);
+  } // map(Function)
+
+  /**
+   * Combine every cell with the matching cell of another matrix.
+   *
+   * @param <U>
+   *   The type of value in the other matrix.
+   * @param <R>
+   *   The type of the results.
+   * @param other
+   *   The other matrix.
+   * @param fun
+   *   Combines a cell of this matrix with a cell of the other.
+   *
+   * @return an expression for the results.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrices differ in shape.
+   */
+  public <U, R> MatrixExpr<R> zipWith(ReadableMatrix<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fun) {
+    checkShape(other);
+    return new Zipped<>(this, of(other), fun);
+  } // zipWith(ReadableMatrix<U>, BiFunction)
+
+  /**
+   * Keep the cells where a mask is true and replace the others.
+   *
+   * @param mask
+   *   The mask, of the same shape.
+   * @param otherwise
+   *   The value for cells where the mask is false or null.
+   *
+   * @return an expression for the results.
+   *
+   * @throws IllegalArgumentException
+   *   If the mask differs in shape.
+   */
+  public MatrixExpr<T> mask(ReadableMatrix<Boolean> mask, T otherwise) {
+    return zipWith(mask, (val, keep) -> Boolean.TRUE.equals(keep) ? val
+        : otherwise);
+  } // mask(ReadableMatrix<Boolean>, T)
+
+  /**
+   * Compute every cell into a new matrix, using the common fork/join
+   * pool for large matrices.
+   *
+   * @return the new matrix.
+   */
+  public MatrixV0<T> materialize() {
+    return materialize(ForkJoinPool.commonPool());
+  } // materialize()
+
+  /**
+   * Compute every cell into a new matrix, using the given pool for
+   * large matrices.
+   *
+   * @param pool
+   *   The pool to run bands of rows in, or null to compute everything
+   *   in the calling thread.
+   *
+   * @return the new matrix.
+   */
+  public MatrixV0<T> materialize(ForkJoinPool pool) {
+    MatrixV0<T> result = new MatrixV0<>(this.numCols, this.numRows);
+    // A new matrix owns all of its rows, so setting cells in different
+    // rows from different threads is safe.
+    RowBands.forEach(pool, 0, this.numRows, this.numCols, (start, end) -> {
+      for (int row = start; row < end; row++) {
+        for (int col = 0; col < this.numCols; col++) {
+          result.set(row, col, at(row, col));
+        } // for col
+      } // for row
+    });
+    return result;
+  } // materialize(ForkJoinPool)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Compute one cell that we know is in bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the value of the cell.
+   */
+  abstract T at(int row, int col);
+
+  /**
+   * Make sure that another matrix has our shape.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @throws IllegalArgumentException
+   *   If it does not.
+   */
+  private void checkShape(ReadableMatrix<?> other) {
+    if (other.height() != this.numRows || other.width() != this.numCols) {
+      throw new IllegalArgumentException("Cannot combine a " + this.numCols
+          + "x" + this.numRows + " matrix with a " + other.width() + "x"
+          + other.height() + " matrix.");
+    } // if
+  } // checkShape(ReadableMatrix<?>)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * The cells of a matrix.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   */
+  private static final class Source<T> extends MatrixExpr<T> {
+    /**
+     * The matrix.
+     */
+    private final ReadableMatrix<T> source;
+
+    /**
+     * Wrap a matrix.
+     *
+     * @param source
+     *   The matrix.
+     */
+    Source(ReadableMatrix<T> source) {
+      super(source.width(), source.height());
+      this.source = source;
+    } // Source(ReadableMatrix<T>)
+
+    @Override
+    T at(int row, int col) {
+      return this.source.get(row, col);
+    } // at(int, int)
+  } // class Source<T>
+
+  /**
+   * A function of the cells of another expression.
+   *
+   * @param <S>
+   *   The type of value in the other expression.
+   * @param <T>
+   *   The type of the results.
+   */
+  private static final class Mapped<S, T> extends MatrixExpr<T> {
+    /**
+     * The other expression.
+     */
+    private final MatrixExpr<S> source;
+
+    /**
+     * The function.
+     */
+    private final Function<? super S, ? extends T> fun;
+
+    /**
+     * Apply a function to an expression.
+     *
+     * @param source
+     *   The expression.
+     * @param fun
+     *   The function.
+     */
+    Mapped(MatrixExpr<S> source, Function<? super S, ? extends T> fun) {
+      super(source.width(), source.height());
+      this.source = source;
+      this.fun = fun;
+    } // Mapped(MatrixExpr<S>, Function)
+
+    @Override
+    T at(int row, int col) {
+      return this.fun.apply(this.source.at(row, col));
+    } // at(int, int)
+  } // class Mapped<S, T>
+
+  /**
+   * A function of the matching cells of two expressions.
+   *
+   * @param <A>
+   *   The type of value in the first expression.
+   * @param <B>
+   *   The type of value in the second expression.
+   * @param <T>
+   *   The type of the results.
+   */
+  private static final class Zipped<A, B, T> extends MatrixExpr<T> {
+    /**
+     * The first expression.
+     */
+    private final MatrixExpr<A> left;
+
+    /**
+     * The second expression.
+     */
+    private final MatrixExpr<B> right;
+
+    /**
+     * The function.
+     */
+    private final BiFunction<? super A, ? super B, ? extends T> fun;
+
+    /**
+     * Combine two expressions of the same shape.
+     *
+     * @param left
+     *   The first expression.
+     * @param right
+     *   The second expression.
+     * @param fun
+     *   The function.
+     */
+    Zipped(MatrixExpr<A> left, MatrixExpr<B> right,
+        BiFunction<? super A, ? super B, ? extends T> fun) {
+      super(left.width(), left.height());
+      this.left = left;
+      this.right = right;
+      this.fun = fun;
+    } // Zipped(MatrixExpr<A>, MatrixExpr<B>, BiFunction)
+
+    @Override
+    T at(int row, int col) {
+      return this.fun.apply(this.left.at(row, col), this.right.at(row, col));
+    } // at(int, int)
+  } // class Zipped<A, B, T>
+} // class MatrixExpr<T>
@@ -0,0 +1,1207 @@
+package edu.grinnell.csc207.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Saves matrices in a compact binary format and loads them again.
+ *
+ * <p>A file starts with a header of 20 bytes, all big-endian: the magic
+ * number {@code MTRX}, a two-byte version (now 1), two bytes of flags,
+ * the four-byte code of the {@link Codec} for the cells, the height,
+ * and the width. If the flags say so, the default value follows,
+ * written with the codec. Then come the cells, row by row, written with
+ * the codec and, if the flags say so, compressed with deflate. The
+ * default value and the cells are big-endian unless the little-endian
+ * flag is set; we write them in the order of the machine, so that
+ * primitive cells can be copied rather than converted. Readers refuse
+ * versions and flags they do not know.</p>
+ *
+ * <p>Cells pass through a direct buffer of a few hundred kilobytes that
+ * is written or read a block at a time, so neither side ever holds more
+ * of the file than that. The cells of {@link IntMatrix}, {@link
+ * LongMatrix}, and {@link DoubleMatrix} move between their arrays and
+ * the buffer in bulk copies of whole rows (or the whole matrix, when
+ * the rows are packed), and the cells of an {@link OffHeapMatrix} go
+ * straight from its own buffer to the channel, so a matrix of several
+ * gigabytes streams at the speed of the disk. Other matrices are
+ * written a cell at a time. The reader reads ahead, so do not expect the
+ * stream to be positioned just after the matrix when it returns. Neither
+ * side closes the stream or channel it is given.</p>
+ *
+ * <p>Matrices of ints, longs, doubles, and strings can be saved. The
+ * codec comes from the kind of matrix ({@link IntMatrix}, {@link
+ * LongMatrix}, {@link DoubleMatrix}, or {@link OffHeapMatrix}), from
+ * {@link #codec}, or else from the first cell that is not null.
+ * Matrices of ints, longs, and doubles are read back into IntMatrix,
+ * LongMatrix, and DoubleMatrix; matrices of strings into MatrixV0.</p>
+ */
+public final class MatrixIO {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The first four bytes of every file, "MTRX".
+   */
+  static final int MAGIC = 0x4D545258;
+
+  /**
+   * The version of the format we write.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The flag for cells that are compressed.
+   */
+  static final int DEFLATED = 1;
+
+  /**
+   * The flag for a header that includes the default value.
+   */
+  static final int HAS_DEFAULT = 2;
+
+  /**
+   * The flag for a default value and cells that are little-endian.
+   */
+  static final int LITTLE_ENDIAN = 4;
+
+  /**
+   * All the flags we know.
+   */
+  private static final int KNOWN_FLAGS = DEFLATED | HAS_DEFAULT | LITTLE_ENDIAN;
+
+  /**
+   * The number of bytes in the header, not counting the default value.
+   */
+  static final int HEADER_SIZE = 20;
+
+  /**
+   * The size of the buffer for blocks of cells.
+   */
+  private static final int BLOCK_SIZE = 1 << 18;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Whether to compress the cells.
+   */
+  private boolean compress;
+
+  /**
+   * The codec to write with, or null to choose one for each matrix.
+   */
+  private Codec<?> codec;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a reader and writer that does not compress and chooses the
+   * codec for each matrix.
+   */
+  public MatrixIO() {
+  } // MatrixIO()
+
+  // +---------+-----------------------------------------------------
+  // | Options |
+  // +---------+
+
+  /**
+   * Choose whether to compress the cells when writing. Compression
+   * uses the fastest level of deflate, so it pays on matrices with
+   * many repeated values and costs time on the rest.
+   *
+   * @param compress
+   *   True to compress.
+   *
+   * @return this object.
+   */
+  public MatrixIO compress(boolean compress) {
+    this.compress = compress;
+    return this;
+  } // compress(boolean)
+
+  /**
+   * Choose the codec to write cells with, rather than letting the
+   * writer choose one for each matrix.
+   *
+   * @param codec
+   *   The codec, or null to choose one for each matrix.
+   *
+   * @return this object.
+   */
+  public MatrixIO codec(Codec<?> codec) {
+    this.codec = codec;
+    return this;
+  } // codec(Codec<?>)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Write a matrix to a stream. The stream is flushed but not closed.
+   *
+   * @param out
+   *   The stream.
+   * @param matrix
+   *   The matrix.
+   *
+   * @throws IOException
+   *   If the stream fails.
+   * @throws IllegalArgumentException
+   *   If there is no codec for the cells.
+   * @throws ClassCastException
+   *   If a cell does not fit the codec.
+   * @throws NullPointerException
+   *   If a cell is null and the codec holds primitives.
+   */
+  public void write(OutputStream out, ReadableMatrix<?> matrix)
+      throws IOException {
+    write(Channels.newChannel(out), matrix);
+    out.flush();
+  } // write(OutputStream, ReadableMatrix<?>)
+
+  /**
+   * Write a matrix to a channel. The channel is not closed.
+   *
+   * @param channel
+   *   The channel.
+   * @param matrix
+   *   The matrix.
+   *
+   * @throws IOException
+   *   If the channel fails.
+   * @throws IllegalArgumentException
+   *   If there is no codec for the cells.
+   * @throws ClassCastException
+   *   If a cell does not fit the codec.
+   * @throws NullPointerException
+   *   If a cell is null and the codec holds primitives.
+   */
+  public void write(WritableByteChannel channel, ReadableMatrix<?> matrix)
+      throws IOException {
+    Codec<?> chosen = this.codec != null ? this.codec : codecFor(matrix);
+    write(channel, matrix, chosen);
+  } // write(WritableByteChannel, ReadableMatrix<?>)
+
+  /**
+   * Read a matrix from a stream. The stream is not closed.
+   *
+   * @param in
+   *   The stream.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the stream fails or does not hold a matrix we can read.
+   */
+  public Matrix<?> read(InputStream in) throws IOException {
+    return read(Channels.newChannel(in));
+  } // read(InputStream)
+
+  /**
+   * Read a matrix from a channel. The channel is not closed.
+   *
+   * @param channel
+   *   The channel.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the channel fails or does not hold a matrix we can read.
+   */
+  public Matrix<?> read(ReadableByteChannel channel) throws IOException {
+    return read(channel, null);
+  } // read(ReadableByteChannel)
+
+  /**
+   * Read a matrix whose cells were written with a particular codec
+   * from a stream. The stream is not closed.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param in
+   *   The stream.
+   * @param expected
+   *   The codec.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the stream fails or does not hold a matrix written with that
+   *   codec.
+   */
+  public <T> Matrix<T> read(InputStream in, Codec<T> expected)
+      throws IOException {
+    return read(Channels.newChannel(in), expected);
+  } // read(InputStream, Codec<T>)
+
+  /**
+   * Read a matrix whose cells were written with a particular codec
+   * from a channel. The channel is not closed.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param channel
+   *   The channel.
+   * @param expected
+   *   The codec, or null to accept any codec.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the channel fails or does not hold a matrix written with that
+   *   codec.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Matrix<T> read(ReadableByteChannel channel, Codec<T> expected)
+      throws IOException {
+    Input in = new Input(channel);
+    ByteBuffer header = in.require(HEADER_SIZE);
+    if (header.getInt() != MAGIC) {
+      throw new IOException("Not a matrix.");
+    } // if
+    int version = header.getShort();
+    if (version < 1 || version > VERSION) {
+      throw new IOException("Unsupported version " + version + ".");
+    } // if
+    int flags = header.getShort();
+    if ((flags & ~KNOWN_FLAGS) != 0) {
+      throw new IOException("Unsupported flags " + flags + ".");
+    } // if
+    int code = header.getInt();
+    int height = header.getInt();
+    int width = header.getInt();
+    if (height < 0 || width < 0) {
+      throw new IOException("Invalid size " + width + "x" + height + ".");
+    } // if
+    Codec<T> found;
+    try {
+      found = (Codec<T>) Codec.forCode(code);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    } // try/catch
+    if (expected != null && expected != found) {
+      throw new IOException("Expected cells of " + expected + " but found "
+          + found + ".");
+    } // if
+    ByteOrder order = (flags & LITTLE_ENDIAN) != 0 ? ByteOrder.LITTLE_ENDIAN
+        : ByteOrder.BIG_ENDIAN;
+    in.order(order);
+    T def = (flags & HAS_DEFAULT) != 0 ? found.decode(in) : found.zero;
+    Matrix<T> result = found.create(width, height, def);
+
+    if ((flags & DEFLATED) == 0) {
+      readCells(in, result, found);
+    } else {
+      // The header may have read some of the compressed bytes already
+      InputStream rest = new SequenceInputStream(
+          new ByteArrayInputStream(in.leftover()),
+          Channels.newInputStream(channel));
+      Inflater inflater = new Inflater();
+      try {
+        readCells(new Input(Channels.newChannel(
+            new InflaterInputStream(rest, inflater, BLOCK_SIZE))).order(order),
+            result, found);
+      } finally {
+        inflater.end();
+      } // try/finally
+    } // if/else
+    return result;
+  } // read(ReadableByteChannel, Codec<T>)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Write a matrix with a codec.
+   *
+   * @param <T>
+   *   The type of value the codec writes.
+   * @param channel
+   *   The channel.
+   * @param matrix
+   *   The matrix.
+   * @param cellCodec
+   *   The codec.
+   *
+   * @throws IOException
+   *   If the channel fails.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> void write(WritableByteChannel channel, ReadableMatrix<?> matrix,
+      Codec<T> cellCodec) throws IOException {
+    T def = (T) defaultOf(matrix);
+    ByteOrder order = ByteOrder.nativeOrder();
+    int flags = (this.compress ? DEFLATED : 0) | (def != null ? HAS_DEFAULT : 0)
+        | (order == ByteOrder.LITTLE_ENDIAN ? LITTLE_ENDIAN : 0);
+    Output out = new Output(channel);
+    out.reserve(HEADER_SIZE)
+        .putInt(MAGIC)
+        .putShort((short) VERSION)
+        .putShort((short) flags)
+        .putInt(cellCodec.code)
+        .putInt(matrix.height())
+        .putInt(matrix.width());
+    out.order(order);
+    if (def != null) {
+      cellCodec.encode(out, def);
+    } // if
+
+    if (!this.compress) {
+      writeCells(out, (ReadableMatrix<T>) matrix, cellCodec);
+      return;
+    } // if
+    out.flush();
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      DeflaterOutputStream deflated = new DeflaterOutputStream(
+          Channels.newOutputStream(channel), deflater, BLOCK_SIZE);
+      writeCells(new Output(Channels.newChannel(deflated)).order(order),
+          (ReadableMatrix<T>) matrix, cellCodec);
+      deflated.finish();
+    } finally {
+      deflater.end();
+    } // try/finally
+  } // write(WritableByteChannel, ReadableMatrix<?>, Codec<T>)
+
+  /**
+   * Write the cells of a matrix, row by row, and flush them.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param out
+   *   Where to write them.
+   * @param matrix
+   *   The matrix.
+   * @param cellCodec
+   *   The codec.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  private static <T> void writeCells(Output out, ReadableMatrix<T> matrix,
+      Codec<T> cellCodec) throws IOException {
+    if (matrix instanceof OffHeapMatrix) {
+      OffHeapMatrix<?> offHeap = (OffHeapMatrix<?>) matrix;
+      ByteBuffer cells = offHeap.buffer();
+      int size = offHeap.type().size();
+      eachRun(offHeap, (from, length) ->
+          out.putBytes(cells.slice(from * size, length * size)));
+    } else if (!cellCodec.writeRuns(out, matrix)) {
+      int height = matrix.height();
+      int width = matrix.width();
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          cellCodec.encode(out, matrix.get(row, col));
+        } // for col
+      } // for row
+    } // if/else
+    out.flush();
+  } // writeCells(Output, ReadableMatrix<T>, Codec<T>)
+
+  /**
+   * Read the cells of a matrix, row by row.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param in
+   *   Where to read them.
+   * @param matrix
+   *   The matrix to fill.
+   * @param cellCodec
+   *   The codec.
+   *
+   * @throws IOException
+   *   If the input fails or ends early.
+   */
+  private static <T> void readCells(Input in, Matrix<T> matrix,
+      Codec<T> cellCodec) throws IOException {
+    if (cellCodec.readRuns(in, matrix)) {
+      return;
+    } // if
+    int height = matrix.height();
+    int width = matrix.width();
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        matrix.set(row, col, cellCodec.decode(in));
+      } // for col
+    } // for row
+  } // readCells(Input, Matrix<T>, Codec<T>)
+
+  /**
+   * Visit the runs of cells of a flat matrix in row-major order: the
+   * whole matrix at once when its rows are packed, or else one run per
+   * row.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param run
+   *   What to do with each run.
+   *
+   * @throws IOException
+   *   If run does.
+   */
+  static void eachRun(AbstractFlatMatrix<?, ?> matrix, Run run)
+      throws IOException {
+    if (matrix.stride == matrix.numCols) {
+      run.apply(0, matrix.numRows * matrix.numCols);
+      return;
+    } // if
+    for (int row = 0; row < matrix.numRows; row++) {
+      run.apply(row * matrix.stride, matrix.numCols);
+    } // for
+  } // eachRun(AbstractFlatMatrix<?, ?>, Run)
+
+  /**
+   * Choose a codec for a matrix from its kind or its first cell that is
+   * not null.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the codec.
+   *
+   * @throws IllegalArgumentException
+   *   If there is no codec for the cells.
+   */
+  static Codec<?> codecFor(ReadableMatrix<?> matrix) {
+    if (matrix instanceof IntMatrix) {
+      return Codec.INT;
+    } else if (matrix instanceof LongMatrix) {
+      return Codec.LONG;
+    } else if (matrix instanceof DoubleMatrix) {
+      return Codec.DOUBLE;
+    } else if (matrix instanceof OffHeapMatrix) {
+      return Codec.forCode(((OffHeapMatrix<?>) matrix).type().code());
+    } // if/else
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        Object val = matrix.get(row, col);
+        if (val != null) {
+          for (Codec<?> candidate : Codec.ALL) {
+            if (candidate.type.isInstance(val)) {
+              return candidate;
+            } // if
+          } // for
+          throw new IllegalArgumentException("No codec for "
+              + val.getClass().getName() + ".");
+        } // if
+      } // for col
+    } // for row
+    // Every cell is null, and only strings can be null
+    return Codec.STRING;
+  } // codecFor(ReadableMatrix<?>)
+
+  /**
+   * Find the value a matrix fills new cells with, if we can tell.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the default value, or null if there is none or we cannot
+   *   tell.
+   */
+  static Object defaultOf(ReadableMatrix<?> matrix) {
+    if (matrix instanceof MatrixV0) {
+      return ((MatrixV0<?>) matrix).defaultValue();
+    } else if (matrix instanceof AbstractFlatMatrix) {
+      return ((AbstractFlatMatrix<?, ?>) matrix).defaultValue;
+    } // if/else
+    return null;
+  } // defaultOf(ReadableMatrix<?>)
+
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Something to do with a run of cells of a flat matrix.
+   */
+  @FunctionalInterface
+  interface Run {
+    /**
+     * Do it.
+     *
+     * @param from
+     *   The index of the first cell of the run.
+     * @param length
+     *   The number of cells in the run.
+     *
+     * @throws IOException
+     *   If the work involves I/O that fails.
+     */
+    void apply(int from, int length) throws IOException;
+  } // interface Run
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * A way to write values of one type as bytes and read them back.
+   *
+   * @param <T>
+   *   The type of the values.
+   */
+  public abstract static class Codec<T> {
+    /**
+     * Ints, in four bytes.
+     */
+    public static final Codec<Integer> INT =
+        new Codec<>("int", ElementType.INT.code(), Integer.class, 0) {
+          @Override
+          void encode(Output out, Integer val) throws IOException {
+            out.reserve(4).putInt(val);
+          } // encode(Output, Integer)
+
+          @Override
+          Integer decode(Input in) throws IOException {
+            return in.require(4).getInt();
+          } // decode(Input)
+
+          @Override
+          Matrix<Integer> create(int width, int height, Integer def) {
+            return new IntMatrix(width, height, def);
+          } // create(int, int, Integer)
+
+          @Override
+          boolean writeRuns(Output out, ReadableMatrix<Integer> matrix)
+              throws IOException {
+            if (!(matrix instanceof IntMatrix)) {
+              return false;
+            } // if
+            int[] cells = ((IntMatrix) matrix).cells;
+            eachRun((IntMatrix) matrix, (from, length) ->
+                out.putInts(cells, from, length));
+            return true;
+          } // writeRuns(Output, ReadableMatrix<Integer>)
+
+          @Override
+          boolean readRuns(Input in, Matrix<Integer> matrix) throws IOException {
+            int[] cells = ((IntMatrix) matrix).cells;
+            eachRun((IntMatrix) matrix, (from, length) ->
+                in.getInts(cells, from, length));
+            return true;
+          } // readRuns(Input, Matrix<Integer>)
+        };
+
+    /**
+     * Longs, in eight bytes.
+     */
+    public static final Codec<Long> LONG =
+        new Codec<>("long", ElementType.LONG.code(), Long.class, 0L) {
+          @Override
+          void encode(Output out, Long val) throws IOException {
+            out.reserve(8).putLong(val);
+          } // encode(Output, Long)
+
+          @Override
+          Long decode(Input in) throws IOException {
+            return in.require(8).getLong();
+          } // decode(Input)
+
+          @Override
+          Matrix<Long> create(int width, int height, Long def) {
+            return new LongMatrix(width, height, def);
+          } // create(int, int, Long)
+
+          @Override
+          boolean writeRuns(Output out, ReadableMatrix<Long> matrix)
+              throws IOException {
+            if (!(matrix instanceof LongMatrix)) {
+              return false;
+            } // if
+            long[] cells = ((LongMatrix) matrix).cells;
+            eachRun((LongMatrix) matrix, (from, length) ->
+                out.putLongs(cells, from, length));
+            return true;
+          } // writeRuns(Output, ReadableMatrix<Long>)
+
+          @Override
+          boolean readRuns(Input in, Matrix<Long> matrix) throws IOException {
+            long[] cells = ((LongMatrix) matrix).cells;
+            eachRun((LongMatrix) matrix, (from, length) ->
+                in.getLongs(cells, from, length));
+            return true;
+          } // readRuns(Input, Matrix<Long>)
+        };
+
+    /**
+     * Doubles, in eight bytes.
+     */
+    public static final Codec<Double> DOUBLE =
+        new Codec<>("double", ElementType.DOUBLE.code(), Double.class, 0.0) {
+          @Override
+          void encode(Output out, Double val) throws IOException {
+            out.reserve(8).putDouble(val);
+          } // encode(Output, Double)
+
+          @Override
+          Double decode(Input in) throws IOException {
+            return in.require(8).getDouble();
+          } // decode(Input)
+
+          @Override
+          Matrix<Double> create(int width, int height, Double def) {
+            return new DoubleMatrix(width, height, def);
+          } // create(int, int, Double)
+
+          @Override
+          boolean writeRuns(Output out, ReadableMatrix<Double> matrix)
+              throws IOException {
+            if (!(matrix instanceof DoubleMatrix)) {
+              return false;
+            } // if
+            double[] cells = ((DoubleMatrix) matrix).cells;
+            eachRun((DoubleMatrix) matrix, (from, length) ->
+                out.putDoubles(cells, from, length));
+            return true;
+          } // writeRuns(Output, ReadableMatrix<Double>)
+
+          @Override
+          boolean readRuns(Input in, Matrix<Double> matrix) throws IOException {
+            double[] cells = ((DoubleMatrix) matrix).cells;
+            eachRun((DoubleMatrix) matrix, (from, length) ->
+                in.getDoubles(cells, from, length));
+            return true;
+          } // readRuns(Input, Matrix<Double>)
+        };
+
+    /**
+     * Strings or null, as a four-byte length (-1 for null) followed by
+     * that many bytes of UTF-8.
+     */
+    public static final Codec<String> STRING =
+        new Codec<>("string", 4, String.class, null) {
+          @Override
+          void encode(Output out, String val) throws IOException {
+            if (val == null) {
+              out.reserve(4).putInt(-1);
+              return;
+            } // if
+            byte[] bytes = val.getBytes(StandardCharsets.UTF_8);
+            out.reserve(4 + bytes.length).putInt(bytes.length).put(bytes);
+          } // encode(Output, String)
+
+          @Override
+          String decode(Input in) throws IOException {
+            int length = in.require(4).getInt();
+            if (length < 0) {
+              return null;
+            } // if
+            byte[] bytes = new byte[length];
+            in.require(length).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+          } // decode(Input)
+
+          @Override
+          Matrix<String> create(int width, int height, String def) {
+            return new MatrixV0<>(width, height, def);
+          } // create(int, int, String)
+        };
+
+    /**
+     * Every codec, in the order we try them on a cell.
+     */
+    static final Codec<?>[] ALL = {INT, LONG, DOUBLE, STRING};
+
+    /**
+     * The name of the codec.
+     */
+    private final String name;
+
+    /**
+     * The number that identifies the codec in files.
+     */
+    final int code;
+
+    /**
+     * The class of the values.
+     */
+    final Class<T> type;
+
+    /**
+     * The default value when the file does not give one.
+     */
+    final T zero;
+
+    /**
+     * Create a codec.
+     *
+     * @param name
+     *   The name of the codec.
+     * @param code
+     *   The number that identifies the codec in files.
+     * @param type
+     *   The class of the values.
+     * @param zero
+     *   The default value when the file does not give one.
+     */
+    private Codec(String name, int code, Class<T> type, T zero) {
+      this.name = name;
+      this.code = code;
+      this.type = type;
+      this.zero = zero;
+    } // Codec(String, int, Class<T>, T)
+
+    /**
+     * Find the codec with a given code.
+     *
+     * @param code
+     *   The code, as returned by {@link #code()}.
+     *
+     * @return the corresponding codec.
+     *
+     * @throws IllegalArgumentException
+     *   If no codec has that code.
+     */
+    public static Codec<?> forCode(int code) {
+      for (Codec<?> candidate : ALL) {
+        if (candidate.code == code) {
+          return candidate;
+        } // if
+      } // for
+      throw new IllegalArgumentException("Unknown codec " + code);
+    } // forCode(int)
+
+    /**
+     * Get the number that identifies this codec in files.
+     *
+     * @return the code.
+     */
+    public int code() {
+      return this.code;
+    } // code()
+
+    /**
+     * Get the name of the codec.
+     *
+     * @return the name.
+     */
+    @Override
+    public String toString() {
+      return this.name;
+    } // toString()
+
+    /**
+     * Write a value.
+     *
+     * @param out
+     *   Where to write it.
+     * @param val
+     *   The value.
+     *
+     * @throws IOException
+     *   If the output fails.
+     */
+    abstract void encode(Output out, T val) throws IOException;
+
+    /**
+     * Read a value.
+     *
+     * @param in
+     *   Where to read it.
+     *
+     * @return the value.
+     *
+     * @throws IOException
+     *   If the input fails or ends early.
+     */
+    abstract T decode(Input in) throws IOException;
+
+    /**
+     * Make a matrix to read cells into.
+     *
+     * @param width
+     *   The width of the matrix.
+     * @param height
+     *   The height of the matrix.
+     * @param def
+     *   The default value.
+     *
+     * @return the new matrix.
+     */
+    abstract Matrix<T> create(int width, int height, T def);
+
+    /**
+     * Write all the cells of a matrix in bulk, if we know how to for
+     * that kind of matrix.
+     *
+     * @param out
+     *   Where to write them.
+     * @param matrix
+     *   The matrix.
+     *
+     * @return true if we wrote them and false if the caller must write
+     *   them a cell at a time.
+     *
+     * @throws IOException
+     *   If the output fails.
+     */
+    boolean writeRuns(Output out, ReadableMatrix<T> matrix) throws IOException {
+      return false;
+    } // writeRuns(Output, ReadableMatrix<T>)
+
+    /**
+     * Read all the cells of a matrix made by {@link #create} in bulk, if
+     * we know how to.
+     *
+     * @param in
+     *   Where to read them.
+     * @param matrix
+     *   The matrix.
+     *
+     * @return true if we read them and false if the caller must read
+     *   them a cell at a time.
+     *
+     * @throws IOException
+     *   If the input fails or ends early.
+     */
+    boolean readRuns(Input in, Matrix<T> matrix) throws IOException {
+      return false;
+    } // readRuns(Input, Matrix<T>)
+  } // class Codec<T>
+
+  /**
+   * A buffer that is written to a channel a block at a time.
+   */
+  static final class Output {
+    /**
+     * The channel.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The bytes not yet written.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+
+    /**
+     * Write to a channel, big-endian until told otherwise.
+     *
+     * @param channel
+     *   The channel.
+     */
+    Output(WritableByteChannel channel) {
+      this.channel = channel;
+    } // Output(WritableByteChannel)
+
+    /**
+     * Choose the byte order for what we write next.
+     *
+     * @param order
+     *   The byte order.
+     *
+     * @return this output.
+     */
+    Output order(ByteOrder order) {
+      this.buffer.order(order);
+      return this;
+    } // order(ByteOrder)
+
+    /**
+     * Make room for some bytes, writing out the block if it is full.
+     *
+     * @param bytes
+     *   The number of bytes.
+     *
+     * @return the buffer to put them in.
+     *
+     * @throws IOException
+     *   If the channel fails.
+     */
+    ByteBuffer reserve(int bytes) throws IOException {
+      if (this.buffer.remaining() < bytes) {
+        flush();
+        if (this.buffer.capacity() < bytes) {
+          this.buffer = ByteBuffer.allocateDirect(bytes)
+              .order(this.buffer.order());
+        } // if
+      } // if
+      return this.buffer;
+    } // reserve(int)
+
+    /**
+     * Write a run of ints, a block at a time.
+     *
+     * @param src
+     *   The array that holds them.
+     * @param from
+     *   The index of the first.
+     * @param count
+     *   The number of ints.
+     *
+     * @throws IOException
+     *   If the channel fails.
+     */
+    void putInts(int[] src, int from, int count) throws IOException {
+      while (count > 0) {
+        int n = Math.min(count, this.buffer.remaining() / 4);
+        if (n == 0) {
+          flush();
+          continue;
+        } // if
+        this.buffer.asIntBuffer().put(src, from, n);
+        this.buffer.position(this.buffer.position() + 4 * n);
+        from += n;
+        count -= n;
+      } // while
+    } // putInts(int[], int, int)
+
+    /**
+     * Write a run of longs, a block at a time.
+     *
+     * @param src
+     *   The array that holds them.
+     * @param from
+     *   The index of the first.
+     * @param count
+     *   The number of longs.
+     *
+     * @throws IOException
+     *   If the channel fails.
+     */
+    void putLongs(long[] src, int from, int count) throws IOException {
+      while (count > 0) {
+        int n = Math.min(count, this.buffer.remaining() / 8);
+        if (n == 0) {
+          flush();
+          continue;
+        } // if
+        this.buffer.asLongBuffer().put(src, from, n);
+        this.buffer.position(this.buffer.position() + 8 * n);
+        from += n;
+        count -= n;
+      } // while
+    } // putLongs(long[], int, int)
+
+    /**
+     * Write a run of doubles, a block at a time.
+     *
+     * @param src
+     *   The array that holds them.
+     * @param from
+     *   The index of the first.
+     * @param count
+     *   The number of doubles.
+     *
+     * @throws IOException
+     *   If the channel fails.
+     */
+    void putDoubles(double[] src, int from, int count) throws IOException {
+      while (count > 0) {
+        int n = Math.min(count, this.buffer.remaining() / 8);
+        if (n == 0) {
+          flush();
+          continue;
+        } // if
+        this.buffer.asDoubleBuffer().put(src, from, n);
+        this.buffer.position(this.buffer.position() + 8 * n);
+        from += n;
+        count -= n;
+      } // while
+    } // putDoubles(double[], int, int)
+
+    /**
+     * Write the bytes of another buffer straight to the channel, after
+     * what we have buffered. The bytes must already be in our order.
+     *
+     * @param src
+     *   The bytes, from position to limit.
+     *
+     * @throws IOException
+     *   If the channel fails.
+     */
+    void putBytes(ByteBuffer src) throws IOException {
+      flush();
+      while (src.hasRemaining()) {
+        this.channel.write(src);
+      } // while
+    } // putBytes(ByteBuffer)
+
+    /**
+     * Write out everything in the buffer.
+     *
+     * @throws IOException
+     *   If the channel fails.
+     */
+    void flush() throws IOException {
+      this.buffer.flip();
+      while (this.buffer.hasRemaining()) {
+        this.channel.write(this.buffer);
+      } // while
+      this.buffer.clear();
+    } // flush()
+  } // class Output
+
+  /**
+   * A buffer that is read from a channel a block at a time.
+   */
+  static final class Input {
+    /**
+     * The channel.
+     */
+    private final ReadableByteChannel channel;
+
+    /**
+     * The bytes read but not yet used, from position to limit.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE).flip();
+
+    /**
+     * Read from a channel, big-endian until told otherwise.
+     *
+     * @param channel
+     *   The channel.
+     */
+    Input(ReadableByteChannel channel) {
+      this.channel = channel;
+    } // Input(ReadableByteChannel)
+
+    /**
+     * Choose the byte order for what we read next.
+     *
+     * @param order
+     *   The byte order.
+     *
+     * @return this input.
+     */
+    Input order(ByteOrder order) {
+      this.buffer.order(order);
+      return this;
+    } // order(ByteOrder)
+
+    /**
+     * Make sure some bytes are in the buffer, reading another block if
+     * they are not.
+     *
+     * @param bytes
+     *   The number of bytes.
+     *
+     * @return the buffer, positioned at the bytes.
+     *
+     * @throws EOFException
+     *   If the channel ends first.
+     * @throws IOException
+     *   If the channel fails.
+     */
+    ByteBuffer require(int bytes) throws IOException {
+      if (this.buffer.remaining() >= bytes) {
+        return this.buffer;
+      } // if
+      if (this.buffer.capacity() < bytes) {
+        this.buffer = ByteBuffer.allocateDirect(bytes)
+            .order(this.buffer.order()).put(this.buffer);
+      } else {
+        this.buffer.compact();
+      } // if/else
+      while (this.buffer.position() < bytes) {
+        if (this.channel.read(this.buffer) < 0) {
+          throw new EOFException("The matrix ends early.");
+        } // if
+      } // while
+      return this.buffer.flip();
+    } // require(int)
+
+    /**
+     * Read a run of ints, a block at a time.
+     *
+     * @param dest
+     *   The array to put them in.
+     * @param from
+     *   The index for the first.
+     * @param count
+     *   The number of ints.
+     *
+     * @throws IOException
+     *   If the channel fails or ends first.
+     */
+    void getInts(int[] dest, int from, int count) throws IOException {
+      while (count > 0) {
+        int n = Math.min(count, require(4).remaining() / 4);
+        this.buffer.asIntBuffer().get(dest, from, n);
+        this.buffer.position(this.buffer.position() + 4 * n);
+        from += n;
+        count -= n;
+      } // while
+    } // getInts(int[], int, int)
+
+    /**
+     * Read a run of longs, a block at a time.
+     *
+     * @param dest
+     *   The array to put them in.
+     * @param from
+     *   The index for the first.
+     * @param count
+     *   The number of longs.
+     *
+     * @throws IOException
+     *   If the channel fails or ends first.
+     */
+    void getLongs(long[] dest, int from, int count) throws IOException {
+      while (count > 0) {
+        int n = Math.min(count, require(8).remaining() / 8);
+        this.buffer.asLongBuffer().get(dest, from, n);
+        this.buffer.position(this.buffer.position() + 8 * n);
+        from += n;
+        count -= n;
+      } // while
+    } // getLongs(long[], int, int)
+
+    /**
+     * Read a run of doubles, a block at a time.
+     *
+     * @param dest
+     *   The array to put them in.
+     * @param from
+     *   The index for the first.
+     * @param count
+     *   The number of doubles.
+     *
+     * @throws IOException
+     *   If the channel fails or ends first.
+     */
+    void getDoubles(double[] dest, int from, int count) throws IOException {
+      while (count > 0) {
+        int n = Math.min(count, require(8).remaining() / 8);
+        this.buffer.asDoubleBuffer().get(dest, from, n);
+        this.buffer.position(this.buffer.position() + 8 * n);
+        from += n;
+        count -= n;
+      } // while
+    } // getDoubles(double[], int, int)
+
+    /**
+     * Take the bytes read but not yet used.
+     *
+     * @return the bytes.
+     */
+    byte[] leftover() {
+      byte[] bytes = new byte[this.buffer.remaining()];
+      this.buffer.get(bytes);
+      return bytes;
+    } // leftover()
+  } // class Input
+} // class MatrixIO
@@ -0,0 +1,700 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Arithmetic on whole numeric matrices.
+ *
+ * <p>{@link #multiply} works on any matrix of numbers, from a
+ * {@code MatrixV0<Integer>} to a {@link DoubleMatrix}, and always
+ * computes in doubles. It first packs the cells of both matrices into
+ * plain arrays of doubles: the first matrix row by row and the second
+ * column by column (that is, transposed), so that every dot product
+ * walks two arrays in order. The primitive matrices are packed straight
+ * from their arrays; other matrices go through {@code get}.</p>
+ *
+ * <p>The product is then computed in tiles of {@value #TILE} by
+ * {@value #TILE} cells, taking {@value #DEPTH} terms of the dot products
+ * at a time, so that the parts of the packed arrays a tile needs stay in
+ * the cache while we use them. Within a tile we compute two rows by two
+ * columns at once, which loads each packed value once for two products.
+ * Bands of rows run in a fork/join pool, as in {@link MatrixV0}.</p>
+ *
+ * <p>For large square products there is also the Strassen-Winograd
+ * algorithm. It splits each matrix into quarters and builds the product
+ * from seven products of quarters (instead of eight) and fifteen
+ * additions, recursing until the quarters are no bigger than a cutoff
+ * and multiplying those with the blocked kernel. The seven products at
+ * each level run in the pool. It does fewer operations, but rounds a
+ * little differently and needs more memory. {@link Algorithm#AUTO}
+ * picks it for square matrices of side 2048 or more. The system
+ * properties {@value #THRESHOLD_PROPERTY} and {@value #CUTOFF_PROPERTY}
+ * change that side and the cutoff (256).</p>
+ */
+public final class MatrixMath {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of rows and columns in a tile of the product.
+   */
+  static final int TILE = 64;
+
+  /**
+   * The number of terms of each dot product that we add up before
+   * moving on to the next tile.
+   */
+  static final int DEPTH = 256;
+
+  /**
+   * The system property that sets the smallest square product for which
+   * {@link Algorithm#AUTO} uses Strassen-Winograd.
+   */
+  static final String THRESHOLD_PROPERTY = "matrices.strassen.threshold";
+
+  /**
+   * The system property that sets the largest pieces that
+   * Strassen-Winograd multiplies with the blocked kernel.
+   */
+  static final String CUTOFF_PROPERTY = "matrices.strassen.cutoff";
+
+  /**
+   * The smallest square product for which AUTO uses Strassen-Winograd.
+   */
+  static final int THRESHOLD = Integer.getInteger(THRESHOLD_PROPERTY, 2048);
+
+  /**
+   * The largest pieces that Strassen-Winograd multiplies directly.
+   */
+  static final int CUTOFF = Math.max(2, Integer.getInteger(CUTOFF_PROPERTY, 256));
+
+  // +-------+-------------------------------------------------------
+  // | Enums |
+  // +-------+
+
+  /**
+   * The ways to multiply.
+   */
+  public enum Algorithm {
+    /**
+     * Strassen-Winograd for large square products, blocked otherwise.
+     */
+    AUTO,
+
+    /**
+     * Tiled loops over the packed matrices.
+     */
+    BLOCKED,
+
+    /**
+     * Strassen-Winograd, padding the matrices to a square whose side
+     * halves evenly down to the cutoff.
+     */
+    STRASSEN
+  } // enum Algorithm
+
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * The cells of a matrix, as doubles.
+   */
+  @FunctionalInterface
+  private interface Cells {
+    /**
+     * Get a cell.
+     *
+     * @param row
+     *   The row of the cell.
+     * @param col
+     *   The column of the cell.
+     *
+     * @return the value of the cell.
+     */
+    double at(int row, int col);
+  } // interface Cells
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Nobody builds a MatrixMath.
+   */
+  private MatrixMath() {
+  } // MatrixMath()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Multiply two matrices, using the common fork/join pool for large
+   * products.
+   *
+   * @param a
+   *   The matrix on the left.
+   * @param b
+   *   The matrix on the right.
+   *
+   * @return a new matrix whose height is that of a and whose width is
+   *   that of b.
+   *
+   * @throws IllegalArgumentException
+   *   If the width of a differs from the height of b.
+   * @throws NullPointerException
+   *   If a cell of either matrix is null.
+   */
+  public static DoubleMatrix multiply(ReadableMatrix<? extends Number> a,
+      ReadableMatrix<? extends Number> b) {
+    return multiply(a, b, Algorithm.AUTO, ForkJoinPool.commonPool());
+  } // multiply(ReadableMatrix, ReadableMatrix)
+
+  /**
+   * Multiply two matrices, picking the algorithm by size and using the
+   * given pool for large products.
+   *
+   * @param a
+   *   The matrix on the left.
+   * @param b
+   *   The matrix on the right.
+   * @param pool
+   *   The pool to run the work in, or null to compute the whole product
+   *   in the calling thread.
+   *
+   * @return a new matrix whose height is that of a and whose width is
+   *   that of b.
+   *
+   * @throws IllegalArgumentException
+   *   If the width of a differs from the height of b.
+   * @throws NullPointerException
+   *   If a cell of either matrix is null.
+   */
+  public static DoubleMatrix multiply(ReadableMatrix<? extends Number> a,
+      ReadableMatrix<? extends Number> b, ForkJoinPool pool) {
+    return multiply(a, b, Algorithm.AUTO, pool);
+  } // multiply(ReadableMatrix, ReadableMatrix, ForkJoinPool)
+
+  /**
+   * Multiply two matrices with the given algorithm, using the given pool
+   * for large products.
+   *
+   * @param a
+   *   The matrix on the left.
+   * @param b
+   *   The matrix on the right.
+   * @param algorithm
+   *   How to multiply.
+   * @param pool
+   *   The pool to run the work in, or null to compute the whole product
+   *   in the calling thread.
+   *
+   * @return a new matrix whose height is that of a and whose width is
+   *   that of b.
+   *
+   * @throws IllegalArgumentException
+   *   If the width of a differs from the height of b.
+   * @throws NullPointerException
+   *   If a cell of either matrix is null.
+   */
+  public static DoubleMatrix multiply(ReadableMatrix<? extends Number> a,
+      ReadableMatrix<? extends Number> b, Algorithm algorithm,
+      ForkJoinPool pool) {
+    if (a.width() != b.height()) {
+      throw new IllegalArgumentException("Cannot multiply a matrix of width "
+          + a.width() + " by a matrix of height " + b.height() + ".");
+    } // if
+    switch (algorithm) {
+      case STRASSEN:
+        return strassen(a, b, pool, CUTOFF);
+      case AUTO:
+        if (a.height() >= THRESHOLD && a.height() == a.width()
+            && b.width() == b.height()) {
+          return strassen(a, b, pool, CUTOFF);
+        } // if
+        return blocked(a, b, pool);
+      default:
+        return blocked(a, b, pool);
+    } // switch
+  } // multiply(ReadableMatrix, ReadableMatrix, Algorithm, ForkJoinPool)
+
+  /**
+   * Multiply two matrices of matching shapes with the blocked kernel.
+   *
+   * @param a
+   *   The matrix on the left.
+   * @param b
+   *   The matrix on the right.
+   * @param pool
+   *   The pool to run bands of rows in, or null.
+   *
+   * @return the product.
+   */
+  static DoubleMatrix blocked(ReadableMatrix<? extends Number> a,
+      ReadableMatrix<? extends Number> b, ForkJoinPool pool) {
+    int rows = a.height();
+    int cols = b.width();
+    int depth = a.width();
+    // Pad to an even number of rows and columns, so that every step of
+    // the kernel computes a whole two by two block.
+    int paddedRows = rows + (rows & 1);
+    int paddedCols = cols + (cols & 1);
+    double[] left = pack(cells(a), rows, depth, paddedRows, depth, false);
+    double[] right = pack(cells(b), cols, depth, paddedCols, depth, true);
+    double[] product = new double[Math.multiplyExact(paddedRows, paddedCols)];
+    int pairCells = (int) Math.min(Integer.MAX_VALUE, 2L * paddedCols * depth);
+    RowBands.forEach(pool, 0, paddedRows / 2, pairCells,
+        (startPair, endPair) -> multiplyRows(left, right, product, depth,
+            paddedCols, 2 * startPair, 2 * endPair));
+    return unpack(product, paddedCols, rows, cols);
+  } // blocked(ReadableMatrix, ReadableMatrix, ForkJoinPool)
+
+  /**
+   * Multiply two matrices of matching shapes with Strassen-Winograd.
+   *
+   * @param a
+   *   The matrix on the left.
+   * @param b
+   *   The matrix on the right.
+   * @param pool
+   *   The pool to run the seven products of each level in, or null.
+   * @param cutoff
+   *   The largest pieces to multiply with the blocked kernel.
+   *
+   * @return the product.
+   */
+  static DoubleMatrix strassen(ReadableMatrix<? extends Number> a,
+      ReadableMatrix<? extends Number> b, ForkJoinPool pool, int cutoff) {
+    int rows = a.height();
+    int cols = b.width();
+    int depth = a.width();
+    // Find an even leaf size and a number of halvings that cover the
+    // largest side, then pad everything to that square.
+    int leaf = Math.max(rows, Math.max(cols, depth));
+    int levels = 0;
+    while (leaf > cutoff) {
+      leaf = (leaf + 1) / 2;
+      levels++;
+    } // while
+    leaf += leaf & 1;
+    int side = leaf << levels;
+    Block left = new Block(pack(cells(a), rows, depth, side, side, false), 0,
+        side);
+    Block right = new Block(pack(cells(b), depth, cols, side, side, false), 0,
+        side);
+    Block product = new Block(side);
+    Product task = new Product(left, right, product, side, leaf, pool != null);
+    if (pool == null) {
+      task.compute();
+    } else {
+      pool.invoke(task);
+    } // if/else
+    return unpack(product.cells, side, rows, cols);
+  } // strassen(ReadableMatrix, ReadableMatrix, ForkJoinPool, int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Read the cells of a matrix as doubles, straight from the array of a
+   * primitive matrix when we can.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return a way to read its cells.
+   */
+  private static Cells cells(ReadableMatrix<? extends Number> matrix) {
+    if (matrix instanceof DoubleMatrix) {
+      double[] cells = ((DoubleMatrix) matrix).cells;
+      int stride = ((DoubleMatrix) matrix).stride;
+      return (row, col) -> cells[row * stride + col];
+    } else if (matrix instanceof IntMatrix) {
+      int[] cells = ((IntMatrix) matrix).cells;
+      int stride = ((IntMatrix) matrix).stride;
+      return (row, col) -> cells[row * stride + col];
+    } else if (matrix instanceof LongMatrix) {
+      long[] cells = ((LongMatrix) matrix).cells;
+      int stride = ((LongMatrix) matrix).stride;
+      return (row, col) -> cells[row * stride + col];
+    } // if/else
+    return (row, col) -> matrix.get(row, col).doubleValue();
+  } // cells(ReadableMatrix)
+
+  /**
+   * Pack the cells of a matrix into lines of {@code depth} doubles, one
+   * line for each row or, when transposing, for each column. We copy a
+   * tile at a time so that neither the reads nor the writes stride
+   * across the whole matrix.
+   *
+   * @param source
+   *   The cells of the matrix.
+   * @param lines
+   *   The number of rows (or columns, when transposing) to pack.
+   * @param depth
+   *   The number of cells in each line.
+   * @param paddedLines
+   *   The number of lines to make room for. The extra lines are zero.
+   * @param stride
+   *   The distance between the starts of lines, at least the depth.
+   *   The cells past the depth are zero.
+   * @param transpose
+   *   Whether the lines are columns rather than rows.
+   *
+   * @return the packed cells.
+   */
+  private static double[] pack(Cells source, int lines, int depth,
+      int paddedLines, int stride, boolean transpose) {
+    double[] packed = new double[Math.multiplyExact(paddedLines, stride)];
+    for (int line0 = 0; line0 < lines; line0 += TILE) {
+      int lineEnd = Math.min(line0 + TILE, lines);
+      for (int pos0 = 0; pos0 < depth; pos0 += TILE) {
+        int posEnd = Math.min(pos0 + TILE, depth);
+        for (int line = line0; line < lineEnd; line++) {
+          for (int pos = pos0; pos < posEnd; pos++) {
+            packed[line * stride + pos] =
+                transpose ? source.at(pos, line) : source.at(line, pos);
+          } // for pos
+        } // for line
+      } // for pos0
+    } // for line0
+    return packed;
+  } // pack(Cells, int, int, int, int, boolean)
+
+  /**
+   * Copy the top left corner of a product into a new matrix.
+   *
+   * @param product
+   *   The product, row by row.
+   * @param stride
+   *   The distance between the starts of its rows.
+   * @param rows
+   *   The height of the new matrix.
+   * @param cols
+   *   The width of the new matrix.
+   *
+   * @return the new matrix.
+   */
+  private static DoubleMatrix unpack(double[] product, int stride, int rows,
+      int cols) {
+    DoubleMatrix result = new DoubleMatrix(cols, rows);
+    for (int row = 0; row < rows; row++) {
+      System.arraycopy(product, row * stride, result.cells,
+          row * result.stride, cols);
+    } // for
+    return result;
+  } // unpack(double[], int, int, int)
+
+  /**
+   * Compute some rows of a product of packed matrices, tile by tile.
+   *
+   * @param left
+   *   The rows of the matrix on the left.
+   * @param right
+   *   The columns of the matrix on the right.
+   * @param product
+   *   The product, row by row. Its cells must start at zero.
+   * @param depth
+   *   The length of the rows of left and the columns of right.
+   * @param cols
+   *   The number of columns in the product, which is even.
+   * @param startRow
+   *   The first row to compute (inclusive), which is even.
+   * @param endRow
+   *   The last row to compute (exclusive), which is even.
+   */
+  static void multiplyRows(double[] left, double[] right, double[] product,
+      int depth, int cols, int startRow, int endRow) {
+    for (int row0 = startRow; row0 < endRow; row0 += TILE) {
+      int rowEnd = Math.min(row0 + TILE, endRow);
+      for (int pos0 = 0; pos0 < depth; pos0 += DEPTH) {
+        int posEnd = Math.min(pos0 + DEPTH, depth);
+        for (int col0 = 0; col0 < cols; col0 += TILE) {
+          int colEnd = Math.min(col0 + TILE, cols);
+          for (int row = row0; row < rowEnd; row += 2) {
+            int upper = row * depth;
+            int lower = upper + depth;
+            int out = row * cols;
+            for (int col = col0; col < colEnd; col += 2) {
+              int first = col * depth;
+              int second = first + depth;
+              double sum00 = 0;
+              double sum01 = 0;
+              double sum10 = 0;
+              double sum11 = 0;
+              for (int pos = pos0; pos < posEnd; pos++) {
+                double x0 = left[upper + pos];
+                double x1 = left[lower + pos];
+                double y0 = right[first + pos];
+                double y1 = right[second + pos];
+                sum00 += x0 * y0;
+                sum01 += x0 * y1;
+                sum10 += x1 * y0;
+                sum11 += x1 * y1;
+              } // for pos
+              product[out + col] += sum00;
+              product[out + col + 1] += sum01;
+              product[out + cols + col] += sum10;
+              product[out + cols + col + 1] += sum11;
+            } // for col
+          } // for row
+        } // for col0
+      } // for pos0
+    } // for row0
+  } // multiplyRows(double[], double[], double[], int, int, int, int)
+
+  /**
+   * Add or subtract two square blocks: out = x + sign * y. The output
+   * may be one of the inputs.
+   *
+   * @param x
+   *   The first block.
+   * @param y
+   *   The second block.
+   * @param out
+   *   Where to put the result.
+   * @param size
+   *   The side of the blocks.
+   * @param sign
+   *   1 to add, -1 to subtract.
+   */
+  static void combine(Block x, Block y, Block out, int size, int sign) {
+    for (int row = 0; row < size; row++) {
+      int xi = x.offset + row * x.stride;
+      int yi = y.offset + row * y.stride;
+      int oi = out.offset + row * out.stride;
+      for (int col = 0; col < size; col++) {
+        out.cells[oi + col] = x.cells[xi + col] + sign * y.cells[yi + col];
+      } // for col
+    } // for row
+  } // combine(Block, Block, Block, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * A square block of cells inside an array, stored row by row.
+   */
+  static final class Block {
+    /**
+     * The array that holds the block.
+     */
+    final double[] cells;
+
+    /**
+     * The index of the top left cell.
+     */
+    final int offset;
+
+    /**
+     * The distance between the starts of rows.
+     */
+    final int stride;
+
+    /**
+     * Describe a block in an existing array.
+     *
+     * @param cells
+     *   The array that holds the block.
+     * @param offset
+     *   The index of the top left cell.
+     * @param stride
+     *   The distance between the starts of rows.
+     */
+    Block(double[] cells, int offset, int stride) {
+      this.cells = cells;
+      this.offset = offset;
+      this.stride = stride;
+    } // Block(double[], int, int)
+
+    /**
+     * Create a block of zeros in an array of its own.
+     *
+     * @param size
+     *   The side of the block.
+     */
+    Block(int size) {
+      this(new double[Math.multiplyExact(size, size)], 0, size);
+    } // Block(int)
+
+    /**
+     * Get a quarter of this block.
+     *
+     * @param row
+     *   0 for the upper quarters, 1 for the lower ones.
+     * @param col
+     *   0 for the left quarters, 1 for the right ones.
+     * @param half
+     *   The side of a quarter.
+     *
+     * @return the quarter, which shares our cells.
+     */
+    Block quarter(int row, int col, int half) {
+      return new Block(this.cells,
+          this.offset + row * half * this.stride + col * half, this.stride);
+    } // quarter(int, int, int)
+  } // class Block
+
+  /**
+   * One Strassen-Winograd product of square blocks: c = a * b.
+   */
+  static final class Product extends RecursiveAction {
+    /**
+     * The version of the serialized form, which ForkJoinTask makes us
+     * declare.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The block on the left.
+     */
+    private final Block a;
+
+    /**
+     * The block on the right.
+     */
+    private final Block b;
+
+    /**
+     * Where to put the product. Its cells are all overwritten.
+     */
+    private final Block c;
+
+    /**
+     * The side of the blocks.
+     */
+    private final int size;
+
+    /**
+     * The side at which we stop recursing, which is even.
+     */
+    private final int leaf;
+
+    /**
+     * Whether to run the seven products in parallel. They run in the
+     * pool of the task that forks them.
+     */
+    private final boolean parallel;
+
+    /**
+     * Create a product.
+     *
+     * @param a
+     *   The block on the left.
+     * @param b
+     *   The block on the right.
+     * @param c
+     *   Where to put the product.
+     * @param size
+     *   The side of the blocks, the leaf times a power of two.
+     * @param leaf
+     *   The side at which we stop recursing.
+     * @param parallel
+     *   Whether to run the seven products in parallel.
+     */
+    Product(Block a, Block b, Block c, int size, int leaf, boolean parallel) {
+      this.a = a;
+      this.b = b;
+      this.c = c;
+      this.size = size;
+      this.leaf = leaf;
+      this.parallel = parallel;
+    } // Product(Block, Block, Block, int, int, boolean)
+
+    /**
+     * Compute the product.
+     */
+    @Override
+    protected void compute() {
+      if (this.size <= this.leaf) {
+        multiplyLeaf();
+        return;
+      } // if
+      int half = this.size / 2;
+      Block a11 = this.a.quarter(0, 0, half);
+      Block a12 = this.a.quarter(0, 1, half);
+      Block a21 = this.a.quarter(1, 0, half);
+      Block a22 = this.a.quarter(1, 1, half);
+      Block b11 = this.b.quarter(0, 0, half);
+      Block b12 = this.b.quarter(0, 1, half);
+      Block b21 = this.b.quarter(1, 0, half);
+      Block b22 = this.b.quarter(1, 1, half);
+
+      // The sums and differences of quarters that the products need.
+      Block s1 = new Block(half);
+      Block s2 = new Block(half);
+      Block s3 = new Block(half);
+      Block s4 = new Block(half);
+      combine(a21, a22, s1, half, 1);
+      combine(s1, a11, s2, half, -1);
+      combine(a11, a21, s3, half, -1);
+      combine(a12, s2, s4, half, -1);
+      Block t1 = new Block(half);
+      Block t2 = new Block(half);
+      Block t3 = new Block(half);
+      Block t4 = new Block(half);
+      combine(b12, b11, t1, half, -1);
+      combine(b22, t1, t2, half, -1);
+      combine(b22, b12, t3, half, -1);
+      combine(t2, b21, t4, half, -1);
+
+      // The seven products.
+      Block[] m = new Block[7];
+      for (int i = 0; i < m.length; i++) {
+        m[i] = new Block(half);
+      } // for
+      Product[] products = {
+        new Product(a11, b11, m[0], half, this.leaf, this.parallel),
+        new Product(a12, b21, m[1], half, this.leaf, this.parallel),
+        new Product(s4, b22, m[2], half, this.leaf, this.parallel),
+        new Product(a22, t4, m[3], half, this.leaf, this.parallel),
+        new Product(s1, t1, m[4], half, this.leaf, this.parallel),
+        new Product(s2, t2, m[5], half, this.leaf, this.parallel),
+        new Product(s3, t3, m[6], half, this.leaf, this.parallel)
+      };
+      if (this.parallel) {
+        invokeAll(products);
+      } else {
+        for (Product product : products) {
+          product.compute();
+        } // for
+      } // if/else
+
+      // Put the quarters of the product together.
+      combine(m[0], m[1], this.c.quarter(0, 0, half), half, 1);
+      combine(m[5], m[0], m[5], half, 1);
+      combine(m[6], m[5], m[6], half, 1);
+      combine(m[5], m[4], m[5], half, 1);
+      combine(m[5], m[2], this.c.quarter(0, 1, half), half, 1);
+      combine(m[6], m[3], this.c.quarter(1, 0, half), half, -1);
+      combine(m[6], m[4], this.c.quarter(1, 1, half), half, 1);
+    } // compute()
+
+    /**
+     * Multiply blocks small enough for the blocked kernel.
+     */
+    private void multiplyLeaf() {
+      double[] left = new double[this.size * this.size];
+      double[] right = new double[this.size * this.size];
+      for (int row = 0; row < this.size; row++) {
+        System.arraycopy(this.a.cells, this.a.offset + row * this.a.stride,
+            left, row * this.size, this.size);
+        int from = this.b.offset + row * this.b.stride;
+        for (int col = 0; col < this.size; col++) {
+          right[col * this.size + row] = this.b.cells[from + col];
+        } // for col
+      } // for row
+      double[] product = new double[this.size * this.size];
+      multiplyRows(left, right, product, this.size, this.size, 0, this.size);
+      for (int row = 0; row < this.size; row++) {
+        System.arraycopy(product, row * this.size, this.c.cells,
+            this.c.offset + row * this.c.stride, this.size);
+      } // for
+    } // multiplyLeaf()
+  } // class Product
+} // class MatrixMath
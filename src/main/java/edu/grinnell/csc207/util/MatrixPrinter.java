@@ -0,0 +1,632 @@
+package edu.grinnell.csc207.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws matrices as text tables, in the layout of {@link Matrix#print}.
+ * Each line of the table is built in a reusable array of characters
+ * and written in one call, and ints and longs, boxed or not, are turned
+ * into digits without making strings, so printing a large matrix
+ * allocates little beyond what the cells' own toString methods do.
+ *
+ * <p>By default every column is as wide as the widest cell in the
+ * matrix, as {@link Matrix#print} has always done. With {@link
+ * #columnWidths(boolean)} each column is only as wide as its own widest
+ * cell. {@link #stream} draws a table a row at a time from widths
+ * chosen up front, for rows that are not all in memory at once.</p>
+ *
+ * <p>Output is flushed once, at the end of the table. A {@link
+ * PrintWriter} made with autoFlush still flushes each line, as it did
+ * when {@link Matrix#print} used println.</p>
+ *
+ * <p>A printer keeps its buffers between calls, so it is cheap to reuse
+ * but must not be shared between threads.</p>
+ */
+public final class MatrixPrinter {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The end of a line.
+   */
+  private static final char[] NEWLINE = System.lineSeparator().toCharArray();
+
+  /**
+   * The indent before separators when there are labels.
+   */
+  private static final int INDENT = 4;
+
+  /**
+   * The space on either side of the widest cell.
+   */
+  private static final int PADDING = 2;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Whether to label rows and columns with their numbers.
+   */
+  private boolean labels;
+
+  /**
+   * Whether each column gets its own width.
+   */
+  private boolean perColumn;
+
+  /**
+   * The line being built.
+   */
+  private char[] line = new char[256];
+
+  /**
+   * The number of characters in the line.
+   */
+  private int length;
+
+  /**
+   * The text of the current cell.
+   */
+  private char[] cell = new char[32];
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a printer that draws tables without labels and with every
+   * column the same width.
+   */
+  public MatrixPrinter() {
+  } // MatrixPrinter()
+
+  // +---------+-----------------------------------------------------
+  // | Options |
+  // +---------+
+
+  /**
+   * Choose whether to label rows and columns with their numbers.
+   *
+   * @param labels
+   *   True for labels.
+   *
+   * @return this printer.
+   */
+  public MatrixPrinter labels(boolean labels) {
+    this.labels = labels;
+    return this;
+  } // labels(boolean)
+
+  /**
+   * Choose whether each column is as wide as its own widest cell rather
+   * than the widest cell in the matrix.
+   *
+   * @param perColumn
+   *   True to size each column separately.
+   *
+   * @return this printer.
+   */
+  public MatrixPrinter columnWidths(boolean perColumn) {
+    this.perColumn = perColumn;
+    return this;
+  } // columnWidths(boolean)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Print a matrix.
+   *
+   * @param pen
+   *   Where to print it.
+   * @param matrix
+   *   The matrix.
+   */
+  public void print(PrintWriter pen, ReadableMatrix<?> matrix) {
+    try {
+      print((Appendable) pen, matrix);
+    } catch (IOException e) {
+      // A PrintWriter keeps its errors to itself, so we never get here.
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // print(PrintWriter, ReadableMatrix<?>)
+
+  /**
+   * Print a matrix, then flush the output if it can be flushed.
+   *
+   * @param out
+   *   Where to print it.
+   * @param matrix
+   *   The matrix.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  public void print(Appendable out, ReadableMatrix<?> matrix)
+      throws IOException {
+    int width = matrix.width();
+    int height = matrix.height();
+    // Ints and longs are cheap to turn into digits again, but other cells
+    // are kept, by column, so that toString runs once per cell.
+    boolean numeric = matrix instanceof IntMatrix || matrix instanceof LongMatrix;
+    Object[][] texts = numeric ? null : new Object[width][height];
+    int[] widths = new int[width];
+    int widest = 0;
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        int len;
+        if (numeric) {
+          len = cellText(matrix, row, col);
+        } else {
+          Object text = textOf(matrix.get(row, col));
+          texts[col][row] = text;
+          len = objectText(text);
+        } // if/else
+        widths[col] = Math.max(widths[col], len);
+        widest = Math.max(widest, len);
+      } // for col
+    } // for row
+    if (!this.perColumn) {
+      Arrays.fill(widths, widest);
+    } // if
+    pad(widths);
+
+    header(out, widths);
+    for (int row = 0; row < height; row++) {
+      separator(out, widths);
+      startRow(row);
+      for (int col = 0; col < width; col++) {
+        putCell(numeric ? cellText(matrix, row, col)
+            : objectText(texts[col][row]), widths[col]);
+      } // for col
+      endLine(out, '|');
+    } // for row
+    separator(out, widths);
+    flush(out);
+  } // print(Appendable, ReadableMatrix<?>)
+
+  /**
+   * Start drawing a table a row at a time.
+   *
+   * @param out
+   *   Where to print it.
+   * @param widths
+   *   The width of the widest cell in each column. Longer cells use up
+   *   the space around them and are then cut short.
+   *
+   * @return a way to add rows.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  public Rows stream(Appendable out, int[] widths) throws IOException {
+    int[] padded = widths.clone();
+    pad(padded);
+    header(out, padded);
+    return new Rows(out, padded);
+  } // stream(Appendable, int[])
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * Draws the rows of a table one at a time.
+   */
+  public final class Rows {
+    /**
+     * Where to print the table.
+     */
+    private final Appendable out;
+
+    /**
+     * The width of each column, with padding.
+     */
+    private final int[] widths;
+
+    /**
+     * The number of rows drawn so far.
+     */
+    private int count;
+
+    /**
+     * Get ready to draw rows.
+     *
+     * @param out
+     *   Where to print the table.
+     * @param widths
+     *   The width of each column, with padding.
+     */
+    Rows(Appendable out, int[] widths) {
+      this.out = out;
+      this.widths = widths;
+    } // Rows(Appendable, int[])
+
+    /**
+     * Draw a row.
+     *
+     * @param cells
+     *   The cells of the row, one for each column.
+     *
+     * @throws IOException
+     *   If the output fails.
+     * @throws IllegalArgumentException
+     *   If the number of cells differs from the number of columns.
+     */
+    public void row(List<?> cells) throws IOException {
+      if (cells.size() != this.widths.length) {
+        throw new IllegalArgumentException("Expected " + this.widths.length
+            + " cells but got " + cells.size() + ".");
+      } // if
+      separator(this.out, this.widths);
+      startRow(this.count++);
+      for (int col = 0; col < this.widths.length; col++) {
+        putCell(objectText(cells.get(col)), this.widths[col]);
+      } // for
+      endLine(this.out, '|');
+    } // row(List<?>)
+
+    /**
+     * Draw the line under the last row, then flush the output if it can
+     * be flushed.
+     *
+     * @throws IOException
+     *   If the output fails.
+     */
+    public void finish() throws IOException {
+      separator(this.out, this.widths);
+      flush(this.out);
+    } // finish()
+  } // class Rows
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Add the padding to the widths of the widest cells.
+   *
+   * @param widths
+   *   The widths, which we change.
+   */
+  private static void pad(int[] widths) {
+    for (int col = 0; col < widths.length; col++) {
+      widths[col] += PADDING;
+    } // for
+  } // pad(int[])
+
+  /**
+   * Print the column numbers, if we label.
+   *
+   * @param out
+   *   Where to print.
+   * @param widths
+   *   The width of each column.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  private void header(Appendable out, int[] widths) throws IOException {
+    if (!this.labels) {
+      return;
+    } // if
+    this.length = 0;
+    fill(' ', INDENT);
+    for (int col = 0; col < widths.length; col++) {
+      int len = label(col);
+      int box = widths[col] + 1;
+      if (len > box) {
+        // Matrix.print has always ended the line after a label that is
+        // too wide for its box.
+        put(this.cell, this.cell.length - len, box);
+        put(NEWLINE, 0, NEWLINE.length);
+      } else {
+        center(this.cell, this.cell.length - len, len, box);
+      } // if/else
+    } // for
+    put(NEWLINE, 0, NEWLINE.length);
+    write(out);
+  } // header(Appendable, int[])
+
+  /**
+   * Print the line between rows.
+   *
+   * @param out
+   *   Where to print.
+   * @param widths
+   *   The width of each column.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  private void separator(Appendable out, int[] widths) throws IOException {
+    this.length = 0;
+    if (this.labels) {
+      fill(' ', INDENT);
+    } // if
+    for (int col = 0; col < widths.length; col++) {
+      fill('+', 1);
+      fill('-', widths[col]);
+    } // for
+    endLine(out, '+');
+  } // separator(Appendable, int[])
+
+  /**
+   * Start the line for a row, with its number if we label.
+   *
+   * @param row
+   *   The number of the row.
+   */
+  private void startRow(int row) {
+    this.length = 0;
+    if (this.labels) {
+      fill(' ', 1);
+      int len = label(row);
+      put(this.cell, this.cell.length - len, len);
+      fill(' ', 1);
+    } // if
+  } // startRow(int)
+
+  /**
+   * Add a cell to the line, centered in its box, taking its text from
+   * the start of the cell buffer.
+   *
+   * @param len
+   *   The length of the text.
+   * @param box
+   *   The width of the box.
+   */
+  private void putCell(int len, int box) {
+    fill('|', 1);
+    center(this.cell, 0, Math.min(len, box), box);
+  } // putCell(int, int)
+
+  /**
+   * Finish the line and write it.
+   *
+   * @param out
+   *   Where to write.
+   * @param last
+   *   The character at the end of the line.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  private void endLine(Appendable out, char last) throws IOException {
+    fill(last, 1);
+    if (out instanceof PrintWriter) {
+      // println flushes a PrintWriter made with autoFlush.
+      write(out);
+      ((PrintWriter) out).println();
+    } else {
+      put(NEWLINE, 0, NEWLINE.length);
+      write(out);
+    } // if/else
+  } // endLine(Appendable, char)
+
+  /**
+   * Write the line.
+   *
+   * @param out
+   *   Where to write.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  private void write(Appendable out) throws IOException {
+    if (out instanceof Writer) {
+      ((Writer) out).write(this.line, 0, this.length);
+    } else if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(this.line, 0, this.length);
+    } else {
+      out.append(CharBuffer.wrap(this.line, 0, this.length));
+    } // if/else
+    this.length = 0;
+  } // write(Appendable)
+
+  /**
+   * Flush the output, if it can be flushed.
+   *
+   * @param out
+   *   Where we wrote.
+   *
+   * @throws IOException
+   *   If the output fails.
+   */
+  private static void flush(Appendable out) throws IOException {
+    if (out instanceof Flushable) {
+      ((Flushable) out).flush();
+    } // if
+  } // flush(Appendable)
+
+  /**
+   * Put the text of a cell at the start of the cell buffer.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the length of the text.
+   */
+  private int cellText(ReadableMatrix<?> matrix, int row, int col) {
+    long val;
+    if (matrix instanceof IntMatrix) {
+      val = ((IntMatrix) matrix).getInt(row, col);
+    } else if (matrix instanceof LongMatrix) {
+      val = ((LongMatrix) matrix).getLong(row, col);
+    } else {
+      return objectText(matrix.get(row, col));
+    } // if/else
+    return numberText(val);
+  } // cellText(ReadableMatrix<?>, int, int)
+
+  /**
+   * Find what to keep for a cell so that its text can be drawn without
+   * calling its toString method again.
+   *
+   * @param val
+   *   The value of the cell.
+   *
+   * @return the value itself if it is an Integer or Long, whose digits
+   * are cheap to make; its text otherwise.
+   */
+  private static Object textOf(Object val) {
+    if (val instanceof Integer || val instanceof Long) {
+      return val;
+    } // if
+    return Matrix.toString(val);
+  } // textOf(Object)
+
+  /**
+   * Put the text of a value at the start of the cell buffer.
+   *
+   * @param val
+   *   The value.
+   *
+   * @return the length of the text.
+   */
+  private int objectText(Object val) {
+    if (val instanceof Integer || val instanceof Long) {
+      return numberText(((Number) val).longValue());
+    } // if
+    String str = Matrix.toString(val);
+    int len = str.length();
+    if (len > this.cell.length) {
+      this.cell = new char[Math.max(len, 2 * this.cell.length)];
+    } // if
+    str.getChars(0, len, this.cell, 0);
+    return len;
+  } // objectText(Object)
+
+  /**
+   * Put the digits of a number at the start of the cell buffer.
+   *
+   * @param val
+   *   The number.
+   *
+   * @return the length of the text.
+   */
+  private int numberText(long val) {
+    int len = number(val, this.cell.length);
+    System.arraycopy(this.cell, this.cell.length - len, this.cell, 0, len);
+    return len;
+  } // numberText(long)
+
+  /**
+   * Write the number of a row or column at the end of the cell buffer,
+   * as {@code String.format("%2d", num)} would.
+   *
+   * @param num
+   *   The number.
+   *
+   * @return the length of the label.
+   */
+  private int label(int num) {
+    int len = number(num, this.cell.length);
+    if (len < 2) {
+      this.cell[this.cell.length - 2] = ' ';
+      len = 2;
+    } // if
+    return len;
+  } // label(int)
+
+  /**
+   * Write a number at the end of the cell buffer, as
+   * {@code Long.toString} would.
+   *
+   * @param val
+   *   The number.
+   * @param end
+   *   Where the number ends in the buffer.
+   *
+   * @return the length of the number.
+   */
+  private int number(long val, int end) {
+    // Work with the negative, which covers Long.MIN_VALUE.
+    long rest = val < 0 ? val : -val;
+    int pos = end;
+    do {
+      this.cell[--pos] = (char) ('0' - rest % 10);
+      rest /= 10;
+    } while (rest != 0);
+    if (val < 0) {
+      this.cell[--pos] = '-';
+    } // if
+    return end - pos;
+  } // number(long, int)
+
+  /**
+   * Add some text to the line, centered in a box.
+   *
+   * @param src
+   *   Where the text is.
+   * @param from
+   *   Where it starts.
+   * @param len
+   *   Its length, at most the width of the box.
+   * @param box
+   *   The width of the box.
+   */
+  private void center(char[] src, int from, int len, int box) {
+    int left = (box - len) / 2;
+    fill(' ', left);
+    put(src, from, len);
+    fill(' ', box - left - len);
+  } // center(char[], int, int, int)
+
+  /**
+   * Add some copies of a character to the line.
+   *
+   * @param ch
+   *   The character.
+   * @param count
+   *   The number of copies.
+   */
+  private void fill(char ch, int count) {
+    ensure(count);
+    Arrays.fill(this.line, this.length, this.length + count, ch);
+    this.length += count;
+  } // fill(char, int)
+
+  /**
+   * Add some characters to the line.
+   *
+   * @param src
+   *   Where they are.
+   * @param from
+   *   Where they start.
+   * @param count
+   *   How many there are.
+   */
+  private void put(char[] src, int from, int count) {
+    ensure(count);
+    System.arraycopy(src, from, this.line, this.length, count);
+    this.length += count;
+  } // put(char[], int, int)
+
+  /**
+   * Make room in the line.
+   *
+   * @param count
+   *   The number of characters we are about to add.
+   */
+  private void ensure(int count) {
+    if (this.length + count > this.line.length) {
+      this.line = Arrays.copyOf(this.line,
+          Math.max(this.length + count, 2 * this.line.length));
+    } // if
+  } // ensure(int)
+} // class MatrixPrinter
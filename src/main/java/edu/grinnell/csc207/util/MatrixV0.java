@@ -1,17 +1,49 @@
 package edu.grinnell.csc207.util;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * An implementation of two-dimensional matrices.
  *
+ * <p>Both dimensions keep spare capacity, like an {@link java.util.ArrayList}: the array of rows
+ * may be longer than the height, and each row may be longer than the width. Inserting a row or
+ * column only reallocates when that capacity runs out, and then grows it by half, so repeated
+ * inserts are amortized.</p>
+ *
+ * <p>Cloning is O(1): the clone shares the rows with the original, and whichever matrix writes to a
+ * shared row first copies just that row. Structural changes copy the array of rows (not the rows
+ * themselves) the first time they happen after a clone.</p>
+ *
+ * <p>Passes over large regions ({@code fillRegion}, {@code equals} with another MatrixV0, and
+ * {@code hashCode}) split the rows into bands and run them in a fork/join pool, by default the
+ * common pool. Regions smaller than a few tens of thousands of cells stay on the calling thread.
+ * Use {@link #setPool} to choose another pool or to turn this off.</p>
+ *
  * @param <T> The type of values stored in the matrix.
  */
 public class MatrixV0<T> implements Matrix<T> {
-    // Fields to store the data, number of rows, columns, and default value.
+    // Fields to store the data, number of rows, columns, column capacity, and default value.
     private T[][] data;
     private int numRows;
     private int numCols;
+    private int colCapacity;
     private T defaultValue;
 
+    // Copy-on-write state. This matrix may write to data[i] in place only if owners[i] is its
+    // token; otherwise the row may be shared with a clone. If spineShared is true, the data and
+    // owners arrays themselves may be shared with a clone.
+    private Object[] owners;
+    private Object token;
+    private boolean spineShared;
+
+    // The pool for passes over large regions, or null to do everything on the calling thread.
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
     // Constructors
     /**
      * Create a new matrix of the specified width and height with the given value as the default.
@@ -28,8 +60,12 @@ public class MatrixV0<T> implements Matrix<T> {
         }
         this.numCols = width;
         this.numRows = height;
+        this.colCapacity = width;
         this.defaultValue = def;
         this.data = (T[][]) new Object[height][width];
+        this.token = new Object();
+        this.owners = new Object[height];
+        Arrays.fill(owners, token);
 
         // Initialize the matrix with the default value
         for (int i = 0; i < numRows; i++) {
@@ -50,6 +86,42 @@ public class MatrixV0<T> implements Matrix<T> {
         this(width, height, null);
     }
 
+    /**
+     * Create a matrix that takes over rows built elsewhere, with null as the default value.
+     *
+     * @param rows The rows, each with exactly width cells. The matrix owns them from now on.
+     * @param width The width of the matrix.
+     */
+    MatrixV0(T[][] rows, int width) {
+        this.numCols = width;
+        this.numRows = rows.length;
+        this.colCapacity = width;
+        this.data = rows;
+        this.token = new Object();
+        this.owners = new Object[rows.length];
+        Arrays.fill(owners, token);
+    }
+
+    /**
+     * Create a copy of another matrix that shares its rows. Both matrices get new tokens, so
+     * neither owns any row until it copies it.
+     *
+     * @param other The matrix to copy.
+     */
+    private MatrixV0(MatrixV0<T> other) {
+        this.data = other.data;
+        this.owners = other.owners;
+        this.numRows = other.numRows;
+        this.numCols = other.numCols;
+        this.colCapacity = other.colCapacity;
+        this.defaultValue = other.defaultValue;
+        this.pool = other.pool;
+        this.token = new Object();
+        this.spineShared = true;
+        other.token = new Object();
+        other.spineShared = true;
+    }
+
     // Core methods
 
     /**
@@ -81,7 +153,7 @@ public class MatrixV0<T> implements Matrix<T> {
         if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
             throw new IndexOutOfBoundsException("Invalid row or column index.");
         }
-        data[row][col] = val;
+        ownRow(row)[col] = val;
     }
 
     /**
@@ -111,29 +183,12 @@ public class MatrixV0<T> implements Matrix<T> {
      * @throws IndexOutOfBoundsException If the row index is out of bounds.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void insertRow(int row) {
         if (row < 0 || row > numRows) {
             throw new IndexOutOfBoundsException("Invalid row index.");
         }
-        T[][] newData = (T[][]) new Object[numRows + 1][numCols];
-
-        // Copy rows
-        System.arraycopy(data, 0, newData, 0, row);
-
-        // Insert new row with default values
-        newData[row] = (T[]) new Object[numCols];
-        for (int j = 0; j < numCols; j++) {
-            newData[row][j] = defaultValue;
-        }
-
-        // Copy remaining rows
-        for (int i = row + 1; i <= numRows; i++) {
-            newData[i] = data[i - 1];
-        }
-
-        data = newData;
-        numRows++;
+        T[] newRow = openRow(row);
+        Arrays.fill(newRow, 0, numCols, defaultValue);
     }
 
     /**
@@ -145,7 +200,6 @@ public class MatrixV0<T> implements Matrix<T> {
      * @throws IndexOutOfBoundsException If the row index is out of bounds.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void insertRow(int row, T[] vals) throws ArraySizeException {
         if (row < 0 || row > numRows) {
             throw new IndexOutOfBoundsException("Invalid row index.");
@@ -153,21 +207,8 @@ public class MatrixV0<T> implements Matrix<T> {
         if (vals.length != numCols) {
             throw new ArraySizeException("Invalid array size for the row insertion.");
         }
-        T[][] newData = (T[][]) new Object[numRows + 1][numCols];
-
-        // Copy rows
-        System.arraycopy(data, 0, newData, 0, row);
-
-        // Insert new row with the specified values
-        newData[row] = vals;
-
-        // Copy remaining rows
-        for (int i = row + 1; i <= numRows; i++) {
-            newData[i] = data[i - 1];
-        }
-
-        data = newData;
-        numRows++;
+        T[] newRow = openRow(row);
+        System.arraycopy(vals, 0, newRow, 0, numCols);
     }
 
     /**
@@ -177,24 +218,14 @@ public class MatrixV0<T> implements Matrix<T> {
      * @throws IndexOutOfBoundsException If the column index is out of bounds.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void insertCol(int col) {
         if (col < 0 || col > numCols) {
             throw new IndexOutOfBoundsException("Invalid column index.");
         }
-        T[][] newData = (T[][]) new Object[numRows][numCols + 1];
-
-        // Copy columns and insert new column
+        openCol(col);
         for (int i = 0; i < numRows; i++) {
-            System.arraycopy(data[i], 0, newData[i], 0, col);
-            newData[i][col] = defaultValue;
-            for (int j = col + 1; j <= numCols; j++) {
-                newData[i][j] = data[i][j - 1];
-            }
+            data[i][col] = defaultValue;
         }
-
-        data = newData;
-        numCols++;
     }
 
     /**
@@ -206,7 +237,6 @@ public class MatrixV0<T> implements Matrix<T> {
      * @throws IndexOutOfBoundsException If the column index is out of bounds.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void insertCol(int col, T[] vals) throws ArraySizeException {
         if (col < 0 || col > numCols) {
             throw new IndexOutOfBoundsException("Invalid column index.");
@@ -214,19 +244,10 @@ public class MatrixV0<T> implements Matrix<T> {
         if (vals.length != numRows) {
             throw new ArraySizeException("Invalid array size for the column insertion.");
         }
-        T[][] newData = (T[][]) new Object[numRows][numCols + 1];
-
-        // Copy columns and insert new column
+        openCol(col);
         for (int i = 0; i < numRows; i++) {
-            System.arraycopy(data[i], 0, newData[i], 0, col);
-            newData[i][col] = vals[i];
-            for (int j = col + 1; j <= numCols; j++) {
-                newData[i][j] = data[i][j - 1];
-            }
+            data[i][col] = vals[i];
         }
-
-        data = newData;
-        numCols++;
     }
 
     /**
@@ -236,21 +257,17 @@ public class MatrixV0<T> implements Matrix<T> {
      * @throws IndexOutOfBoundsException If the row index is out of bounds.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void deleteRow(int row) {
         if (row < 0 || row >= numRows) {
             throw new IndexOutOfBoundsException("Invalid row index.");
         }
-        T[][] newData = (T[][]) new Object[numRows - 1][numCols];
-
-        // Copy all rows except the one being deleted
-        System.arraycopy(data, 0, newData, 0, row);
-        for (int i = row; i < numRows - 1; i++) {
-            newData[i] = data[i + 1];
-        }
-
-        data = newData;
+        // Shift the later rows up and drop the reference to the last one
+        ownSpine();
+        System.arraycopy(data, row + 1, data, row, numRows - row - 1);
+        System.arraycopy(owners, row + 1, owners, row, numRows - row - 1);
         numRows--;
+        data[numRows] = null;
+        owners[numRows] = null;
     }
 
     /**
@@ -260,25 +277,66 @@ public class MatrixV0<T> implements Matrix<T> {
      * @throws IndexOutOfBoundsException If the column index is out of bounds.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void deleteCol(int col) {
         if (col < 0 || col >= numCols) {
             throw new IndexOutOfBoundsException("Invalid column index.");
         }
-        T[][] newData = (T[][]) new Object[numRows][numCols - 1];
-
-        // Copy all columns except the one being deleted
+        // Shift the later columns left within each row
         for (int i = 0; i < numRows; i++) {
-            System.arraycopy(data[i], 0, newData[i], 0, col);
-            for (int j = col; j < numCols - 1; j++) {
-                newData[i][j] = data[i][j + 1];
-            }
+            T[] cells = ownRow(i);
+            System.arraycopy(cells, col + 1, cells, col, numCols - col - 1);
+            cells[numCols - 1] = null;
         }
-
-        data = newData;
         numCols--;
     }
 
+    /**
+     * Make sure the matrix can hold at least the given number of rows and columns without
+     * reallocating.
+     *
+     * @param rows The minimum number of rows.
+     * @param cols The minimum number of columns.
+     */
+    public void ensureCapacity(int rows, int cols) {
+        if (rows > data.length) {
+            resizeSpine(rows);
+        }
+        if (cols > colCapacity) {
+            resizeRows(cols);
+        }
+    }
+
+    /**
+     * Release any spare capacity, so the storage holds exactly height rows of width columns.
+     */
+    public void trimToSize() {
+        if (data.length != numRows) {
+            resizeSpine(numRows);
+        }
+        if (colCapacity != numCols) {
+            resizeRows(numCols);
+        }
+    }
+
+    /**
+     * Get the value that fills new cells.
+     *
+     * @return The default value.
+     */
+    T defaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Choose the fork/join pool for passes over large regions. Clones made afterwards use the same
+     * pool.
+     *
+     * @param pool The pool to use, or null to do every pass on the calling thread.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
     /**
      * Fill a region of the matrix with the specified value.
      *
@@ -294,11 +352,16 @@ public class MatrixV0<T> implements Matrix<T> {
         if (startRow < 0 || startCol < 0 || endRow > numRows || endCol > numCols) {
             throw new IndexOutOfBoundsException("Invalid region.");
         }
-        for (int i = startRow; i < endRow; i++) {
-            for (int j = startCol; j < endCol; j++) {
-                data[i][j] = val;
-            }
+        if (startRow >= endRow || startCol >= endCol) {
+            return;
         }
+        // Own the array of rows up front, so that the bands only ever copy their own rows
+        ownSpine();
+        RowBands.forEach(pool, startRow, endRow, endCol - startCol, (first, last) -> {
+            for (int i = first; i < last; i++) {
+                Arrays.fill(ownRow(i), startCol, endCol, val);
+            }
+        });
     }
 
     /**
@@ -312,32 +375,31 @@ public class MatrixV0<T> implements Matrix<T> {
      * @param endRow The ending row index (exclusive).
      * @param endCol The ending column index (exclusive).
      * @param val The value to fill the line with.
+     * @throws IndexOutOfBoundsException If the line leaves the matrix.
      */
     @Override
     public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol, int endRow, int endCol, T val) {
         int row = startRow;
         int col = startCol;
         while (row < endRow && col < endCol) {
-            data[row][col] = val;
+            if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+                throw new IndexOutOfBoundsException("Invalid row or column index.");
+            }
+            ownRow(row)[col] = val;
             row += deltaRow;
             col += deltaCol;
         }
     }
 
     /**
-     * Clone the matrix, returning a deep copy.
+     * Clone the matrix. The clone shares its rows with this matrix until one of them writes to a
+     * row, so cloning takes constant time; the two matrices behave as independent copies.
      *
-     * @return A new matrix that is a deep copy of this matrix.
+     * @return A new matrix with the same contents as this matrix.
      */
     @Override
     public Matrix<T> clone(){
-        MatrixV0<T> clonedMatrix = new MatrixV0<>(numCols, numRows, defaultValue);
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                clonedMatrix.set(i, j, this.get(i, j));
-            }
-        }
-        return clonedMatrix;
+        return new MatrixV0<>(this);
     }
 
     /**
@@ -354,12 +416,23 @@ public class MatrixV0<T> implements Matrix<T> {
         Matrix<?> matrix = (Matrix<?>) other;
         if (this.numRows != matrix.height() || this.numCols != matrix.width()) return false;
 
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                if (!this.get(i, j).equals(matrix.get(i, j))) return false;
-            }
+        if (other instanceof MatrixV0) {
+            // Compare the arrays directly, in bands. Once one band finds a difference, the others
+            // stop early.
+            Object[][] theirs = ((MatrixV0<?>) other).data;
+            AtomicBoolean differs = new AtomicBoolean();
+            RowBands.forEach(pool, 0, numRows, numCols, (first, last) -> {
+                for (int i = first; i < last && !differs.get(); i++) {
+                    // A row shared with a clone is equal to itself
+                    if (theirs[i] != data[i]
+                            && !Arrays.equals(data[i], 0, numCols, theirs[i], 0, numCols)) {
+                        differs.set(true);
+                    }
+                }
+            });
+            return !differs.get();
         }
-        return true;
+        return Cells.same(this, matrix);
     }
 
     /**
@@ -369,16 +442,161 @@ public class MatrixV0<T> implements Matrix<T> {
      */
     @Override
     public int hashCode() {
-        int multiplier = 7;
-        int code = this.width() + multiplier * this.height();
-        for (int row = 0; row < this.height(); row++) {
-            for (int col = 0; col < this.width(); col++) {
-                T val = this.get(row, col);
-                if (val != null) {
-                    code = code * multiplier + val.hashCode();
+        int multiplier = Cells.MULTIPLIER;
+        int code = Cells.seed(this.width(), this.height());
+        // Each band hashes its values starting from 0 and reports multiplier to the power of the
+        // number of values it hashed, so that the bands can be chained: code * power + hash.
+        int[] band = RowBands.reduce(pool, 0, numRows, numCols, (first, last) -> {
+            int hash = 0;
+            int power = 1;
+            for (int row = first; row < last; row++) {
+                T[] cells = data[row];
+                for (int col = 0; col < numCols; col++) {
+                    T val = cells[col];
+                    if (val != null) {
+                        hash = hash * multiplier + val.hashCode();
+                        power *= multiplier;
+                    }
                 }
             }
+            return new int[] {hash, power};
+        }, (upper, lower) -> new int[] {upper[0] * lower[1] + lower[0], upper[1] * lower[1]});
+        return code * band[1] + band[0];
+    }
+
+    /**
+     * Walk the cells in row-major order, reading the row arrays directly rather than calling get
+     * for each cell.
+     *
+     * @return The spliterator.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new CellSpliterator<>(data, numCols, numRows);
+    }
+
+    /**
+     * Get the rows from top to bottom. Each row is a read-only list over the row array, so
+     * reading it costs no call to get. Since a set may copy a row that is shared with a clone, a
+     * list may not see cells set after it was handed out.
+     *
+     * @return The rows.
+     */
+    @Override
+    public Iterable<List<T>> rows() {
+        return () -> Arrays.stream(data, 0, numRows)
+                .map((cells) -> Collections.unmodifiableList(
+                        Arrays.asList(cells).subList(0, numCols)))
+                .iterator();
+    }
+
+    /**
+     * Replace the contents with the result of a batch of edits, copying the cells into new rows in
+     * a single pass. The old rows are only read, so clones that share them are unaffected.
+     *
+     * @param batch The edits, recorded against the current shape of this matrix.
+     */
+    @SuppressWarnings("unchecked")
+    void rebuild(MatrixBatch<T> batch) {
+        data = (T[][]) batch.build(data, defaultValue, pool);
+        numRows = batch.height();
+        numCols = batch.width();
+        colCapacity = numCols;
+        owners = new Object[numRows];
+        Arrays.fill(owners, token);
+        spineShared = false;
+    }
+
+    // Helpers
+
+    /**
+     * Make room for a new row, shifting the rows at or after the given index down by one.
+     *
+     * @param row The index of the new row.
+     * @return The array for the new row, with unspecified contents.
+     */
+    @SuppressWarnings("unchecked")
+    private T[] openRow(int row) {
+        if (numRows == data.length) {
+            resizeSpine(AbstractFlatMatrix.grow(data.length, numRows + 1));
+        } else {
+            ownSpine();
+        }
+        System.arraycopy(data, row, data, row + 1, numRows - row);
+        System.arraycopy(owners, row, owners, row + 1, numRows - row);
+        T[] newRow = (T[]) new Object[colCapacity];
+        data[row] = newRow;
+        owners[row] = token;
+        numRows++;
+        return newRow;
+    }
+
+    /**
+     * Make room for a new column, shifting the columns at or after the given index right by one.
+     * The contents of the new column are unspecified.
+     *
+     * @param col The index of the new column.
+     */
+    private void openCol(int col) {
+        if (numCols == colCapacity) {
+            resizeRows(AbstractFlatMatrix.grow(colCapacity, numCols + 1));
+        }
+        for (int i = 0; i < numRows; i++) {
+            T[] cells = ownRow(i);
+            System.arraycopy(cells, col, cells, col + 1, numCols - col);
+        }
+        numCols++;
+    }
+
+    /**
+     * Give every row a new column capacity.
+     *
+     * @param cols The new column capacity. Must be at least the width.
+     */
+    private void resizeRows(int cols) {
+        ownSpine();
+        for (int i = 0; i < numRows; i++) {
+            data[i] = Arrays.copyOf(data[i], cols);
+            owners[i] = token;
+        }
+        colCapacity = cols;
+    }
+
+    /**
+     * Give the array of rows a new capacity. The new array belongs to this matrix.
+     *
+     * @param rows The new row capacity. Must be at least the height.
+     */
+    private void resizeSpine(int rows) {
+        data = Arrays.copyOf(data, rows);
+        owners = Arrays.copyOf(owners, rows);
+        spineShared = false;
+    }
+
+    /**
+     * Make sure the array of rows belongs to this matrix, copying it if it may be shared with a
+     * clone.
+     */
+    private void ownSpine() {
+        if (spineShared) {
+            data = data.clone();
+            owners = owners.clone();
+            spineShared = false;
+        }
+    }
+
+    /**
+     * Get a row for writing, copying it first if it may be shared with a clone.
+     *
+     * @param row The index of the row.
+     * @return The array that holds the row, which belongs to this matrix.
+     */
+    private T[] ownRow(int row) {
+        ownSpine();
+        if (owners[row] != token) {
+            data[row] = data[row].clone();
+            owners[row] = token;
         }
-        return code;
+        return data[row];
     }
 }
\ No newline at end of file
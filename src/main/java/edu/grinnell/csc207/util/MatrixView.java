@@ -0,0 +1,457 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A window onto a rectangle of another matrix, possibly transposed.
+ * Reads and writes go straight to the parent, so a view costs a few
+ * fields however large the rectangle, and the parent and its views
+ * always agree.
+ *
+ * <p>A view of a view is a view of the original parent, so reading a
+ * cell goes through at most one view. The rectangle stays where it was
+ * if the parent changes shape; cells that no longer exist in the parent
+ * then throw IndexOutOfBoundsException. A view cannot change shape
+ * itself, so inserting and deleting throw
+ * UnsupportedOperationException.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+final class MatrixView<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix that holds the cells.
+   */
+  private final Matrix<T> parent;
+
+  /**
+   * The row of the parent at the top (or, when transposed, the left)
+   * of the view.
+   */
+  private final int rowOffset;
+
+  /**
+   * The column of the parent at the left (or, when transposed, the top)
+   * of the view.
+   */
+  private final int colOffset;
+
+  /**
+   * The number of rows in the view.
+   */
+  private final int numRows;
+
+  /**
+   * The number of columns in the view.
+   */
+  private final int numCols;
+
+  /**
+   * Whether the rows of the view are columns of the parent.
+   */
+  private final boolean transposed;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a view.
+   *
+   * @param parent
+   *   The matrix that holds the cells.
+   * @param rowOffset
+   *   The first row of the parent that we see.
+   * @param colOffset
+   *   The first column of the parent that we see.
+   * @param height
+   *   The number of rows in the view.
+   * @param width
+   *   The number of columns in the view.
+   * @param transposed
+   *   Whether the rows of the view are columns of the parent.
+   */
+  private MatrixView(Matrix<T> parent, int rowOffset, int colOffset,
+      int height, int width, boolean transposed) {
+    this.parent = parent;
+    this.rowOffset = rowOffset;
+    this.colOffset = colOffset;
+    this.numRows = height;
+    this.numCols = width;
+    this.transposed = transposed;
+  } // MatrixView(Matrix<T>, int, int, int, int, boolean)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * View a rectangle of a matrix.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param matrix
+   *   The matrix.
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   *
+   * @return the view.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rectangle does not fit in the matrix.
+   */
+  static <T> Matrix<T> region(Matrix<T> matrix, int startRow, int startCol,
+      int endRow, int endCol) {
+    if (startRow < 0 || startCol < 0 || startRow > endRow
+        || startCol > endCol || endRow > matrix.height()
+        || endCol > matrix.width()) {
+      throw new IndexOutOfBoundsException("Invalid region ("
+          + startRow + ", " + startCol + ") to (" + endRow + ", " + endCol
+          + ").");
+    } // if
+    int height = endRow - startRow;
+    int width = endCol - startCol;
+    if (!(matrix instanceof MatrixView)) {
+      return new MatrixView<>(matrix, startRow, startCol, height, width,
+          false);
+    } // if
+    MatrixView<T> view = (MatrixView<T>) matrix;
+    if (view.transposed) {
+      return new MatrixView<>(view.parent, view.rowOffset + startCol,
+          view.colOffset + startRow, height, width, true);
+    } // if
+    return new MatrixView<>(view.parent, view.rowOffset + startRow,
+        view.colOffset + startCol, height, width, false);
+  } // region(Matrix<T>, int, int, int, int)
+
+  /**
+   * View a matrix with its rows and columns swapped.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the view.
+   */
+  static <T> Matrix<T> transpose(Matrix<T> matrix) {
+    if (!(matrix instanceof MatrixView)) {
+      return new MatrixView<>(matrix, 0, 0, matrix.width(), matrix.height(),
+          true);
+    } // if
+    MatrixView<T> view = (MatrixView<T>) matrix;
+    if (view.transposed && view.rowOffset == 0 && view.colOffset == 0
+        && view.numRows == view.parent.width()
+        && view.numCols == view.parent.height()) {
+      return view.parent;
+    } // if
+    return new MatrixView<>(view.parent, view.rowOffset, view.colOffset,
+        view.numCols, view.numRows, !view.transposed);
+  } // transpose(Matrix<T>)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public T get(int row, int col) {
+    check(row, col);
+    return this.transposed
+        ? this.parent.get(this.rowOffset + col, this.colOffset + row)
+        : this.parent.get(this.rowOffset + row, this.colOffset + col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public void set(int row, int col, T val) {
+    check(row, col);
+    if (this.transposed) {
+      this.parent.set(this.rowOffset + col, this.colOffset + row, val);
+    } else {
+      this.parent.set(this.rowOffset + row, this.colOffset + col, val);
+    } // if/else
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.numRows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.numCols;
+  } // width()
+
+  /**
+   * Views cannot change shape.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  @Override
+  public void insertRow(int row) {
+    throw new UnsupportedOperationException("Cannot insert into a view.");
+  } // insertRow(int)
+
+  /**
+   * Views cannot change shape.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  @Override
+  public void insertRow(int row, T[] vals) {
+    throw new UnsupportedOperationException("Cannot insert into a view.");
+  } // insertRow(int, T[])
+
+  /**
+   * Views cannot change shape.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  @Override
+  public void insertCol(int col) {
+    throw new UnsupportedOperationException("Cannot insert into a view.");
+  } // insertCol(int)
+
+  /**
+   * Views cannot change shape.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  @Override
+  public void insertCol(int col, T[] vals) {
+    throw new UnsupportedOperationException("Cannot insert into a view.");
+  } // insertCol(int, T[])
+
+  /**
+   * Views cannot change shape.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  @Override
+  public void deleteRow(int row) {
+    throw new UnsupportedOperationException("Cannot delete from a view.");
+  } // deleteRow(int)
+
+  /**
+   * Views cannot change shape.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  @Override
+  public void deleteCol(int col) {
+    throw new UnsupportedOperationException("Cannot delete from a view.");
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix, using the fill of the
+   * parent.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow < 0 || startCol < 0 || endRow > this.numRows
+        || endCol > this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid region.");
+    } // if
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } // if
+    if (this.transposed) {
+      this.parent.fillRegion(this.rowOffset + startCol,
+          this.colOffset + startRow, this.rowOffset + endCol,
+          this.colOffset + endRow, val);
+    } else {
+      this.parent.fillRegion(this.rowOffset + startRow,
+          this.colOffset + startCol, this.rowOffset + endRow,
+          this.colOffset + endCol, val);
+    } // if/else
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    // Check the whole line first, so that a bad line changes nothing.
+    for (int pass = 0; pass < 2; pass++) {
+      int row = startRow;
+      int col = startCol;
+      while (row < endRow && col < endCol) {
+        if (pass == 0) {
+          check(row, col);
+        } else {
+          set(row, col, val);
+        } // if/else
+        row += deltaRow;
+        col += deltaCol;
+      } // while
+    } // for
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Copy the cells of the view into a new matrix of their own.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  public Matrix<T> clone() {
+    MatrixV0<T> copy = new MatrixV0<>(this.numCols, this.numRows);
+    for (int row = 0; row < this.numRows; row++) {
+      for (int col = 0; col < this.numCols; col++) {
+        copy.set(row, col, get(row, col));
+      } // for col
+    } // for row
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return this == other || (other instanceof Matrix
+        && Cells.same(this, (Matrix<?>) other));
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Cells.hash(this);
+  } // hashCode()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Make sure that a cell is inside the view.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the cell is outside the view.
+   */
+  private void check(int row, int col) {
+    if (row < 0 || row >= this.numRows || col < 0 || col >= this.numCols) {
+      throw new IndexOutOfBoundsException("Invalid row or column index ("
+          + row + ", " + col + ").");
+    } // if
+  } // check(int, int)
+} // class MatrixView<T>
@@ -0,0 +1,398 @@
+package edu.grinnell.csc207.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Two-dimensional matrices of primitive values stored outside the Java
+ * heap, in a direct {@link ByteBuffer}. See {@link AbstractFlatMatrix}
+ * for the layout. Since the cells are not Java objects, a large matrix
+ * adds nothing for the garbage collector to trace or copy.
+ *
+ * <p>Off-heap memory is only returned to the system when the buffer is
+ * freed, so call {@link #close} when you are done with a matrix (or use
+ * it in a try-with-resources statement). Using a closed matrix throws an
+ * IllegalStateException. Matrices that are never closed are freed when
+ * they are garbage collected, as with any direct buffer.</p>
+ *
+ * <p>A direct buffer holds at most Integer.MAX_VALUE bytes, which limits
+ * the number of cells (including spare capacity) to about 268 million
+ * for eight-byte types.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class OffHeapMatrix<T> extends AbstractFlatMatrix<T, ByteBuffer>
+    implements AutoCloseable {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The type of the cells.
+   */
+  private final ElementType<T> type;
+
+  /**
+   * The number of bytes in one cell.
+   */
+  private final int size;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param type
+   *   The type of the cells.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws NullPointerException
+   *   If def is null.
+   */
+  public OffHeapMatrix(ElementType<T> type, int width, int height, T def) {
+    this.type = type;
+    this.size = type.size();
+    if (def == null) {
+      throw new NullPointerException("Off-heap matrices cannot hold null.");
+    } // if
+    initialize(width, height, def, width);
+  } // OffHeapMatrix(ElementType<T>, int, int, T)
+
+  // +-----------------+---------------------------------------------
+  // | Storage methods |
+  // +-----------------+
+
+  @Override
+  ByteBuffer allocate(int length) {
+    return ByteBuffer.allocateDirect(Math.multiplyExact(length, this.size))
+        .order(ByteOrder.nativeOrder());
+  } // allocate(int)
+
+  @Override
+  T load(int index) {
+    return this.type.read(buffer(), index * this.size);
+  } // load(int)
+
+  @Override
+  void store(int index, T val) {
+    this.type.write(buffer(), index * this.size, val);
+  } // store(int, T)
+
+  @Override
+  void fill(int from, int to, T val) {
+    if (from >= to) {
+      return;
+    } // if
+    // Write one cell, then keep doubling the filled run by copying it.
+    ByteBuffer buf = buffer();
+    int start = from * this.size;
+    int end = to * this.size;
+    this.type.write(buf, start, val);
+    for (int filled = this.size; start + filled < end; filled *= 2) {
+      buf.put(start + filled, buf, start, Math.min(filled, end - start - filled));
+    } // for
+  } // fill(int, int, T)
+
+  @Override
+  boolean rangeEquals(ByteBuffer mine, int myFrom, ByteBuffer theirs,
+      int theirFrom, int length) {
+    buffer();
+    return this.type.rangeEquals(mine, myFrom * this.size, theirs,
+        theirFrom * this.size, length);
+  } // rangeEquals(ByteBuffer, int, ByteBuffer, int, int)
+
+  @Override
+  void copy(ByteBuffer src, int srcPos, ByteBuffer dest, int destPos,
+      int length) {
+    buffer();
+    dest.put(destPos * this.size, src, srcPos * this.size, length * this.size);
+  } // copy(ByteBuffer, int, ByteBuffer, int, int)
+
+  /**
+   * Determine whether another matrix holds the same type of cells, so
+   * that we can compare its buffer with ours. Both must be open.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @return true if the buffers are compatible.
+   *
+   * @throws IllegalStateException
+   *   If either matrix has been closed.
+   */
+  @Override
+  boolean compatible(AbstractFlatMatrix<?, ?> other) {
+    if (!super.compatible(other)
+        || ((OffHeapMatrix<?>) other).type != this.type) {
+      return false;
+    } // if
+    buffer();
+    ((OffHeapMatrix<?>) other).buffer();
+    return true;
+  } // compatible(AbstractFlatMatrix<?, ?>)
+
+  @Override
+  void reallocate(int rows, int cols) {
+    ByteBuffer old = buffer();
+    super.reallocate(rows, cols);
+    free(old);
+  } // reallocate(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the type of the cells.
+   *
+   * @return the element type.
+   */
+  public ElementType<T> type() {
+    return this.type;
+  } // type()
+
+  /**
+   * Get a double at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UnsupportedOperationException
+   *   If this is not a matrix of doubles.
+   */
+  public double getDouble(int row, int col) {
+    checkType(ElementType.DOUBLE);
+    return buffer().getDouble(index(row, col) * 8);
+  } // getDouble(int, int)
+
+  /**
+   * Set a double at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UnsupportedOperationException
+   *   If this is not a matrix of doubles.
+   */
+  public void setDouble(int row, int col, double val) {
+    checkType(ElementType.DOUBLE);
+    buffer().putDouble(index(row, col) * 8, val);
+  } // setDouble(int, int, double)
+
+  /**
+   * Get a long at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UnsupportedOperationException
+   *   If this is not a matrix of longs.
+   */
+  public long getLong(int row, int col) {
+    checkType(ElementType.LONG);
+    return buffer().getLong(index(row, col) * 8);
+  } // getLong(int, int)
+
+  /**
+   * Set a long at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UnsupportedOperationException
+   *   If this is not a matrix of longs.
+   */
+  public void setLong(int row, int col, long val) {
+    checkType(ElementType.LONG);
+    buffer().putLong(index(row, col) * 8, val);
+  } // setLong(int, int, long)
+
+  /**
+   * Get an int at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UnsupportedOperationException
+   *   If this is not a matrix of ints.
+   */
+  public int getInt(int row, int col) {
+    checkType(ElementType.INT);
+    return buffer().getInt(index(row, col) * 4);
+  } // getInt(int, int)
+
+  /**
+   * Set an int at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UnsupportedOperationException
+   *   If this is not a matrix of ints.
+   */
+  public void setInt(int row, int col, int val) {
+    checkType(ElementType.INT);
+    buffer().putInt(index(row, col) * 4, val);
+  } // setInt(int, int, int)
+
+  /**
+   * Make a copy of the matrix in a new off-heap buffer. The copy must be
+   * closed separately.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public OffHeapMatrix<T> clone() {
+    buffer();
+    return (OffHeapMatrix<T>) super.clone();
+  } // clone()
+
+  /**
+   * Free the off-heap memory. Closing a matrix that is already closed
+   * does nothing.
+   */
+  @Override
+  public void close() {
+    ByteBuffer old = this.cells;
+    this.cells = null;
+    if (old != null) {
+      free(old);
+    } // if
+  } // close()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Get the buffer, making sure the matrix is still open.
+   *
+   * @return the buffer that holds the cells.
+   *
+   * @throws IllegalStateException
+   *   If the matrix has been closed.
+   */
+  ByteBuffer buffer() {
+    ByteBuffer buf = this.cells;
+    if (buf == null) {
+      throw new IllegalStateException("Matrix is closed.");
+    } // if
+    return buf;
+  } // buffer()
+
+  /**
+   * Make sure this matrix holds the given type.
+   *
+   * @param expected
+   *   The type the caller wants.
+   *
+   * @throws UnsupportedOperationException
+   *   If the matrix holds a different type.
+   */
+  private void checkType(ElementType<?> expected) {
+    if (this.type != expected) {
+      throw new UnsupportedOperationException("Not a matrix of " + expected);
+    } // if
+  } // checkType(ElementType<?>)
+
+  /**
+   * Free the memory behind a direct buffer right away, rather than
+   * waiting for the garbage collector. If the JDK does not let us, we
+   * leave the buffer for the garbage collector.
+   *
+   * @param buf
+   *   The buffer to free. It must not be used afterwards.
+   */
+  static void free(ByteBuffer buf) {
+    if (DirectMemory.INVOKE_CLEANER != null && buf.isDirect()) {
+      try {
+        DirectMemory.INVOKE_CLEANER.invoke(DirectMemory.UNSAFE, buf);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // Leave it to the garbage collector.
+      } // try/catch
+    } // if
+  } // free(ByteBuffer)
+
+  /**
+   * Looks up sun.misc.Unsafe.invokeCleaner, the only way to free a
+   * direct buffer explicitly before the Foreign Memory API.
+   */
+  private static class DirectMemory {
+    /**
+     * The Unsafe instance, or null if unavailable.
+     */
+    static final Object UNSAFE;
+
+    /**
+     * The invokeCleaner method, or null if unavailable.
+     */
+    static final Method INVOKE_CLEANER;
+
+    static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      try {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        unsafe = theUnsafe.get(null);
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        unsafe = null;
+        invokeCleaner = null;
+      } // try/catch
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = invokeCleaner;
+    } // static
+  } // class DirectMemory
+} // class OffHeapMatrix<T>
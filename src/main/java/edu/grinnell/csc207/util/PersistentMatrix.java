@@ -0,0 +1,1165 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Two-dimensional matrices that never change. Each "change" returns a
+ * new version of the matrix and leaves the old one as it was. Versions
+ * share most of their structure, so keeping hundreds of them costs
+ * little more than keeping one, and because nothing is ever changed in
+ * place, any version may be shared between threads without locking.
+ *
+ * <p>As in {@link SparseMatrix}, every row and column gets a permanent
+ * id when it is created, and two arrays translate positions into ids.
+ * The cells live in a 32-way trie indexed by row id whose leaves are
+ * 32-way tries indexed by column id. Setting a cell copies the few trie
+ * nodes on the path to it (about 64 slots per level, and a 1000 by 1000
+ * matrix has two levels in each direction). Inserting or deleting a row
+ * or column copies one of the id arrays; a new row or column stores
+ * nothing until one of its cells is set. The cells of deleted columns
+ * stay in their rows until {@link #compact()} drops them.</p>
+ *
+ * <p>For a batch of edits, {@link #toBuilder()} gives a {@link Builder},
+ * an ordinary mutable {@link Matrix} that changes the trie nodes it has
+ * already copied in place rather than copying them again.
+ * {@link Builder#build()} turns the result back into a persistent
+ * matrix in constant time plus the cost of copying the id arrays.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public final class PersistentMatrix<T> implements ReadableMatrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of index bits consumed by each level of a trie.
+   */
+  private static final int BITS = 5;
+
+  /**
+   * The number of slots in a trie node.
+   */
+  private static final int SLOTS = 1 << BITS;
+
+  /**
+   * The mask for one level of index bits.
+   */
+  private static final int MASK = SLOTS - 1;
+
+  /**
+   * The largest shift a trie needs to hold any non-negative int index.
+   */
+  private static final int MAX_SHIFT = 30;
+
+  /**
+   * What we store for a cell that holds null, since an empty slot means
+   * the default value.
+   */
+  private static final Object NULL = new Object();
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The trie of rows, indexed by row id; null if no cell is stored.
+   */
+  private final Node cells;
+
+  /**
+   * The ids of the rows, in order.
+   */
+  private final int[] rowIds;
+
+  /**
+   * The ids of the columns, in order.
+   */
+  private final int[] colIds;
+
+  /**
+   * The id to give the next new row.
+   */
+  private final int nextRowId;
+
+  /**
+   * The id to give the next new column.
+   */
+  private final int nextColId;
+
+  /**
+   * The value of every cell that has not been set.
+   */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used for all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public PersistentMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException(
+          "Width and height must be non-negative.");
+    } // if
+    this.cells = null;
+    this.rowIds = identity(height);
+    this.colIds = identity(width);
+    this.nextRowId = height;
+    this.nextColId = width;
+    this.defaultValue = def;
+  } // PersistentMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public PersistentMatrix(int width, int height) {
+    this(width, height, null);
+  } // PersistentMatrix(int, int)
+
+  /**
+   * Create a version from its parts. The arrays must never change.
+   *
+   * @param cells
+   *   The trie of rows.
+   * @param rowIds
+   *   The ids of the rows.
+   * @param colIds
+   *   The ids of the columns.
+   * @param nextRowId
+   *   The id to give the next new row.
+   * @param nextColId
+   *   The id to give the next new column.
+   * @param def
+   *   The default value.
+   */
+  private PersistentMatrix(Node cells, int[] rowIds, int[] colIds,
+      int nextRowId, int nextColId, T def) {
+    this.cells = cells;
+    this.rowIds = rowIds;
+    this.colIds = colIds;
+    this.nextRowId = nextRowId;
+    this.nextColId = nextColId;
+    this.defaultValue = def;
+  } // PersistentMatrix(Node, int[], int[], int, int, T)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Make a persistent copy of a matrix.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param matrix
+   *   The matrix to copy.
+   * @param def
+   *   The default value of the copy. Cells of the matrix that hold it
+   *   are not stored.
+   *
+   * @return a persistent matrix with the same cells.
+   */
+  public static <T> PersistentMatrix<T> copyOf(ReadableMatrix<T> matrix,
+      T def) {
+    Builder<T> builder =
+        new PersistentMatrix<T>(matrix.width(), matrix.height(), def)
+            .toBuilder();
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        T val = matrix.get(row, col);
+        if (!Objects.equals(val, def)) {
+          builder.set(row, col, val);
+        } // if
+      } // for col
+    } // for row
+    return builder.build();
+  } // copyOf(ReadableMatrix<T>, T)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public T get(int row, int col) {
+    if (row < 0 || row >= height() || col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+    return read(this.cells, this.rowIds[row], this.colIds[col],
+        this.defaultValue);
+  } // get(int, int)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.rowIds.length;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.colIds.length;
+  } // width()
+
+  /**
+   * Get the version with one element changed.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public PersistentMatrix<T> set(int row, int col, T val) {
+    if (row < 0 || row >= height() || col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+    Node updated = write(null, this.cells, this.rowIds[row],
+        this.colIds[col], val);
+    return new PersistentMatrix<>(updated, this.rowIds, this.colIds,
+        this.nextRowId, this.nextColId, this.defaultValue);
+  } // set(int, int, T)
+
+  /**
+   * Get the version with a row of default values inserted.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public PersistentMatrix<T> insertRow(int row) {
+    Builder<T> builder = toBuilder();
+    builder.insertRow(row);
+    return builder.build();
+  } // insertRow(int)
+
+  /**
+   * Get the version with a row of the specified values inserted.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public PersistentMatrix<T> insertRow(int row, T[] vals)
+      throws ArraySizeException {
+    Builder<T> builder = toBuilder();
+    builder.insertRow(row, vals);
+    return builder.build();
+  } // insertRow(int, T[])
+
+  /**
+   * Get the version with a column of default values inserted.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public PersistentMatrix<T> insertCol(int col) {
+    Builder<T> builder = toBuilder();
+    builder.insertCol(col);
+    return builder.build();
+  } // insertCol(int)
+
+  /**
+   * Get the version with a column of the specified values inserted.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public PersistentMatrix<T> insertCol(int col, T[] vals)
+      throws ArraySizeException {
+    Builder<T> builder = toBuilder();
+    builder.insertCol(col, vals);
+    return builder.build();
+  } // insertCol(int, T[])
+
+  /**
+   * Get the version with a row deleted.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public PersistentMatrix<T> deleteRow(int row) {
+    Builder<T> builder = toBuilder();
+    builder.deleteRow(row);
+    return builder.build();
+  } // deleteRow(int)
+
+  /**
+   * Get the version with a column deleted.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public PersistentMatrix<T> deleteCol(int col) {
+    Builder<T> builder = toBuilder();
+    builder.deleteCol(col);
+    return builder.build();
+  } // deleteCol(int)
+
+  /**
+   * Get the version with a rectangular region filled.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public PersistentMatrix<T> fillRegion(int startRow, int startCol,
+      int endRow, int endCol, T val) {
+    Builder<T> builder = toBuilder();
+    builder.fillRegion(startRow, startCol, endRow, endCol, val);
+    return builder.build();
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Get the version with a line (horizontal, vertical, diagonal) filled.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @return the new version.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public PersistentMatrix<T> fillLine(int startRow, int startCol,
+      int deltaRow, int deltaCol, int endRow, int endCol, T val) {
+    Builder<T> builder = toBuilder();
+    builder.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol,
+        val);
+    return builder.build();
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Get an equal version that stores only the cells of its own rows and
+   * columns, dropping what deleted columns left behind and renumbering
+   * the ids. It shares nothing with this version.
+   *
+   * @return the compacted version.
+   */
+  public PersistentMatrix<T> compact() {
+    Builder<T> builder =
+        new PersistentMatrix<T>(width(), height(), this.defaultValue)
+            .toBuilder();
+    for (int row = 0; row < height(); row++) {
+      Node cols = (Node) lookup(this.cells, this.rowIds[row]);
+      if (cols == null) {
+        continue;
+      } // if
+      for (int col = 0; col < width(); col++) {
+        Object stored = lookup(cols, this.colIds[col]);
+        if (stored != null) {
+          builder.cells = write(builder.edit, builder.cells, row, col,
+              decode(stored, null));
+        } // if
+      } // for col
+    } // for row
+    return builder.build();
+  } // compact()
+
+  /**
+   * Get a mutable matrix that starts out equal to this version. Changing
+   * it does not change this version.
+   *
+   * @return a new builder.
+   */
+  public Builder<T> toBuilder() {
+    return new Builder<>(this.cells, new IndexMap(this.rowIds),
+        new IndexMap(this.colIds), this.nextRowId, this.nextColId,
+        this.defaultValue);
+  } // toBuilder()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a persistent matrix with the
+   * same width, height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    } // if
+    if (!(other instanceof PersistentMatrix)) {
+      return false;
+    } // if
+    PersistentMatrix<?> matrix = (PersistentMatrix<?>) other;
+    if (this.cells == matrix.cells && this.defaultValue == matrix.defaultValue
+        && Arrays.equals(this.rowIds, matrix.rowIds)
+        && Arrays.equals(this.colIds, matrix.colIds)) {
+      return true;
+    } // if
+    return Cells.same(this, matrix);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Cells.hash(this);
+  } // hashCode()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build the ids 0, 1, ..., size-1.
+   *
+   * @param size
+   *   The number of ids.
+   *
+   * @return the ids.
+   */
+  private static int[] identity(int size) {
+    int[] ids = new int[size];
+    for (int i = 0; i < size; i++) {
+      ids[i] = i;
+    } // for
+    return ids;
+  } // identity(int)
+
+  /**
+   * Read a cell by ids.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param cells
+   *   The trie of rows.
+   * @param rowId
+   *   The id of the row.
+   * @param colId
+   *   The id of the column.
+   * @param def
+   *   The default value.
+   *
+   * @return the value of the cell.
+   */
+  private static <T> T read(Node cells, int rowId, int colId, T def) {
+    Node cols = (Node) lookup(cells, rowId);
+    return decode(lookup(cols, colId), def);
+  } // read(Node, int, int, T)
+
+  /**
+   * Write a cell by ids.
+   *
+   * @param edit
+   *   The edit token of the caller; nodes carrying it are changed in
+   *   place. Null to copy every node on the path.
+   * @param cells
+   *   The trie of rows.
+   * @param rowId
+   *   The id of the row.
+   * @param colId
+   *   The id of the column.
+   * @param val
+   *   The value to store.
+   *
+   * @return the updated trie of rows.
+   */
+  private static Node write(Object edit, Node cells, int rowId, int colId,
+      Object val) {
+    Node cols = (Node) lookup(cells, rowId);
+    Node updated = assoc(edit, cols, colId, val == null ? NULL : val);
+    return updated == cols ? cells : assoc(edit, cells, rowId, updated);
+  } // write(Object, Node, int, int, Object)
+
+  /**
+   * Turn a stored object back into a value.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   * @param stored
+   *   What the trie holds; null for an empty slot.
+   * @param def
+   *   The default value.
+   *
+   * @return the value.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T decode(Object stored, T def) {
+    if (stored == null) {
+      return def;
+    } else if (stored == NULL) {
+      return null;
+    } else {
+      return (T) stored;
+    } // if/else
+  } // decode(Object, T)
+
+  /**
+   * Look up an index in a trie.
+   *
+   * @param root
+   *   The root of the trie, or null for an empty trie.
+   * @param index
+   *   The index to look up.
+   *
+   * @return what the trie holds at that index, or null if nothing.
+   */
+  private static Object lookup(Node root, int index) {
+    if (root == null
+        || (root.shift < MAX_SHIFT && (index >>> (root.shift + BITS)) != 0)) {
+      return null;
+    } // if
+    Node node = root;
+    for (int shift = root.shift; shift > 0; shift -= BITS) {
+      node = (Node) node.slots[(index >>> shift) & MASK];
+      if (node == null) {
+        return null;
+      } // if
+    } // for
+    return node.slots[index & MASK];
+  } // lookup(Node, int)
+
+  /**
+   * Store a value at an index in a trie, copying the nodes on the path
+   * unless they already belong to the edit.
+   *
+   * @param edit
+   *   The edit token of the caller, or null.
+   * @param root
+   *   The root of the trie, or null for an empty trie.
+   * @param index
+   *   The index at which to store the value.
+   * @param val
+   *   The value to store; null to empty the slot.
+   *
+   * @return the root of the updated trie.
+   */
+  private static Node assoc(Object edit, Node root, int index, Object val) {
+    if (root == null) {
+      if (val == null) {
+        return null;
+      } // if
+      int shift = 0;
+      while (shift < MAX_SHIFT && (index >>> (shift + BITS)) != 0) {
+        shift += BITS;
+      } // while
+      return assoc(edit, new Node(edit, shift, new Object[SLOTS]), index, val);
+    } // if
+    Node top = root;
+    while (top.shift < MAX_SHIFT && (index >>> (top.shift + BITS)) != 0) {
+      if (val == null) {
+        return root;
+      } // if
+      Object[] slots = new Object[SLOTS];
+      slots[0] = top;
+      top = new Node(edit, top.shift + BITS, slots);
+    } // while
+    return assocNode(edit, top, index, val);
+  } // assoc(Object, Node, int, Object)
+
+  /**
+   * Store a value at an index below a node that is big enough for it.
+   *
+   * @param edit
+   *   The edit token of the caller, or null.
+   * @param node
+   *   The node, or null for an empty subtrie.
+   * @param index
+   *   The index at which to store the value.
+   * @param val
+   *   The value to store.
+   *
+   * @return the updated node.
+   */
+  private static Node assocNode(Object edit, Node node, int index,
+      Object val) {
+    int slot = (index >>> node.shift) & MASK;
+    Object child = val;
+    if (node.shift > 0) {
+      Node below = (Node) node.slots[slot];
+      if (below == null) {
+        if (val == null) {
+          return node;
+        } // if
+        below = new Node(edit, node.shift - BITS, new Object[SLOTS]);
+      } // if
+      child = assocNode(edit, below, index, val);
+    } // if
+    Node result = node.editable(edit);
+    result.slots[slot] = child;
+    return result;
+  } // assocNode(Object, Node, int, Object)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * One node of a trie. A node may only be changed in place by the
+   * builder whose edit token it carries; every other node is immutable.
+   */
+  private static final class Node {
+    /**
+     * The edit token of the builder that made the node, or null.
+     */
+    final Object edit;
+
+    /**
+     * How far to shift an index to find its slot in this node; 0 for a
+     * leaf.
+     */
+    final int shift;
+
+    /**
+     * The children (or, in a leaf, the stored values).
+     */
+    final Object[] slots;
+
+    /**
+     * Create a node.
+     *
+     * @param edit
+     *   The edit token, or null.
+     * @param shift
+     *   The shift of the node.
+     * @param slots
+     *   The children or values.
+     */
+    Node(Object edit, int shift, Object[] slots) {
+      this.edit = edit;
+      this.shift = shift;
+      this.slots = slots;
+    } // Node(Object, int, Object[])
+
+    /**
+     * Get a node that the edit may change: this one if it already
+     * belongs to the edit, otherwise a copy.
+     *
+     * @param token
+     *   The edit token, or null.
+     *
+     * @return the node to change.
+     */
+    Node editable(Object token) {
+      if (token != null && token == this.edit) {
+        return this;
+      } // if
+      return new Node(token, this.shift, this.slots.clone());
+    } // editable(Object)
+  } // class Node
+
+  /**
+   * A mutable matrix for making many changes to a persistent matrix at
+   * once. The first change to a part of the trie copies it; later
+   * changes to the same part happen in place. A builder is not safe for
+   * use by several threads at once.
+   *
+   * @param <T>
+   *   The type of value stored in the matrix.
+   */
+  public static final class Builder<T> implements Matrix<T> {
+    /**
+     * The trie of rows.
+     */
+    private Node cells;
+
+    /**
+     * The ids of the rows, in order.
+     */
+    private IndexMap rowIds;
+
+    /**
+     * The ids of the columns, in order.
+     */
+    private IndexMap colIds;
+
+    /**
+     * The id to give the next new row.
+     */
+    private int nextRowId;
+
+    /**
+     * The id to give the next new column.
+     */
+    private int nextColId;
+
+    /**
+     * The value of every cell that has not been set.
+     */
+    private final T defaultValue;
+
+    /**
+     * The token marking the nodes this builder may change in place.
+     */
+    private Object edit;
+
+    /**
+     * Create a builder from the parts of a persistent matrix.
+     *
+     * @param cells
+     *   The trie of rows.
+     * @param rowIds
+     *   The ids of the rows.
+     * @param colIds
+     *   The ids of the columns.
+     * @param nextRowId
+     *   The id to give the next new row.
+     * @param nextColId
+     *   The id to give the next new column.
+     * @param def
+     *   The default value.
+     */
+    private Builder(Node cells, IndexMap rowIds, IndexMap colIds,
+        int nextRowId, int nextColId, T def) {
+      this.cells = cells;
+      this.rowIds = rowIds;
+      this.colIds = colIds;
+      this.nextRowId = nextRowId;
+      this.nextColId = nextColId;
+      this.defaultValue = def;
+      this.edit = new Object();
+    } // Builder(Node, IndexMap, IndexMap, int, int, T)
+
+    /**
+     * Get a persistent matrix equal to the builder. The builder stays
+     * usable; its later changes do not affect the result.
+     *
+     * @return the persistent matrix.
+     */
+    public PersistentMatrix<T> build() {
+      // Nodes made so far now belong to the result.
+      this.edit = new Object();
+      return new PersistentMatrix<>(this.cells, this.rowIds.toArray(),
+          this.colIds.toArray(), this.nextRowId, this.nextColId,
+          this.defaultValue);
+    } // build()
+
+    /**
+     * Get the element at the given row and column.
+     *
+     * @param row
+     *   The row of the element.
+     * @param col
+     *   The column of the element.
+     *
+     * @return the value at the specified location.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If either the row or column is out of reasonable bounds.
+     */
+    @Override
+    public T get(int row, int col) {
+      checkCell(row, col);
+      return read(this.cells, this.rowIds.get(row), this.colIds.get(col),
+          this.defaultValue);
+    } // get(int, int)
+
+    /**
+     * Set the element at the given row and column.
+     *
+     * @param row
+     *   The row of the element.
+     * @param col
+     *   The column of the element.
+     * @param val
+     *   The value to set.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If either the row or column is out of reasonable bounds.
+     */
+    @Override
+    public void set(int row, int col, T val) {
+      checkCell(row, col);
+      this.cells = write(this.edit, this.cells, this.rowIds.get(row),
+          this.colIds.get(col), val);
+    } // set(int, int, T)
+
+    /**
+     * Determine the number of rows in the matrix.
+     *
+     * @return the number of rows.
+     */
+    @Override
+    public int height() {
+      return this.rowIds.size();
+    } // height()
+
+    /**
+     * Determine the number of columns in the matrix.
+     *
+     * @return the number of columns.
+     */
+    @Override
+    public int width() {
+      return this.colIds.size();
+    } // width()
+
+    /**
+     * Insert a row filled with the default value.
+     *
+     * @param row
+     *   The number of the row to insert.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the row is negative or greater than the height.
+     */
+    @Override
+    public void insertRow(int row) {
+      if (row < 0 || row > height()) {
+        throw new IndexOutOfBoundsException("Invalid row index.");
+      } // if
+      this.rowIds.insert(row, this.nextRowId++);
+    } // insertRow(int)
+
+    /**
+     * Insert a row filled with the specified values.
+     *
+     * @param row
+     *   The number of the row to insert.
+     * @param vals
+     *   The values to insert.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the row is negative or greater than the height.
+     * @throws ArraySizeException
+     *   If the size of vals is not the same as the width of the matrix.
+     */
+    @Override
+    public void insertRow(int row, T[] vals) throws ArraySizeException {
+      if (row < 0 || row > height()) {
+        throw new IndexOutOfBoundsException("Invalid row index.");
+      } // if
+      if (vals.length != width()) {
+        throw new ArraySizeException(
+            "Invalid array size for the row insertion.");
+      } // if
+      int id = this.nextRowId++;
+      this.rowIds.insert(row, id);
+      for (int col = 0; col < vals.length; col++) {
+        this.cells = write(this.edit, this.cells, id, this.colIds.get(col),
+            vals[col]);
+      } // for
+    } // insertRow(int, T[])
+
+    /**
+     * Insert a column filled with the default value.
+     *
+     * @param col
+     *   The number of the column to insert.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the column is negative or greater than the width.
+     */
+    @Override
+    public void insertCol(int col) {
+      if (col < 0 || col > width()) {
+        throw new IndexOutOfBoundsException("Invalid column index.");
+      } // if
+      this.colIds.insert(col, this.nextColId++);
+    } // insertCol(int)
+
+    /**
+     * Insert a column filled with the specified values.
+     *
+     * @param col
+     *   The number of the column to insert.
+     * @param vals
+     *   The values to insert.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the column is negative or greater than the width.
+     * @throws ArraySizeException
+     *   If the size of vals is not the same as the height of the matrix.
+     */
+    @Override
+    public void insertCol(int col, T[] vals) throws ArraySizeException {
+      if (col < 0 || col > width()) {
+        throw new IndexOutOfBoundsException("Invalid column index.");
+      } // if
+      if (vals.length != height()) {
+        throw new ArraySizeException(
+            "Invalid array size for the column insertion.");
+      } // if
+      int id = this.nextColId++;
+      this.colIds.insert(col, id);
+      for (int row = 0; row < vals.length; row++) {
+        this.cells = write(this.edit, this.cells, this.rowIds.get(row), id,
+            vals[row]);
+      } // for
+    } // insertCol(int, T[])
+
+    /**
+     * Delete a row.
+     *
+     * @param row
+     *   The number of the row to delete.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the row is negative or greater than or equal to the height.
+     */
+    @Override
+    public void deleteRow(int row) {
+      if (row < 0 || row >= height()) {
+        throw new IndexOutOfBoundsException("Invalid row index.");
+      } // if
+      int id = this.rowIds.remove(row);
+      if (lookup(this.cells, id) != null) {
+        this.cells = assoc(this.edit, this.cells, id, null);
+      } // if
+    } // deleteRow(int)
+
+    /**
+     * Delete a column. Its cells stay in the trie, unreachable, until
+     * the matrix is compacted.
+     *
+     * @param col
+     *   The number of the column to delete.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the column is negative or greater than or equal to the width.
+     */
+    @Override
+    public void deleteCol(int col) {
+      if (col < 0 || col >= width()) {
+        throw new IndexOutOfBoundsException("Invalid column index.");
+      } // if
+      this.colIds.remove(col);
+    } // deleteCol(int)
+
+    /**
+     * Fill a rectangular region of the matrix.
+     *
+     * @param startRow
+     *   The top edge / row to start with (inclusive).
+     * @param startCol
+     *   The left edge / column to start with (inclusive).
+     * @param endRow
+     *   The bottom edge / row to stop with (exclusive).
+     * @param endCol
+     *   The right edge / column to stop with (exclusive).
+     * @param val
+     *   The value to store.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the rows or columns are inappropriate.
+     */
+    @Override
+    public void fillRegion(int startRow, int startCol, int endRow,
+        int endCol, T val) {
+      if (startRow < 0 || startCol < 0 || endRow > height()
+          || endCol > width()) {
+        throw new IndexOutOfBoundsException("Invalid region.");
+      } // if
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = startCol; col < endCol; col++) {
+          set(row, col, val);
+        } // for col
+      } // for row
+    } // fillRegion(int, int, int, int, T)
+
+    /**
+     * Fill a line (horizontal, vertical, diagonal).
+     *
+     * @param startRow
+     *   The row to start with (inclusive).
+     * @param startCol
+     *   The column to start with (inclusive).
+     * @param deltaRow
+     *   How much to change the row in each step.
+     * @param deltaCol
+     *   How much to change the column in each step.
+     * @param endRow
+     *   The row to stop with (exclusive).
+     * @param endCol
+     *   The column to stop with (exclusive).
+     * @param val
+     *   The value to store.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the rows or columns are inappropriate.
+     */
+    @Override
+    public void fillLine(int startRow, int startCol, int deltaRow,
+        int deltaCol, int endRow, int endCol, T val) {
+      int row = startRow;
+      int col = startCol;
+      while (row < endRow && col < endCol) {
+        set(row, col, val);
+        row += deltaRow;
+        col += deltaCol;
+      } // while
+    } // fillLine(int, int, int, int, int, int, T)
+
+    /**
+     * Make a copy of the builder. The two share trie nodes, but neither
+     * changes them in place afterwards.
+     *
+     * @return a copy of the builder.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Builder<T> clone() {
+      try {
+        Builder<T> copy = (Builder<T>) super.clone();
+        copy.rowIds = this.rowIds.clone();
+        copy.colIds = this.colIds.clone();
+        copy.edit = new Object();
+        this.edit = new Object();
+        return copy;
+      } catch (CloneNotSupportedException e) {
+        throw new AssertionError(e);
+      } // try/catch
+    } // clone()
+
+    /**
+     * Determine if this object is equal to another object.
+     *
+     * @param other
+     *   The object to which we compare ourselves.
+     *
+     * @return true if the other object is a matrix with the same width,
+     * height, and equal elements; false otherwise.
+     */
+    @Override
+    public boolean equals(Object other) {
+      return this == other
+          || (other instanceof Matrix && Cells.same(this, (Matrix<?>) other));
+    } // equals(Object)
+
+    /**
+     * Compute a hash code for the matrix.
+     *
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+      return Cells.hash(this);
+    } // hashCode()
+
+    /**
+     * Make sure a cell is in bounds.
+     *
+     * @param row
+     *   The row of the cell.
+     * @param col
+     *   The column of the cell.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If either the row or column is out of bounds.
+     */
+    private void checkCell(int row, int col) {
+      if (row < 0 || row >= height() || col < 0 || col >= width()) {
+        throw new IndexOutOfBoundsException("Invalid row or column index.");
+      } // if
+    } // checkCell(int, int)
+  } // class Builder<T>
+} // class PersistentMatrix<T>
@@ -0,0 +1,40 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * The read side of a two-dimensional matrix: its size and its cells.
+ * Every {@link Matrix} is a readable matrix, as are matrices that cannot
+ * be changed in place, such as {@link PersistentMatrix}.
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public interface ReadableMatrix<T> {
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col);
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height();
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width();
+} // interface ReadableMatrix<T>
@@ -0,0 +1,246 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Splits a pass over the rows of a matrix into bands of rows and runs
+ * the bands in a fork/join pool. Passes too small to repay the cost of
+ * forking, and passes given no pool, run in the calling thread.
+ */
+final class RowBands {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The fewest cells worth handing to another thread.
+   */
+  static final int THRESHOLD = 1 << 15;
+
+  /**
+   * How many bands to make for each thread in the pool, so that a slow
+   * thread does not hold up the rest.
+   */
+  static final int BANDS_PER_THREAD = 4;
+
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Work on a band of rows.
+   */
+  @FunctionalInterface
+  interface Band {
+    /**
+     * Do the work for some rows.
+     *
+     * @param startRow
+     *   The first row (inclusive).
+     * @param endRow
+     *   The last row (exclusive).
+     */
+    void run(int startRow, int endRow);
+  } // interface Band
+
+  /**
+   * Work on a band of rows that computes a result.
+   *
+   * @param <R>
+   *   The type of the result.
+   */
+  @FunctionalInterface
+  interface BandFunction<R> {
+    /**
+     * Compute the result for some rows.
+     *
+     * @param startRow
+     *   The first row (inclusive).
+     * @param endRow
+     *   The last row (exclusive).
+     *
+     * @return the result for those rows.
+     */
+    R apply(int startRow, int endRow);
+  } // interface BandFunction<R>
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Nobody builds a RowBands.
+   */
+  private RowBands() {
+  } // RowBands()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Run some work on every row in a range, in parallel if the range is
+   * big enough. The bands must not touch each other's rows.
+   *
+   * @param pool
+   *   The pool to run the bands in, or null to run them all here.
+   * @param startRow
+   *   The first row (inclusive).
+   * @param endRow
+   *   The last row (exclusive).
+   * @param rowCells
+   *   The number of cells the work touches in each row.
+   * @param body
+   *   The work.
+   */
+  static void forEach(ForkJoinPool pool, int startRow, int endRow,
+      int rowCells, Band body) {
+    reduce(pool, startRow, endRow, rowCells, (start, end) -> {
+      body.run(start, end);
+      return null;
+    }, (left, right) -> null);
+  } // forEach(ForkJoinPool, int, int, int, Band)
+
+  /**
+   * Compute a result for every band of rows in a range, in parallel if
+   * the range is big enough, and combine the results in row order.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param pool
+   *   The pool to run the bands in, or null to run them all here.
+   * @param startRow
+   *   The first row (inclusive).
+   * @param endRow
+   *   The last row (exclusive).
+   * @param rowCells
+   *   The number of cells the work touches in each row.
+   * @param leaf
+   *   Computes the result for a band.
+   * @param combine
+   *   Combines the results of two adjacent bands, upper band first.
+   *
+   * @return the combined result.
+   */
+  static <R> R reduce(ForkJoinPool pool, int startRow, int endRow,
+      int rowCells, BandFunction<R> leaf, BinaryOperator<R> combine) {
+    int grain = grain(endRow - startRow, rowCells,
+        pool == null ? 1 : pool.getParallelism());
+    if (endRow - startRow <= grain) {
+      return leaf.apply(startRow, endRow);
+    } // if
+    return pool.invoke(new Task<>(startRow, endRow, grain, leaf, combine));
+  } // reduce(ForkJoinPool, int, int, int, BandFunction<R>, BinaryOperator<R>)
+
+  /**
+   * Decide how many rows go in a band.
+   *
+   * @param rows
+   *   The number of rows in the pass.
+   * @param rowCells
+   *   The number of cells in each row.
+   * @param threads
+   *   The number of threads available.
+   *
+   * @return the largest number of rows in a band.
+   */
+  static int grain(int rows, int rowCells, int threads) {
+    long cells = (long) rows * rowCells;
+    if (threads <= 1 || cells < 2L * THRESHOLD) {
+      return Math.max(rows, 1);
+    } // if
+    int width = Math.max(rowCells, 1);
+    int minRows = (THRESHOLD + width - 1) / width;
+    int fairRows = (rows + threads * BANDS_PER_THREAD - 1)
+        / (threads * BANDS_PER_THREAD);
+    return Math.max(1, Math.max(minRows, fairRows));
+  } // grain(int, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * Splits a range of rows in half until the halves are small enough.
+   *
+   * @param <R>
+   *   The type of the result.
+   */
+  private static final class Task<R> extends RecursiveTask<R> {
+    /**
+     * The version of the serialized form, which ForkJoinTask makes us
+     * declare.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The first row (inclusive).
+     */
+    private final int startRow;
+
+    /**
+     * The last row (exclusive).
+     */
+    private final int endRow;
+
+    /**
+     * The largest number of rows to handle without splitting.
+     */
+    private final int grain;
+
+    /**
+     * Computes the result for a band.
+     */
+    private final BandFunction<R> leaf;
+
+    /**
+     * Combines the results of adjacent bands.
+     */
+    private final BinaryOperator<R> combine;
+
+    /**
+     * Create a task.
+     *
+     * @param startRow
+     *   The first row (inclusive).
+     * @param endRow
+     *   The last row (exclusive).
+     * @param grain
+     *   The largest number of rows to handle without splitting.
+     * @param leaf
+     *   Computes the result for a band.
+     * @param combine
+     *   Combines the results of adjacent bands.
+     */
+    Task(int startRow, int endRow, int grain, BandFunction<R> leaf,
+        BinaryOperator<R> combine) {
+      this.startRow = startRow;
+      this.endRow = endRow;
+      this.grain = grain;
+      this.leaf = leaf;
+      this.combine = combine;
+    } // Task(int, int, int, BandFunction<R>, BinaryOperator<R>)
+
+    /**
+     * Compute the result for our rows.
+     *
+     * @return the result.
+     */
+    @Override
+    protected R compute() {
+      if (this.endRow - this.startRow <= this.grain) {
+        return this.leaf.apply(this.startRow, this.endRow);
+      } // if
+      int mid = (this.startRow + this.endRow) >>> 1;
+      Task<R> upper =
+          new Task<>(this.startRow, mid, this.grain, this.leaf, this.combine);
+      Task<R> lower =
+          new Task<>(mid, this.endRow, this.grain, this.leaf, this.combine);
+      lower.fork();
+      R first = upper.compute();
+      return this.combine.apply(first, lower.join());
+    } // compute()
+  } // class Task<R>
+} // class RowBands
@@ -0,0 +1,61 @@
+package edu.grinnell.csc207.util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list of the cells in one row of a matrix. The list copies
+ * nothing; each call to {@code get} reads the matrix.
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+final class RowList<T> extends AbstractList<T> implements RandomAccess {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix.
+   */
+  private final ReadableMatrix<T> matrix;
+
+  /**
+   * The number of the row.
+   */
+  private final int row;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * View one row of a matrix as a list.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param row
+   *   The number of the row.
+   */
+  RowList(ReadableMatrix<T> matrix, int row) {
+    this.matrix = matrix;
+    this.row = row;
+  } // RowList(ReadableMatrix<T>, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  @Override
+  public T get(int col) {
+    if (col < 0 || col >= this.matrix.width()) {
+      throw new IndexOutOfBoundsException("Invalid column " + col + ".");
+    } // if
+    return this.matrix.get(this.row, col);
+  } // get(int)
+
+  @Override
+  public int size() {
+    return this.matrix.width();
+  } // size()
+} // class RowList<T>
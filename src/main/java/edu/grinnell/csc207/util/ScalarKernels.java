@@ -0,0 +1,105 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * Kernels written as plain loops, for JVMs without the Vector API. The
+ * JIT may still vectorize some of them itself.
+ */
+final class ScalarKernels extends Kernels {
+  @Override
+  boolean vectorized() {
+    return false;
+  } // vectorized()
+
+  @Override
+  void addInts(int[] dst, int dstFrom, int[] src, int srcFrom, int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstFrom + i] += src[srcFrom + i];
+    } // for
+  } // addInts(int[], int, int[], int, int)
+
+  @Override
+  void subtractInts(int[] dst, int dstFrom, int[] src, int srcFrom,
+      int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstFrom + i] -= src[srcFrom + i];
+    } // for
+  } // subtractInts(int[], int, int[], int, int)
+
+  @Override
+  void scaleInts(int[] dst, int from, int length, int factor) {
+    for (int i = from; i < from + length; i++) {
+      dst[i] *= factor;
+    } // for
+  } // scaleInts(int[], int, int, int)
+
+  @Override
+  void fillInts(int[] dst, int from, int length, int val) {
+    Arrays.fill(dst, from, from + length, val);
+  } // fillInts(int[], int, int, int)
+
+  @Override
+  int mismatchInts(int[] a, int aFrom, int[] b, int bFrom, int length) {
+    return Arrays.mismatch(a, aFrom, aFrom + length, b, bFrom,
+        bFrom + length);
+  } // mismatchInts(int[], int, int[], int, int)
+
+  @Override
+  void addLongs(long[] dst, int dstFrom, long[] src, int srcFrom,
+      int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstFrom + i] += src[srcFrom + i];
+    } // for
+  } // addLongs(long[], int, long[], int, int)
+
+  @Override
+  void subtractLongs(long[] dst, int dstFrom, long[] src, int srcFrom,
+      int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstFrom + i] -= src[srcFrom + i];
+    } // for
+  } // subtractLongs(long[], int, long[], int, int)
+
+  @Override
+  void scaleLongs(long[] dst, int from, int length, long factor) {
+    for (int i = from; i < from + length; i++) {
+      dst[i] *= factor;
+    } // for
+  } // scaleLongs(long[], int, int, long)
+
+  @Override
+  void addDoubles(double[] dst, int dstFrom, double[] src, int srcFrom,
+      int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstFrom + i] += src[srcFrom + i];
+    } // for
+  } // addDoubles(double[], int, double[], int, int)
+
+  @Override
+  void subtractDoubles(double[] dst, int dstFrom, double[] src, int srcFrom,
+      int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstFrom + i] -= src[srcFrom + i];
+    } // for
+  } // subtractDoubles(double[], int, double[], int, int)
+
+  @Override
+  void scaleDoubles(double[] dst, int from, int length, double factor) {
+    for (int i = from; i < from + length; i++) {
+      dst[i] *= factor;
+    } // for
+  } // scaleDoubles(double[], int, int, double)
+
+  @Override
+  void fillDoubles(double[] dst, int from, int length, double val) {
+    Arrays.fill(dst, from, from + length, val);
+  } // fillDoubles(double[], int, int, double)
+
+  @Override
+  int mismatchDoubles(double[] a, int aFrom, double[] b, int bFrom,
+      int length) {
+    return Arrays.mismatch(a, aFrom, aFrom + length, b, bFrom,
+        bFrom + length);
+  } // mismatchDoubles(double[], int, double[], int, int)
+} // class ScalarKernels
@@ -0,0 +1,758 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Two-dimensional matrices that only store the cells that differ from
+ * the default value. Cells that hold the default value cost no memory,
+ * which suits matrices that are mostly empty.
+ *
+ * <p>Every row and column gets a permanent id when it is created. The
+ * cells that have been set are kept in a table from row id to a table
+ * from column id to value, and two lists translate positions into ids.
+ * The tables use open addressing on the int ids, so a stored cell costs
+ * a slot for its id and a slot for its value rather than a boxed key and
+ * an entry object.
+ * Inserting or deleting a row or column only edits those lists (and, for
+ * deletions, drops the cells of the deleted line); no cells move.
+ * Setting a cell to the default value, or filling a region with it,
+ * removes the stored cells.</p>
+ *
+ * <p>Lookups cost two hash probes, so scanning a sparse matrix is slower
+ * than scanning a dense one.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class SparseMatrix<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The stored cells, by row id and then column id. Rows without any
+   * stored cells have no entry.
+   */
+  private IdTable<IdTable<T>> rows;
+
+  /**
+   * The ids of the rows, in order.
+   */
+  private IndexMap rowIds;
+
+  /**
+   * The ids of the columns, in order.
+   */
+  private IndexMap colIds;
+
+  /**
+   * The id to give the next new row.
+   */
+  private int nextRowId;
+
+  /**
+   * The id to give the next new column.
+   */
+  private int nextColId;
+
+  /**
+   * The value of every cell that is not stored.
+   */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used for all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public SparseMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException(
+          "Width and height must be non-negative.");
+    } // if
+    this.rows = new IdTable<>();
+    this.rowIds = new IndexMap(height);
+    this.colIds = new IndexMap(width);
+    this.nextRowId = height;
+    this.nextColId = width;
+    this.defaultValue = def;
+  } // SparseMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public SparseMatrix(int width, int height) {
+    this(width, height, null);
+  } // SparseMatrix(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public T get(int row, int col) {
+    checkCell(row, col);
+    IdTable<T> cells = this.rows.get(this.rowIds.get(row), null);
+    if (cells == null) {
+      return this.defaultValue;
+    } // if
+    return cells.get(this.colIds.get(col), this.defaultValue);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public void set(int row, int col, T val) {
+    checkCell(row, col);
+    store(this.rowIds.get(row), this.colIds.get(col), val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.rowIds.size();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.colIds.size();
+  } // width()
+
+  /**
+   * Determine how many cells are stored, that is, how many differ from
+   * the default value.
+   *
+   * @return the number of stored cells.
+   */
+  public int storedCells() {
+    int[] count = new int[1];
+    this.rows.forEach(cells -> count[0] += cells.size());
+    return count[0];
+  } // storedCells()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @Override
+  public void insertRow(int row) {
+    if (row < 0 || row > height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    this.rowIds.insert(row, this.nextRowId++);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  @Override
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (row < 0 || row > height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    if (vals.length != width()) {
+      throw new ArraySizeException("Invalid array size for the row insertion.");
+    } // if
+    int id = this.nextRowId++;
+    this.rowIds.insert(row, id);
+    for (int col = 0; col < width(); col++) {
+      store(id, this.colIds.get(col), vals[col]);
+    } // for
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @Override
+  public void insertCol(int col) {
+    if (col < 0 || col > width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    this.colIds.insert(col, this.nextColId++);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  @Override
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (col < 0 || col > width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    if (vals.length != height()) {
+      throw new ArraySizeException(
+          "Invalid array size for the column insertion.");
+    } // if
+    int id = this.nextColId++;
+    this.colIds.insert(col, id);
+    for (int row = 0; row < height(); row++) {
+      store(this.rowIds.get(row), id, vals[row]);
+    } // for
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @Override
+  public void deleteRow(int row) {
+    if (row < 0 || row >= height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    this.rows.remove(this.rowIds.remove(row));
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @Override
+  public void deleteCol(int col) {
+    if (col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    int id = this.colIds.remove(col);
+    this.rows.removeIf(cells -> cells.remove(id) && cells.size() == 0);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix. Filling with the default
+   * value removes the stored cells in the region.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow < 0 || startCol < 0 || endRow > height()
+        || endCol > width()) {
+      throw new IndexOutOfBoundsException("Invalid region.");
+    } // if
+    if (!Objects.equals(val, this.defaultValue)) {
+      for (int row = startRow; row < endRow; row++) {
+        for (int col = startCol; col < endCol; col++) {
+          store(this.rowIds.get(row), this.colIds.get(col), val);
+        } // for col
+      } // for row
+      return;
+    } // if
+
+    boolean wholeRows = startCol == 0 && endCol == width();
+    Set<Integer> ids = null;
+    for (int row = startRow; row < endRow; row++) {
+      int rowId = this.rowIds.get(row);
+      IdTable<T> cells = this.rows.get(rowId, null);
+      if (cells == null) {
+        continue;
+      } // if
+      if (wholeRows) {
+        this.rows.remove(rowId);
+        continue;
+      } else if (endCol - startCol <= cells.size()) {
+        for (int col = startCol; col < endCol; col++) {
+          cells.remove(this.colIds.get(col));
+        } // for
+      } else {
+        // The row has fewer stored cells than the region is wide, so it is
+        // cheaper to check each stored cell.
+        if (ids == null) {
+          ids = new HashSet<>();
+          for (int col = startCol; col < endCol; col++) {
+            ids.add(this.colIds.get(col));
+          } // for
+        } // if
+        for (int colId : cells.keys()) {
+          if (ids.contains(colId)) {
+            cells.remove(colId);
+          } // if
+        } // for
+      } // if/else
+      if (cells.size() == 0) {
+        this.rows.remove(rowId);
+      } // if
+    } // for
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    int row = startRow;
+    int col = startCol;
+    while (row < endRow && col < endCol) {
+      set(row, col, val);
+      row += deltaRow;
+      col += deltaCol;
+    } // while
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The values are shared, but the structure
+   * is not.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public SparseMatrix<T> clone() {
+    try {
+      SparseMatrix<T> copy = (SparseMatrix<T>) super.clone();
+      copy.rows = this.rows.copy(cells -> cells.copy(UnaryOperator.identity()));
+      copy.rowIds = this.rowIds.clone();
+      copy.colIds = this.colIds.clone();
+      return copy;
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    } // try/catch
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return this == other
+        || (other instanceof Matrix && Cells.same(this, (Matrix<?>) other));
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Cells.hash(this);
+  } // hashCode()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Make sure a cell is in bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  private void checkCell(int row, int col) {
+    if (row < 0 || row >= height() || col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Store a value by ids, removing the cell if the value is the default.
+   *
+   * @param rowId
+   *   The id of the row.
+   * @param colId
+   *   The id of the column.
+   * @param val
+   *   The value to store.
+   */
+  private void store(int rowId, int colId, T val) {
+    IdTable<T> cells = this.rows.get(rowId, null);
+    if (Objects.equals(val, this.defaultValue)) {
+      if (cells != null && cells.remove(colId) && cells.size() == 0) {
+        this.rows.remove(rowId);
+      } // if
+    } else {
+      if (cells == null) {
+        cells = new IdTable<>();
+        this.rows.put(rowId, cells);
+      } // if
+      cells.put(colId, val);
+    } // if/else
+  } // store(int, int, T)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * Maps from non-negative int ids to values, with open addressing and
+   * linear probing. Removal shifts later entries back, so there are no
+   * tombstones.
+   *
+   * @param <V>
+   *   The type of the values, which may include null.
+   */
+  private static final class IdTable<V> {
+    /**
+     * The key of an empty slot.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * The key in each slot, or EMPTY. The length is a power of two.
+     */
+    private int[] keys;
+
+    /**
+     * The value in each slot.
+     */
+    private Object[] vals;
+
+    /**
+     * The number of entries.
+     */
+    private int size;
+
+    /**
+     * Create an empty table.
+     */
+    IdTable() {
+      this.keys = new int[4];
+      Arrays.fill(this.keys, EMPTY);
+      this.vals = new Object[4];
+    } // IdTable()
+
+    /**
+     * Determine the number of entries.
+     *
+     * @return that number.
+     */
+    int size() {
+      return this.size;
+    } // size()
+
+    /**
+     * Look up an id.
+     *
+     * @param key
+     *   The id.
+     * @param absent
+     *   What to return if the id is not in the table.
+     *
+     * @return the value for the id, or absent.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key, V absent) {
+      int mask = this.keys.length - 1;
+      for (int slot = home(key, mask); ; slot = (slot + 1) & mask) {
+        if (this.keys[slot] == key) {
+          return (V) this.vals[slot];
+        } else if (this.keys[slot] == EMPTY) {
+          return absent;
+        } // if/else
+      } // for
+    } // get(int, V)
+
+    /**
+     * Set the value for an id.
+     *
+     * @param key
+     *   The id.
+     * @param val
+     *   The value.
+     */
+    void put(int key, V val) {
+      int mask = this.keys.length - 1;
+      int slot = home(key, mask);
+      while (this.keys[slot] != key && this.keys[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      } // while
+      this.vals[slot] = val;
+      if (this.keys[slot] == EMPTY) {
+        this.keys[slot] = key;
+        if (++this.size > this.keys.length - (this.keys.length >> 2)) {
+          resize(2 * this.keys.length);
+        } // if
+      } // if
+    } // put(int, V)
+
+    /**
+     * Remove an id.
+     *
+     * @param key
+     *   The id.
+     *
+     * @return true if the id was in the table; false otherwise.
+     */
+    boolean remove(int key) {
+      int mask = this.keys.length - 1;
+      int slot = home(key, mask);
+      while (this.keys[slot] != key) {
+        if (this.keys[slot] == EMPTY) {
+          return false;
+        } // if
+        slot = (slot + 1) & mask;
+      } // while
+      // Move back each later entry of the run that could not sit in a slot
+      // before its home, so every entry stays reachable from its home.
+      int next = (slot + 1) & mask;
+      while (this.keys[next] != EMPTY) {
+        int home = home(this.keys[next], mask);
+        if (((next - home) & mask) >= ((next - slot) & mask)) {
+          this.keys[slot] = this.keys[next];
+          this.vals[slot] = this.vals[next];
+          slot = next;
+        } // if
+        next = (next + 1) & mask;
+      } // while
+      this.keys[slot] = EMPTY;
+      this.vals[slot] = null;
+      this.size--;
+      return true;
+    } // remove(int)
+
+    /**
+     * List the ids in the table.
+     *
+     * @return a new array of the ids, in no particular order.
+     */
+    int[] keys() {
+      int[] result = new int[this.size];
+      int i = 0;
+      for (int key : this.keys) {
+        if (key != EMPTY) {
+          result[i++] = key;
+        } // if
+      } // for
+      return result;
+    } // keys()
+
+    /**
+     * Do something with each value.
+     *
+     * @param action
+     *   What to do.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(Consumer<? super V> action) {
+      for (int slot = 0; slot < this.keys.length; slot++) {
+        if (this.keys[slot] != EMPTY) {
+          action.accept((V) this.vals[slot]);
+        } // if
+      } // for
+    } // forEach(Consumer<? super V>)
+
+    /**
+     * Remove the entries whose values pass a test.
+     *
+     * @param test
+     *   The test, which is called once for each value.
+     */
+    @SuppressWarnings("unchecked")
+    void removeIf(Predicate<? super V> test) {
+      boolean removed = false;
+      for (int slot = 0; slot < this.keys.length; slot++) {
+        if (this.keys[slot] != EMPTY && test.test((V) this.vals[slot])) {
+          this.keys[slot] = EMPTY;
+          this.vals[slot] = null;
+          this.size--;
+          removed = true;
+        } // if
+      } // for
+      if (removed) {
+        // Emptied slots may break runs, so put the survivors back.
+        resize(this.keys.length);
+      } // if
+    } // removeIf(Predicate<? super V>)
+
+    /**
+     * Make a copy of the table.
+     *
+     * @param copier
+     *   How to copy each value.
+     *
+     * @return the copy.
+     */
+    @SuppressWarnings("unchecked")
+    IdTable<V> copy(UnaryOperator<V> copier) {
+      IdTable<V> result = new IdTable<>();
+      result.keys = this.keys.clone();
+      result.vals = new Object[this.vals.length];
+      for (int slot = 0; slot < this.keys.length; slot++) {
+        if (this.keys[slot] != EMPTY) {
+          result.vals[slot] = copier.apply((V) this.vals[slot]);
+        } // if
+      } // for
+      result.size = this.size;
+      return result;
+    } // copy(UnaryOperator<V>)
+
+    /**
+     * Move the entries into a table with the given number of slots.
+     *
+     * @param capacity
+     *   The new number of slots, a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+      int[] oldKeys = this.keys;
+      Object[] oldVals = this.vals;
+      this.keys = new int[capacity];
+      Arrays.fill(this.keys, EMPTY);
+      this.vals = new Object[capacity];
+      this.size = 0;
+      for (int slot = 0; slot < oldKeys.length; slot++) {
+        if (oldKeys[slot] != EMPTY) {
+          put(oldKeys[slot], (V) oldVals[slot]);
+        } // if
+      } // for
+    } // resize(int)
+
+    /**
+     * Find the first slot to look in for an id. Ids are handed out in
+     * order, so they are scrambled first.
+     *
+     * @param key
+     *   The id.
+     * @param mask
+     *   One less than the number of slots.
+     *
+     * @return the slot.
+     */
+    private static int home(int key, int mask) {
+      int h = key * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & mask;
+    } // home(int, int)
+  } // class IdTable<V>
+} // class SparseMatrix<T>
@@ -0,0 +1,1627 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * Two-dimensional matrices stored as a grid of tiles, each compressed
+ * in whatever way suits its contents. This suits matrices with few
+ * distinct values laid out in long runs, such as matrices built with
+ * {@code fillRegion} and {@code fillLine}.
+ *
+ * <p>Every distinct value (by {@code equals}) gets a small int code from
+ * a {@link DictionaryMatrix.ValueTable}, and tiles hold codes rather than values. A tile is
+ * <em>constant</em> (one code for every cell), <em>run-length
+ * encoded</em> (the codes of its runs of equal cells in row-major
+ * order, with where each run ends), or <em>dense</em> (one code per
+ * cell). Setting a cell in a constant tile turns it into runs; a tile
+ * whose runs grow past a quarter of its cells becomes dense; and a
+ * dense tile checks, after as many sets as it has cells, whether it has
+ * become runs or constant again. Filling a region makes each tile it
+ * covers constant in constant time, so filling whole tiles costs time
+ * in proportion to the number of tiles rather than of cells.</p>
+ *
+ * <p>The rows are grouped into bands and the columns into stripes of
+ * about {@value #TILE} each; each tile is the part of one band in one
+ * stripe. Inserting or deleting a row changes only the tiles in its
+ * band (and, for a constant tile, only its height), and a band that
+ * grows past {@value #MAX_TILE} rows splits in two. Columns work the
+ * same way with stripes, so a change of shape costs time in proportion
+ * to the number of tiles along the edited row or column. Finding a cell
+ * takes a look-up in tables of the band of each row and the stripe of
+ * each column. A change of shape drops the table it spoils; until there
+ * have been as many look-ups as the table has entries, look-ups search
+ * the starts of the bands or stripes instead, and then the table is
+ * rebuilt, so rebuilding costs constant time per look-up. Even so,
+ * reading a cell costs several times what it does in a
+ * {@link MatrixV0}, so this suits matrices that are drawn and filled
+ * more than scanned.</p>
+ *
+ * <p>Values stay in the table after the last cell holding them
+ * changes, and cells give back the first of a group of equal values
+ * that was stored, not necessarily the one set.</p>
+ *
+ * @param <T>
+ *   The type of value stored in the matrix.
+ */
+public class TiledMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The usual height of a band and width of a stripe.
+   */
+  static final int TILE = 64;
+
+  /**
+   * The largest height of a band and width of a stripe before it splits.
+   */
+  static final int MAX_TILE = 2 * TILE;
+
+  /**
+   * The code of the default value, which is the first we encode.
+   */
+  private static final int DEFAULT = 0;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The tiles, by band and then stripe.
+   */
+  private Tile[][] tiles;
+
+  /**
+   * The first row of each band, followed by the height.
+   */
+  private int[] rowStarts;
+
+  /**
+   * The first column of each stripe, followed by the width.
+   */
+  private int[] colStarts;
+
+  /**
+   * The values of the codes.
+   */
+  private DictionaryMatrix.ValueTable<T> table;
+
+  /**
+   * The band of each row, or null if rows have come or gone since we
+   * built it.
+   */
+  private int[] rowBands;
+
+  /**
+   * The stripe of each column, or null if columns have come or gone
+   * since we built it.
+   */
+  private int[] colStripes;
+
+  /**
+   * The number of look-ups of rows since we dropped rowBands.
+   */
+  private int rowSearches;
+
+  /**
+   * The number of look-ups of columns since we dropped colStripes.
+   */
+  private int colSearches;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public TiledMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException(
+          "Width and height must be non-negative.");
+    } // if
+    this.table = new DictionaryMatrix.ValueTable<>();
+    this.table.encode(def);
+    this.rowStarts = starts(height);
+    this.colStarts = starts(width);
+    this.rowBands = index(this.rowStarts);
+    this.colStripes = index(this.colStarts);
+    this.tiles = new Tile[this.rowStarts.length - 1][this.colStarts.length - 1];
+    for (int band = 0; band < this.tiles.length; band++) {
+      for (int stripe = 0; stripe < this.tiles[band].length; stripe++) {
+        this.tiles[band][stripe] = new ConstantTile(bandHeight(band),
+            stripeWidth(stripe), DEFAULT);
+      } // for stripe
+    } // for band
+  } // TiledMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public TiledMatrix(int width, int height) {
+    this(width, height, null);
+  } // TiledMatrix(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public T get(int row, int col) {
+    checkCell(row, col);
+    int band = bandOf(row);
+    int stripe = stripeOf(col);
+    return this.table.decode(this.tiles[band][stripe].get(
+        row - this.rowStarts[band], col - this.colStarts[stripe]));
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @Override
+  public void set(int row, int col, T val) {
+    checkCell(row, col);
+    int code = this.table.encode(val);
+    int band = bandOf(row);
+    int stripe = stripeOf(col);
+    this.tiles[band][stripe] = this.tiles[band][stripe].set(
+        row - this.rowStarts[band], col - this.colStarts[stripe], code);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int height() {
+    return this.rowStarts[this.rowStarts.length - 1];
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  @Override
+  public int width() {
+    return this.colStarts[this.colStarts.length - 1];
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @Override
+  public void insertRow(int row) {
+    if (row < 0 || row > height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    if (this.tiles.length == 0) {
+      Tile[] band = new Tile[this.colStarts.length - 1];
+      for (int stripe = 0; stripe < band.length; stripe++) {
+        band[stripe] = new ConstantTile(0, stripeWidth(stripe), DEFAULT);
+      } // for
+      this.tiles = new Tile[][] {band};
+      this.rowStarts = new int[] {0, 0};
+    } // if
+    int band = row == height() ? this.tiles.length - 1 : bandOf(row);
+    int local = row - this.rowStarts[band];
+    Tile[] tilesOfBand = this.tiles[band];
+    for (int stripe = 0; stripe < tilesOfBand.length; stripe++) {
+      tilesOfBand[stripe] = tilesOfBand[stripe].insertRow(local, DEFAULT);
+    } // for
+    for (int i = band + 1; i < this.rowStarts.length; i++) {
+      this.rowStarts[i]++;
+    } // for
+    if (bandHeight(band) > MAX_TILE) {
+      splitBand(band);
+    } // if
+    dropRowBands();
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  @Override
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (row < 0 || row > height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    if (vals.length != width()) {
+      throw new ArraySizeException("Invalid array size for the row insertion.");
+    } // if
+    insertRow(row);
+    for (int col = 0; col < vals.length; col++) {
+      set(row, col, vals[col]);
+    } // for
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @Override
+  public void insertCol(int col) {
+    if (col < 0 || col > width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    if (this.colStarts.length == 1) {
+      for (int band = 0; band < this.tiles.length; band++) {
+        this.tiles[band] = new Tile[] {
+            new ConstantTile(bandHeight(band), 0, DEFAULT)};
+      } // for
+      this.colStarts = new int[] {0, 0};
+    } // if
+    int stripe = col == width() ? this.colStarts.length - 2 : stripeOf(col);
+    int local = col - this.colStarts[stripe];
+    for (Tile[] tilesOfBand : this.tiles) {
+      tilesOfBand[stripe] = tilesOfBand[stripe].insertCol(local, DEFAULT);
+    } // for
+    for (int i = stripe + 1; i < this.colStarts.length; i++) {
+      this.colStarts[i]++;
+    } // for
+    if (stripeWidth(stripe) > MAX_TILE) {
+      splitStripe(stripe);
+    } // if
+    dropColStripes();
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  @Override
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (col < 0 || col > width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    if (vals.length != height()) {
+      throw new ArraySizeException(
+          "Invalid array size for the column insertion.");
+    } // if
+    insertCol(col);
+    for (int row = 0; row < vals.length; row++) {
+      set(row, col, vals[row]);
+    } // for
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @Override
+  public void deleteRow(int row) {
+    if (row < 0 || row >= height()) {
+      throw new IndexOutOfBoundsException("Invalid row index.");
+    } // if
+    int band = bandOf(row);
+    int local = row - this.rowStarts[band];
+    Tile[] tilesOfBand = this.tiles[band];
+    for (int stripe = 0; stripe < tilesOfBand.length; stripe++) {
+      tilesOfBand[stripe] = tilesOfBand[stripe].deleteRow(local);
+    } // for
+    for (int i = band + 1; i < this.rowStarts.length; i++) {
+      this.rowStarts[i]--;
+    } // for
+    if (bandHeight(band) == 0) {
+      this.tiles = remove(this.tiles, band);
+      this.rowStarts = remove(this.rowStarts, band + 1);
+    } // if
+    dropRowBands();
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @Override
+  public void deleteCol(int col) {
+    if (col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid column index.");
+    } // if
+    int stripe = stripeOf(col);
+    int local = col - this.colStarts[stripe];
+    for (Tile[] tilesOfBand : this.tiles) {
+      tilesOfBand[stripe] = tilesOfBand[stripe].deleteCol(local);
+    } // for
+    for (int i = stripe + 1; i < this.colStarts.length; i++) {
+      this.colStarts[i]--;
+    } // for
+    if (stripeWidth(stripe) == 0) {
+      for (int band = 0; band < this.tiles.length; band++) {
+        this.tiles[band] = remove(this.tiles[band], stripe);
+      } // for
+      this.colStarts = remove(this.colStarts, stripe + 1);
+    } // if
+    dropColStripes();
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix. Tiles that the region
+   * covers become constant, whatever they held before.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow < 0 || startCol < 0 || endRow > height()
+        || endCol > width()) {
+      throw new IndexOutOfBoundsException("Invalid region.");
+    } // if
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } // if
+    int code = this.table.encode(val);
+    int lastBandOfRegion = bandOf(endRow - 1);
+    int firstStripe = stripeOf(startCol);
+    int lastStripeOfRegion = stripeOf(endCol - 1);
+    for (int band = bandOf(startRow); band <= lastBandOfRegion; band++) {
+      int top = this.rowStarts[band];
+      int fromRow = Math.max(startRow, top) - top;
+      int toRow = Math.min(endRow, this.rowStarts[band + 1]) - top;
+      for (int stripe = firstStripe; stripe <= lastStripeOfRegion; stripe++) {
+        int left = this.colStarts[stripe];
+        int fromCol = Math.max(startCol, left) - left;
+        int toCol = Math.min(endCol, this.colStarts[stripe + 1]) - left;
+        this.tiles[band][stripe] = this.tiles[band][stripe].fill(fromRow,
+            fromCol, toRow, toCol, code);
+      } // for stripe
+    } // for band
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  @Override
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    int row = startRow;
+    int col = startCol;
+    while (row < endRow && col < endCol) {
+      set(row, col, val);
+      row += deltaRow;
+      col += deltaCol;
+    } // while
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The values are shared, but the tiles
+   * and the table are not.
+   *
+   * @return a copy of the matrix.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public TiledMatrix<T> clone() {
+    try {
+      TiledMatrix<T> copy = (TiledMatrix<T>) super.clone();
+      copy.tiles = new Tile[this.tiles.length][];
+      for (int band = 0; band < this.tiles.length; band++) {
+        copy.tiles[band] = new Tile[this.tiles[band].length];
+        for (int stripe = 0; stripe < this.tiles[band].length; stripe++) {
+          copy.tiles[band][stripe] = this.tiles[band][stripe].copy();
+        } // for stripe
+      } // for band
+      copy.rowStarts = this.rowStarts.clone();
+      copy.colStarts = this.colStarts.clone();
+      copy.table = this.table.copy();
+      return copy;
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    } // try/catch
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to which we compare ourselves.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return this == other
+        || (other instanceof Matrix && Cells.same(this, (Matrix<?>) other));
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for the matrix.
+   *
+   * @return the hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Cells.hash(this);
+  } // hashCode()
+
+  /**
+   * Determine how many distinct values the table holds, including
+   * the default and any values no cell holds any longer.
+   *
+   * @return the number of values.
+   */
+  public int distinctValues() {
+    return this.table.size();
+  } // distinctValues()
+
+  /**
+   * Count the tiles of each kind.
+   *
+   * @return the numbers of constant, run-length encoded, and dense
+   *   tiles, in that order.
+   */
+  int[] tileCounts() {
+    int[] counts = new int[3];
+    for (Tile[] tilesOfBand : this.tiles) {
+      for (Tile tile : tilesOfBand) {
+        counts[tile.kind()]++;
+      } // for
+    } // for
+    return counts;
+  } // tileCounts()
+
+  /**
+   * Count the ints the tiles store, which is most of the memory the
+   * cells take.
+   *
+   * @return the number of ints.
+   */
+  long storedCodes() {
+    long count = 0;
+    for (Tile[] tilesOfBand : this.tiles) {
+      for (Tile tile : tilesOfBand) {
+        count += tile.footprint();
+      } // for
+    } // for
+    return count;
+  } // storedCodes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Make sure a cell is in bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  private void checkCell(int row, int col) {
+    if (row < 0 || row >= height() || col < 0 || col >= width()) {
+      throw new IndexOutOfBoundsException("Invalid row or column index.");
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Find the band that holds a row.
+   *
+   * @param row
+   *   The row, which must be in bounds.
+   *
+   * @return the band.
+   */
+  private int bandOf(int row) {
+    int[] bands = this.rowBands;
+    return bands != null ? bands[row] : searchBand(row);
+  } // bandOf(int)
+
+  /**
+   * Find the band that holds a row while we have no table, building the
+   * table once enough look-ups have paid for it.
+   *
+   * @param row
+   *   The row, which must be in bounds.
+   *
+   * @return the band.
+   */
+  private int searchBand(int row) {
+    if (++this.rowSearches < this.rowStarts[this.rowStarts.length - 1]) {
+      return find(this.rowStarts, row);
+    } // if
+    this.rowBands = index(this.rowStarts);
+    return this.rowBands[row];
+  } // searchBand(int)
+
+  /**
+   * Find the stripe that holds a column.
+   *
+   * @param col
+   *   The column, which must be in bounds.
+   *
+   * @return the stripe.
+   */
+  private int stripeOf(int col) {
+    int[] stripes = this.colStripes;
+    return stripes != null ? stripes[col] : searchStripe(col);
+  } // stripeOf(int)
+
+  /**
+   * Find the stripe that holds a column while we have no table,
+   * building the table once enough look-ups have paid for it.
+   *
+   * @param col
+   *   The column, which must be in bounds.
+   *
+   * @return the stripe.
+   */
+  private int searchStripe(int col) {
+    if (++this.colSearches < this.colStarts[this.colStarts.length - 1]) {
+      return find(this.colStarts, col);
+    } // if
+    this.colStripes = index(this.colStarts);
+    return this.colStripes[col];
+  } // searchStripe(int)
+
+  /**
+   * Forget the band of each row, after rows come or go.
+   */
+  private void dropRowBands() {
+    this.rowBands = null;
+    this.rowSearches = 0;
+  } // dropRowBands()
+
+  /**
+   * Forget the stripe of each column, after columns come or go.
+   */
+  private void dropColStripes() {
+    this.colStripes = null;
+    this.colSearches = 0;
+  } // dropColStripes()
+
+  /**
+   * Determine the height of a band.
+   *
+   * @param band
+   *   The band.
+   *
+   * @return its height.
+   */
+  private int bandHeight(int band) {
+    return this.rowStarts[band + 1] - this.rowStarts[band];
+  } // bandHeight(int)
+
+  /**
+   * Determine the width of a stripe.
+   *
+   * @param stripe
+   *   The stripe.
+   *
+   * @return its width.
+   */
+  private int stripeWidth(int stripe) {
+    return this.colStarts[stripe + 1] - this.colStarts[stripe];
+  } // stripeWidth(int)
+
+  /**
+   * Split a band into two of half the height.
+   *
+   * @param band
+   *   The band.
+   */
+  private void splitBand(int band) {
+    int height = bandHeight(band);
+    int mid = height / 2;
+    Tile[] top = this.tiles[band];
+    Tile[] bottom = new Tile[top.length];
+    for (int stripe = 0; stripe < top.length; stripe++) {
+      Tile tile = top[stripe];
+      bottom[stripe] = tile.slice(mid, height, 0, tile.cols);
+      top[stripe] = tile.slice(0, mid, 0, tile.cols);
+    } // for
+    this.tiles = insert(this.tiles, band + 1, bottom);
+    this.rowStarts = insert(this.rowStarts, band + 1,
+        this.rowStarts[band] + mid);
+  } // splitBand(int)
+
+  /**
+   * Split a stripe into two of half the width.
+   *
+   * @param stripe
+   *   The stripe.
+   */
+  private void splitStripe(int stripe) {
+    int width = stripeWidth(stripe);
+    int mid = width / 2;
+    for (int band = 0; band < this.tiles.length; band++) {
+      Tile tile = this.tiles[band][stripe];
+      this.tiles[band] = insert(this.tiles[band], stripe + 1,
+          tile.slice(0, tile.rows, mid, width));
+      this.tiles[band][stripe] = tile.slice(0, tile.rows, 0, mid);
+    } // for
+    this.colStarts = insert(this.colStarts, stripe + 1,
+        this.colStarts[stripe] + mid);
+  } // splitStripe(int)
+
+  /**
+   * Divide a length into pieces of TILE, with the remainder last.
+   *
+   * @param length
+   *   The length.
+   *
+   * @return the start of each piece, followed by the length.
+   */
+  private static int[] starts(int length) {
+    int pieces = (length + TILE - 1) / TILE;
+    int[] result = new int[pieces + 1];
+    for (int i = 0; i < pieces; i++) {
+      result[i] = i * TILE;
+    } // for
+    result[pieces] = length;
+    return result;
+  } // starts(int)
+
+  /**
+   * Find the piece that holds a position by binary search.
+   *
+   * @param starts
+   *   The start of each piece, followed by the length.
+   * @param pos
+   *   The position, which must be in bounds.
+   *
+   * @return the last piece that starts at or before the position.
+   */
+  private static int find(int[] starts, int pos) {
+    int lo = 0;
+    int hi = starts.length - 2;
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (starts[mid] <= pos) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      } // if/else
+    } // while
+    return lo;
+  } // find(int[], int)
+
+  /**
+   * Build a table of the piece that holds each position.
+   *
+   * @param starts
+   *   The start of each piece, followed by the length.
+   *
+   * @return the piece of each position.
+   */
+  private static int[] index(int[] starts) {
+    int[] result = new int[starts[starts.length - 1]];
+    for (int piece = 0; piece < starts.length - 1; piece++) {
+      Arrays.fill(result, starts[piece], starts[piece + 1], piece);
+    } // for
+    return result;
+  } // index(int[])
+
+  /**
+   * Insert a value into a copy of an array.
+   *
+   * @param array
+   *   The array.
+   * @param index
+   *   Where the value goes.
+   * @param val
+   *   The value.
+   *
+   * @return the longer copy.
+   */
+  private static int[] insert(int[] array, int index, int val) {
+    int[] result = new int[array.length + 1];
+    System.arraycopy(array, 0, result, 0, index);
+    result[index] = val;
+    System.arraycopy(array, index, result, index + 1, array.length - index);
+    return result;
+  } // insert(int[], int, int)
+
+  /**
+   * Insert a value into a copy of an array.
+   *
+   * @param <E>
+   *   The type of the elements.
+   * @param array
+   *   The array.
+   * @param index
+   *   Where the value goes.
+   * @param val
+   *   The value.
+   *
+   * @return the longer copy.
+   */
+  private static <E> E[] insert(E[] array, int index, E val) {
+    E[] result = Arrays.copyOf(array, array.length + 1);
+    System.arraycopy(array, index, result, index + 1, array.length - index);
+    result[index] = val;
+    return result;
+  } // insert(E[], int, E)
+
+  /**
+   * Remove a value from a copy of an array.
+   *
+   * @param array
+   *   The array.
+   * @param index
+   *   The value to remove.
+   *
+   * @return the shorter copy.
+   */
+  private static int[] remove(int[] array, int index) {
+    int[] result = Arrays.copyOf(array, array.length - 1);
+    System.arraycopy(array, index + 1, result, index, result.length - index);
+    return result;
+  } // remove(int[], int)
+
+  /**
+   * Remove a value from a copy of an array.
+   *
+   * @param <E>
+   *   The type of the elements.
+   * @param array
+   *   The array.
+   * @param index
+   *   The value to remove.
+   *
+   * @return the shorter copy.
+   */
+  private static <E> E[] remove(E[] array, int index) {
+    E[] result = Arrays.copyOf(array, array.length - 1);
+    System.arraycopy(array, index + 1, result, index, result.length - index);
+    return result;
+  } // remove(E[], int)
+
+  // +---------+-----------------------------------------------------
+  // | Classes |
+  // +---------+
+
+  /**
+   * The codes of the cells in one band and stripe. Operations that
+   * change a tile return the tile to use from then on, which may be of
+   * another kind.
+   */
+  private abstract static class Tile {
+    /**
+     * The number of rows.
+     */
+    int rows;
+
+    /**
+     * The number of columns.
+     */
+    int cols;
+
+    /**
+     * Create a tile.
+     *
+     * @param rows
+     *   The number of rows.
+     * @param cols
+     *   The number of columns.
+     */
+    Tile(int rows, int cols) {
+      this.rows = rows;
+      this.cols = cols;
+    } // Tile(int, int)
+
+    /**
+     * Make the best tile for some codes.
+     *
+     * @param rows
+     *   The number of rows.
+     * @param cols
+     *   The number of columns.
+     * @param cells
+     *   The codes, in row-major order, which the tile may keep.
+     *
+     * @return the tile.
+     */
+    static Tile of(int rows, int cols, int[] cells) {
+      int runs = countRuns(cells, cells.length / 4);
+      if (runs <= 1) {
+        return new ConstantTile(rows, cols,
+            cells.length == 0 ? DEFAULT : cells[0]);
+      } else if (runs <= cells.length / 4) {
+        return new RunTile(rows, cols, cells, runs);
+      } else {
+        return new DenseTile(rows, cols, cells);
+      } // if/else
+    } // of(int, int, int[])
+
+    /**
+     * Count the runs of equal codes, giving up past a limit.
+     *
+     * @param cells
+     *   The codes.
+     * @param limit
+     *   The count past which we stop counting.
+     *
+     * @return the number of runs, or, if that is more than limit, some
+     *   number more than limit and 1.
+     */
+    static int countRuns(int[] cells, int limit) {
+      if (cells.length == 0) {
+        return 0;
+      } // if
+      int stop = Math.max(limit, 1);
+      int runs = 1;
+      for (int i = 1; i < cells.length && runs <= stop; i++) {
+        if (cells[i] != cells[i - 1]) {
+          runs++;
+        } // if
+      } // for
+      return runs;
+    } // countRuns(int[], int)
+
+    /**
+     * Get the code of a cell.
+     *
+     * @param row
+     *   The row of the cell.
+     * @param col
+     *   The column of the cell.
+     *
+     * @return the code.
+     */
+    abstract int get(int row, int col);
+
+    /**
+     * Set the code of a cell.
+     *
+     * @param row
+     *   The row of the cell.
+     * @param col
+     *   The column of the cell.
+     * @param code
+     *   The code.
+     *
+     * @return the tile to use from now on.
+     */
+    abstract Tile set(int row, int col, int code);
+
+    /**
+     * Get the codes of all the cells, in a new array.
+     *
+     * @return the codes, in row-major order.
+     */
+    abstract int[] decode();
+
+    /**
+     * Make a copy that changes independently of this tile.
+     *
+     * @return the copy.
+     */
+    abstract Tile copy();
+
+    /**
+     * Identify the kind of tile, for {@link TiledMatrix#tileCounts}.
+     *
+     * @return 0 for constant, 1 for runs, and 2 for dense.
+     */
+    abstract int kind();
+
+    /**
+     * Count the ints the tile stores.
+     *
+     * @return that number.
+     */
+    abstract int footprint();
+
+    /**
+     * Fill a region of the tile.
+     *
+     * @param fromRow
+     *   The first row (inclusive).
+     * @param fromCol
+     *   The first column (inclusive).
+     * @param toRow
+     *   The last row (exclusive).
+     * @param toCol
+     *   The last column (exclusive).
+     * @param code
+     *   The code.
+     *
+     * @return the tile to use from now on.
+     */
+    Tile fill(int fromRow, int fromCol, int toRow, int toCol, int code) {
+      if (fromRow == 0 && fromCol == 0 && toRow == this.rows
+          && toCol == this.cols) {
+        return new ConstantTile(this.rows, this.cols, code);
+      } // if
+      int[] cells = decode();
+      for (int row = fromRow; row < toRow; row++) {
+        Arrays.fill(cells, row * this.cols + fromCol, row * this.cols + toCol,
+            code);
+      } // for
+      return of(this.rows, this.cols, cells);
+    } // fill(int, int, int, int, int)
+
+    /**
+     * Insert a row.
+     *
+     * @param row
+     *   Where the row goes.
+     * @param code
+     *   The code of its cells.
+     *
+     * @return the tile to use from now on.
+     */
+    Tile insertRow(int row, int code) {
+      int[] cells = decode();
+      int at = row * this.cols;
+      int[] result = new int[cells.length + this.cols];
+      System.arraycopy(cells, 0, result, 0, at);
+      Arrays.fill(result, at, at + this.cols, code);
+      System.arraycopy(cells, at, result, at + this.cols, cells.length - at);
+      return of(this.rows + 1, this.cols, result);
+    } // insertRow(int, int)
+
+    /**
+     * Delete a row.
+     *
+     * @param row
+     *   The row.
+     *
+     * @return the tile to use from now on.
+     */
+    Tile deleteRow(int row) {
+      int[] cells = decode();
+      int at = row * this.cols;
+      int[] result = new int[cells.length - this.cols];
+      System.arraycopy(cells, 0, result, 0, at);
+      System.arraycopy(cells, at + this.cols, result, at, result.length - at);
+      return of(this.rows - 1, this.cols, result);
+    } // deleteRow(int)
+
+    /**
+     * Insert a column.
+     *
+     * @param col
+     *   Where the column goes.
+     * @param code
+     *   The code of its cells.
+     *
+     * @return the tile to use from now on.
+     */
+    Tile insertCol(int col, int code) {
+      int[] cells = decode();
+      int wider = this.cols + 1;
+      int[] result = new int[this.rows * wider];
+      for (int row = 0; row < this.rows; row++) {
+        System.arraycopy(cells, row * this.cols, result, row * wider, col);
+        result[row * wider + col] = code;
+        System.arraycopy(cells, row * this.cols + col, result,
+            row * wider + col + 1, this.cols - col);
+      } // for
+      return of(this.rows, wider, result);
+    } // insertCol(int, int)
+
+    /**
+     * Delete a column.
+     *
+     * @param col
+     *   The column.
+     *
+     * @return the tile to use from now on.
+     */
+    Tile deleteCol(int col) {
+      int[] cells = decode();
+      int narrower = this.cols - 1;
+      int[] result = new int[this.rows * narrower];
+      for (int row = 0; row < this.rows; row++) {
+        System.arraycopy(cells, row * this.cols, result, row * narrower, col);
+        System.arraycopy(cells, row * this.cols + col + 1, result,
+            row * narrower + col, narrower - col);
+      } // for
+      return of(this.rows, narrower, result);
+    } // deleteCol(int)
+
+    /**
+     * Make a new tile from a region of this one.
+     *
+     * @param fromRow
+     *   The first row (inclusive).
+     * @param toRow
+     *   The last row (exclusive).
+     * @param fromCol
+     *   The first column (inclusive).
+     * @param toCol
+     *   The last column (exclusive).
+     *
+     * @return the new tile.
+     */
+    Tile slice(int fromRow, int toRow, int fromCol, int toCol) {
+      int[] cells = decode();
+      int width = toCol - fromCol;
+      int[] result = new int[(toRow - fromRow) * width];
+      for (int row = fromRow; row < toRow; row++) {
+        System.arraycopy(cells, row * this.cols + fromCol, result,
+            (row - fromRow) * width, width);
+      } // for
+      return of(toRow - fromRow, width, result);
+    } // slice(int, int, int, int)
+  } // class Tile
+
+  /**
+   * A tile whose cells all have the same code.
+   */
+  private static final class ConstantTile extends Tile {
+    /**
+     * The code.
+     */
+    private final int code;
+
+    /**
+     * Create a tile.
+     *
+     * @param rows
+     *   The number of rows.
+     * @param cols
+     *   The number of columns.
+     * @param code
+     *   The code of every cell.
+     */
+    ConstantTile(int rows, int cols, int code) {
+      super(rows, cols);
+      this.code = code;
+    } // ConstantTile(int, int, int)
+
+    @Override
+    int get(int row, int col) {
+      return this.code;
+    } // get(int, int)
+
+    @Override
+    Tile set(int row, int col, int newCode) {
+      if (newCode == this.code) {
+        return this;
+      } // if
+      return new RunTile(this.rows, this.cols, this.code).set(row, col, newCode);
+    } // set(int, int, int)
+
+    @Override
+    int[] decode() {
+      int[] cells = new int[this.rows * this.cols];
+      Arrays.fill(cells, this.code);
+      return cells;
+    } // decode()
+
+    @Override
+    Tile copy() {
+      return new ConstantTile(this.rows, this.cols, this.code);
+    } // copy()
+
+    @Override
+    int kind() {
+      return 0;
+    } // kind()
+
+    @Override
+    int footprint() {
+      return 1;
+    } // footprint()
+
+    @Override
+    Tile fill(int fromRow, int fromCol, int toRow, int toCol, int newCode) {
+      if (newCode == this.code) {
+        return this;
+      } // if
+      return super.fill(fromRow, fromCol, toRow, toCol, newCode);
+    } // fill(int, int, int, int, int)
+
+    @Override
+    Tile insertRow(int row, int newCode) {
+      if (newCode != this.code) {
+        return super.insertRow(row, newCode);
+      } // if
+      this.rows++;
+      return this;
+    } // insertRow(int, int)
+
+    @Override
+    Tile deleteRow(int row) {
+      this.rows--;
+      return this;
+    } // deleteRow(int)
+
+    @Override
+    Tile insertCol(int col, int newCode) {
+      if (newCode != this.code) {
+        return super.insertCol(col, newCode);
+      } // if
+      this.cols++;
+      return this;
+    } // insertCol(int, int)
+
+    @Override
+    Tile deleteCol(int col) {
+      this.cols--;
+      return this;
+    } // deleteCol(int)
+
+    @Override
+    Tile slice(int fromRow, int toRow, int fromCol, int toCol) {
+      return new ConstantTile(toRow - fromRow, toCol - fromCol, this.code);
+    } // slice(int, int, int, int)
+  } // class ConstantTile
+
+  /**
+   * A tile stored as runs of equal codes in row-major order.
+   */
+  private static final class RunTile extends Tile {
+    /**
+     * Where each run ends (exclusive), as an index in row-major order.
+     */
+    private int[] ends;
+
+    /**
+     * The code of each run.
+     */
+    private int[] codes;
+
+    /**
+     * The number of runs.
+     */
+    private int runs;
+
+    /**
+     * The run of the last cell we got, since reads tend to go in order.
+     */
+    private int cursor;
+
+    /**
+     * Create a tile of one run.
+     *
+     * @param rows
+     *   The number of rows.
+     * @param cols
+     *   The number of columns.
+     * @param code
+     *   The code of every cell.
+     */
+    RunTile(int rows, int cols, int code) {
+      super(rows, cols);
+      this.ends = new int[] {rows * cols};
+      this.codes = new int[] {code};
+      this.runs = rows * cols == 0 ? 0 : 1;
+    } // RunTile(int, int, int)
+
+    /**
+     * Create a tile from the codes of its cells.
+     *
+     * @param rows
+     *   The number of rows.
+     * @param cols
+     *   The number of columns.
+     * @param cells
+     *   The codes, in row-major order.
+     * @param runs
+     *   The number of runs in cells.
+     */
+    RunTile(int rows, int cols, int[] cells, int runs) {
+      super(rows, cols);
+      this.ends = new int[runs];
+      this.codes = new int[runs];
+      int run = 0;
+      for (int i = 1; i <= cells.length; i++) {
+        if (i == cells.length || cells[i] != cells[i - 1]) {
+          this.ends[run] = i;
+          this.codes[run] = cells[i - 1];
+          run++;
+        } // if
+      } // for
+      this.runs = runs;
+    } // RunTile(int, int, int[], int)
+
+    @Override
+    int get(int row, int col) {
+      int index = row * this.cols + col;
+      int run = this.cursor;
+      if (run < this.runs && index < this.ends[run]
+          && (run == 0 || index >= this.ends[run - 1])) {
+        return this.codes[run];
+      } // if
+      run++;
+      if (run < this.runs && index < this.ends[run]
+          && index >= this.ends[run - 1]) {
+        this.cursor = run;
+        return this.codes[run];
+      } // if
+      int lo = 0;
+      int hi = this.runs - 1;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (this.ends[mid] <= index) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        } // if/else
+      } // while
+      this.cursor = lo;
+      return this.codes[lo];
+    } // get(int, int)
+
+    @Override
+    Tile set(int row, int col, int code) {
+      if (get(row, col) == code) {
+        return this;
+      } // if
+      int index = row * this.cols + col;
+      splice(index, index + 1, 1, code);
+      return settle();
+    } // set(int, int, int)
+
+    @Override
+    int[] decode() {
+      int[] cells = new int[this.rows * this.cols];
+      int start = 0;
+      for (int run = 0; run < this.runs; run++) {
+        Arrays.fill(cells, start, this.ends[run], this.codes[run]);
+        start = this.ends[run];
+      } // for
+      return cells;
+    } // decode()
+
+    @Override
+    Tile copy() {
+      RunTile copy = new RunTile(this.rows, this.cols, DEFAULT);
+      copy.ends = this.ends.clone();
+      copy.codes = this.codes.clone();
+      copy.runs = this.runs;
+      return copy;
+    } // copy()
+
+    @Override
+    int kind() {
+      return 1;
+    } // kind()
+
+    @Override
+    int footprint() {
+      return this.ends.length + this.codes.length;
+    } // footprint()
+
+    @Override
+    Tile fill(int fromRow, int fromCol, int toRow, int toCol, int code) {
+      if (fromRow == 0 && fromCol == 0 && toRow == this.rows
+          && toCol == this.cols) {
+        return new ConstantTile(this.rows, this.cols, code);
+      } // if
+      if (fromCol == 0 && toCol == this.cols) {
+        splice(fromRow * this.cols, toRow * this.cols,
+            (toRow - fromRow) * this.cols, code);
+      } else {
+        for (int row = fromRow; row < toRow; row++) {
+          splice(row * this.cols + fromCol, row * this.cols + toCol,
+              toCol - fromCol, code);
+        } // for
+      } // if/else
+      return settle();
+    } // fill(int, int, int, int, int)
+
+    @Override
+    Tile insertRow(int row, int code) {
+      splice(row * this.cols, row * this.cols, this.cols, code);
+      this.rows++;
+      return settle();
+    } // insertRow(int, int)
+
+    @Override
+    Tile deleteRow(int row) {
+      splice(row * this.cols, (row + 1) * this.cols, 0, DEFAULT);
+      this.rows--;
+      return settle();
+    } // deleteRow(int)
+
+    /**
+     * Replace a range of cells with some number of cells of one code.
+     *
+     * @param from
+     *   The start of the range (inclusive).
+     * @param to
+     *   The end of the range (exclusive).
+     * @param count
+     *   The number of new cells.
+     * @param code
+     *   The code of the new cells.
+     */
+    private void splice(int from, int to, int count, int code) {
+      int[] newEnds = new int[this.runs + 2];
+      int[] newCodes = new int[this.runs + 2];
+      int length = 0;
+      int run = 0;
+      // The runs before the range, cutting the one that crosses from
+      while (run < this.runs && this.ends[run] <= from) {
+        length = append(newEnds, newCodes, length, this.ends[run],
+            this.codes[run]);
+        run++;
+      } // while
+      if (run < this.runs) {
+        length = append(newEnds, newCodes, length, from, this.codes[run]);
+      } // if
+      length = append(newEnds, newCodes, length, from + count, code);
+      // The runs after the range, moved by the change in length
+      while (run < this.runs && this.ends[run] <= to) {
+        run++;
+      } // while
+      int shift = count - (to - from);
+      for (; run < this.runs; run++) {
+        length = append(newEnds, newCodes, length, this.ends[run] + shift,
+            this.codes[run]);
+      } // for
+      this.ends = newEnds;
+      this.codes = newCodes;
+      this.runs = length;
+    } // splice(int, int, int, int)
+
+    /**
+     * Add a run to the end of some runs, merging it with the last one
+     * if they have the same code, and dropping it if it is empty.
+     *
+     * @param ends
+     *   Where each run ends.
+     * @param codes
+     *   The code of each run.
+     * @param length
+     *   The number of runs so far.
+     * @param end
+     *   Where the new run ends.
+     * @param code
+     *   Its code.
+     *
+     * @return the new number of runs.
+     */
+    private static int append(int[] ends, int[] codes, int length, int end,
+        int code) {
+      if (end == (length == 0 ? 0 : ends[length - 1])) {
+        return length;
+      } // if
+      if (length > 0 && codes[length - 1] == code) {
+        ends[length - 1] = end;
+        return length;
+      } // if
+      ends[length] = end;
+      codes[length] = code;
+      return length + 1;
+    } // append(int[], int[], int, int, int)
+
+    /**
+     * Choose the tile to use after a change.
+     *
+     * @return a constant tile if there is one run, a dense tile if there
+     *   are too many, and this tile otherwise.
+     */
+    private Tile settle() {
+      int cells = this.rows * this.cols;
+      if (this.runs <= 1) {
+        return new ConstantTile(this.rows, this.cols,
+            this.runs == 0 ? DEFAULT : this.codes[0]);
+      } else if (this.runs > cells / 4) {
+        return new DenseTile(this.rows, this.cols, decode());
+      } // if/else
+      return this;
+    } // settle()
+  } // class RunTile
+
+  /**
+   * A tile with a code for every cell.
+   */
+  private static final class DenseTile extends Tile {
+    /**
+     * The codes, in row-major order.
+     */
+    private final int[] cells;
+
+    /**
+     * The number of cells changed since we last checked whether another
+     * kind of tile would be smaller.
+     */
+    private int changes;
+
+    /**
+     * Create a tile.
+     *
+     * @param rows
+     *   The number of rows.
+     * @param cols
+     *   The number of columns.
+     * @param cells
+     *   The codes, in row-major order, which the tile keeps.
+     */
+    DenseTile(int rows, int cols, int[] cells) {
+      super(rows, cols);
+      this.cells = cells;
+    } // DenseTile(int, int, int[])
+
+    @Override
+    int get(int row, int col) {
+      return this.cells[row * this.cols + col];
+    } // get(int, int)
+
+    @Override
+    Tile set(int row, int col, int code) {
+      int index = row * this.cols + col;
+      if (this.cells[index] == code) {
+        return this;
+      } // if
+      this.cells[index] = code;
+      return changed(1);
+    } // set(int, int, int)
+
+    @Override
+    int[] decode() {
+      return this.cells.clone();
+    } // decode()
+
+    @Override
+    Tile copy() {
+      return new DenseTile(this.rows, this.cols, this.cells.clone());
+    } // copy()
+
+    @Override
+    int kind() {
+      return 2;
+    } // kind()
+
+    @Override
+    int footprint() {
+      return this.cells.length;
+    } // footprint()
+
+    @Override
+    Tile fill(int fromRow, int fromCol, int toRow, int toCol, int code) {
+      if (fromRow == 0 && fromCol == 0 && toRow == this.rows
+          && toCol == this.cols) {
+        return new ConstantTile(this.rows, this.cols, code);
+      } // if
+      for (int row = fromRow; row < toRow; row++) {
+        Arrays.fill(this.cells, row * this.cols + fromCol,
+            row * this.cols + toCol, code);
+      } // for
+      return changed((toRow - fromRow) * (toCol - fromCol));
+    } // fill(int, int, int, int, int)
+
+    /**
+     * Note that some cells changed, and once as many have changed as
+     * the tile has cells, switch to runs if they take an eighth of the
+     * space or less. (Runs switch back to dense at a quarter, so a tile
+     * near the line does not switch back and forth.)
+     *
+     * @param count
+     *   The number of cells that changed.
+     *
+     * @return the tile to use from now on.
+     */
+    private Tile changed(int count) {
+      this.changes += count;
+      if (this.changes < this.cells.length) {
+        return this;
+      } // if
+      this.changes = 0;
+      int limit = this.cells.length / 8;
+      int runs = countRuns(this.cells, limit);
+      if (runs <= 1) {
+        return new ConstantTile(this.rows, this.cols, this.cells[0]);
+      } else if (runs <= limit) {
+        return new RunTile(this.rows, this.cols, this.cells, runs);
+      } // if/else
+      return this;
+    } // changed(int)
+  } // class DenseTile
+} // class TiledMatrix<T>
@@ -0,0 +1,235 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels that use the Vector API, working on as many cells at once as
+ * the preferred vector size allows (eight ints with AVX2). Each loop
+ * handles whole vectors and finishes the last few cells one at a time.
+ * Only {@link Kernels#get} builds one, after checking that the module
+ * is present.
+ */
+final class VectorKernels extends Kernels {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The shape of int vectors.
+   */
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+  /**
+   * The shape of long vectors.
+   */
+  private static final VectorSpecies<Long> LONGS =
+      LongVector.SPECIES_PREFERRED;
+
+  /**
+   * The shape of double vectors.
+   */
+  private static final VectorSpecies<Double> DOUBLES =
+      DoubleVector.SPECIES_PREFERRED;
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  @Override
+  boolean vectorized() {
+    return true;
+  } // vectorized()
+
+  @Override
+  void addInts(int[] dst, int dstFrom, int[] src, int srcFrom, int length) {
+    int i = 0;
+    for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+      IntVector.fromArray(INTS, dst, dstFrom + i)
+          .add(IntVector.fromArray(INTS, src, srcFrom + i))
+          .intoArray(dst, dstFrom + i);
+    } // for
+    for (; i < length; i++) {
+      dst[dstFrom + i] += src[srcFrom + i];
+    } // for
+  } // addInts(int[], int, int[], int, int)
+
+  @Override
+  void subtractInts(int[] dst, int dstFrom, int[] src, int srcFrom,
+      int length) {
+    int i = 0;
+    for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+      IntVector.fromArray(INTS, dst, dstFrom + i)
+          .sub(IntVector.fromArray(INTS, src, srcFrom + i))
+          .intoArray(dst, dstFrom + i);
+    } // for
+    for (; i < length; i++) {
+      dst[dstFrom + i] -= src[srcFrom + i];
+    } // for
+  } // subtractInts(int[], int, int[], int, int)
+
+  @Override
+  void scaleInts(int[] dst, int from, int length, int factor) {
+    int i = 0;
+    for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+      IntVector.fromArray(INTS, dst, from + i).mul(factor)
+          .intoArray(dst, from + i);
+    } // for
+    for (; i < length; i++) {
+      dst[from + i] *= factor;
+    } // for
+  } // scaleInts(int[], int, int, int)
+
+  @Override
+  void fillInts(int[] dst, int from, int length, int val) {
+    IntVector vals = IntVector.broadcast(INTS, val);
+    int i = 0;
+    for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+      vals.intoArray(dst, from + i);
+    } // for
+    Arrays.fill(dst, from + i, from + length, val);
+  } // fillInts(int[], int, int, int)
+
+  @Override
+  int mismatchInts(int[] a, int aFrom, int[] b, int bFrom, int length) {
+    int i = 0;
+    for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+      VectorMask<Integer> differ = IntVector.fromArray(INTS, a, aFrom + i)
+          .compare(VectorOperators.NE, IntVector.fromArray(INTS, b, bFrom + i));
+      if (differ.anyTrue()) {
+        return i + differ.firstTrue();
+      } // if
+    } // for
+    for (; i < length; i++) {
+      if (a[aFrom + i] != b[bFrom + i]) {
+        return i;
+      } // if
+    } // for
+    return -1;
+  } // mismatchInts(int[], int, int[], int, int)
+
+  @Override
+  void addLongs(long[] dst, int dstFrom, long[] src, int srcFrom,
+      int length) {
+    int i = 0;
+    for (int bound = LONGS.loopBound(length); i < bound; i += LONGS.length()) {
+      LongVector.fromArray(LONGS, dst, dstFrom + i)
+          .add(LongVector.fromArray(LONGS, src, srcFrom + i))
+          .intoArray(dst, dstFrom + i);
+    } // for
+    for (; i < length; i++) {
+      dst[dstFrom + i] += src[srcFrom + i];
+    } // for
+  } // addLongs(long[], int, long[], int, int)
+
+  @Override
+  void subtractLongs(long[] dst, int dstFrom, long[] src, int srcFrom,
+      int length) {
+    int i = 0;
+    for (int bound = LONGS.loopBound(length); i < bound; i += LONGS.length()) {
+      LongVector.fromArray(LONGS, dst, dstFrom + i)
+          .sub(LongVector.fromArray(LONGS, src, srcFrom + i))
+          .intoArray(dst, dstFrom + i);
+    } // for
+    for (; i < length; i++) {
+      dst[dstFrom + i] -= src[srcFrom + i];
+    } // for
+  } // subtractLongs(long[], int, long[], int, int)
+
+  @Override
+  void scaleLongs(long[] dst, int from, int length, long factor) {
+    int i = 0;
+    for (int bound = LONGS.loopBound(length); i < bound; i += LONGS.length()) {
+      LongVector.fromArray(LONGS, dst, from + i).mul(factor)
+          .intoArray(dst, from + i);
+    } // for
+    for (; i < length; i++) {
+      dst[from + i] *= factor;
+    } // for
+  } // scaleLongs(long[], int, int, long)
+
+  @Override
+  void addDoubles(double[] dst, int dstFrom, double[] src, int srcFrom,
+      int length) {
+    int i = 0;
+    for (int bound = DOUBLES.loopBound(length); i < bound;
+        i += DOUBLES.length()) {
+      DoubleVector.fromArray(DOUBLES, dst, dstFrom + i)
+          .add(DoubleVector.fromArray(DOUBLES, src, srcFrom + i))
+          .intoArray(dst, dstFrom + i);
+    } // for
+    for (; i < length; i++) {
+      dst[dstFrom + i] += src[srcFrom + i];
+    } // for
+  } // addDoubles(double[], int, double[], int, int)
+
+  @Override
+  void subtractDoubles(double[] dst, int dstFrom, double[] src, int srcFrom,
+      int length) {
+    int i = 0;
+    for (int bound = DOUBLES.loopBound(length); i < bound;
+        i += DOUBLES.length()) {
+      DoubleVector.fromArray(DOUBLES, dst, dstFrom + i)
+          .sub(DoubleVector.fromArray(DOUBLES, src, srcFrom + i))
+          .intoArray(dst, dstFrom + i);
+    } // for
+    for (; i < length; i++) {
+      dst[dstFrom + i] -= src[srcFrom + i];
+    } // for
+  } // subtractDoubles(double[], int, double[], int, int)
+
+  @Override
+  void scaleDoubles(double[] dst, int from, int length, double factor) {
+    int i = 0;
+    for (int bound = DOUBLES.loopBound(length); i < bound;
+        i += DOUBLES.length()) {
+      DoubleVector.fromArray(DOUBLES, dst, from + i).mul(factor)
+          .intoArray(dst, from + i);
+    } // for
+    for (; i < length; i++) {
+      dst[from + i] *= factor;
+    } // for
+  } // scaleDoubles(double[], int, int, double)
+
+  @Override
+  void fillDoubles(double[] dst, int from, int length, double val) {
+    DoubleVector vals = DoubleVector.broadcast(DOUBLES, val);
+    int i = 0;
+    for (int bound = DOUBLES.loopBound(length); i < bound;
+        i += DOUBLES.length()) {
+      vals.intoArray(dst, from + i);
+    } // for
+    Arrays.fill(dst, from + i, from + length, val);
+  } // fillDoubles(double[], int, int, double)
+
+  @Override
+  int mismatchDoubles(double[] a, int aFrom, double[] b, int bFrom,
+      int length) {
+    int i = 0;
+    for (int bound = DOUBLES.loopBound(length); i < bound;
+        i += DOUBLES.length()) {
+      // Compare the bits, so that 0.0 and -0.0 differ. NaNs with
+      // different bits need a closer look, which the scalar check gives.
+      LongVector mine = DoubleVector.fromArray(DOUBLES, a, aFrom + i)
+          .reinterpretAsLongs();
+      LongVector theirs = DoubleVector.fromArray(DOUBLES, b, bFrom + i)
+          .reinterpretAsLongs();
+      if (mine.compare(VectorOperators.NE, theirs).anyTrue()) {
+        int found = Arrays.mismatch(a, aFrom + i, aFrom + i + DOUBLES.length(),
+            b, bFrom + i, bFrom + i + DOUBLES.length());
+        if (found >= 0) {
+          return i + found;
+        } // if
+      } // if
+    } // for
+    int found = Arrays.mismatch(a, aFrom + i, aFrom + length, b, bFrom + i,
+        bFrom + length);
+    return found < 0 ? -1 : i + found;
+  } // mismatchDoubles(double[], int, double[], int, int)
+} // class VectorKernels
@@ -0,0 +1,98 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Run the shared matrix tests against {@link ConcurrentMatrix}, and
+ * hammer it from several threads at once.
+ */
+class ConcurrentMatrixTest extends MatrixContractTest {
+  /**
+   * The height of the matrix in the stress test.
+   */
+  static final int ROWS = 64;
+
+  /**
+   * The number of threads that set cells, each in its own column.
+   */
+  static final int SETTERS = 4;
+
+  /**
+   * The number of rounds each thread runs.
+   */
+  static final int ROUNDS = 2000;
+
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new ConcurrentMatrix<>(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Run setters, readers, and threads that insert and delete rows and
+   * columns beyond the part the others use, all at once. Readers must
+   * never fail or see a value that was never written, and every setter's
+   * last write must survive.
+   */
+  @Test
+  void testStress() throws Exception {
+    ConcurrentMatrix<Integer> matrix = new ConcurrentMatrix<>(SETTERS, ROWS, 0);
+    ExecutorService pool = Executors.newFixedThreadPool(SETTERS + 6);
+    List<Future<?>> tasks = new ArrayList<>();
+    try {
+      for (int t = 0; t < SETTERS; t++) {
+        int col = t;
+        tasks.add(pool.submit(() -> {
+          for (int round = 1; round <= ROUNDS; round++) {
+            matrix.set(round % ROWS, col, round);
+          } // for
+        }));
+      } // for
+      for (int t = 0; t < 2; t++) {
+        tasks.add(pool.submit(() -> {
+          for (int round = 0; round < ROUNDS; round++) {
+            matrix.insertRow(ROWS);
+            matrix.insertCol(SETTERS);
+            matrix.fillRegion(ROWS, 0, ROWS + 1, SETTERS + 1, -1);
+            matrix.deleteCol(SETTERS);
+            matrix.deleteRow(ROWS);
+          } // for
+        }));
+      } // for
+      for (int t = 0; t < 4; t++) {
+        tasks.add(pool.submit(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int round = 0; round < ROUNDS * 10; round++) {
+            int val = matrix.get(random.nextInt(ROWS),
+                random.nextInt(SETTERS));
+            assertTrue(val >= 0 && val <= ROUNDS, "value " + val);
+            assertTrue(matrix.height() >= ROWS, "height");
+            assertTrue(matrix.width() >= SETTERS, "width");
+          } // for
+        }));
+      } // for
+      for (Future<?> task : tasks) {
+        task.get();
+      } // for
+    } finally {
+      pool.shutdownNow();
+    } // try/finally
+    assertEquals(ROWS, matrix.height(), "height after the stress");
+    assertEquals(SETTERS, matrix.width(), "width after the stress");
+    for (int t = 0; t < SETTERS; t++) {
+      for (int round = ROUNDS - ROWS + 1; round <= ROUNDS; round++) {
+        assertEquals(round, matrix.get(round % ROWS, t),
+            "last write to row " + round % ROWS + ", column " + t);
+      } // for round
+    } // for t
+  } // testStress()
+} // class ConcurrentMatrixTest
@@ -0,0 +1,70 @@
+package edu.grinnell.csc207.util;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link DictionaryMatrix}.
+ */
+class DictionaryMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new DictionaryMatrix<>(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that equal values get one code and come back as the first
+   * instance stored.
+   */
+  @Test
+  void testCodes() {
+    DictionaryMatrix<String> matrix = new DictionaryMatrix<>(3, 2, "");
+    String first = new String("x");
+    matrix.set(0, 0, first);
+    matrix.set(1, 2, new String("x"));
+    matrix.set(0, 1, null);
+    assertSame(first, matrix.get(1, 2), "shared instance");
+    assertEquals(matrix.getCode(0, 0), matrix.getCode(1, 2), "same code");
+    assertEquals(0, matrix.getCode(1, 0), "the default comes first");
+    assertEquals(3, matrix.table().size(), "default, x, and null");
+    matrix.fillRegion(0, 0, 2, 3, "y");
+    assertEquals(4, matrix.table().size(), "values stay in the table");
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> matrix.table().decode(4));
+  } // testCodes()
+
+  /**
+   * Ensure that equality and hashing agree with other implementations,
+   * whether or not the tables are shared.
+   */
+  @Test
+  void testEqualsAndHash() {
+    DictionaryMatrix.ValueTable<String> table =
+        new DictionaryMatrix.ValueTable<>();
+    DictionaryMatrix<String> left = new DictionaryMatrix<>(4, 3, "a", table);
+    DictionaryMatrix<String> right = new DictionaryMatrix<>(4, 3, "a", table);
+    DictionaryMatrix<String> other = new DictionaryMatrix<>(4, 3, "b");
+    MatrixV0<String> plain = new MatrixV0<>(4, 3, "a");
+    for (Matrix<String> matrix : List.of(left, right, other, plain)) {
+      matrix.set(2, 1, null);
+      matrix.set(1, 3, "c");
+    } // for
+    other.fillRegion(0, 0, 3, 4, "a");
+    other.set(2, 1, null);
+    other.set(1, 3, "c");
+    assertEquals(left, right, "shared table");
+    assertEquals(left, other, "separate tables");
+    assertEquals(plain, left, "MatrixV0");
+    assertEquals(plain.hashCode(), left.hashCode(), "hash with null");
+    assertEquals(plain.hashCode(), other.hashCode(), "hash of other table");
+    right.set(0, 0, "d");
+    assertNotEquals(left, right, "after a change");
+    assertEquals(right, DictionaryMatrix.copyOf(right, table), "copy");
+  } // testEqualsAndHash()
+} // class DictionaryMatrixTest
@@ -0,0 +1,81 @@
+package edu.grinnell.csc207.util;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link FlatMatrix}.
+ */
+class FlatMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new FlatMatrix<>(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that padded rows behave like unpadded ones.
+   */
+  @Test
+  void testStride() throws ArraySizeException {
+    FlatMatrix<Integer> padded = new FlatMatrix<>(2, 2, 0, 4);
+    assertEquals(4, padded.stride(), "initial stride");
+    padded.set(0, 1, 1);
+    padded.set(1, 0, 2);
+    padded.insertCol(1, new Integer[] {3, 4});
+    padded.insertCol(0);
+    assertMatrixEquals(new Integer[][] {{0, 0, 3, 1}, {0, 2, 4, 0}}, padded,
+        "after filling the padding");
+    assertEquals(4, padded.stride(), "stride after filling the padding");
+    padded.insertCol(4);
+    assertMatrixEquals(new Integer[][] {{0, 0, 3, 1, 0}, {0, 2, 4, 0, 0}},
+        padded, "after growing past the padding");
+
+    FlatMatrix<Integer> unpadded = new FlatMatrix<>(5, 2, 0);
+    unpadded.fillRegion(0, 2, 2, 3, 3);
+    unpadded.set(0, 3, 1);
+    unpadded.set(1, 1, 2);
+    unpadded.set(1, 2, 4);
+    assertEquals(unpadded, padded, "equal despite different strides");
+    assertEquals(unpadded.hashCode(), padded.hashCode(), "same hash code");
+  } // testStride()
+
+  /**
+   * Ensure that we reject strides that are too small.
+   */
+  @Test
+  void testBadStride() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new FlatMatrix<Integer>(3, 3, 0, 2));
+    assertThrows(NegativeArraySizeException.class,
+        () -> new FlatMatrix<Integer>(-1, 3, 0));
+  } // testBadStride()
+
+  /**
+   * Ensure that reserving and releasing capacity keeps the contents.
+   */
+  @Test
+  void testCapacity() throws ArraySizeException {
+    FlatMatrix<Integer> matrix = new FlatMatrix<>(2, 2, 0);
+    matrix.set(1, 1, 5);
+    matrix.ensureCapacity(10, 8);
+    assertEquals(10, matrix.rowCapacity(), "row capacity");
+    assertEquals(8, matrix.stride(), "column capacity");
+    assertMatrixEquals(new Integer[][] {{0, 0}, {0, 5}}, matrix,
+        "after ensureCapacity");
+    matrix.insertCol(2, new Integer[] {1, 2});
+    matrix.insertRow(0);
+    assertMatrixEquals(new Integer[][] {{0, 0, 0}, {0, 0, 1}, {0, 5, 2}},
+        matrix, "after inserts into spare capacity");
+    assertEquals(8, matrix.stride(), "no reallocation");
+    matrix.deleteCol(0);
+    matrix.trimToSize();
+    assertEquals(3, matrix.rowCapacity(), "trimmed row capacity");
+    assertEquals(2, matrix.stride(), "trimmed column capacity");
+    matrix.insertRow(3, new Integer[] {7, 8});
+    assertMatrixEquals(new Integer[][] {{0, 0}, {0, 1}, {5, 2}, {7, 8}},
+        matrix, "after trimToSize");
+  } // testCapacity()
+} // class FlatMatrixTest
@@ -0,0 +1,102 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of {@link IndexedMatrix}.
+ */
+class IndexedMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new IndexedMatrix<>(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that freed rows and columns are reused correctly and that
+   * compaction keeps the contents.
+   */
+  @Test
+  void testReuseAndCompact() throws ArraySizeException {
+    IndexedMatrix<Integer> matrix = new IndexedMatrix<>(3, 2, 0);
+    matrix.set(0, 2, 5);
+    matrix.deleteCol(2);
+    matrix.deleteRow(0);
+    matrix.insertCol(0);
+    matrix.insertRow(1, new Integer[] {1, 2, 3});
+    assertMatrixEquals(new Integer[][] {{0, 0, 0}, {1, 2, 3}}, matrix,
+        "freed slots reused with fresh values");
+    matrix.compact();
+    assertMatrixEquals(new Integer[][] {{0, 0, 0}, {1, 2, 3}}, matrix,
+        "after compacting");
+    matrix.insertCol(3, new Integer[] {4, 5});
+    assertMatrixEquals(new Integer[][] {{0, 0, 0, 4}, {1, 2, 3, 5}}, matrix,
+        "growing after compacting");
+  } // testReuseAndCompact()
+
+  /**
+   * Ensure that a reused column reads as the default in every row until
+   * written, even when the matrix is taller than one word of row bits.
+   */
+  @Test
+  void testReusedColumn() throws ArraySizeException {
+    IndexedMatrix<Integer> matrix = new IndexedMatrix<>(2, 150, 0);
+    for (int row = 0; row < 150; row++) {
+      matrix.set(row, 1, row + 1);
+    } // for
+    matrix.deleteCol(1);
+    matrix.insertCol(0);
+    matrix.set(70, 0, 7);
+    matrix.set(149, 0, 9);
+    for (int row = 0; row < 150; row++) {
+      int expected = (row == 70) ? 7 : (row == 149) ? 9 : 0;
+      assertEquals(expected, matrix.get(row, 0), "reused cell " + row);
+    } // for
+    IndexedMatrix<Integer> copy = matrix.clone();
+    copy.set(5, 0, 5);
+    assertEquals(0, matrix.get(5, 0), "clone does not share written rows");
+    matrix.compact();
+    assertEquals(7, matrix.get(70, 0), "after compacting");
+    assertEquals(0, matrix.get(71, 0), "default after compacting");
+  } // testReusedColumn()
+
+  /**
+   * Ensure that a long random sequence of edits matches MatrixV0.
+   */
+  @Test
+  void testRandomEdits() throws ArraySizeException {
+    Random random = new Random(207);
+    IndexedMatrix<Integer> matrix = new IndexedMatrix<>(5, 5, -1);
+    MatrixV0<Integer> expected = new MatrixV0<>(5, 5, -1);
+    for (int step = 0; step < 2000; step++) {
+      int op = random.nextInt(7);
+      int row = random.nextInt(expected.height() + 1);
+      int col = random.nextInt(expected.width() + 1);
+      if (op == 0) {
+        matrix.insertRow(row);
+        expected.insertRow(row);
+      } else if (op == 1) {
+        // Cluster column inserts, as when editing a spreadsheet.
+        col = Math.min(col, 3);
+        matrix.insertCol(col);
+        expected.insertCol(col);
+      } else if (op == 2 && row < expected.height()) {
+        matrix.deleteRow(row);
+        expected.deleteRow(row);
+      } else if (op == 3 && col < expected.width()) {
+        matrix.deleteCol(col);
+        expected.deleteCol(col);
+      } else if (op == 4 && step % 100 == 0) {
+        matrix.compact();
+      } else if (row < expected.height() && col < expected.width()) {
+        matrix.set(row, col, step);
+        expected.set(row, col, step);
+      } // if/else
+    } // for
+    assertEquals(expected, matrix, "same as MatrixV0");
+    assertEquals(expected.hashCode(), matrix.hashCode(), "same hash code");
+  } // testRandomEdits()
+} // class IndexedMatrixTest
@@ -0,0 +1,51 @@
+package edu.grinnell.csc207.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link IntMatrix}.
+ */
+class IntMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new IntMatrix(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that the unboxed and boxed accessors agree.
+   */
+  @Test
+  void testUnboxed() {
+    IntMatrix matrix = new IntMatrix(3, 2, 4);
+    matrix.setInt(1, 2, 9);
+    matrix.set(0, 1, 5);
+    assertEquals(9, matrix.get(1, 2), "boxed get of unboxed set");
+    assertEquals(5, matrix.getInt(0, 1), "unboxed get of boxed set");
+    assertEquals(4, matrix.getInt(1, 0), "default value");
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.getInt(2, 0));
+    assertThrows(NullPointerException.class, () -> matrix.set(0, 0, null));
+  } // testUnboxed()
+
+  /**
+   * Ensure that arithmetic works cell by cell, with and without padding
+   * at the ends of the rows.
+   */
+  @Test
+  void testArithmetic() {
+    IntMatrix left = new IntMatrix(19, 3, 2);
+    IntMatrix right = new IntMatrix(20, 3, 5);
+    right.deleteCol(0);
+    right.setInt(2, 18, 7);
+    left.add(right);
+    left.scale(3);
+    assertEquals(21, left.getInt(0, 0), "(2 + 5) * 3");
+    assertEquals(27, left.getInt(2, 18), "(2 + 7) * 3");
+    left.subtract(left.clone());
+    assertEquals(new IntMatrix(19, 3, 0), left, "x - x");
+    assertThrows(IllegalArgumentException.class,
+        () -> left.add(new IntMatrix(3, 19)));
+  } // testArithmetic()
+} // class IntMatrixTest
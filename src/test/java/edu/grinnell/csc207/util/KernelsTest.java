@@ -0,0 +1,127 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Check that the vector kernels agree with the scalar kernels on runs
+ * of every length up to a few vectors, at odd offsets.
+ */
+class KernelsTest {
+  /**
+   * The longest run to try.
+   */
+  static final int MAX_LENGTH = 70;
+
+  /**
+   * The kernels to check against.
+   */
+  Kernels scalar = new ScalarKernels();
+
+  /**
+   * The kernels to check.
+   */
+  Kernels vector = new VectorKernels();
+
+  /**
+   * Ensure that the build runs the tests with the Vector API, so that
+   * matrices use the vector kernels.
+   */
+  @Test
+  void testSelected() {
+    assertTrue(Kernels.get().vectorized(), "vector kernels selected");
+  } // testSelected()
+
+  /**
+   * Compare the int kernels.
+   */
+  @Test
+  void testInts() {
+    Random random = new Random(207);
+    for (int length = 0; length <= MAX_LENGTH; length++) {
+      int[] src = random.ints(length + 5).toArray();
+      int[] start = random.ints(length + 3).toArray();
+      int[] expected = start.clone();
+      int[] actual = start.clone();
+      this.scalar.addInts(expected, 3, src, 5, length);
+      this.vector.addInts(actual, 3, src, 5, length);
+      this.scalar.subtractInts(expected, 1, src, 2, length);
+      this.vector.subtractInts(actual, 1, src, 2, length);
+      this.scalar.scaleInts(expected, 2, length, -3);
+      this.vector.scaleInts(actual, 2, length, -3);
+      assertArrayEquals(expected, actual, "arithmetic on " + length);
+      this.scalar.fillInts(expected, 1, length, 9);
+      this.vector.fillInts(actual, 1, length, 9);
+      assertArrayEquals(expected, actual, "fill of " + length);
+      for (int diff = 0; diff < length; diff += 7) {
+        int[] changed = actual.clone();
+        changed[diff + 1]++;
+        assertEquals(diff, this.vector.mismatchInts(actual, 1, changed, 1,
+            length), "mismatch in " + length);
+      } // for
+      assertEquals(-1, this.vector.mismatchInts(actual, 1, expected, 1,
+          length), "no mismatch in " + length);
+    } // for
+  } // testInts()
+
+  /**
+   * Compare the long kernels.
+   */
+  @Test
+  void testLongs() {
+    Random random = new Random(207);
+    for (int length = 0; length <= MAX_LENGTH; length++) {
+      long[] src = random.longs(length + 5).toArray();
+      long[] start = random.longs(length + 3).toArray();
+      long[] expected = start.clone();
+      long[] actual = start.clone();
+      this.scalar.addLongs(expected, 3, src, 5, length);
+      this.vector.addLongs(actual, 3, src, 5, length);
+      this.scalar.subtractLongs(expected, 1, src, 2, length);
+      this.vector.subtractLongs(actual, 1, src, 2, length);
+      this.scalar.scaleLongs(expected, 2, length, -3L << 33);
+      this.vector.scaleLongs(actual, 2, length, -3L << 33);
+      assertArrayEquals(expected, actual, "arithmetic on " + length);
+    } // for
+  } // testLongs()
+
+  /**
+   * Compare the double kernels.
+   */
+  @Test
+  void testDoubles() {
+    Random random = new Random(207);
+    for (int length = 0; length <= MAX_LENGTH; length++) {
+      double[] src = random.doubles(length + 5).toArray();
+      double[] start = random.doubles(length + 3).toArray();
+      double[] expected = start.clone();
+      double[] actual = start.clone();
+      this.scalar.addDoubles(expected, 3, src, 5, length);
+      this.vector.addDoubles(actual, 3, src, 5, length);
+      this.scalar.subtractDoubles(expected, 1, src, 2, length);
+      this.vector.subtractDoubles(actual, 1, src, 2, length);
+      this.scalar.scaleDoubles(expected, 2, length, -1.5);
+      this.vector.scaleDoubles(actual, 2, length, -1.5);
+      assertArrayEquals(expected, actual, "arithmetic on " + length);
+      this.scalar.fillDoubles(expected, 1, length, 0.0);
+      this.vector.fillDoubles(actual, 1, length, 0.0);
+      assertArrayEquals(expected, actual, "fill of " + length);
+      for (int diff = 0; diff < length; diff += 5) {
+        double[] changed = actual.clone();
+        changed[diff + 1] = -0.0;
+        assertEquals(diff, this.vector.mismatchDoubles(actual, 1, changed, 1,
+            length), "mismatch in " + length);
+        actual[diff + 1] = Double.NaN;
+        changed[diff + 1] = Double.longBitsToDouble(0x7ff8000000000002L);
+        assertEquals(this.scalar.mismatchDoubles(actual, 1, changed, 1,
+            length), this.vector.mismatchDoubles(actual, 1, changed, 1,
+            length), "NaN in " + length);
+      } // for
+    } // for
+  } // testDoubles()
+} // class KernelsTest
@@ -0,0 +1,120 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link MappedMatrix}. The matrices use tiny 64-byte segments
+ * so that rows and bulk copies cross segment boundaries.
+ */
+class MappedMatrixTest extends MatrixContractTest {
+  /**
+   * Where the matrix files go.
+   */
+  @TempDir
+  Path dir;
+
+  /**
+   * The number of files created so far.
+   */
+  int files = 0;
+
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    try {
+      return MappedMatrix.create(dir.resolve("m" + files++), ElementType.INT,
+          width, height, def, 6);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that a matrix can be closed and opened again.
+   */
+  @Test
+  void testReopen() throws IOException, ArraySizeException {
+    Path path = dir.resolve("reopen");
+    try (MappedMatrix<Double> matrix =
+        MappedMatrix.create(path, ElementType.DOUBLE, 3, 2, 0.5, 6)) {
+      matrix.set(1, 2, 7.0);
+      matrix.insertRow(0, new Double[] {1.0, 2.0, 3.0});
+      matrix.insertCol(1);
+    } // try
+    try (MappedMatrix<Double> matrix = MappedMatrix.open(path, ElementType.DOUBLE)) {
+      assertMatrixEquals(
+          new Double[][] {{1.0, 0.5, 2.0, 3.0}, {0.5, 0.5, 0.5, 0.5},
+              {0.5, 0.5, 0.5, 7.0}},
+          matrix, "after reopening");
+      matrix.insertRow(3);
+      assertEquals(0.5, matrix.get(3, 3), "new rows use the stored default");
+    } // try
+    assertThrows(IOException.class, () -> MappedMatrix.open(path, ElementType.LONG));
+  } // testReopen()
+
+  /**
+   * Ensure that files that are not matrices are rejected.
+   */
+  @Test
+  void testNotAMatrix() throws IOException {
+    Path path = dir.resolve("junk");
+    Files.write(path, new byte[100]);
+    assertThrows(IOException.class, () -> MappedMatrix.open(path, ElementType.INT));
+    Files.write(path, new byte[10]);
+    assertThrows(IOException.class, () -> MappedMatrix.open(path, ElementType.INT));
+  } // testNotAMatrix()
+
+  /**
+   * Ensure that matrices larger than many segments work.
+   */
+  @Test
+  void testManySegments() throws IOException {
+    try (MappedMatrix<Long> matrix = MappedMatrix.create(dir.resolve("big"),
+        ElementType.LONG, 37, 41, 3L, 6)) {
+      MatrixV0<Long> expected = new MatrixV0<>(37, 41, 3L);
+      for (int i = 0; i < 41; i++) {
+        matrix.set(i, i % 37, (long) i);
+        expected.set(i, i % 37, (long) i);
+      } // for
+      for (int i = 0; i < 30; i++) {
+        matrix.insertRow(i);
+        expected.insertRow(i);
+        matrix.insertCol(i);
+        expected.insertCol(i);
+      } // for
+      matrix.fillRegion(5, 5, 60, 60, -1L);
+      expected.fillRegion(5, 5, 60, 60, -1L);
+      matrix.deleteRow(2);
+      expected.deleteRow(2);
+      matrix.deleteCol(40);
+      expected.deleteCol(40);
+      assertEquals(expected, matrix, "same as MatrixV0");
+      try (MappedMatrix<Long> copy = matrix.clone()) {
+        assertEquals(expected, copy, "clone");
+      } // try
+    } // try
+  } // testManySegments()
+
+  /**
+   * Ensure that closed matrices cannot be used.
+   */
+  @Test
+  void testClose() throws IOException {
+    MappedMatrix<Integer> matrix = MappedMatrix.create(dir.resolve("closed"),
+        ElementType.INT, 4, 4, 7, 6);
+    matrix.close();
+    assertThrows(IllegalStateException.class, () -> matrix.get(0, 0));
+    assertThrows(IllegalStateException.class, () -> matrix.set(1, 1, 2));
+    assertThrows(IllegalStateException.class, () -> matrix.insertRow(0));
+    assertThrows(IllegalStateException.class, () -> matrix.deleteCol(0));
+    matrix.close();
+  } // testClose()
+} // class MappedMatrixTest
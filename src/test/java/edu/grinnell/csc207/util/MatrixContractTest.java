@@ -0,0 +1,397 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that every implementation of {@link Matrix} should pass. Each
+ * implementation gets a subclass that says how to build its matrices.
+ */
+abstract class MatrixContractTest {
+  /**
+   * Build a new matrix of the implementation under test.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   *
+   * @return the new matrix.
+   */
+  abstract Matrix<Integer> newMatrix(int width, int height, Integer def);
+
+  /**
+   * Build a matrix and fill each cell with 10 * row + col.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the new matrix.
+   */
+  Matrix<Integer> numbered(int width, int height) {
+    Matrix<Integer> matrix = newMatrix(width, height, 0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        matrix.set(row, col, 10 * row + col);
+      } // for col
+    } // for row
+    return matrix;
+  } // numbered(int, int)
+
+  /**
+   * Ensure we can create and change 1x1 matrices.
+   */
+  @Test
+  void testOneByOne() {
+    Matrix<Integer> matrix = newMatrix(1, 1, 5);
+    assertMatrixEquals(new Integer[][] {{5}}, matrix, "one-by-one of 5");
+    matrix.set(0, 0, 6);
+    assertMatrixEquals(new Integer[][] {{6}}, matrix, "after setting to 6");
+  } // testOneByOne()
+
+  /**
+   * Ensure that row insertion and deletion work.
+   */
+  @Test
+  void testRows() throws ArraySizeException {
+    Matrix<Integer> matrix = numbered(2, 3);
+    matrix.deleteRow(1);
+    assertMatrixEquals(new Integer[][] {{0, 1}, {20, 21}}, matrix,
+        "delete interior row");
+    matrix.insertRow(0);
+    assertMatrixEquals(new Integer[][] {{0, 0}, {0, 1}, {20, 21}}, matrix,
+        "insert first row");
+    matrix.insertRow(3, new Integer[] {7, 8});
+    assertMatrixEquals(new Integer[][] {{0, 0}, {0, 1}, {20, 21}, {7, 8}},
+        matrix, "insert last row");
+    matrix.deleteRow(0);
+    matrix.deleteRow(2);
+    assertMatrixEquals(new Integer[][] {{0, 1}, {20, 21}}, matrix,
+        "delete first and last rows");
+    for (int i = 0; i < 20; i++) {
+      matrix.insertRow(1, new Integer[] {i, -i});
+    } // for
+    assertEquals(22, matrix.height(), "height after many inserts");
+    assertEquals(19, matrix.get(1, 0), "most recently inserted row");
+    assertEquals(20, matrix.get(21, 0), "last row after many inserts");
+  } // testRows()
+
+  /**
+   * Ensure that column insertion and deletion work.
+   */
+  @Test
+  void testCols() throws ArraySizeException {
+    Matrix<Integer> matrix = numbered(3, 2);
+    matrix.deleteCol(1);
+    assertMatrixEquals(new Integer[][] {{0, 2}, {10, 12}}, matrix,
+        "delete interior column");
+    matrix.insertCol(0);
+    assertMatrixEquals(new Integer[][] {{0, 0, 2}, {0, 10, 12}}, matrix,
+        "insert first column");
+    matrix.insertCol(3, new Integer[] {7, 8});
+    assertMatrixEquals(new Integer[][] {{0, 0, 2, 7}, {0, 10, 12, 8}}, matrix,
+        "insert last column");
+    matrix.deleteCol(0);
+    matrix.deleteCol(2);
+    assertMatrixEquals(new Integer[][] {{0, 2}, {10, 12}}, matrix,
+        "delete first and last columns");
+    for (int i = 0; i < 20; i++) {
+      matrix.insertCol(1, new Integer[] {i, -i});
+    } // for
+    assertEquals(22, matrix.width(), "width after many inserts");
+    assertEquals(-19, matrix.get(1, 1), "most recently inserted column");
+    assertEquals(12, matrix.get(1, 21), "last column after many inserts");
+  } // testCols()
+
+  /**
+   * Ensure that we can grow an empty matrix.
+   */
+  @Test
+  void testGrowFromEmpty() throws ArraySizeException {
+    Matrix<Integer> matrix = newMatrix(0, 0, 3);
+    matrix.insertCol(0);
+    matrix.insertRow(0);
+    matrix.insertRow(1, new Integer[] {4});
+    matrix.insertCol(1, new Integer[] {5, 6});
+    assertMatrixEquals(new Integer[][] {{3, 5}, {4, 6}}, matrix,
+        "grown from empty");
+  } // testGrowFromEmpty()
+
+  /**
+   * Ensure that fillRegion and fillLine work.
+   */
+  @Test
+  void testFill() {
+    Matrix<Integer> matrix = newMatrix(4, 3, 0);
+    matrix.fillRegion(1, 1, 3, 3, 7);
+    assertMatrixEquals(
+        new Integer[][] {{0, 0, 0, 0}, {0, 7, 7, 0}, {0, 7, 7, 0}},
+        matrix, "fillRegion");
+    matrix.fillLine(0, 0, 1, 1, 3, 4, 1);
+    assertMatrixEquals(
+        new Integer[][] {{1, 0, 0, 0}, {0, 1, 7, 0}, {0, 7, 1, 0}},
+        matrix, "diagonal fillLine");
+    matrix.fillLine(0, 3, 1, 0, 3, 4, 2);
+    assertMatrixEquals(
+        new Integer[][] {{1, 0, 0, 2}, {0, 1, 7, 2}, {0, 7, 1, 2}},
+        matrix, "vertical fillLine");
+    matrix.fillRegion(0, 0, 3, 4, 9);
+    assertMatrixEquals(
+        new Integer[][] {{9, 9, 9, 9}, {9, 9, 9, 9}, {9, 9, 9, 9}},
+        matrix, "fill everything");
+  } // testFill()
+
+  /**
+   * Ensure that clones are independent of the original.
+   */
+  @Test
+  void testClone() {
+    Matrix<Integer> matrix = numbered(3, 3);
+    @SuppressWarnings("unchecked")
+    Matrix<Integer> copy = (Matrix<Integer>) matrix.clone();
+    assertEquals(matrix, copy, "clone is equal");
+    copy.set(1, 1, 99);
+    assertEquals(11, matrix.get(1, 1), "original unchanged by set");
+    copy.deleteRow(0);
+    copy.insertCol(0);
+    assertEquals(3, matrix.height(), "original height unchanged");
+    assertEquals(3, matrix.width(), "original width unchanged");
+    matrix.set(2, 2, -1);
+    assertEquals(22, copy.get(1, 3), "copy unchanged by set");
+  } // testClone()
+
+  /**
+   * Ensure that equals and hashCode agree with MatrixV0.
+   */
+  @Test
+  void testEqualsAndHashCode() {
+    Matrix<Integer> matrix = numbered(4, 3);
+    Matrix<Integer> reference = new MatrixV0<>(4, 3, 0);
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 4; col++) {
+        reference.set(row, col, 10 * row + col);
+      } // for col
+    } // for row
+    assertEquals(reference, matrix, "equal to MatrixV0");
+    assertEquals(matrix, reference, "MatrixV0 equal to this");
+    assertEquals(reference.hashCode(), matrix.hashCode(), "same hash code");
+    assertEquals(numbered(4, 3), matrix, "equal to same implementation");
+    assertEquals(numbered(4, 3).hashCode(), matrix.hashCode(),
+        "same hash code as same implementation");
+    matrix.set(2, 3, 0);
+    assertNotEquals(reference, matrix, "different after set");
+    assertNotEquals(numbered(3, 4), numbered(4, 3), "different shapes");
+  } // testEqualsAndHashCode()
+
+  /**
+   * Ensure that out-of-bounds accesses are reported.
+   */
+  @Test
+  void testBounds() {
+    Matrix<Integer> matrix = newMatrix(3, 2, 0);
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(-1, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(2, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(0, 3));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.set(0, -1, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.insertRow(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.insertCol(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.deleteRow(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.deleteCol(3));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> matrix.fillRegion(0, 0, 3, 3, 1));
+    assertThrows(ArraySizeException.class,
+        () -> matrix.insertRow(0, new Integer[] {1, 2}));
+    assertThrows(ArraySizeException.class,
+        () -> matrix.insertCol(0, new Integer[] {1, 2, 3}));
+  } // testBounds()
+
+  /**
+   * Ensure that streams and iterables visit every cell in row-major
+   * order.
+   */
+  @Test
+  void testTraversal() {
+    Matrix<Integer> matrix = numbered(7, 50);
+    matrix.insertRow(3);
+    List<Integer> expected = new ArrayList<>();
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        expected.add(matrix.get(row, col));
+      } // for col
+    } // for row
+    assertEquals(expected, matrix.stream().collect(Collectors.toList()),
+        "stream");
+    assertEquals(expected, matrix.parallelStream().collect(Collectors.toList()),
+        "parallel stream");
+    List<Integer> cells = new ArrayList<>();
+    for (Integer val : matrix.cells()) {
+      cells.add(val);
+    } // for
+    assertEquals(expected, cells, "cells");
+    int row = 0;
+    for (List<Integer> vals : matrix.rows()) {
+      assertEquals(expected.subList(7 * row, 7 * row + 7), vals, "row " + row);
+      row++;
+    } // for
+    assertEquals(51, row, "number of rows");
+    assertEquals(0, newMatrix(0, 3, 1).stream().count(), "no columns");
+    assertEquals(0, newMatrix(3, 0, 1).parallelStream().count(), "no rows");
+    assertEquals(false, newMatrix(2, 0, 1).rows().iterator().hasNext(),
+        "no rows to iterate");
+  } // testTraversal()
+
+  /**
+   * Ensure that the spliterator splits into whole rows and still covers
+   * every cell once, even after it has started a row.
+   */
+  @Test
+  void testSplit() {
+    Matrix<Integer> matrix = numbered(4, 5);
+    Spliterator<Integer> rest = matrix.spliterator();
+    assertEquals(20, rest.estimateSize(), "size before");
+    List<Integer> seen = new ArrayList<>();
+    rest.tryAdvance(seen::add);
+    rest.tryAdvance(seen::add);
+    Spliterator<Integer> first = rest.trySplit();
+    assertEquals(10, first.estimateSize(), "rest of row 0 and rows 1 to 2");
+    assertEquals(8, rest.estimateSize(), "rows 3 to 4");
+    first.forEachRemaining(seen::add);
+    Spliterator<Integer> middle = rest.trySplit();
+    middle.forEachRemaining(seen::add);
+    rest.forEachRemaining(seen::add);
+    assertNull(rest.trySplit(), "nothing left to split");
+    assertEquals(numbered(4, 5).stream().collect(Collectors.toList()), seen,
+        "every cell once, in order");
+  } // testSplit()
+
+  /**
+   * Ensure that a batch of random edits leaves the matrix as it would be
+   * after making the same edits one at a time.
+   *
+   * @throws ArraySizeException
+   *   If a random insertion has the wrong size, which it cannot.
+   */
+  @Test
+  void testBatch() throws ArraySizeException {
+    Random random = new Random(207);
+    for (int trial = 0; trial < 20; trial++) {
+      Matrix<Integer> expected = numbered(6, 5);
+      Matrix<Integer> actual = numbered(6, 5);
+      MatrixBatch<Integer> batch = actual.batch();
+      for (int step = 0; step < 40; step++) {
+        int height = expected.height();
+        int width = expected.width();
+        int val = 1000 * trial + step;
+        switch (random.nextInt(9)) {
+          case 0:
+            int row = random.nextInt(height + 1);
+            expected.insertRow(row);
+            batch.insertRow(row);
+            break;
+          case 1:
+            Integer[] rowVals = new Integer[width];
+            Arrays.fill(rowVals, val);
+            row = random.nextInt(height + 1);
+            expected.insertRow(row, rowVals);
+            batch.insertRow(row, rowVals);
+            break;
+          case 2:
+            int col = random.nextInt(width + 1);
+            expected.insertCol(col);
+            batch.insertCol(col);
+            break;
+          case 3:
+            Integer[] colVals = new Integer[height];
+            for (int i = 0; i < height; i++) {
+              colVals[i] = val + i;
+            } // for
+            col = random.nextInt(width + 1);
+            expected.insertCol(col, colVals);
+            batch.insertCol(col, colVals);
+            break;
+          case 4:
+            if (height > 1) {
+              row = random.nextInt(height);
+              expected.deleteRow(row);
+              batch.deleteRow(row);
+            } // if
+            break;
+          case 5:
+            if (width > 1) {
+              col = random.nextInt(width);
+              expected.deleteCol(col);
+              batch.deleteCol(col);
+            } // if
+            break;
+          case 6:
+            row = random.nextInt(height);
+            col = random.nextInt(width);
+            expected.set(row, col, val);
+            batch.set(row, col, val);
+            break;
+          case 7:
+            int top = random.nextInt(height);
+            int left = random.nextInt(width);
+            int bottom = top + random.nextInt(height - top + 1);
+            int right = left + random.nextInt(width - left + 1);
+            expected.fillRegion(top, left, bottom, right, val);
+            batch.fillRegion(top, left, bottom, right, val);
+            break;
+          default:
+            row = random.nextInt(height);
+            col = random.nextInt(width);
+            expected.fillLine(row, col, 1, 1, height, width, val);
+            batch.fillLine(row, col, 1, 1, height, width, val);
+            break;
+        } // switch
+        assertEquals(expected.height(), batch.height(), "height after step");
+        assertEquals(expected.width(), batch.width(), "width after step");
+      } // for step
+      batch.apply();
+      assertEquals(expected, actual, "after trial " + trial);
+      assertEquals(0, batch.size(), "emptied");
+    } // for trial
+  } // testBatch()
+
+  /**
+   * Ensure that a batch rejects bad edits as the matrix would, and
+   * records nothing for them.
+   */
+  @Test
+  void testBatchErrors() {
+    Matrix<Integer> matrix = numbered(3, 2);
+    MatrixBatch<Integer> batch = matrix.batch().deleteRow(0);
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.set(1, 0, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.insertRow(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.deleteCol(3));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> batch.fillLine(0, 0, 0, 1, 1, 4, 9));
+    assertThrows(ArraySizeException.class,
+        () -> batch.insertCol(0, new Integer[] {1, 2}));
+    assertThrows(IllegalArgumentException.class,
+        () -> batch.fillLine(0, 0, 0, 0, 1, 1, 9));
+    assertEquals(1, batch.size(), "only the good edit");
+    batch.apply();
+    assertMatrixEquals(new Integer[][] {{10, 11, 12}}, matrix, "one row left");
+
+    batch.insertCol(0);
+    matrix.deleteCol(0);
+    assertThrows(IllegalStateException.class, () -> batch.apply());
+  } // testBatchErrors()
+} // class MatrixContractTest
@@ -0,0 +1,324 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Check that matrices come back from comma-separated text as they went
+ * in, that the reader follows RFC 4180, and that large files read in
+ * pieces read the same as in one.
+ */
+class MatrixCsvTest {
+  /**
+   * Write a matrix as text.
+   *
+   * @param csv
+   *   The writer.
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the text.
+   *
+   * @throws IOException
+   *   If writing fails, which it cannot.
+   */
+  static String save(MatrixCsv csv, ReadableMatrix<?> matrix)
+      throws IOException {
+    StringWriter out = new StringWriter();
+    csv.write(out, matrix);
+    return out.toString();
+  } // save(MatrixCsv, ReadableMatrix<?>)
+
+  /**
+   * Read a matrix from text.
+   *
+   * @param <T>
+   *   The type of value in the cells.
+   * @param text
+   *   The text.
+   * @param codec
+   *   How to parse the cells.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the text does not hold a matrix.
+   */
+  static <T> Matrix<T> load(String text, MatrixCsv.Codec<T> codec)
+      throws IOException {
+    return new MatrixCsv().read(new StringReader(text), codec);
+  } // load(String, MatrixCsv.Codec<T>)
+
+  /**
+   * Write and read matrices of every built-in codec, with commas and
+   * with tabs.
+   *
+   * @throws IOException
+   *   If writing or reading fails.
+   */
+  @Test
+  void testRoundTrip() throws IOException {
+    IntMatrix ints = new IntMatrix(3, 2, -4);
+    ints.setInt(0, 0, Integer.MIN_VALUE);
+    ints.setInt(1, 2, Integer.MAX_VALUE);
+    LongMatrix longs = new LongMatrix(2, 3, 9L);
+    longs.setLong(0, 0, Long.MIN_VALUE);
+    longs.setLong(2, 1, Long.MAX_VALUE);
+    DoubleMatrix doubles = new DoubleMatrix(4, 2, 0.1);
+    doubles.setDouble(0, 0, Double.NaN);
+    doubles.setDouble(0, 1, -0.0);
+    doubles.setDouble(0, 2, 1e300);
+    doubles.setDouble(0, 3, Double.NEGATIVE_INFINITY);
+    doubles.setDouble(1, 0, Double.MIN_VALUE);
+    doubles.setDouble(1, 1, 123456.789);
+    MatrixV0<String> strings = new MatrixV0<>(3, 3, "plain");
+    strings.set(0, 0, null);
+    strings.set(0, 1, "");
+    strings.set(0, 2, "a,b");
+    strings.set(1, 0, "say \"hi\"");
+    strings.set(1, 1, "two\nlines");
+    strings.set(1, 2, "\r");
+    strings.set(2, 0, "tab\there");
+    strings.set(2, 1, "café 世界");
+    strings.set(2, 2, "\"");
+
+    for (MatrixCsv csv : List.of(new MatrixCsv(),
+        new MatrixCsv().separator('\t'))) {
+      assertEquals(ints, csv.read(new StringReader(save(csv, ints)),
+          MatrixCsv.Codec.INT), "ints");
+      assertEquals(longs, csv.read(new StringReader(save(csv, longs)),
+          MatrixCsv.Codec.LONG), "longs");
+      assertEquals(doubles, csv.read(new StringReader(save(csv, doubles)),
+          MatrixCsv.Codec.DOUBLE), "doubles");
+      assertEquals(strings, csv.read(new StringReader(save(csv, strings)),
+          MatrixCsv.Codec.STRING), "strings");
+      assertEquals(strings, csv.read(new StringReader(save(csv, strings)),
+          MatrixCsv.Codec.dictionary(MatrixCsv.Codec.STRING)),
+          "strings in a dictionary");
+    } // for
+
+    Matrix<Integer> copy = load(save(new MatrixCsv(), ints),
+        MatrixCsv.Codec.INT);
+    assertInstanceOf(IntMatrix.class, copy, "ints come back as IntMatrix");
+    copy.insertRow(2);
+    copy.insertCol(0);
+    assertEquals(Integer.MAX_VALUE, copy.get(1, 3), "after growing");
+    MatrixV0<Integer> boxed = new MatrixV0<>(2, 2, -7);
+    assertEquals("-7,-7\n-7,-7\n", save(new MatrixCsv(), boxed), "boxed");
+  } // testRoundTrip()
+
+  /**
+   * Read the variations that RFC 4180 and common practice allow.
+   *
+   * @throws IOException
+   *   If reading fails.
+   */
+  @Test
+  void testParse() throws IOException {
+    MatrixV0<String> expected = new MatrixV0<>(3, 2);
+    expected.set(0, 0, "a");
+    expected.set(0, 2, "c\r\nd");
+    expected.set(1, 0, "");
+    expected.set(1, 1, "x\"y");
+    assertEquals(expected, load("a,,\"c\r\nd\"\r\n\"\",\"x\"\"y\",\r\n",
+        MatrixCsv.Codec.STRING), "CRLF and quotes");
+    assertEquals(expected, load("a,,\"c\r\nd\"\r\"\",\"x\"\"y\",",
+        MatrixCsv.Codec.STRING), "CR and no final line break");
+
+    IntMatrix ints = new IntMatrix(2, 3);
+    ints.setInt(0, 0, 1);
+    ints.setInt(0, 1, -2);
+    ints.setInt(2, 1, 3);
+    assertEquals(ints, load("1,-2\n,\n+0,\"3\"\n", MatrixCsv.Codec.INT),
+        "empty and quoted numbers");
+    assertEquals(new IntMatrix(0, 0), load("", MatrixCsv.Codec.INT), "empty");
+    assertEquals(new MatrixV0<String>(1, 2), load("\n\n",
+        MatrixCsv.Codec.STRING), "blank lines");
+
+    StringBuilder row = new StringBuilder();
+    for (int col = 0; col < 39_999; col++) {
+      row.append(col).append(',');
+    } // for
+    String text = row + "39999\n" + row + "\"" + "q".repeat(100_000) + "\"\n";
+    MatrixCsv.Codec<Object> either = MatrixCsv.Codec.of(
+        (field) -> field.startsWith("q") ? field : new BigInteger(field));
+    Matrix<Object> wide = load(text, either);
+    assertEquals(40_000, wide.width(), "wide");
+    assertEquals(BigInteger.valueOf(39_998), wide.get(1, 39_998), "wide cell");
+    assertEquals(100_000, ((String) wide.get(1, 39_999)).length(),
+        "long field");
+  } // testParse()
+
+  /**
+   * Parse numbers exactly as the standard library does.
+   */
+  @Test
+  void testNumbers() {
+    Random random = new Random(7);
+    String[] texts = new String[2000];
+    for (int i = 0; i < texts.length; i++) {
+      switch (i % 4) {
+        case 0:
+          texts[i] = Double.toString(random.nextDouble() * 1000);
+          break;
+        case 1:
+          texts[i] = Double.toString(Double.longBitsToDouble(random.nextLong()));
+          break;
+        case 2:
+          texts[i] = (random.nextInt(2000) - 1000) + "." + random.nextInt(1000);
+          break;
+        default:
+          texts[i] = String.format("%.6f", random.nextGaussian());
+          break;
+      } // switch
+    } // for
+    for (String text : texts) {
+      char[] chars = ("<" + text + ">").toCharArray();
+      double expected = Double.parseDouble(text);
+      assertEquals(Double.doubleToRawLongBits(expected),
+          Double.doubleToRawLongBits(
+              MatrixCsv.parseDouble(chars, 1, chars.length - 1)), text);
+    } // for
+    for (String text : new String[] {"0.1", "-0.0", ".5", "5.", "+2.25",
+        "999999999999999", "9999999999999999", "1e-300", "0.000000000000000001",
+        "NaN", "-Infinity"}) {
+      assertEquals(Double.parseDouble(text),
+          MatrixCsv.parseDouble(text.toCharArray(), 0, text.length()), text);
+    } // for
+    for (String text : new String[] {"0", "-0", "+17", "9223372036854775807",
+        "-9223372036854775808"}) {
+      assertEquals(Long.parseLong(text),
+          MatrixCsv.parseLong(text.toCharArray(), 0, text.length()), text);
+    } // for
+    for (String text : new String[] {"", "-", "+", "1.0", "1 ", "0x1",
+        "9223372036854775808", "-9223372036854775809"}) {
+      assertThrows(NumberFormatException.class,
+          () -> MatrixCsv.parseLong(text.toCharArray(), 0, text.length()),
+          text);
+    } // for
+    assertThrows(NumberFormatException.class,
+        () -> MatrixCsv.parseInt("2147483648".toCharArray(), 0, 10));
+    assertThrows(NumberFormatException.class,
+        () -> MatrixCsv.parseDouble("1.2.3".toCharArray(), 0, 5));
+  } // testNumbers()
+
+  /**
+   * Reject text that is not a matrix.
+   */
+  @Test
+  void testBadInput() {
+    IOException ragged = assertThrows(IOException.class,
+        () -> load("1,2\n3,4\n5\n", MatrixCsv.Codec.INT));
+    assertEquals("Row 2 has 1 cells, but row 0 has 2.", ragged.getMessage());
+    IOException number = assertThrows(IOException.class,
+        () -> load("1,2\n3,x\n", MatrixCsv.Codec.INT));
+    assertTrue(number.getMessage().startsWith("Cannot read cell (1, 1)"),
+        number.getMessage());
+    assertThrows(IOException.class,
+        () -> load("\"open,1\n", MatrixCsv.Codec.STRING), "unclosed");
+    assertThrows(IOException.class,
+        () -> load("\"a\"b,1\n", MatrixCsv.Codec.STRING), "after quote");
+    assertThrows(IllegalArgumentException.class,
+        () -> new MatrixCsv().separator('"'));
+  } // testBadInput()
+
+  /**
+   * Read large files in pieces, and fall back to one piece when the
+   * pieces cannot be trusted.
+   *
+   * @param dir
+   *   A directory for the files.
+   *
+   * @throws IOException
+   *   If writing or reading fails.
+   */
+  @Test
+  void testPieces(@TempDir Path dir) throws IOException {
+    IntMatrix ints = new IntMatrix(700, 1000);
+    for (int row = 0; row < 1000; row++) {
+      for (int col = 0; col < 700; col++) {
+        ints.setInt(row, col, row * 7919 - col * 104729);
+      } // for col
+    } // for row
+    Path file = dir.resolve("ints.csv");
+    new MatrixCsv().write(file, ints);
+    assertTrue(Files.size(file) > MatrixCsv.PARALLEL_THRESHOLD, "big enough");
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      MatrixCsv csv = new MatrixCsv().pool(pool);
+      assertEquals(ints, csv.read(file, MatrixCsv.Codec.INT), "in pieces");
+      assertEquals(ints, new MatrixCsv().pool(null).read(file,
+          MatrixCsv.Codec.INT), "in one piece");
+
+      try (FileChannel channel = FileChannel.open(file)) {
+        long size = channel.size();
+        long middle = MatrixCsv.rowStart(channel, size / 2, size);
+        assertEquals('\n', Files.readAllBytes(file)[(int) middle - 1],
+            "split after a newline");
+        assertEquals(size, MatrixCsv.rowStart(channel, size, size), "end");
+        MatrixCsv.Cells<Integer, ?> first = MatrixCsv.readPiece(channel, 0,
+            middle, MatrixCsv.Codec.INT, ',');
+        assertNotNull(first, "first piece");
+        assertEquals(700, first.width, "width of the first piece");
+      } // try
+
+      MatrixV0<String> strings = new MatrixV0<>(200, 5000, "cell");
+      for (int row = 0; row < 5000; row += 3) {
+        strings.set(row, row % 200, "a\n\"b\",c");
+      } // for
+      Path quoted = dir.resolve("quoted.csv");
+      csv.write(quoted, strings);
+      assertTrue(Files.size(quoted) > MatrixCsv.PARALLEL_THRESHOLD,
+          "quoted big enough");
+      try (FileChannel channel = FileChannel.open(quoted)) {
+        assertNull(MatrixCsv.readPiece(channel, 0, channel.size(),
+            MatrixCsv.Codec.STRING, ','), "quotes are not trusted");
+      } // try
+      assertEquals(strings, csv.read(quoted, MatrixCsv.Codec.STRING),
+          "quoted");
+
+      MatrixV0<String> repeated = new MatrixV0<>(200, 5000);
+      for (int row = 0; row < 5000; row++) {
+        for (int col = 0; col < 200; col++) {
+          repeated.set(row, col, "value" + (row * col % 37));
+        } // for col
+      } // for row
+      Path words = dir.resolve("words.csv");
+      csv.write(words, repeated);
+      assertTrue(Files.size(words) > MatrixCsv.PARALLEL_THRESHOLD,
+          "words big enough");
+      Matrix<String> coded = csv.read(words,
+          MatrixCsv.Codec.dictionary(MatrixCsv.Codec.STRING));
+      assertEquals(repeated, coded, "dictionary in pieces");
+      assertEquals(37, ((DictionaryMatrix<String>) coded).table().size(),
+          "one table for all the pieces");
+
+      Files.writeString(file, "3\n", StandardOpenOption.APPEND);
+      IOException ragged = assertThrows(IOException.class,
+          () -> csv.read(file, MatrixCsv.Codec.INT));
+      assertEquals("Row 1000 has 1 cells, but row 0 has 700.",
+          ragged.getMessage(), "the error is the same as in one piece");
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testPieces(Path)
+} // class MatrixCsvTest
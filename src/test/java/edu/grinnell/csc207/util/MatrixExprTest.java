@@ -0,0 +1,109 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Check that lazy expressions compute the same cells as doing each step
+ * by hand, and that they compute nothing until asked.
+ */
+class MatrixExprTest {
+  /**
+   * Build a matrix and fill each cell with 10 * row + col.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the new matrix.
+   */
+  static Matrix<Integer> numbered(int width, int height) {
+    Matrix<Integer> matrix = new MatrixV0<>(width, height, 0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        matrix.set(row, col, 10 * row + col);
+      } // for col
+    } // for row
+    return matrix;
+  } // numbered(int, int)
+
+  /**
+   * Chain the operations and read the result.
+   */
+  @Test
+  void testChain() {
+    Matrix<Integer> a = numbered(3, 2);
+    IntMatrix b = new IntMatrix(3, 2, 1);
+    Matrix<Boolean> evens = new MatrixV0<>(3, 2, false);
+    evens.fillLine(0, 0, 0, 2, 1, 3, true);
+    evens.fillLine(1, 0, 0, 2, 2, 3, true);
+    MatrixExpr<Double> expr = MatrixExpr.scale(MatrixExpr.add(a, b), 0.5)
+        .map((x) -> -x)
+        .mask(evens, 0.0);
+    assertMatrixEquals(new Double[][] {{-0.5, 0.0, -1.5}, {-5.5, 0.0, -6.5}},
+        expr.materialize(null), "materialized");
+    assertEquals(-6.5, expr.get(1, 2), "one cell");
+    assertEquals(3, expr.width(), "width");
+    assertEquals(2, expr.height(), "height");
+    assertThrows(IndexOutOfBoundsException.class, () -> expr.get(2, 0));
+  } // testChain()
+
+  /**
+   * Ensure that building an expression computes nothing and that the
+   * sources are read when the cells are.
+   */
+  @Test
+  void testLazy() {
+    Matrix<Integer> a = numbered(2, 2);
+    AtomicInteger calls = new AtomicInteger();
+    MatrixExpr<Integer> expr = MatrixExpr.of(a).map((x) -> {
+      calls.incrementAndGet();
+      return x + 1;
+    }).zipWith(a.transpose(), Integer::sum);
+    assertEquals(0, calls.get(), "calls before reading");
+    a.set(0, 1, 5);
+    assertMatrixEquals(new Integer[][] {{1, 16}, {16, 23}},
+        expr.materialize(null), "after changing the source");
+    assertEquals(4, calls.get(), "one call for each cell");
+  } // testLazy()
+
+  /**
+   * Materialize a large expression in several threads.
+   */
+  @Test
+  void testParallel() {
+    Matrix<Integer> a = numbered(300, 400);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      MatrixV0<Integer> result = MatrixExpr.of(a).map((x) -> x * 2)
+          .materialize(pool);
+      for (int row = 0; row < 400; row++) {
+        for (int col = 0; col < 300; col++) {
+          assertEquals(20 * row + 2 * col, result.get(row, col),
+              "cell (" + row + ", " + col + ")");
+        } // for col
+      } // for row
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testParallel()
+
+  /**
+   * Refuse to combine matrices of different shapes.
+   */
+  @Test
+  void testShapes() {
+    assertThrows(IllegalArgumentException.class,
+        () -> MatrixExpr.add(numbered(2, 3), numbered(3, 2)));
+    assertThrows(IllegalArgumentException.class,
+        () -> MatrixExpr.of(numbered(2, 2)).mask(new MatrixV0<>(2, 1, true),
+            0));
+  } // testShapes()
+} // class MatrixExprTest
@@ -0,0 +1,259 @@
+package edu.grinnell.csc207.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Check that matrices come back from the binary format as they went
+ * in, and that the reader rejects what it cannot read.
+ */
+class MatrixIOTest {
+  /**
+   * Write a matrix to an array of bytes.
+   *
+   * @param io
+   *   The writer.
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the bytes.
+   *
+   * @throws IOException
+   *   If writing fails, which it cannot.
+   */
+  static byte[] save(MatrixIO io, ReadableMatrix<?> matrix) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    io.write(out, matrix);
+    return out.toByteArray();
+  } // save(MatrixIO, ReadableMatrix<?>)
+
+  /**
+   * Read a matrix from an array of bytes, alternating between streams
+   * and channels.
+   *
+   * @param bytes
+   *   The bytes.
+   * @param channel
+   *   Whether to read from a channel rather than a stream.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the bytes do not hold a matrix.
+   */
+  static Matrix<?> load(byte[] bytes, boolean channel) throws IOException {
+    ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+    return channel ? new MatrixIO().read(Channels.newChannel(in))
+        : new MatrixIO().read(in);
+  } // load(byte[], boolean)
+
+  /**
+   * Save and load matrices of every codec, compressed and not.
+   *
+   * @throws IOException
+   *   If writing or reading fails.
+   */
+  @Test
+  void testRoundTrip() throws IOException {
+    IntMatrix ints = new IntMatrix(3, 2, -4);
+    ints.setInt(1, 2, Integer.MIN_VALUE);
+    LongMatrix longs = new LongMatrix(2, 3, 9L);
+    longs.setLong(0, 0, Long.MAX_VALUE);
+    DoubleMatrix doubles = new DoubleMatrix(2, 2, 0.5);
+    doubles.setDouble(0, 1, Double.NaN);
+    doubles.setDouble(1, 0, -0.0);
+    MatrixV0<String> strings = new MatrixV0<>(3, 2, "-");
+    strings.set(0, 0, null);
+    strings.set(0, 1, "café 世界");
+    strings.set(1, 2, "x".repeat(300_000));
+    MatrixV0<Integer> boxed = new MatrixV0<>(2, 2, 7);
+    boxed.set(1, 1, 8);
+    List<Matrix<?>> matrices = List.of(ints, longs, doubles, strings, boxed,
+        new IntMatrix(0, 0), new MatrixV0<String>(4, 0), new LongMatrix(0, 3));
+    for (Matrix<?> matrix : matrices) {
+      for (boolean compress : new boolean[] {false, true}) {
+        byte[] bytes = save(new MatrixIO().compress(compress), matrix);
+        Matrix<?> copy = load(bytes, compress);
+        String name = matrix.width() + "x" + matrix.height() + " "
+            + matrix.getClass().getSimpleName() + " compressed " + compress;
+        assertEquals(matrix, copy, name);
+        assertEquals(matrix.height(), copy.height(), name + " height");
+        assertEquals(matrix.width(), copy.width(), name + " width");
+      } // for
+    } // for
+
+    Matrix<?> copy = load(save(new MatrixIO(), ints), false);
+    assertInstanceOf(IntMatrix.class, copy, "ints come back as IntMatrix");
+    copy.insertRow(0);
+    assertEquals(-4, copy.get(0, 0), "default value");
+    Matrix<String> text = new MatrixIO().read(
+        new ByteArrayInputStream(save(new MatrixIO(), strings)),
+        MatrixIO.Codec.STRING);
+    text.insertCol(0);
+    assertEquals("-", text.get(1, 0), "default string");
+  } // testRoundTrip()
+
+  /**
+   * Save and load a matrix that spans many blocks, and check that
+   * compression helps a matrix of repeated values.
+   *
+   * @throws IOException
+   *   If writing or reading fails.
+   */
+  @Test
+  void testLarge() throws IOException {
+    IntMatrix matrix = new IntMatrix(700, 500, 3);
+    for (int row = 0; row < 500; row += 3) {
+      matrix.setInt(row, row, row * 31);
+    } // for
+    byte[] plain = save(new MatrixIO(), matrix);
+    byte[] deflated = save(new MatrixIO().compress(true), matrix);
+    assertEquals(MatrixIO.HEADER_SIZE + 4 + 4 * 700 * 500, plain.length,
+        "header, default, and cells");
+    assertTrue(deflated.length < plain.length / 10, "compressed size");
+    assertEquals(matrix, load(plain, true), "plain");
+    assertEquals(matrix, load(deflated, false), "compressed");
+  } // testLarge()
+
+  /**
+   * Choose a codec from the cells, or from the option.
+   *
+   * @throws IOException
+   *   If writing or reading fails.
+   */
+  @Test
+  void testCodecs() throws IOException {
+    MatrixV0<Object> doubles = new MatrixV0<>(2, 1);
+    doubles.set(0, 1, 2.5);
+    assertThrows(NullPointerException.class,
+        () -> save(new MatrixIO(), doubles), "null double");
+    doubles.set(0, 0, 1.5);
+    assertEquals(doubles, load(save(new MatrixIO(), doubles), false),
+        "doubles");
+
+    MatrixV0<Integer> ints = new MatrixV0<>(2, 2, 1);
+    byte[] asLongs = save(new MatrixIO().codec(MatrixIO.Codec.LONG),
+        new LongMatrix(2, 2, 1L));
+    assertInstanceOf(LongMatrix.class, load(asLongs, true), "long codec");
+    assertThrows(ClassCastException.class,
+        () -> save(new MatrixIO().codec(MatrixIO.Codec.STRING), ints));
+    assertThrows(IllegalArgumentException.class,
+        () -> save(new MatrixIO(), new MatrixV0<Object>(1, 1, new Object())));
+    assertThrows(IOException.class, () -> new MatrixIO().read(
+        new ByteArrayInputStream(save(new MatrixIO(), ints)),
+        MatrixIO.Codec.DOUBLE), "wrong codec");
+  } // testCodecs()
+
+  /**
+   * Reject input that is not a matrix we can read.
+   *
+   * @throws IOException
+   *   If writing fails, which it cannot.
+   */
+  @Test
+  void testBadInput() throws IOException {
+    byte[] good = save(new MatrixIO(), new IntMatrix(3, 3, 1));
+    assertEquals(MatrixIO.MAGIC, ByteBuffer.wrap(good).getInt(), "magic");
+
+    byte[] magic = good.clone();
+    magic[0] = 'X';
+    assertThrows(IOException.class, () -> load(magic, false), "magic");
+    byte[] version = good.clone();
+    ByteBuffer.wrap(version).putShort(4, (short) (MatrixIO.VERSION + 1));
+    assertThrows(IOException.class, () -> load(version, false), "version");
+    byte[] flags = good.clone();
+    ByteBuffer.wrap(flags).putShort(6, (short) 0x80);
+    assertThrows(IOException.class, () -> load(flags, false), "flags");
+    byte[] codec = good.clone();
+    ByteBuffer.wrap(codec).putInt(8, 99);
+    assertThrows(IOException.class, () -> load(codec, false), "codec");
+    assertThrows(EOFException.class,
+        () -> load(Arrays.copyOf(good, good.length - 1), true), "truncated");
+    byte[] deflated = save(new MatrixIO().compress(true), new IntMatrix(3, 3, 1));
+    assertThrows(EOFException.class,
+        () -> load(Arrays.copyOf(deflated, deflated.length - 4), false),
+        "truncated and compressed");
+  } // testBadInput()
+
+  /**
+   * Save and load primitive matrices whose rows are packed, padded, and
+   * off the heap, which take the bulk paths.
+   *
+   * @throws IOException
+   *   If writing or reading fails.
+   */
+  @Test
+  void testBulk() throws IOException {
+    IntMatrix padded = new IntMatrix(5, 4, 2);
+    padded.insertCol(1);
+    padded.setInt(3, 5, -9);
+    assertTrue(padded.stride() > padded.width(), "rows are padded");
+    LongMatrix longs = new LongMatrix(300, 200, -1L);
+    longs.setLong(199, 299, Long.MIN_VALUE);
+    DoubleMatrix doubles = new DoubleMatrix(70000, 2, 1.25);
+    doubles.setDouble(1, 69999, Double.NEGATIVE_INFINITY);
+    try (OffHeapMatrix<Integer> offHeapInts =
+            new OffHeapMatrix<>(ElementType.INT, 100, 1000, 4);
+        OffHeapMatrix<Double> offHeapDoubles =
+            new OffHeapMatrix<>(ElementType.DOUBLE, 3, 3, 0.0)) {
+      offHeapInts.setInt(999, 99, 5);
+      offHeapDoubles.insertCol(0);
+      offHeapDoubles.setDouble(2, 0, Math.PI);
+      List<Matrix<?>> matrices = List.of(padded, longs, doubles, offHeapInts,
+          offHeapDoubles);
+      for (Matrix<?> matrix : matrices) {
+        for (boolean compress : new boolean[] {false, true}) {
+          Matrix<?> copy = load(save(new MatrixIO().compress(compress), matrix),
+              compress);
+          assertEquals(matrix, copy, matrix.getClass().getSimpleName()
+              + " compressed " + compress);
+        } // for
+      } // for
+      assertEquals(MatrixIO.HEADER_SIZE + 4 + 4 * 100 * 1000,
+          save(new MatrixIO(), offHeapInts).length, "off-heap size");
+    } // try
+  } // testBulk()
+
+  /**
+   * Read a big-endian file, as written by machines of that order.
+   *
+   * @throws IOException
+   *   If reading fails.
+   */
+  @Test
+  void testBigEndian() throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(MatrixIO.HEADER_SIZE + 4 + 3 * 4);
+    bytes.putInt(MatrixIO.MAGIC)
+        .putShort((short) 1)
+        .putShort((short) MatrixIO.HAS_DEFAULT)
+        .putInt(MatrixIO.Codec.INT.code())
+        .putInt(1)
+        .putInt(3)
+        .putInt(6)
+        .putInt(1)
+        .putInt(-2)
+        .putInt(0x01020304);
+    Matrix<Integer> matrix = new MatrixIO().read(
+        new ByteArrayInputStream(bytes.array()), MatrixIO.Codec.INT);
+    IntMatrix expected = new IntMatrix(3, 1, 6);
+    expected.setInt(0, 0, 1);
+    expected.setInt(0, 1, -2);
+    expected.setInt(0, 2, 0x01020304);
+    assertEquals(expected, matrix, "cells");
+    matrix.insertRow(1);
+    assertEquals(6, matrix.get(1, 2), "default");
+  } // testBigEndian()
+} // class MatrixIOTest
@@ -0,0 +1,189 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Check matrix multiplication against the textbook triple loop. The
+ * cells are small integers, so that every sum is exact whatever order
+ * we add in.
+ */
+class MatrixMathTest {
+  /**
+   * Shapes to multiply: the height of a, the width of a, and the width
+   * of b. They include odd sizes, empty matrices, and sizes just past
+   * a tile or a depth.
+   */
+  static final int[][] SHAPES = {
+    {1, 1, 1}, {0, 3, 2}, {3, 0, 2}, {2, 3, 0}, {3, 5, 7}, {8, 8, 8},
+    {65, 70, 67}, {33, 257, 5}, {130, 300, 129}
+  };
+
+  /**
+   * Build a matrix of small random integers.
+   *
+   * @param random
+   *   Where the values come from.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the matrix.
+   */
+  static DoubleMatrix random(Random random, int width, int height) {
+    DoubleMatrix result = new DoubleMatrix(width, height);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        result.setDouble(row, col, random.nextInt(19) - 9);
+      } // for col
+    } // for row
+    return result;
+  } // random(Random, int, int)
+
+  /**
+   * Multiply two matrices the slow way.
+   *
+   * @param a
+   *   The matrix on the left.
+   * @param b
+   *   The matrix on the right.
+   *
+   * @return the product.
+   */
+  static DoubleMatrix naive(ReadableMatrix<? extends Number> a,
+      ReadableMatrix<? extends Number> b) {
+    DoubleMatrix result = new DoubleMatrix(b.width(), a.height());
+    for (int row = 0; row < a.height(); row++) {
+      for (int col = 0; col < b.width(); col++) {
+        double sum = 0;
+        for (int pos = 0; pos < a.width(); pos++) {
+          sum += a.get(row, pos).doubleValue() * b.get(pos, col).doubleValue();
+        } // for pos
+        result.setDouble(row, col, sum);
+      } // for col
+    } // for row
+    return result;
+  } // naive(ReadableMatrix, ReadableMatrix)
+
+  /**
+   * Multiply matrices of doubles of many shapes.
+   */
+  @Test
+  void testDoubles() {
+    Random random = new Random(207);
+    for (int[] shape : SHAPES) {
+      DoubleMatrix a = random(random, shape[1], shape[0]);
+      DoubleMatrix b = random(random, shape[2], shape[1]);
+      assertEquals(naive(a, b), MatrixMath.multiply(a, b, null),
+          shape[0] + "x" + shape[1] + " times " + shape[1] + "x" + shape[2]);
+    } // for
+  } // testDoubles()
+
+  /**
+   * Multiply other kinds of matrices, including one whose rows are
+   * padded.
+   */
+  @Test
+  void testMixed() {
+    Random random = new Random(207);
+    DoubleMatrix a = random(random, 70, 45);
+    DoubleMatrix b = random(random, 33, 70);
+    IntMatrix ints = new IntMatrix(70, 45);
+    MatrixV0<Integer> boxed = new MatrixV0<>(33, 70, 0);
+    LongMatrix longs = new LongMatrix(33, 70);
+    for (int row = 0; row < 70; row++) {
+      for (int col = 0; col < 70; col++) {
+        if (row < 45) {
+          ints.setInt(row, col, (int) a.getDouble(row, col));
+        } // if
+        if (col < 33) {
+          boxed.set(row, col, (int) b.getDouble(row, col));
+          longs.setLong(row, col, (long) b.getDouble(row, col));
+        } // if
+      } // for col
+    } // for row
+    DoubleMatrix expected = naive(a, b);
+    assertEquals(expected, MatrixMath.multiply(ints, boxed, null),
+        "IntMatrix times MatrixV0");
+    assertEquals(expected, MatrixMath.multiply(a, longs, null),
+        "DoubleMatrix times LongMatrix");
+    ints.insertCol(0);
+    ints.deleteCol(0);
+    assertEquals(expected, MatrixMath.multiply(ints, b, null),
+        "padded IntMatrix times DoubleMatrix");
+  } // testMixed()
+
+  /**
+   * Split a product across several threads.
+   */
+  @Test
+  void testParallel() {
+    Random random = new Random(207);
+    DoubleMatrix a = random(random, 200, 301);
+    DoubleMatrix b = random(random, 151, 200);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(naive(a, b), MatrixMath.multiply(a, b, pool),
+          "product in four threads");
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testParallel()
+
+  /**
+   * Multiply with Strassen-Winograd, with a cutoff small enough that
+   * every shape recurses a few levels.
+   */
+  @Test
+  void testStrassen() {
+    Random random = new Random(207);
+    for (int[] shape : SHAPES) {
+      DoubleMatrix a = random(random, shape[1], shape[0]);
+      DoubleMatrix b = random(random, shape[2], shape[1]);
+      assertEquals(naive(a, b), MatrixMath.strassen(a, b, null, 8),
+          shape[0] + "x" + shape[1] + " times " + shape[1] + "x" + shape[2]);
+    } // for
+  } // testStrassen()
+
+  /**
+   * Run the seven products of Strassen-Winograd in several threads, and
+   * pick each algorithm through the public method.
+   */
+  @Test
+  void testAlgorithms() {
+    Random random = new Random(207);
+    DoubleMatrix a = random(random, 150, 150);
+    DoubleMatrix b = random(random, 150, 150);
+    DoubleMatrix expected = naive(a, b);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(expected, MatrixMath.strassen(a, b, pool, 16),
+          "Strassen-Winograd in four threads");
+      for (MatrixMath.Algorithm algorithm : MatrixMath.Algorithm.values()) {
+        assertEquals(expected, MatrixMath.multiply(a, b, algorithm, pool),
+            algorithm.toString());
+      } // for
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testAlgorithms()
+
+  /**
+   * Refuse to multiply matrices whose shapes do not match.
+   */
+  @Test
+  void testShapes() {
+    assertThrows(IllegalArgumentException.class,
+        () -> MatrixMath.multiply(new DoubleMatrix(3, 2),
+            new DoubleMatrix(2, 2)));
+    assertThrows(NullPointerException.class,
+        () -> MatrixMath.multiply(new MatrixV0<Integer>(1, 1),
+            new DoubleMatrix(1, 1)));
+  } // testShapes()
+} // class MatrixMathTest
@@ -0,0 +1,240 @@
+package edu.grinnell.csc207.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Check that the printer draws exactly what Matrix.print used to draw,
+ * and check its other layouts.
+ */
+class MatrixPrinterTest {
+  /**
+   * Print a matrix the way Matrix.print used to.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param includeLabels
+   *   Whether to label rows and columns.
+   *
+   * @return what it printed.
+   */
+  static String legacy(ReadableMatrix<?> matrix, boolean includeLabels) {
+    StringWriter buffer = new StringWriter();
+    PrintWriter pen = new PrintWriter(buffer);
+    int width = matrix.width();
+    int height = matrix.height();
+    int cellWidth = 0;
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        cellWidth = Math.max(cellWidth,
+            Matrix.toString(matrix.get(row, col)).length());
+      } // for col
+    } // for row
+    cellWidth += 2;
+    if (includeLabels) {
+      pen.print(" ".repeat(4));
+      for (int col = 0; col < width; col++) {
+        Matrix.printCell(pen, String.format("%2d", col), cellWidth + 1);
+      } // for
+      pen.println();
+    } // if
+    for (int row = 0; row < height; row++) {
+      if (includeLabels) {
+        pen.print(" ".repeat(4));
+      } // if
+      Matrix.printRowSeparator(pen, cellWidth, width);
+      if (includeLabels) {
+        pen.printf(" %2d ", row);
+      } // if
+      for (int col = 0; col < width; col++) {
+        pen.print("|");
+        Matrix.printCell(pen, Matrix.toString(matrix.get(row, col)),
+            cellWidth);
+      } // for col
+      pen.println("|");
+    } // for row
+    if (includeLabels) {
+      pen.print(" ".repeat(4));
+    } // if
+    Matrix.printRowSeparator(pen, cellWidth, width);
+    pen.flush();
+    return buffer.toString();
+  } // legacy(ReadableMatrix<?>, boolean)
+
+  /**
+   * Print a matrix with Matrix.print.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param includeLabels
+   *   Whether to label rows and columns.
+   *
+   * @return what it printed.
+   */
+  static String print(ReadableMatrix<?> matrix, boolean includeLabels) {
+    StringWriter buffer = new StringWriter();
+    PrintWriter pen = new PrintWriter(buffer);
+    Matrix.print(pen, matrix, includeLabels);
+    pen.flush();
+    return buffer.toString();
+  } // print(ReadableMatrix<?>, boolean)
+
+  /**
+   * Ensure that Matrix.print still prints exactly what it did.
+   */
+  @Test
+  void testSameAsBefore() {
+    MatrixV0<String> strings = new MatrixV0<>(3, 2, "x");
+    strings.set(0, 1, null);
+    strings.set(1, 2, "longer");
+    strings.set(1, 0, "");
+    IntMatrix ints = new IntMatrix(4, 120, 7);
+    ints.set(0, 0, Integer.MIN_VALUE);
+    ints.set(119, 3, -12);
+    ints.set(50, 1, 1000);
+    LongMatrix longs = new LongMatrix(2, 2);
+    longs.setLong(1, 1, Long.MIN_VALUE);
+    longs.setLong(0, 1, Long.MAX_VALUE);
+    DoubleMatrix doubles = new DoubleMatrix(2, 3, -0.5);
+    MatrixV0<Number> boxed = new MatrixV0<>(3, 1, 0);
+    boxed.set(0, 1, Integer.MIN_VALUE);
+    boxed.set(0, 2, -7L);
+    List<ReadableMatrix<?>> matrices = List.of(strings, ints, longs,
+        doubles, boxed, new MatrixV0<Integer>(0, 0), new MatrixV0<Integer>(3, 0),
+        new IntMatrix(0, 2), new IntMatrix(10001, 1, 1));
+    for (ReadableMatrix<?> matrix : matrices) {
+      for (boolean labels : new boolean[] {false, true}) {
+        assertEquals(legacy(matrix, labels), print(matrix, labels),
+            matrix.width() + "x" + matrix.height() + " "
+            + matrix.getClass().getSimpleName() + " with labels " + labels);
+      } // for
+    } // for
+  } // testSameAsBefore()
+
+  /**
+   * Give each column its own width.
+   *
+   * @throws IOException
+   *   If the output fails, which it cannot.
+   */
+  @Test
+  void testColumnWidths() throws IOException {
+    MatrixV0<Integer> matrix = new MatrixV0<>(3, 2, 1);
+    matrix.set(1, 1, 12345);
+    matrix.set(0, 2, -10);
+    StringBuilder out = new StringBuilder();
+    new MatrixPrinter().columnWidths(true).labels(true).print(out, matrix);
+    String nl = System.lineSeparator();
+    assertEquals("      0     1      2  " + nl
+        + "    +---+-------+-----+" + nl
+        + "  0 | 1 |   1   | -10 |" + nl
+        + "    +---+-------+-----+" + nl
+        + "  1 | 1 | 12345 |  1  |" + nl
+        + "    +---+-------+-----+" + nl, out.toString());
+  } // testColumnWidths()
+
+  /**
+   * Draw a table a row at a time, cutting cells that are too wide.
+   *
+   * @throws IOException
+   *   If the output fails, which it cannot.
+   */
+  @Test
+  void testStream() throws IOException {
+    MatrixV0<Integer> matrix = new MatrixV0<>(2, 2, 3);
+    matrix.set(1, 0, null);
+    String expected = legacy(matrix, true);
+    StringBuilder out = new StringBuilder();
+    MatrixPrinter.Rows rows = new MatrixPrinter().labels(true)
+        .stream(out, new int[] {1, 1});
+    rows.row(Arrays.asList(3, 3));
+    rows.row(Arrays.asList(null, 3));
+    rows.finish();
+    assertEquals(expected, out.toString(), "two rows");
+
+    out.setLength(0);
+    rows = new MatrixPrinter().stream(out, new int[] {2});
+    rows.row(List.of("abcdef"));
+    rows.finish();
+    String nl = System.lineSeparator();
+    assertEquals("+----+" + nl + "|abcd|" + nl + "+----+" + nl,
+        out.toString(), "cut short");
+    MatrixPrinter.Rows bad = rows;
+    assertThrows(IllegalArgumentException.class,
+        () -> bad.row(List.of(1, 2)));
+  } // testStream()
+
+  /**
+   * Ensure that output through a PrintWriter made with autoFlush shows
+   * up without another flush, as it did when Matrix.print used println.
+   * A PrintWriter over a stream buffers what it writes, so the bytes
+   * reach the stream only when it flushes.
+   *
+   * @throws IOException
+   *   If the output fails, which it cannot.
+   */
+  @Test
+  void testAutoFlush() throws IOException {
+    MatrixV0<Integer> matrix = new MatrixV0<>(2, 2, 3);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintWriter pen = new PrintWriter(bytes, true);
+    Matrix.print(pen, matrix, true);
+    assertEquals(legacy(matrix, true), bytes.toString(), "Matrix.print");
+
+    bytes.reset();
+    MatrixPrinter.Rows rows = new MatrixPrinter().stream(pen, new int[] {1});
+    rows.row(List.of(3));
+    String nl = System.lineSeparator();
+    assertEquals("+---+" + nl + "| 3 |" + nl, bytes.toString(), "one row");
+    rows.finish();
+    assertEquals("+---+" + nl + "| 3 |" + nl + "+---+" + nl,
+        bytes.toString(), "finished");
+  } // testAutoFlush()
+
+  /**
+   * Ensure that streaming rows leaves buffering to the writer, flushing
+   * only when the table is finished.
+   *
+   * @throws IOException
+   *   If the output fails, which it cannot.
+   */
+  @Test
+  void testFlushOnce() throws IOException {
+    StringWriter text = new StringWriter();
+    int[] flushes = new int[1];
+    Writer out = new Writer() {
+      @Override
+      public void write(char[] buf, int off, int len) {
+        text.write(buf, off, len);
+      } // write(char[], int, int)
+
+      @Override
+      public void flush() {
+        flushes[0]++;
+      } // flush()
+
+      @Override
+      public void close() {
+      } // close()
+    };
+    MatrixPrinter.Rows rows = new MatrixPrinter().stream(out, new int[] {1});
+    for (int row = 0; row < 3; row++) {
+      rows.row(List.of(row));
+    } // for
+    assertEquals(0, flushes[0], "no flush per row");
+    rows.finish();
+    assertEquals(1, flushes[0], "one flush at the end");
+    new MatrixPrinter().print(out, new MatrixV0<>(2, 2, "a"));
+    assertEquals(2, flushes[0], "one flush per matrix");
+  } // testFlushOnce()
+} // class MatrixPrinterTest
@@ -0,0 +1,158 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Run the shared matrix tests against {@link MatrixV0}.
+ */
+class MatrixV0Test extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new MatrixV0<>(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that reserving and releasing capacity keeps the contents.
+   */
+  @Test
+  void testCapacity() throws ArraySizeException {
+    MatrixV0<Integer> matrix = new MatrixV0<>(2, 2, 0);
+    matrix.set(1, 1, 5);
+    matrix.ensureCapacity(10, 10);
+    assertMatrixEquals(new Integer[][] {{0, 0}, {0, 5}}, matrix,
+        "after ensureCapacity");
+    matrix.insertCol(2, new Integer[] {1, 2});
+    matrix.insertRow(0);
+    assertMatrixEquals(new Integer[][] {{0, 0, 0}, {0, 0, 1}, {0, 5, 2}},
+        matrix, "after inserts into spare capacity");
+    matrix.deleteCol(0);
+    matrix.trimToSize();
+    matrix.insertRow(3, new Integer[] {7, 8});
+    assertMatrixEquals(new Integer[][] {{0, 0}, {0, 1}, {5, 2}, {7, 8}},
+        matrix, "after trimToSize");
+  } // testCapacity()
+
+  /**
+   * Ensure that inserted rows do not alias the caller's array and that
+   * spare columns are not reachable.
+   */
+  @Test
+  void testNoLeaks() throws ArraySizeException {
+    MatrixV0<Integer> matrix = new MatrixV0<>(2, 1, 0);
+    Integer[] vals = new Integer[] {1, 2};
+    matrix.insertRow(0, vals);
+    vals[0] = 9;
+    assertEquals(1, matrix.get(0, 0), "row copied on insert");
+    matrix.insertCol(2);
+    matrix.deleteCol(2);
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(0, 2));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> matrix.fillLine(0, 0, 0, 1, 1, 3, 4));
+  } // testNoLeaks()
+
+  /**
+   * Ensure that clones sharing rows stay independent through every
+   * kind of change, including clones of clones.
+   */
+  @Test
+  void testCopyOnWrite() throws ArraySizeException {
+    MatrixV0<Integer> original = (MatrixV0<Integer>) numbered(3, 3);
+    @SuppressWarnings("unchecked")
+    MatrixV0<Integer> first = (MatrixV0<Integer>) original.clone();
+    @SuppressWarnings("unchecked")
+    MatrixV0<Integer> second = (MatrixV0<Integer>) first.clone();
+    original.fillRegion(0, 0, 1, 3, 7);
+    first.insertCol(1, new Integer[] {4, 5, 6});
+    second.deleteRow(1);
+    second.fillLine(0, 0, 1, 1, 2, 3, 9);
+    assertMatrixEquals(new Integer[][] {{7, 7, 7}, {10, 11, 12}, {20, 21, 22}},
+        original, "original");
+    assertMatrixEquals(
+        new Integer[][] {{0, 4, 1, 2}, {10, 5, 11, 12}, {20, 6, 21, 22}},
+        first, "first clone");
+    assertMatrixEquals(new Integer[][] {{9, 1, 2}, {20, 9, 22}}, second,
+        "second clone");
+    @SuppressWarnings("unchecked")
+    MatrixV0<Integer> third = (MatrixV0<Integer>) original.clone();
+    assertEquals(original, third, "clone of a changed matrix");
+    original.ensureCapacity(10, 10);
+    original.insertRow(0);
+    third.deleteCol(0);
+    third.set(0, 0, -1);
+    assertMatrixEquals(new Integer[][] {{-1, 7}, {11, 12}, {21, 22}}, third,
+        "third clone");
+    assertMatrixEquals(
+        new Integer[][] {{0, 0, 0}, {7, 7, 7}, {10, 11, 12}, {20, 21, 22}},
+        original, "original after more changes");
+  } // testCopyOnWrite()
+
+  /**
+   * Ensure that passes split into bands agree with passes on one thread,
+   * including on rows shared with a clone.
+   */
+  @Test
+  void testParallel() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      MatrixV0<Integer> parallel = new MatrixV0<>(400, 300, 0);
+      MatrixV0<Integer> sequential = new MatrixV0<>(400, 300, 0);
+      parallel.setPool(pool);
+      sequential.setPool(null);
+      for (int row = 0; row < 300; row += 7) {
+        parallel.set(row, row, row);
+        sequential.set(row, row, row);
+      } // for
+      @SuppressWarnings("unchecked")
+      MatrixV0<Integer> clone = (MatrixV0<Integer>) parallel.clone();
+      parallel.fillRegion(10, 20, 290, 390, 5);
+      sequential.fillRegion(10, 20, 290, 390, 5);
+      assertEquals(sequential, parallel, "after a parallel fill");
+      assertEquals(sequential.hashCode(), parallel.hashCode(),
+          "hash codes");
+      assertEquals(0, clone.get(10, 20), "clone after a parallel fill");
+      assertNotEquals(parallel, clone, "clone");
+      clone.fillRegion(10, 20, 290, 390, 5);
+      assertEquals(parallel, clone, "clone after the same fill");
+      clone.set(299, 399, null);
+      assertNotEquals(clone, parallel, "one null cell");
+      assertEquals(new PersistentMatrix<>(400, 300, 0).hashCode(),
+          new MatrixV0<>(400, 300, 0).hashCode(), "hash of the default");
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testParallel()
+
+  /**
+   * Ensure that applying a batch leaves clones alone and leaves the
+   * matrix ready for more edits.
+   *
+   * @throws ArraySizeException
+   *   If an insertion has the wrong size, which it cannot.
+   */
+  @Test
+  void testBatchAndClone() throws ArraySizeException {
+    MatrixV0<Integer> matrix = (MatrixV0<Integer>) numbered(3, 2);
+    Matrix<Integer> clone = matrix.clone();
+    matrix.batch()
+        .insertCol(3, new Integer[] {7, 8})
+        .deleteRow(0)
+        .insertRow(0)
+        .set(0, 3, 9)
+        .apply();
+    assertMatrixEquals(new Integer[][] {{0, 0, 0, 9}, {10, 11, 12, 8}}, matrix,
+        "after the batch");
+    assertMatrixEquals(new Integer[][] {{0, 1, 2}, {10, 11, 12}}, clone,
+        "clone after the batch");
+    matrix.insertCol(0);
+    matrix.set(1, 0, 5);
+    assertMatrixEquals(new Integer[][] {{0, 0, 0, 0, 9}, {5, 10, 11, 12, 8}},
+        matrix, "after more edits");
+  } // testBatchAndClone()
+} // class MatrixV0Test
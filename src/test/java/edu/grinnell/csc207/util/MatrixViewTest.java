@@ -0,0 +1,135 @@
+package edu.grinnell.csc207.util;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Check that views of a matrix read and write through to it.
+ */
+class MatrixViewTest {
+  /**
+   * Build a matrix and fill each cell with 10 * row + col.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the new matrix.
+   */
+  static Matrix<Integer> numbered(int width, int height) {
+    Matrix<Integer> matrix = new MatrixV0<>(width, height, 0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        matrix.set(row, col, 10 * row + col);
+      } // for col
+    } // for row
+    return matrix;
+  } // numbered(int, int)
+
+  /**
+   * Ensure that regions, and regions of regions, see and change the
+   * right cells.
+   */
+  @Test
+  void testSubMatrix() {
+    Matrix<Integer> matrix = numbered(4, 3);
+    Matrix<Integer> region = matrix.subMatrix(1, 1, 3, 4);
+    assertMatrixEquals(new Integer[][] {{11, 12, 13}, {21, 22, 23}}, region,
+        "region");
+    Matrix<Integer> inner = region.subMatrix(0, 1, 2, 2);
+    assertMatrixEquals(new Integer[][] {{12}, {22}}, inner, "inner region");
+    inner.set(1, 0, -1);
+    region.fillRegion(0, 0, 1, 2, 7);
+    assertMatrixEquals(new Integer[][] {
+        {0, 1, 2, 3}, {10, 7, 7, 13}, {20, 21, -1, 23}}, matrix,
+        "after writing through the regions");
+    matrix.set(2, 3, 99);
+    assertEquals(99, region.get(1, 2), "region sees the parent");
+    Matrix<Integer> empty = matrix.subMatrix(1, 2, 1, 2);
+    assertEquals(0, empty.height(), "height of empty region");
+    assertEquals(0, empty.width(), "width of empty region");
+  } // testSubMatrix()
+
+  /**
+   * Ensure that transposed views, and views of them, see and change the
+   * right cells.
+   */
+  @Test
+  void testTranspose() {
+    Matrix<Integer> matrix = numbered(3, 2);
+    Matrix<Integer> flipped = matrix.transpose();
+    assertMatrixEquals(new Integer[][] {{0, 10}, {1, 11}, {2, 12}}, flipped,
+        "transpose");
+    assertSame(matrix, flipped.transpose(), "transpose of the transpose");
+    Matrix<Integer> corner = flipped.subMatrix(1, 0, 3, 1);
+    assertMatrixEquals(new Integer[][] {{1}, {2}}, corner, "corner");
+    assertMatrixEquals(new Integer[][] {{1, 2}}, corner.transpose(),
+        "transposed corner");
+    corner.set(1, 0, -2);
+    flipped.fillRegion(0, 1, 2, 2, 5);
+    flipped.fillLine(0, 0, 1, 1, 3, 2, 8);
+    assertMatrixEquals(new Integer[][] {{8, 1, -2}, {5, 8, 12}}, matrix,
+        "after writing through the views");
+  } // testTranspose()
+
+  /**
+   * Ensure that rows and columns are views of height or width 1.
+   */
+  @Test
+  void testRowsAndCols() {
+    Matrix<Integer> matrix = numbered(3, 3);
+    assertMatrixEquals(new Integer[][] {{10, 11, 12}}, matrix.row(1), "row");
+    assertMatrixEquals(new Integer[][] {{2}, {12}, {22}}, matrix.col(2),
+        "column");
+    matrix.col(0).fillRegion(0, 0, 3, 1, 4);
+    matrix.transpose().row(2).set(0, 1, 6);
+    assertMatrixEquals(new Integer[][] {{4, 1, 2}, {4, 11, 6}, {4, 21, 22}},
+        matrix, "after writing through a row and a column");
+  } // testRowsAndCols()
+
+  /**
+   * Ensure that views stay inside their bounds and keep their shape.
+   */
+  @Test
+  void testBounds() {
+    Matrix<Integer> matrix = numbered(4, 3);
+    Matrix<Integer> region = matrix.subMatrix(1, 1, 3, 3);
+    assertThrows(IndexOutOfBoundsException.class, () -> region.get(0, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> region.set(2, 0, 1));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> region.fillRegion(0, 0, 2, 3, 1));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> region.fillLine(0, 0, 1, 1, 5, 5, 1));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> matrix.subMatrix(0, 0, 4, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.row(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.col(-1));
+    assertThrows(UnsupportedOperationException.class,
+        () -> region.insertRow(0));
+    assertThrows(UnsupportedOperationException.class,
+        () -> region.deleteCol(0));
+    assertEquals(numbered(4, 3), matrix, "cells outside the region");
+  } // testBounds()
+
+  /**
+   * Ensure that views compare like other matrices and that their clones
+   * are copies.
+   */
+  @Test
+  void testEqualsAndClone() {
+    Matrix<Integer> matrix = numbered(3, 3);
+    Matrix<Integer> region = matrix.subMatrix(0, 1, 2, 3);
+    Matrix<Integer> copy = region.clone();
+    assertEquals(copy, region, "clone equals view");
+    assertEquals(region, copy, "view equals clone");
+    assertEquals(copy.hashCode(), region.hashCode(), "hash codes");
+    matrix.set(0, 1, 100);
+    assertEquals(1, copy.get(0, 0), "clone is a copy");
+    assertEquals(matrix.row(1), numbered(3, 2).row(1), "equal rows");
+  } // testEqualsAndClone()
+} // class MatrixViewTest
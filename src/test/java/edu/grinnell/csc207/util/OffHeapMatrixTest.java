@@ -0,0 +1,82 @@
+package edu.grinnell.csc207.util;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link OffHeapMatrix}.
+ */
+class OffHeapMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new OffHeapMatrix<>(ElementType.INT, width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that matrices of doubles work, boxed and unboxed.
+   */
+  @Test
+  void testDoubles() throws ArraySizeException {
+    try (OffHeapMatrix<Double> matrix =
+        new OffHeapMatrix<>(ElementType.DOUBLE, 3, 2, 1.5)) {
+      matrix.setDouble(0, 2, Double.NaN);
+      matrix.insertRow(1, new Double[] {4.0, 5.0, 6.0});
+      matrix.deleteCol(0);
+      assertMatrixEquals(
+          new Double[][] {{1.5, Double.NaN}, {5.0, 6.0}, {1.5, 1.5}},
+          matrix, "after edits");
+      assertEquals(6.0, matrix.getDouble(1, 1), "unboxed get");
+      DoubleMatrix onHeap = new DoubleMatrix(2, 3, 1.5);
+      onHeap.setDouble(0, 1, Double.NaN);
+      onHeap.setDouble(1, 0, 5.0);
+      onHeap.setDouble(1, 1, 6.0);
+      assertEquals(onHeap, matrix, "equal to on-heap matrix");
+      assertEquals(onHeap.hashCode(), matrix.hashCode(), "same hash code");
+      try (OffHeapMatrix<Double> copy = matrix.clone()) {
+        assertEquals(matrix, copy, "equal to clone, even with NaN");
+        copy.setDouble(2, 0, 0.0);
+        assertNotEquals(matrix, copy, "clone changed");
+      } // try
+      assertThrows(UnsupportedOperationException.class,
+          () -> matrix.getLong(0, 0));
+    } // try
+  } // testDoubles()
+
+  /**
+   * Ensure that matrices of different types are not confused.
+   */
+  @Test
+  void testTypes() {
+    try (OffHeapMatrix<Integer> ints =
+            new OffHeapMatrix<>(ElementType.INT, 2, 2, 0);
+        OffHeapMatrix<Long> longs =
+            new OffHeapMatrix<>(ElementType.LONG, 2, 2, 0L)) {
+      assertNotEquals(ints, longs, "0 and 0L differ");
+      assertThrows(NullPointerException.class,
+          () -> new OffHeapMatrix<>(ElementType.INT, 1, 1, null));
+      assertThrows(NullPointerException.class, () -> ints.set(0, 0, null));
+    } // try
+  } // testTypes()
+
+  /**
+   * Ensure that closed matrices cannot be used.
+   */
+  @Test
+  void testClose() {
+    OffHeapMatrix<Long> matrix = new OffHeapMatrix<>(ElementType.LONG, 4, 4, 7L);
+    matrix.close();
+    assertThrows(IllegalStateException.class, () -> matrix.get(0, 0));
+    assertThrows(IllegalStateException.class, () -> matrix.setLong(1, 1, 2L));
+    assertThrows(IllegalStateException.class, () -> matrix.insertRow(0));
+    assertThrows(IllegalStateException.class, () -> matrix.deleteCol(0));
+    OffHeapMatrix<Long> open = new OffHeapMatrix<>(ElementType.LONG, 4, 4, 7L);
+    assertThrows(IllegalStateException.class, () -> open.equals(matrix));
+    assertThrows(IllegalStateException.class, () -> matrix.equals(open));
+    open.close();
+    matrix.close();
+  } // testClose()
+} // class OffHeapMatrixTest
@@ -0,0 +1,126 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Run the shared matrix tests against the builder of
+ * {@link PersistentMatrix}, and check that versions stay independent.
+ */
+class PersistentMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new PersistentMatrix<>(width, height, def).toBuilder();
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that every operation leaves the old version alone.
+   */
+  @Test
+  void testVersions() throws ArraySizeException {
+    PersistentMatrix<Integer> v0 = new PersistentMatrix<>(3, 2, 0);
+    PersistentMatrix<Integer> v1 = v0.set(1, 2, 5);
+    PersistentMatrix<Integer> v2 = v1.insertRow(0, new Integer[] {1, 2, 3});
+    PersistentMatrix<Integer> v3 = v2.deleteCol(1);
+    PersistentMatrix<Integer> v4 = v3.fillRegion(1, 0, 3, 1, 9);
+    PersistentMatrix<Integer> v5 = v4.insertCol(2).fillLine(0, 0, 1, 1, 3,
+        3, 4).deleteRow(1);
+    assertMatrixEquals(new Integer[][] {{0, 0, 0}, {0, 0, 0}},
+        v0.toBuilder(), "v0");
+    assertMatrixEquals(new Integer[][] {{0, 0, 0}, {0, 0, 5}},
+        v1.toBuilder(), "v1");
+    assertMatrixEquals(new Integer[][] {{1, 2, 3}, {0, 0, 0}, {0, 0, 5}},
+        v2.toBuilder(), "v2");
+    assertMatrixEquals(new Integer[][] {{1, 3}, {0, 0}, {0, 5}},
+        v3.toBuilder(), "v3");
+    assertMatrixEquals(new Integer[][] {{1, 3}, {9, 0}, {9, 5}},
+        v4.toBuilder(), "v4");
+    assertMatrixEquals(new Integer[][] {{4, 3, 0}, {9, 5, 4}},
+        v5.toBuilder(), "v5");
+    assertThrows(IndexOutOfBoundsException.class, () -> v1.set(2, 0, 1));
+    assertThrows(ArraySizeException.class,
+        () -> v1.insertCol(0, new Integer[] {1}));
+  } // testVersions()
+
+  /**
+   * Ensure that a builder does not change the versions it came from or
+   * the versions it has built.
+   */
+  @Test
+  void testBuilder() {
+    PersistentMatrix<Integer> base = new PersistentMatrix<>(40, 40, null);
+    PersistentMatrix.Builder<Integer> builder = base.toBuilder();
+    builder.fillRegion(0, 0, 40, 40, 1);
+    PersistentMatrix<Integer> ones = builder.build();
+    builder.set(39, 39, 2);
+    builder.deleteRow(0);
+    PersistentMatrix<Integer> later = builder.build();
+    builder.set(0, 0, null);
+    assertNull(base.get(39, 39), "base");
+    assertEquals(1, ones.get(39, 39), "first build");
+    assertEquals(39, later.height(), "second build");
+    assertEquals(2, later.get(38, 39), "second build");
+    assertEquals(1, later.get(0, 0), "second build");
+    assertNull(builder.get(0, 0), "builder");
+    assertEquals(ones, PersistentMatrix.copyOf(ones.toBuilder(), 0),
+        "copyOf");
+  } // testBuilder()
+
+  /**
+   * Keep a history of random edits and check every version against a
+   * clone of a MatrixV0 taken at the same time.
+   */
+  @Test
+  void testHistory() throws ArraySizeException {
+    Random random = new Random(207);
+    PersistentMatrix<Integer> current = new PersistentMatrix<>(50, 50, 0);
+    MatrixV0<Integer> expected = new MatrixV0<>(50, 50, 0);
+    List<PersistentMatrix<Integer>> versions = new ArrayList<>();
+    List<Matrix<Integer>> snapshots = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      int op = random.nextInt(10);
+      int row = random.nextInt(expected.height());
+      int col = random.nextInt(expected.width());
+      if (op == 0) {
+        current = current.insertRow(row);
+        expected.insertRow(row);
+      } else if (op == 1 && expected.width() > 1) {
+        current = current.deleteCol(col);
+        expected.deleteCol(col);
+      } else if (op == 2 && expected.height() > 1) {
+        current = current.deleteRow(row);
+        expected.deleteRow(row);
+      } else if (op == 3) {
+        Integer[] vals = new Integer[expected.height()];
+        for (int r = 0; r < vals.length; r++) {
+          vals[r] = random.nextInt(100);
+        } // for
+        current = current.insertCol(col, vals);
+        expected.insertCol(col, vals);
+      } else {
+        current = current.set(row, col, i);
+        expected.set(row, col, i);
+      } // if/else
+      versions.add(current);
+      @SuppressWarnings("unchecked")
+      Matrix<Integer> snapshot = expected.clone();
+      snapshots.add(snapshot);
+    } // for
+    for (int i = 0; i < versions.size(); i++) {
+      assertTrue(PersistentMatrix.copyOf(snapshots.get(i), 0)
+          .equals(versions.get(i)), "version " + i);
+      assertEquals(snapshots.get(i).hashCode(), versions.get(i).hashCode(),
+          "hash of version " + i);
+    } // for
+    assertEquals(current, current.compact(), "compact");
+  } // testHistory()
+} // class PersistentMatrixTest
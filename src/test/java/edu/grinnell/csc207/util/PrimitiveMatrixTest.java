@@ -0,0 +1,99 @@
+package edu.grinnell.csc207.util;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertFigure;
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link DoubleMatrix} and {@link LongMatrix}.
+ */
+class PrimitiveMatrixTest {
+  /**
+   * Ensure that a matrix of doubles behaves like a Matrix of Double.
+   */
+  @Test
+  void testDoubles() throws ArraySizeException {
+    DoubleMatrix matrix = new DoubleMatrix(2, 2, 0.5);
+    matrix.setDouble(0, 0, 1.5);
+    matrix.insertCol(1, new Double[] {2.0, 3.0});
+    matrix.insertRow(0);
+    assertMatrixEquals(
+        new Double[][] {{0.5, 0.5, 0.5}, {1.5, 2.0, 0.5}, {0.5, 3.0, 0.5}},
+        matrix, "after inserts");
+    assertEquals(3.0, matrix.getDouble(2, 1), "unboxed get");
+
+    MatrixV0<Double> boxed = new MatrixV0<>(3, 3, 0.5);
+    boxed.set(1, 0, 1.5);
+    boxed.set(1, 1, 2.0);
+    boxed.set(2, 1, 3.0);
+    assertEquals(boxed, matrix, "equal to boxed matrix");
+    assertEquals(boxed.hashCode(), matrix.hashCode(), "same hash code");
+    DoubleMatrix copy = matrix.clone();
+    copy.setDouble(0, 0, -0.0);
+    assertNotEquals(matrix, copy, "copy changed");
+    assertEquals(0.5, matrix.getDouble(0, 0), "original unchanged");
+  } // testDoubles()
+
+  /**
+   * Ensure that arithmetic on doubles works cell by cell and that
+   * comparison tells 0.0 from -0.0 but not one NaN from another.
+   */
+  @Test
+  void testDoubleArithmetic() {
+    DoubleMatrix matrix = new DoubleMatrix(17, 2, 1.0);
+    DoubleMatrix other = new DoubleMatrix(17, 2, 0.5);
+    matrix.add(other);
+    matrix.subtract(other);
+    matrix.subtract(other);
+    matrix.scale(-4.0);
+    assertEquals(new DoubleMatrix(17, 2, -2.0), matrix, "(1 + .5 - .5 - .5) * -4");
+    matrix.fillRegion(0, 0, 2, 17, 0.0);
+    DoubleMatrix zeros = matrix.clone();
+    zeros.setDouble(1, 16, -0.0);
+    assertNotEquals(matrix, zeros, "-0.0");
+    matrix.setDouble(0, 3, Double.NaN);
+    zeros.setDouble(1, 16, 0.0);
+    zeros.setDouble(0, 3, Double.longBitsToDouble(0x7ff8000000000001L));
+    assertEquals(matrix, zeros, "NaN");
+  } // testDoubleArithmetic()
+
+  /**
+   * Ensure that arithmetic on longs works cell by cell, past the range
+   * of ints, and only on matrices of the same size.
+   */
+  @Test
+  void testLongArithmetic() {
+    LongMatrix matrix = new LongMatrix(9, 3, 1L << 40);
+    LongMatrix other = new LongMatrix(9, 3, 3);
+    matrix.deleteCol(4);
+    other.deleteCol(0);
+    matrix.add(other);
+    matrix.subtract(other);
+    matrix.subtract(other);
+    matrix.scale(-2);
+    LongMatrix expected = new LongMatrix(8, 3, -2 * ((1L << 40) - 3));
+    assertEquals(expected, matrix, "(2^40 + 3 - 3 - 3) * -2");
+    assertThrows(IllegalArgumentException.class,
+        () -> matrix.add(new LongMatrix(8, 2)), "different heights");
+  } // testLongArithmetic()
+
+  /**
+   * Ensure that a matrix of longs can be printed.
+   */
+  @Test
+  void testLongs() {
+    LongMatrix matrix = new LongMatrix(2, 2);
+    matrix.setLong(0, 1, 12345678901L);
+    matrix.deleteRow(1);
+    assertEquals(12345678901L, matrix.getLong(0, 1), "unboxed get");
+    assertFigure("""
+        +-------------+-------------+
+        |      0      | 12345678901 |
+        +-------------+-------------+
+        """, matrix, "printed");
+  } // testLongs()
+} // class PrimitiveMatrixTest
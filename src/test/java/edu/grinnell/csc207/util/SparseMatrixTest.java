@@ -0,0 +1,93 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of {@link SparseMatrix}.
+ */
+class SparseMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new SparseMatrix<>(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that only cells that differ from the default are stored.
+   */
+  @Test
+  void testStoredCells() throws ArraySizeException {
+    SparseMatrix<String> matrix = new SparseMatrix<>(1000, 1000, "");
+    assertEquals(0, matrix.storedCells(), "new matrix");
+    matrix.set(3, 4, "a");
+    matrix.set(500, 999, "b");
+    matrix.set(7, 7, "");
+    assertEquals(2, matrix.storedCells(), "after sets");
+    matrix.insertRow(0);
+    matrix.insertCol(0, new String[1001]);
+    assertEquals(1003, matrix.storedCells(), "nulls are not the default");
+    matrix.deleteCol(0);
+    assertEquals(2, matrix.storedCells(), "after deleting the column");
+    assertEquals("a", matrix.get(4, 4), "shifted cell");
+    matrix.set(4, 4, "");
+    assertEquals(1, matrix.storedCells(), "after setting to the default");
+    matrix.fillRegion(0, 0, 1001, 1000, "c");
+    assertEquals(1001000, matrix.storedCells(), "after filling everything");
+    matrix.fillRegion(10, 0, 1001, 1000, "");
+    matrix.fillRegion(0, 2, 10, 1000, "");
+    matrix.fillRegion(1, 0, 10, 2, "");
+    assertEquals(2, matrix.storedCells(), "after clearing regions");
+  } // testStoredCells()
+
+  /**
+   * Ensure that null works as the default value.
+   */
+  @Test
+  void testNullDefault() {
+    SparseMatrix<Integer> matrix = new SparseMatrix<>(3, 2);
+    matrix.fillLine(0, 0, 1, 1, 2, 3, 5);
+    matrix.set(0, 0, null);
+    assertMatrixEquals(new Integer[][] {{null, null, null}, {null, 5, null}},
+        matrix, "with nulls");
+    assertEquals(1, matrix.storedCells(), "one stored cell");
+    MatrixV0<Integer> dense = new MatrixV0<>(3, 2);
+    dense.set(1, 1, 5);
+    assertEquals(dense.hashCode(), matrix.hashCode(), "same hash as MatrixV0");
+  } // testNullDefault()
+
+  /**
+   * Ensure that many sets and clears in a few rows, which fill and empty
+   * the tables repeatedly, match MatrixV0.
+   */
+  @Test
+  void testChurn() {
+    Random random = new Random(207);
+    SparseMatrix<Integer> matrix = new SparseMatrix<>(300, 3, 0);
+    MatrixV0<Integer> expected = new MatrixV0<>(300, 3, 0);
+    for (int step = 0; step < 20000; step++) {
+      int row = random.nextInt(3);
+      int col = random.nextInt(300);
+      int val = random.nextInt(3) == 0 ? step : 0;
+      matrix.set(row, col, val);
+      expected.set(row, col, val);
+      if (step % 5000 == 0) {
+        matrix.deleteCol(col);
+        expected.deleteCol(col);
+        matrix.insertCol(col);
+        expected.insertCol(col);
+      } // if
+    } // for
+    assertEquals(expected, matrix, "same as MatrixV0");
+    int stored = 0;
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 300; col++) {
+        stored += (expected.get(row, col) != 0) ? 1 : 0;
+      } // for col
+    } // for row
+    assertEquals(stored, matrix.storedCells(), "stored cells");
+    assertEquals(expected, matrix.clone(), "clone");
+  } // testChurn()
+} // class SparseMatrixTest
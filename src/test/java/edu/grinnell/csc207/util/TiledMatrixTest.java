@@ -0,0 +1,151 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests of {@link TiledMatrix}.
+ */
+class TiledMatrixTest extends MatrixContractTest {
+  @Override
+  Matrix<Integer> newMatrix(int width, int height, Integer def) {
+    return new TiledMatrix<>(width, height, def);
+  } // newMatrix(int, int, Integer)
+
+  /**
+   * Ensure that tiles switch between constant, runs, and dense as
+   * cells change, and that filling whole tiles makes them constant.
+   */
+  @Test
+  void testTileKinds() {
+    TiledMatrix<String> matrix = new TiledMatrix<>(256, 128, "");
+    assertArrayEquals(new int[] {8, 0, 0}, matrix.tileCounts(), "new matrix");
+    matrix.set(3, 4, "a");
+    assertArrayEquals(new int[] {7, 1, 0}, matrix.tileCounts(), "one set");
+    for (int col = 0; col < 64; col += 2) {
+      for (int row = 0; row < 64; row++) {
+        matrix.set(row, col, "b");
+      } // for row
+    } // for col
+    assertArrayEquals(new int[] {7, 0, 1}, matrix.tileCounts(), "stripes");
+    matrix.fillRegion(0, 0, 64, 32, "c");
+    assertArrayEquals(new int[] {7, 0, 1}, matrix.tileCounts(),
+        "half a tile");
+    for (String val : new String[] {"d", "e"}) {
+      for (int row = 0; row < 64; row++) {
+        for (int col = 0; col < 64; col++) {
+          matrix.set(row, col, val);
+        } // for col
+      } // for row
+    } // for val
+    assertArrayEquals(new int[] {8, 0, 0}, matrix.tileCounts(),
+        "after enough sets to check");
+    matrix.fillRegion(0, 0, 128, 256, "d");
+    matrix.fillRegion(10, 10, 20, 200, "e");
+    assertArrayEquals(new int[] {4, 4, 0}, matrix.tileCounts(), "regions");
+    assertEquals("e", matrix.get(19, 199), "inside the region");
+    assertEquals("d", matrix.get(20, 199), "below the region");
+    assertEquals(6, matrix.distinctValues(), "every value stays");
+  } // testTileKinds()
+
+  /**
+   * Ensure that equal values share the instance first stored.
+   */
+  @Test
+  void testInterning() {
+    TiledMatrix<String> matrix = new TiledMatrix<>(3, 3, "");
+    String first = new String("x");
+    matrix.set(0, 0, first);
+    matrix.set(2, 2, new String("x"));
+    assertSame(first, matrix.get(2, 2), "interned value");
+    assertEquals(2, matrix.distinctValues(), "default and x");
+  } // testInterning()
+
+  /**
+   * Ensure that random edits match a MatrixV0. The matrix grows, so
+   * bands and stripes split along the way.
+   */
+  @Test
+  void testRandomEdits() throws ArraySizeException {
+    Random random = new Random(207);
+    TiledMatrix<Integer> tiled = new TiledMatrix<>(150, 70, 0);
+    MatrixV0<Integer> expected = new MatrixV0<>(150, 70, 0);
+    for (int step = 0; step < 3000; step++) {
+      int height = expected.height();
+      int width = expected.width();
+      int val = random.nextInt(4);
+      switch (random.nextInt(10)) {
+        case 0:
+        case 5:
+          int row = random.nextInt(height + 1);
+          tiled.insertRow(row);
+          expected.insertRow(row);
+          break;
+        case 1:
+          if (height > 1) {
+            row = random.nextInt(height);
+            tiled.deleteRow(row);
+            expected.deleteRow(row);
+          } // if
+          break;
+        case 2:
+        case 6:
+          int col = random.nextInt(width + 1);
+          Integer[] vals = new Integer[height];
+          Arrays.fill(vals, val);
+          tiled.insertCol(col, vals);
+          expected.insertCol(col, vals);
+          break;
+        case 3:
+          if (width > 1) {
+            col = random.nextInt(width);
+            tiled.deleteCol(col);
+            expected.deleteCol(col);
+          } // if
+          break;
+        case 4:
+          int top = random.nextInt(height);
+          int left = random.nextInt(width);
+          int bottom = top + random.nextInt(height - top + 1);
+          int right = left + random.nextInt(width - left + 1);
+          tiled.fillRegion(top, left, bottom, right, val);
+          expected.fillRegion(top, left, bottom, right, val);
+          break;
+        default:
+          row = random.nextInt(height);
+          col = random.nextInt(width);
+          tiled.set(row, col, val);
+          expected.set(row, col, val);
+          break;
+      } // switch
+    } // for
+    assertEquals(expected, tiled, "after random edits");
+    assertEquals(expected.hashCode(), tiled.hashCode(), "same hash");
+  } // testRandomEdits()
+
+  /**
+   * Ensure that a matrix can shrink to nothing and grow again.
+   */
+  @Test
+  void testEmpty() throws ArraySizeException {
+    TiledMatrix<Integer> matrix = new TiledMatrix<>(2, 200, 0);
+    for (int row = 0; row < 200; row++) {
+      matrix.deleteRow(0);
+    } // for
+    matrix.deleteCol(0);
+    matrix.deleteCol(0);
+    assertEquals(0, matrix.height(), "no rows");
+    assertEquals(0, matrix.width(), "no columns");
+    matrix.insertCol(0);
+    matrix.insertRow(0, new Integer[] {4});
+    matrix.insertRow(0);
+    assertMatrixEquals(new Integer[][] {{0}, {4}}, matrix, "regrown");
+  } // testEmpty()
+} // class TiledMatrixTest